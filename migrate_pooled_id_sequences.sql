@@ -0,0 +1,47 @@
+-- ============================================
+-- 高频运行时实体主键迁移：IDENTITY -> pooled-lo 序列表
+-- 创建时间：2026-10-19
+--
+-- MySQL 没有原生序列，Hibernate 使用 <table>_seq 单行表模拟序列。
+-- pooled-lo 优化器读取 next_val 作为本批次下界，一次预留 allocationSize(50) 个 id，
+-- 因此 next_val 必须初始化为现有最大 id + 1，否则新插入会与历史数据主键冲突。
+-- 在已有数据的库上启动新版本之前执行一次；空库可以不执行（ddl-auto=update 会自动建表）。
+-- 原有 AUTO_INCREMENT 列属性保留即可，Hibernate 插入时会显式给出 id。
+-- ============================================
+
+CREATE TABLE IF NOT EXISTS assignment_seq (next_val BIGINT) ENGINE = InnoDB;
+DELETE FROM assignment_seq;
+INSERT INTO assignment_seq (next_val) SELECT COALESCE(MAX(id), 0) + 1 FROM assignment;
+
+CREATE TABLE IF NOT EXISTS assignment_nodes_seq (next_val BIGINT) ENGINE = InnoDB;
+DELETE FROM assignment_nodes_seq;
+INSERT INTO assignment_nodes_seq (next_val) SELECT COALESCE(MAX(id), 0) + 1 FROM assignment_nodes;
+
+CREATE TABLE IF NOT EXISTS assignment_leg_seq (next_val BIGINT) ENGINE = InnoDB;
+DELETE FROM assignment_leg_seq;
+INSERT INTO assignment_leg_seq (next_val) SELECT COALESCE(MAX(id), 0) + 1 FROM assignment_leg;
+
+CREATE TABLE IF NOT EXISTS shipment_seq (next_val BIGINT) ENGINE = InnoDB;
+DELETE FROM shipment_seq;
+INSERT INTO shipment_seq (next_val) SELECT COALESCE(MAX(id), 0) + 1 FROM shipment;
+
+CREATE TABLE IF NOT EXISTS shipment_item_seq (next_val BIGINT) ENGINE = InnoDB;
+DELETE FROM shipment_item_seq;
+INSERT INTO shipment_item_seq (next_val) SELECT COALESCE(MAX(id), 0) + 1 FROM shipment_item;
+
+CREATE TABLE IF NOT EXISTS route_seq (next_val BIGINT) ENGINE = InnoDB;
+DELETE FROM route_seq;
+INSERT INTO route_seq (next_val) SELECT COALESCE(MAX(id), 0) + 1 FROM route;
+
+CREATE TABLE IF NOT EXISTS dispatch_comparison_cost_snapshot_seq (next_val BIGINT) ENGINE = InnoDB;
+DELETE FROM dispatch_comparison_cost_snapshot_seq;
+INSERT INTO dispatch_comparison_cost_snapshot_seq (next_val)
+SELECT COALESCE(MAX(id), 0) + 1 FROM dispatch_comparison_cost_snapshot;
+
+CREATE TABLE IF NOT EXISTS poi_seq (next_val BIGINT) ENGINE = InnoDB;
+DELETE FROM poi_seq;
+INSERT INTO poi_seq (next_val) SELECT COALESCE(MAX(id), 0) + 1 FROM poi;
+
+CREATE TABLE IF NOT EXISTS vehicle_seq (next_val BIGINT) ENGINE = InnoDB;
+DELETE FROM vehicle_seq;
+INSERT INTO vehicle_seq (next_val) SELECT COALESCE(MAX(id), 0) + 1 FROM vehicle;
@@ -0,0 +1,82 @@
+package org.example.roadsimulation.core.geo;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一对多 Haversine：逐对调用原服务写法（atan2）/ 批量标量 / 批量 SIMD 对比
+ *
+ * 运行：mvn -Pjmh test-compile exec:exec
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Thread)
+public class HaversineBatchBenchmark {
+
+    @Param({"64", "1024", "8192"})
+    private int size;
+
+    private double[] latDeg;
+    private double[] lonDeg;
+    private HaversineBatch.Points points;
+    private double[] out;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        latDeg = new double[size];
+        lonDeg = new double[size];
+        for (int i = 0; i < size; i++) {
+            latDeg[i] = 20.0 + random.nextDouble() * 25.0;
+            lonDeg[i] = 100.0 + random.nextDouble() * 25.0;
+        }
+        points = HaversineBatch.Points.of(latDeg, lonDeg);
+        out = new double[size];
+    }
+
+    @Benchmark
+    public double[] perPairLegacy() {
+        for (int i = 0; i < size; i++) {
+            out[i] = legacyHaversine(31.23, 121.47, latDeg[i], lonDeg[i]);
+        }
+        return out;
+    }
+
+    @Benchmark
+    public double[] batchScalar() {
+        HaversineBatch.oneToManyScalar(31.23, 121.47, points, out);
+        return out;
+    }
+
+    @Benchmark
+    public double[] batchDispatched() {
+        HaversineBatch.oneToMany(31.23, 121.47, points, out, 0);
+        return out;
+    }
+
+    /** 与 RouteSequenceCostEstimator / BatchDirectVehicleAssignmentService 相同的逐对写法 */
+    private static double legacyHaversine(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+        return 6371.0 * c;
+    }
+}
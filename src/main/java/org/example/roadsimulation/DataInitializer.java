@@ -7,6 +7,8 @@ import jakarta.persistence.EntityNotFoundException;
 import lombok.Getter;
 import lombok.Setter;
 import org.example.roadsimulation.core.SimulationContext;
+import org.example.roadsimulation.core.SimulationRandom;
+import org.example.roadsimulation.core.logging.HotPathLogAggregator;
 import org.example.roadsimulation.dto.*;
 import org.example.roadsimulation.dto.AssignmentStatusDTO;
 import org.example.roadsimulation.entity.*;
@@ -144,12 +146,20 @@ public class DataInitializer implements CommandLineRunner {
 
     // 当前轮次
     private int currentLoopCount;
-    private final Random random = new Random();
     private boolean startupProcessingShipmentsGenerated = false;
 
     @Autowired
     private org.example.roadsimulation.optimizer.OptimizerBridge optimizerBridge;
 
+    @Autowired
+    private SimulationRandom simulationRandom;
+
+    @Autowired
+    private VehicleStatusTransitions vehicleStatusTransitions;
+
+    @Autowired
+    private HotPathLogAggregator hotPathLog;
+
     @Autowired
     public DataInitializer(EnrollmentRepository enrollmentRepository,
                            GoodsRepository goodsRepository,
@@ -228,6 +238,8 @@ public class DataInitializer implements CommandLineRunner {
         System.out.println("当前循环: " + loopCount);
         System.out.println("模拟时间: " + (loopCount * 30 / 60.0) + " 小时");
         System.out.println("有货物POI数量: " + trueCount + "/" + maxTrueCount);
+        System.out.println("超时队列: " + poiShipmentManager.getPendingExpiryCount()
+                + " 条等待, 累计超时清理 " + poiShipmentManager.getExpiredShipmentTotal() + " 条");
 
         if (trueCount > 0) {
             System.out.println("有货物POI列表:");
@@ -345,8 +357,8 @@ public class DataInitializer implements CommandLineRunner {
      * 当前工序产出 -> 下一工序输入。
      */
     public Optional<ProcessingChainSegmentSelection> getRandomProcessingChainSegmentSelection() {
-        List<ProcessingChain> candidateChains = processingChainRepository.findAll().stream()
-                .filter(chain -> chain.getStatus() == ProcessingChain.ChainStatus.ACTIVE)
+        List<ProcessingChain> candidateChains = processingChainRepository
+                .findByStatusWithStages(ProcessingChain.ChainStatus.ACTIVE).stream()
                 .filter(chain -> chain.getStages() != null && chain.getStages().size() >= 2)
                 .toList();
 
@@ -355,9 +367,9 @@ public class DataInitializer implements CommandLineRunner {
             return Optional.empty();
         }
 
-        ProcessingChain selectedChain = candidateChains.get(random.nextInt(candidateChains.size()));
+        ProcessingChain selectedChain = candidateChains.get(random().nextInt(candidateChains.size()));
         List<ProcessingStage> stages = selectedChain.getStages();
-        int startIndex = random.nextInt(stages.size() - 1);
+        int startIndex = random().nextInt(stages.size() - 1);
 
         ProcessingStage fromStage = stages.get(startIndex);
         ProcessingStage toStage = stages.get(startIndex + 1);
@@ -586,7 +598,7 @@ public class DataInitializer implements CommandLineRunner {
                 trueProbability = poiShipmentManager.getCurrentProbability();
 
                 // 随机获取终点POI
-                POI endPOI = dynamicTargetPois.get(random.nextInt(dynamicTargetPois.size()));
+                POI endPOI = dynamicTargetPois.get(random().nextInt(dynamicTargetPois.size()));
                 Integer generateQuantity = generateRandomQuantity();
 
                 POI managedStartPOI = poiRepository.findById(poi.getId())
@@ -684,8 +696,8 @@ public class DataInitializer implements CommandLineRunner {
                 List<POI> targetPois = getFilterdPOIByType(selection.getToPoiType());
                 if (sourcePois.isEmpty() || targetPois.isEmpty()) continue;
 
-                POI detachedStartPOI = sourcePois.get(random.nextInt(sourcePois.size()));
-                POI detachedEndPOI = targetPois.get(random.nextInt(targetPois.size()));
+                POI detachedStartPOI = sourcePois.get(random().nextInt(sourcePois.size()));
+                POI detachedEndPOI = targetPois.get(random().nextInt(targetPois.size()));
 
                 // 【架构级修复】：立刻将“游离态”洗白为“受管态(Managed)”，防止 Hibernate 报错
                 POI managedStartPOI = poiRepository.findById(detachedStartPOI.getId())
@@ -772,7 +784,7 @@ public class DataInitializer implements CommandLineRunner {
             return result;
         }
 
-        Collections.shuffle(viablePlans, random);
+        SimulationRandom.shuffle(viablePlans, random());
         List<StartupShipmentPlan> selectedPlans = new ArrayList<>();
         int firstPassCount = Math.min(targetCount, viablePlans.size());
         selectedPlans.addAll(viablePlans.subList(0, firstPassCount));
@@ -783,7 +795,7 @@ public class DataInitializer implements CommandLineRunner {
         }
 
         while (selectedPlans.size() < targetCount) {
-            selectedPlans.add(viablePlans.get(random.nextInt(viablePlans.size())));
+            selectedPlans.add(viablePlans.get(random().nextInt(viablePlans.size())));
         }
 
         int successCount = 0;
@@ -840,12 +852,12 @@ public class DataInitializer implements CommandLineRunner {
             return result;
         }
 
-        Collections.shuffle(viablePlans, random);
+        SimulationRandom.shuffle(viablePlans, random());
         List<StartupShipmentPlan> selectedPlans = new ArrayList<>();
         int firstPassCount = Math.min(targetCount, viablePlans.size());
         selectedPlans.addAll(viablePlans.subList(0, firstPassCount));
         while (selectedPlans.size() < targetCount) {
-            selectedPlans.add(viablePlans.get(random.nextInt(viablePlans.size())));
+            selectedPlans.add(viablePlans.get(random().nextInt(viablePlans.size())));
         }
 
         for (StartupShipmentPlan plan : selectedPlans) {
@@ -973,7 +985,7 @@ public class DataInitializer implements CommandLineRunner {
 
     private List<StartupShipmentPlan> buildStartupShipmentPlans(List<String> failureReasons) {
         List<StartupShipmentPlan> plans = new ArrayList<>();
-        List<ProcessingChain> activeChains = processingChainRepository.findByStatus(ProcessingChain.ChainStatus.ACTIVE);
+        List<ProcessingChain> activeChains = processingChainRepository.findByStatusWithStages(ProcessingChain.ChainStatus.ACTIVE);
         if (activeChains.isEmpty()) {
             addStartupFailureReason(failureReasons, "no ACTIVE processing chains");
         }
@@ -1472,7 +1484,7 @@ public class DataInitializer implements CommandLineRunner {
         if (maxQuantity <= minQuantity) {
             return Math.max(1, minQuantity);
         }
-        return random.nextInt(maxQuantity - minQuantity + 1) + minQuantity;
+        return random().nextInt(maxQuantity - minQuantity + 1) + minQuantity;
     }
 
     private static class StartupShipmentPlan {
@@ -1530,9 +1542,8 @@ public class DataInitializer implements CommandLineRunner {
      * 伪随机判断逻辑
      */
     private boolean pseudoRandomJudgement(POI poi) {
-        Random random = new Random();
         // 基于概率的简单判断
-        if (random.nextDouble() < trueProbability) {
+        if (random().nextDouble() < trueProbability) {
             // 可以在这里添加更复杂的判断逻辑
             // 比如基于POI的属性、历史数据等
             // ToDo
@@ -1640,12 +1651,16 @@ public class DataInitializer implements CommandLineRunner {
         System.out.println("===================================");
     }
 
+    /** 运单生成子系统的随机流（随运行种子重置，只在主循环线程中使用） */
+    private SplittableRandom random() {
+        return simulationRandom.subsystem("shipment-generation");
+    }
+
     /**
      * 生成随机货物数量
      */
     private Integer generateRandomQuantity() {
-        Random random = new Random();
-        return random.nextInt(25) + 10; // 100-600之间的随机数
+        return random().nextInt(25) + 10; // 100-600之间的随机数
     }
 
     // 起点与终点之间通过 route 实现的关系建立
@@ -1887,7 +1902,7 @@ public class DataInitializer implements CommandLineRunner {
     private String generateUniqueRefNo(String sku) {
         // 生成唯一refNo，例如: CEMENT_20240101_123456
         String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
-        String random = String.format("%06d", new Random().nextInt(1000000));
+        String random = String.format("%06d", random().nextInt(1000000));
         return sku + "_" + timestamp + "_" + random;
     }
 
@@ -2480,10 +2495,10 @@ public class DataInitializer implements CommandLineRunner {
         }
 
         // 1. 捞取所有待拼车的尾货，并按重量降序排序 (FFD 算法的核心第一步)
-        List<ShipmentItem> pendingItems = shipmentItemRepository.findAll().stream()
-                .filter(item -> item.getStatus() == ShipmentItem.ShipmentItemStatus.NOT_ASSIGNED)
-                .sorted((a, b) -> Double.compare(b.getWeight(), a.getWeight())) // 挑大的先运
-                .collect(Collectors.toList());
+        // 过滤与排序下推到 SQL，挑大的先运
+        List<ShipmentItem> pendingItems = new ArrayList<>(
+                shipmentItemRepository.findByStatusWithShipmentOrderByWeightDesc(
+                        ShipmentItem.ShipmentItemStatus.NOT_ASSIGNED));
 
         if (pendingItems.isEmpty()) {
             System.out.println("[VRP 大脑] 待接单池为空，进入休眠。");
@@ -2499,12 +2514,26 @@ public class DataInitializer implements CommandLineRunner {
 
         System.out.printf("[VRP 大脑] 发现 %d 个待拼订单，%d 辆空闲车辆。开始拼载计算...%n", pendingItems.size(), vrpVehicles.size());
 
-        // 3. 遍历每辆车，进行贪心拼载
+        // 3. 建立候选索引：按重量位次 + 起点网格，车辆只扫描装得下且在锚点范围内的运单
+        OriginalVrpCandidateIndex candidateIndex = OriginalVrpCandidateIndex.build(
+                pendingItems, originalVrpDispatchPolicy.getMaxAnchorDistanceKm());
+        for (ShipmentItem item : candidateIndex.getRejectedItems()) {
+            if (hotPathLog.record(HotPathLogAggregator.ORIGINAL_VRP, "SKIP_MISSING_POI")) {
+                logger.info("[ORIGINAL_VRP] Skip item {}: missing shipment, origin/destination POI or coordinates.",
+                        item.getId());
+            }
+        }
+
+        // 4. 遍历每辆车，进行贪心拼载
         for (Vehicle vehicle : vrpVehicles) {
+            if (candidateIndex.isEmpty()) {
+                break;
+            }
             double currentVehicleCapacity = vehicle.getMaxLoadCapacity() != null ? vehicle.getMaxLoadCapacity() : 0.0;
             double currentVehicleVolume = vehicle.getCargoVolume() != null ? vehicle.getCargoVolume() : 0.0;
             if (currentVehicleCapacity <= 0 || currentVehicleVolume <= 0) continue;
             List<ShipmentItem> packedItems = new ArrayList<>();
+            List<OriginalVrpCandidateIndex.Candidate> packedCandidates = new ArrayList<>();
             List<POI> pickupPois = new ArrayList<>();
             List<POI> dropoffPois = new ArrayList<>();
 
@@ -2515,67 +2544,40 @@ public class DataInitializer implements CommandLineRunner {
             double addedExtraMileage = 0.0;
             double addedWeight = 0.0;
 
-            for (ShipmentItem item : pendingItems) {
-
-                // 【第一关】：物理容量硬约束 (装不下直接跳过)
-                double itemWeight = item.getWeight() != null ? item.getWeight() : 0.0;
-                double itemVolume = item.getVolume() != null ? item.getVolume() : 0.0;
-
-                if (itemWeight > remainingCapacity || itemVolume > remainingVolume) {
-                    logger.info("[ORIGINAL_VRP] Skip item {} for vehicle {}: capacity exceeded. itemWeight={}, itemVolume={}, remainingWeight={}, remainingVolume={}",
-                            item.getId(), vehicle.getLicensePlate(), itemWeight, itemVolume, remainingCapacity, remainingVolume);
-                    continue;
-                }
-
-                if (item.getShipment() == null) {
-                    logger.info("[ORIGINAL_VRP] Skip item {} for vehicle {}: missing shipment.",
-                            item.getId(), vehicle.getLicensePlate());
-                    continue;
-                }
+            // 【第一关】物理容量硬约束 与 【第二关】锚点距离粗筛 由索引游标完成：
+            // 只返回装得下、且起点距首个装货点不超过 maxAnchorDistanceKm 的运单，顺序与全量扫描一致
+            OriginalVrpCandidateIndex.Cursor cursor = candidateIndex.cursor();
+            OriginalVrpCandidateIndex.Candidate candidate;
+            while ((candidate = cursor.next(remainingCapacity, remainingVolume)) != null) {
+                ShipmentItem item = candidate.item();
+                double itemWeight = candidate.weight();
+                double itemVolume = candidate.volume();
                 POI itemOrigin = item.getShipment().getOriginPOI();
                 POI itemDest = item.getShipment().getDestPOI();
-                if (itemOrigin == null || itemDest == null) {
-                    logger.info("[ORIGINAL_VRP] Skip item {} for vehicle {}: missing origin or destination POI.",
-                            item.getId(), vehicle.getLicensePlate());
-                    continue;
-                }
-
-                // 【第二关】：空间与绕路粗筛 (防走火入魔)
-                // 如果新增货源离首个装货点过远，直接拒绝
-                if (!pickupPois.isEmpty()) {
-                    POI anchorPoi = pickupPois.get(0); // 锚点：首个装货点
-                    double distToAnchor = calculateHaversineDistance(
-                            anchorPoi.getLatitude(), anchorPoi.getLongitude(),
-                            itemOrigin.getLatitude(), itemOrigin.getLongitude());
-
-                    if (distToAnchor > originalVrpDispatchPolicy.getMaxAnchorDistanceKm()) {
-                        logger.info("[ORIGINAL_VRP] Skip item {} for vehicle {}: anchor distance {}km exceeds {}km.",
-                                item.getId(),
-                                vehicle.getLicensePlate(),
-                                String.format("%.2f", distToAnchor),
-                                originalVrpDispatchPolicy.getMaxAnchorDistanceKm());
-                        continue;
-                    }
-                }
 
                 // 【第三关】：边际成本精算 (调用预估器)
                 // 模拟加入这个订单后的新增里程和成本
                 double simulatedDeltaMileage = 0.0;
 
                 if (pickupPois.isEmpty()) {
-                    simulatedDeltaMileage = calculateHaversineDistance(itemOrigin.getLatitude(), itemOrigin.getLongitude(), itemDest.getLatitude(), itemDest.getLongitude());
+                    simulatedDeltaMileage = calculateHaversineDistance(
+                            candidate.originLat(), candidate.originLon(), candidate.destLat(), candidate.destLon());
                 } else {
                     // LIFO 模式下的断点永远在 "最新装货点" 和 "最新卸货点" 之间
-                    POI lastPickup = pickupPois.get(pickupPois.size() - 1);
-                    POI firstDropoff = dropoffPois.get(0);
+                    OriginalVrpCandidateIndex.Candidate lastPickup = packedCandidates.get(packedCandidates.size() - 1);
+                    OriginalVrpCandidateIndex.Candidate firstDropoff = lastPickup;
 
                     // 旧距离： A装 -> A卸
-                    double oldBridge = calculateHaversineDistance(lastPickup.getLatitude(), lastPickup.getLongitude(), firstDropoff.getLatitude(), firstDropoff.getLongitude());
+                    double oldBridge = calculateHaversineDistance(
+                            lastPickup.originLat(), lastPickup.originLon(), firstDropoff.destLat(), firstDropoff.destLon());
 
                     // 新距离： A装 -> B装 -> B卸 -> A卸
-                    double newBridge = calculateHaversineDistance(lastPickup.getLatitude(), lastPickup.getLongitude(), itemOrigin.getLatitude(), itemOrigin.getLongitude())
-                            + calculateHaversineDistance(itemOrigin.getLatitude(), itemOrigin.getLongitude(), itemDest.getLatitude(), itemDest.getLongitude())
-                            + calculateHaversineDistance(itemDest.getLatitude(), itemDest.getLongitude(), firstDropoff.getLatitude(), firstDropoff.getLongitude());
+                    double newBridge = calculateHaversineDistance(
+                            lastPickup.originLat(), lastPickup.originLon(), candidate.originLat(), candidate.originLon())
+                            + calculateHaversineDistance(
+                            candidate.originLat(), candidate.originLon(), candidate.destLat(), candidate.destLon())
+                            + calculateHaversineDistance(
+                            candidate.destLat(), candidate.destLon(), firstDropoff.destLat(), firstDropoff.destLon());
 
                     // 绕路距离就是新旧距离之差
                     simulatedDeltaMileage = newBridge - oldBridge;
@@ -2584,11 +2586,14 @@ public class DataInitializer implements CommandLineRunner {
 
                 if (!packedItems.isEmpty()
                         && !originalVrpDispatchPolicy.isWorthAdding(item, simulatedDeltaMileage)) {
-                    logger.info("[ORIGINAL_VRP] Skip item {} for vehicle {}: added tons per extra km {} is below threshold {}.",
-                            item.getId(),
-                            vehicle.getLicensePlate(),
-                            String.format("%.4f", originalVrpDispatchPolicy.calculateAddedTonsPerExtraKm(item, simulatedDeltaMileage)),
-                            originalVrpDispatchPolicy.getMinAddedTonsPerExtraKm());
+                    if (hotPathLog.record(HotPathLogAggregator.ORIGINAL_VRP, "SKIP_TONS_PER_KM")
+                            && logger.isInfoEnabled()) {
+                        logger.info("[ORIGINAL_VRP] Skip item {} for vehicle {}: added tons per extra km {} is below threshold {}.",
+                                item.getId(),
+                                vehicle.getLicensePlate(),
+                                String.format("%.4f", originalVrpDispatchPolicy.calculateAddedTonsPerExtraKm(item, simulatedDeltaMileage)),
+                                originalVrpDispatchPolicy.getMinAddedTonsPerExtraKm());
+                    }
                     continue;
                 }
 
@@ -2600,20 +2605,25 @@ public class DataInitializer implements CommandLineRunner {
                         item.getWeight() * simulatedDeltaMileage, 0.0, 0.0, 0.0);
 
                 if (!originalVrpDispatchPolicy.acceptsMarginalCost(marginalCost)) {
-                    logger.info("[ORIGINAL_VRP] Skip item {} for vehicle {}: marginalCost {} exceeds threshold {}.",
-                            item.getId(),
-                            vehicle.getLicensePlate(),
-                            marginalCost,
-                            originalVrpDispatchPolicy.getMaxMarginalCost());
+                    if (hotPathLog.record(HotPathLogAggregator.ORIGINAL_VRP, "SKIP_MARGINAL_COST")) {
+                        logger.info("[ORIGINAL_VRP] Skip item {} for vehicle {}: marginalCost {} exceeds threshold {}.",
+                                item.getId(),
+                                vehicle.getLicensePlate(),
+                                marginalCost,
+                                originalVrpDispatchPolicy.getMaxMarginalCost());
+                    }
                     continue;
                 }
 
                 if (!packedItems.isEmpty()) {
                     addedExtraMileage += originalVrpDispatchPolicy.effectiveExtraMileageKm(simulatedDeltaMileage);
                     addedWeight += itemWeight;
+                } else {
+                    cursor.anchor(candidate);
                 }
                 acceptedMileage += simulatedDeltaMileage;
                 packedItems.add(item);
+                packedCandidates.add(candidate);
                 pickupPois.add(itemOrigin);
                 dropoffPois.add(0, itemDest);
 
@@ -2631,6 +2641,7 @@ public class DataInitializer implements CommandLineRunner {
                         .mapToDouble(packedItem -> packedItem.getVolume() != null ? packedItem.getVolume() : 0.0)
                         .sum();
                 if (!originalVrpDispatchPolicy.meetsMinLoadFactor(vehicle, packedItems)) {
+                    hotPathLog.record(HotPathLogAggregator.ORIGINAL_VRP, "REJECT_LOAD_FACTOR");
                     logger.info("[ORIGINAL_VRP] Reject vehicle {} pack: final load factor {} is below threshold {}. items={}, totalWeight={}, totalVolume={}",
                             vehicle.getLicensePlate(),
                             String.format("%.4f", finalLoadFactor),
@@ -2640,7 +2651,8 @@ public class DataInitializer implements CommandLineRunner {
                             totalPackedVolume);
                     continue;
                 }
-                pendingItems.removeAll(packedItems);
+                candidateIndex.removeAll(packedCandidates);
+                hotPathLog.record(HotPathLogAggregator.ORIGINAL_VRP, "DISPATCH");
                 logger.info("[ORIGINAL_VRP] Dispatch vehicle {}: items={}, loadFactor={}, totalWeight={}, totalVolume={}, acceptedMileageKm={}, addedExtraMileageKm={}, addedTonsPerKm={}, simulatedCost={}",
                         vehicle.getLicensePlate(),
                         packedItems.size(),
@@ -3038,7 +3050,7 @@ public class DataInitializer implements CommandLineRunner {
 
     @Transactional
     public void deleteRelationBetweenPOIAndGoods(POI startPOI, Vehicle vehicle) {
-        POI freshStartPOI = poiRepository.findById(startPOI.getId())
+        POI freshStartPOI = poiRepository.findByIdWithEnrollments(startPOI.getId())
                 .orElseThrow(() -> new RuntimeException("POI not found: " + startPOI.getId()));
 
         List<Enrollment> goalEnrollment = new ArrayList<>(freshStartPOI.getEnrollments());
@@ -3083,7 +3095,8 @@ public class DataInitializer implements CommandLineRunner {
 
                                         // 如果没有其他进行中的任务，重置状态
                                         if (!hasOtherActiveAssignments) {
-                                            assignedVehicle.transitionToStatus(Vehicle.VehicleStatus.IDLE, currentSimTimeOrNow(), Duration.ZERO);
+                                            vehicleStatusTransitions.transition(assignedVehicle, assignment.getId(),
+                                                    Vehicle.VehicleStatus.IDLE, currentSimTimeOrNow(), Duration.ZERO);
                                             assignedVehicle.setCurrentPOI(endPOI);
                                             assignedVehicle.setCurrentLongitude(endPOI.getLongitude());
                                             assignedVehicle.setCurrentLatitude(endPOI.getLatitude());
@@ -3221,7 +3234,7 @@ public class DataInitializer implements CommandLineRunner {
     @Transactional
     public void processVehicleDelivery(POI startPOI, Vehicle vehicle, POI endPOI) {
         try {
-            POI freshStartPOI = poiRepository.findById(startPOI.getId())
+            POI freshStartPOI = poiRepository.findByIdWithEnrollments(startPOI.getId())
                     .orElseThrow(() -> new RuntimeException("POI not found: " + startPOI.getId()));
 
             List<Enrollment> goalEnrollment = new ArrayList<>(freshStartPOI.getEnrollments());
@@ -1,9 +1,14 @@
 package org.example.roadsimulation;
 
+import org.example.roadsimulation.core.SimulationRandom;
 import org.example.roadsimulation.entity.*;
 import org.example.roadsimulation.repository.*;
 import jakarta.persistence.EntityManager;
+import org.example.roadsimulation.service.ProcessingChainDag;
+import org.example.roadsimulation.service.ProcessingChainServiceV2;
+import org.example.roadsimulation.service.ShipmentProgressCounters;
 import org.example.roadsimulation.service.TransportLifecycleService;
+import org.example.roadsimulation.service.VehicleStatusTransitions;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.PlatformTransactionManager;
@@ -12,9 +17,9 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.ThreadLocalRandom;
 
 // SimulationDataCleanupService.java
 @Component
@@ -23,9 +28,24 @@ public class SimulationDataCleanupService {
     @Autowired
     private ShipmentRepository shipmentRepository;
 
+    @Autowired
+    private SimulationRandom simulationRandom;
+
+    @Autowired
+    private VehicleStatusTransitions vehicleStatusTransitions;
+
     @Autowired
     private ShipmentItemRepository shipmentItemRepository;
 
+    @Autowired
+    private ShipmentProgressCounters shipmentProgressCounters;
+
+    @Autowired
+    private ProcessingChainDag processingChainDag;
+
+    @Autowired
+    private ProcessingChainServiceV2 processingChainService;
+
     @Autowired
     private EnrollmentRepository enrollmentRepository;
 
@@ -109,6 +129,11 @@ public class SimulationDataCleanupService {
             System.out.println("已删除 " + enrollmentCount + " 条Enrollment记录");
             clearPersistenceContext();
 
+            // deleteAllInBatch 不触发实体回调，提交后重建进度计数器、加工链 DAG 与工序完成事件队列
+            shipmentProgressCounters.invalidate();
+            processingChainDag.invalidate();
+            processingChainService.resetStageCompletionQueue();
+
             long endTime = System.currentTimeMillis();
             System.out.println("模拟数据清理完成，耗时 " + (endTime - startTime) + "ms");
 
@@ -245,7 +270,7 @@ public class SimulationDataCleanupService {
 
             for (Vehicle vehicle : allVehicles) {
                 try {
-                    POI targetPOI = selectRandomPOI(initializationPOIs);
+                    POI targetPOI = selectRandomPOI(initializationPOIs, vehicle);
                     resetSingleVehicleToPOI(vehicle, targetPOI);
 
                     vehicleRepository.save(vehicle);
@@ -278,7 +303,7 @@ public class SimulationDataCleanupService {
             );
         }
 
-        vehicle.transitionToStatus(Vehicle.VehicleStatus.IDLE, LocalDateTime.now(), Duration.ZERO);
+        vehicleStatusTransitions.transition(vehicle, null, Vehicle.VehicleStatus.IDLE, LocalDateTime.now(), Duration.ZERO);
         vehicle.setPreviousStatus(null);
         vehicle.setLoopCount(0);
 
@@ -301,13 +326,16 @@ public class SimulationDataCleanupService {
         return candidates.stream()
                 .filter(Objects::nonNull)
                 .filter(poi -> poi.getLongitude() != null && poi.getLatitude() != null)
+                .sorted(Comparator.comparing(POI::getId))
                 .toList();
     }
 
-    private POI selectRandomPOI(List<POI> candidates) {
+    /** 按车辆 ID 取独立随机流，同一运行种子下摆放结果与车辆遍历顺序无关 */
+    private POI selectRandomPOI(List<POI> candidates, Vehicle vehicle) {
         if (candidates == null || candidates.isEmpty()) {
             throw new IllegalStateException("没有可用的仓库或配送中心POI");
         }
-        return candidates.get(ThreadLocalRandom.current().nextInt(candidates.size()));
+        long vehicleKey = vehicle.getId() != null ? vehicle.getId() : 0L;
+        return candidates.get(simulationRandom.forEntity("vehicle-placement", vehicleKey, 0).nextInt(candidates.size()));
     }
 }
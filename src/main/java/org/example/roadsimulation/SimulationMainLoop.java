@@ -1,7 +1,10 @@
 package org.example.roadsimulation;
 
+import org.example.roadsimulation.config.SimulationRuntimeConfig;
 import org.example.roadsimulation.core.SimulationContext;
 import org.example.roadsimulation.core.SimulationModeGuard;
+import org.example.roadsimulation.core.SimulationRandom;
+import org.example.roadsimulation.core.eventlog.SimulationEventLog;
 import org.example.roadsimulation.dto.RuntimeCostDTO;
 import org.example.roadsimulation.entity.CostEntity;
 import org.example.roadsimulation.entity.ShipmentItem;
@@ -66,6 +69,15 @@ public class SimulationMainLoop {
     @Autowired
     private ShipmentItemRepository shipmentItemRepository;
 
+    @Autowired
+    private SimulationEventLog simulationEventLog;
+
+    @Autowired
+    private SimulationRandom simulationRandom;
+
+    @Autowired
+    private SimulationRuntimeConfig simulationRuntimeConfig;
+
     @Autowired
     SimulationMainLoop(DataInitializer dataInitializer,
                        StateUpdateService stateUpdateService,
@@ -218,6 +230,8 @@ public class SimulationMainLoop {
             simulationContext.reset();
             CostEntity.reset();
             costBaselineNormalizationService.reset();
+            simulationRandom.startRun();
+            simulationEventLog.startNewRun();
             System.out.println("仿真已重置");
         } finally {
             lifecycleLock.unlock();
@@ -254,8 +268,26 @@ public class SimulationMainLoop {
                     totalShipmentItems,
                     notAssignedItems
             );
+            simulationEventLog.recordCostSnapshot(
+                    simulationContext.getCurrentSimTime(),
+                    0L,
+                    simulationContext.getLoopCount(),
+                    simulationRuntimeConfig.getDispatchStrategy(),
+                    (int) (totalShipmentItems - notAssignedItems),
+                    safe(costs.getCostA()),
+                    safe(costs.getCostB()),
+                    safe(costs.getCostC()),
+                    safe(costs.getCostD()),
+                    safe(costs.getCostE()),
+                    safe(costs.getAllCost()),
+                    safe(costs.getNormalizedAllCost())
+            );
         } catch (Exception ex) {
             System.err.println("Cost baseline normalization snapshot failed: " + ex.getMessage());
         }
     }
+
+    private static double safe(Double value) {
+        return value != null ? value : 0.0;
+    }
 }
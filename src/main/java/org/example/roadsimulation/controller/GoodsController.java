@@ -8,6 +8,7 @@ import org.example.roadsimulation.entity.ShipmentItem;
 import org.example.roadsimulation.exception.GoodsAlreadyExistsException;
 import org.example.roadsimulation.exception.GoodsInUseException;
 import org.example.roadsimulation.service.GoodsService;
+import org.example.roadsimulation.service.ReferenceDataCacheService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -26,10 +27,12 @@ import java.util.Optional;
 public class GoodsController {
 
     private GoodsService goodsService;
+    private final ReferenceDataCacheService referenceDataCacheService;
 
     @Autowired
-    public GoodsController(GoodsService goodsService) {
+    public GoodsController(GoodsService goodsService, ReferenceDataCacheService referenceDataCacheService) {
         this.goodsService = goodsService;
+        this.referenceDataCacheService = referenceDataCacheService;
     }
 
     //创建货物
@@ -37,6 +40,7 @@ public class GoodsController {
     public ResponseEntity<?> createGoods(@Valid @RequestBody Goods goods) {
         try{
             Goods createdGoods = goodsService.createGoods(goods);
+            referenceDataCacheService.evictGoods();
             return new ResponseEntity<>(createdGoods, HttpStatus.CREATED);
         } catch (GoodsAlreadyExistsException e){
             return ResponseEntity.status(HttpStatus.CONFLICT)
@@ -114,6 +118,7 @@ public class GoodsController {
     public ResponseEntity<Goods> updateGoods(@PathVariable Long id, @Valid @RequestBody Goods goodsDetails) {
         try {
             Goods updatedGoods = goodsService.updateGoods(id, goodsDetails);
+            referenceDataCacheService.evictGoods();
             return ResponseEntity.ok(updatedGoods);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
@@ -127,6 +132,7 @@ public class GoodsController {
     public ResponseEntity<Void> deleteGoods(@PathVariable Long id) {
         try {
             goodsService.deleteGoods(id);
+            referenceDataCacheService.evictGoods();
             return ResponseEntity.noContent().build();
         } catch (GoodsInUseException e) {
             return ResponseEntity.status(HttpStatus.CONFLICT).build();
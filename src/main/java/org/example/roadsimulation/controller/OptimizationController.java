@@ -15,7 +15,7 @@ import java.util.Map;
  * GET /api/optimization/run?algorithm=BOTH&seed=-1
  *   返回：ApiResponse<List<OptimizationResultDTO>>
  *   algorithm: "GA" | "SA" | "BOTH"（默认BOTH）
- *   seed: 随机种子，-1表示随机（默认-1）
+ *   seed: 随机种子，-1表示由仿真运行种子派生（默认-1）
  *
  * GET /api/optimization/best?seed=-1
  *   返回：ApiResponse<OptimizationResultDTO>（自动选两种算法中更优的）
@@ -5,6 +5,7 @@ import org.example.roadsimulation.DataInitializer;
 import org.example.roadsimulation.dto.POIDTO;
 import org.example.roadsimulation.entity.POI;
 import org.example.roadsimulation.service.POIService;
+import org.example.roadsimulation.service.ReferenceDataCacheService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -48,12 +49,15 @@ import java.util.Optional;
 public class POIController {
 
     private final POIService poiService;
+    private final ReferenceDataCacheService referenceDataCacheService;
     private DataInitializer dataInitializer;
 
     @Autowired
-    public POIController(POIService poiService, DataInitializer dataInitializer) {
+    public POIController(POIService poiService, DataInitializer dataInitializer,
+                         ReferenceDataCacheService referenceDataCacheService) {
         this.dataInitializer = dataInitializer;
         this.poiService = poiService;
+        this.referenceDataCacheService = referenceDataCacheService;
     }
 
     /**
@@ -64,6 +68,7 @@ public class POIController {
         try {
             POI poi = new POI(request.getName(), request.getLongitude(), request.getLatitude(), request.getPoiType());
             POI savedPOI = poiService.create(poi);
+            referenceDataCacheService.evictPOIs();
             return ResponseEntity.status(HttpStatus.CREATED)
                     .body(ApiResponse.success("POI 创建成功", savedPOI));
         } catch (IllegalArgumentException e) {
@@ -95,6 +100,7 @@ public class POIController {
             poiDetails.setId(id); // 确保 ID 一致
 
             POI updatedPOI = poiService.update(id, poiDetails);
+            referenceDataCacheService.evictPOIs();
             return ResponseEntity.ok(ApiResponse.success("POI 更新成功", updatedPOI));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -112,6 +118,7 @@ public class POIController {
     public ResponseEntity<ApiResponse<Void>> deletePOI(@PathVariable @Min(1) Long id) {
         try {
             poiService.delete(id);
+            referenceDataCacheService.evictPOIs();
             return ResponseEntity.ok(ApiResponse.success("POI 删除成功", null));
         } catch (IllegalStateException e) {
             return ResponseEntity.status(HttpStatus.CONFLICT)
@@ -224,6 +231,7 @@ public class POIController {
                         return poiService.create(poi);
                     })
                     .collect(java.util.stream.Collectors.toList());
+            referenceDataCacheService.evictPOIs();
             return ResponseEntity.status(HttpStatus.CREATED)
                     .body(ApiResponse.success("批量创建 POI 成功", createdPOIs));
         } catch (IllegalArgumentException e) {
@@ -250,6 +258,7 @@ public class POIController {
             }
 
             List<POI> savedPOIs = poiService.batchSavePOIs(poiDTOs);
+            referenceDataCacheService.evictPOIs();
             return ResponseEntity.ok(createSuccessResponse(
                     "批量保存成功，共保存 " + savedPOIs.size() + " 个POI",
                     savedPOIs
@@ -397,6 +406,7 @@ public class POIController {
             // 在实际应用中，你可能需要更严格的安全检查
 
             poiService.resetAutoIncrement();
+            referenceDataCacheService.evictPOIs();
             return ResponseEntity.ok(createSuccessResponse("POI表自增ID已重置为1", null));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
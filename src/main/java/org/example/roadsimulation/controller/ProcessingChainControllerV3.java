@@ -10,6 +10,7 @@ import org.example.roadsimulation.entity.ProcessingStage;
 import org.example.roadsimulation.entity.Shipment;
 import org.example.roadsimulation.entity.ShipmentItem;
 import org.example.roadsimulation.service.ProcessingChainServiceV2;
+import org.example.roadsimulation.service.ReferenceDataCacheService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
@@ -26,12 +27,14 @@ import java.util.List;
 public class ProcessingChainControllerV3 {
 
     private final ProcessingChainServiceV2 processingChainService;
+    private final ReferenceDataCacheService referenceDataCacheService;
 
     // ================= 加工链管理 =================
 
     @PostMapping
     public ResponseEntity<ProcessingChain> createChain(@RequestBody ProcessingChain chain) {
         ProcessingChain saved = processingChainService.createChain(chain);
+        referenceDataCacheService.evictProcessingChains();
         return ResponseEntity.ok(saved);
     }
 
@@ -52,12 +55,14 @@ public class ProcessingChainControllerV3 {
             @PathVariable Long id,
             @RequestParam ProcessingChain.ChainStatus status) {
         ProcessingChain updated = processingChainService.updateChainStatus(id, status);
+        referenceDataCacheService.evictProcessingChains();
         return ResponseEntity.ok(updated);
     }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<ApiResponse<String>> deleteChain(@PathVariable Long id) {
         processingChainService.deleteChain(id);
+        referenceDataCacheService.evictProcessingChains();
         return ResponseEntity.ok(ApiResponse.success("加工链已删除"));
     }
 
@@ -68,6 +73,7 @@ public class ProcessingChainControllerV3 {
             @PathVariable Long chainId,
             @RequestBody ProcessingStage stage) {
         ProcessingStage saved = processingChainService.createStage(chainId, stage);
+        referenceDataCacheService.evictProcessingChains();
         return ResponseEntity.ok(saved);
     }
 
@@ -76,12 +82,14 @@ public class ProcessingChainControllerV3 {
             @PathVariable Long stageId,
             @RequestBody ProcessingStage stageDetails) {
         ProcessingStage updated = processingChainService.updateStage(stageId, stageDetails);
+        referenceDataCacheService.evictProcessingChains();
         return ResponseEntity.ok(updated);
     }
 
     @DeleteMapping("/stage/{stageId}")
     public ResponseEntity<ApiResponse<String>> deleteStage(@PathVariable Long stageId) {
         processingChainService.deleteStage(stageId);
+        referenceDataCacheService.evictProcessingChains();
         return ResponseEntity.ok(ApiResponse.success("工序已删除"));
     }
 
@@ -245,6 +245,7 @@ public class SimulationController {
         costBaselineNormalizationService.applyLatest(detail.getSummary());
         detail.setWindow(costBaselineNormalizationService.exportLatestWindowDetail());
         detail.setBaseline(costBaselineNormalizationService.exportCurrentBaselineDetail());
+        detail.setLivePercentiles(costBaselineNormalizationService.exportLivePercentiles());
         return detail;
     }
 
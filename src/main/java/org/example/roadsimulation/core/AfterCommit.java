@@ -0,0 +1,109 @@
+package org.example.roadsimulation.core;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Consumer;
+
+/**
+ * 常驻内存状态（进度计数、运单项状态跟踪、加工链 DAG）与事务对齐的统一入口
+ *
+ * 事务内的变化先攒进绑定到当前事务的缓冲，提交后一次性交给 {@link Sink#apply}，回滚则丢弃；
+ * 没有事务时立即生效。
+ */
+public final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    /**
+     * 增量的接收方；实例本身作为事务资源的键，同一事务内只创建一个缓冲
+     */
+    public interface Sink<B> {
+
+        B newBuffer();
+
+        /** 应用已提交（或不在事务中）的缓冲 */
+        void apply(B buffer);
+
+        /** 事务进入提交阶段（beforeCommit），之后必然收到一次 {@link #commitFinished} */
+        default void commitStarted() {
+        }
+
+        /** 进入过提交阶段的事务结束；committed 为 null 表示最终回滚 */
+        default void commitFinished(B committed) {
+            if (committed != null) {
+                apply(committed);
+            }
+        }
+    }
+
+    /**
+     * 把一次变化记到当前事务的缓冲里（没有事务时立即应用）
+     */
+    @SuppressWarnings("unchecked")
+    public static <B> void record(Sink<B> sink, Consumer<? super B> change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            B buffer = sink.newBuffer();
+            change.accept(buffer);
+            sink.apply(buffer);
+            return;
+        }
+        B buffer = (B) TransactionSynchronizationManager.getResource(sink);
+        if (buffer == null) {
+            B pending = sink.newBuffer();
+            TransactionSynchronizationManager.bindResource(sink, pending);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                private boolean committing;
+
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    committing = true;
+                    sink.commitStarted();
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(sink);
+                    B committed = status == STATUS_COMMITTED ? pending : null;
+                    if (committing) {
+                        sink.commitFinished(committed);
+                    } else if (committed != null) {
+                        sink.apply(committed);
+                    }
+                }
+            });
+            buffer = pending;
+        }
+        change.accept(buffer);
+    }
+
+    /** 事务结束（提交或回滚）后执行；没有事务时立即执行 */
+    public static void afterCompletion(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.run();
+            }
+        });
+    }
+
+    /** 当前事务回滚后执行；没有事务时不执行 */
+    public static void onRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    action.run();
+                }
+            }
+        });
+    }
+}
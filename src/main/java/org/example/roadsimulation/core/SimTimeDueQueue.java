@@ -0,0 +1,68 @@
+package org.example.roadsimulation.core;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按仿真时间排序的到期队列：id → 到期时刻
+ *
+ * 同一 id 只保留最近一次 schedule 的时刻；pollDue 按 (到期时刻, 登记顺序) 弹出所有不晚于 now 的 id，
+ * 代价 O(到期数 · log n)，与尚未到期的条目数量无关。线程安全。
+ */
+public class SimTimeDueQueue {
+
+    private final ConcurrentSkipListMap<DueKey, Long> queue = new ConcurrentSkipListMap<>();
+    private final Map<Long, DueKey> keyById = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    public void schedule(long id, LocalDateTime dueAt) {
+        DueKey key = new DueKey(dueAt, sequence.incrementAndGet());
+        queue.put(key, id);
+        DueKey replaced = keyById.put(id, key);
+        if (replaced != null) {
+            queue.remove(replaced, id);
+        }
+    }
+
+    public void cancel(long id) {
+        DueKey key = keyById.remove(id);
+        if (key != null) {
+            queue.remove(key, id);
+        }
+    }
+
+    /** 弹出所有到期时刻不晚于 now 的 id（按到期顺序） */
+    public List<Long> pollDue(LocalDateTime now) {
+        List<Long> due = new ArrayList<>();
+        Map.Entry<DueKey, Long> head;
+        while ((head = queue.firstEntry()) != null && !head.getKey().dueAt().isAfter(now)) {
+            if (queue.remove(head.getKey(), head.getValue())) {
+                keyById.remove(head.getValue(), head.getKey());
+                due.add(head.getValue());
+            }
+        }
+        return due;
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    public void clear() {
+        queue.clear();
+        keyById.clear();
+    }
+
+    private record DueKey(LocalDateTime dueAt, long sequence) implements Comparable<DueKey> {
+        @Override
+        public int compareTo(DueKey other) {
+            int byTime = dueAt.compareTo(other.dueAt);
+            return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+        }
+    }
+}
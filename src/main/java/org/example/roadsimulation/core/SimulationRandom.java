@@ -0,0 +1,113 @@
+package org.example.roadsimulation.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 仿真随机源 - 统一随机框架
+ *
+ * 与 {@link SimulationContext} 统一仿真时间一样，仿真中的随机决策都应从这里取随机数，
+ * 而不是各处 new Random() 或用 System.currentTimeMillis() 作种子。
+ *
+ * 种子按层级派生：运行种子 → 子系统（按名称）→ 实体 / 调度序号。同一运行种子下，
+ * 各子系统、各车辆、各次调度的随机序列互不影响，整次仿真可逐位复现；
+ * 按键派生的流不依赖调用顺序，也不共享状态，可在并行求解中直接使用。
+ *
+ * 运行种子由 app.simulation.random.seed 指定；为负时每次运行重新生成，并打印到日志以便回填复现。
+ */
+@Component
+public class SimulationRandom {
+
+    private static final Logger logger = LoggerFactory.getLogger(SimulationRandom.class);
+
+    /** 黄金比例步长，与实验计划中相邻运行种子的间隔相同 */
+    private static final long SEED_STRIDE = 0x9E3779B97F4A7C15L;
+
+    private final long configuredSeed;
+
+    private volatile long runSeed;
+    private final ConcurrentHashMap<String, SplittableRandom> subsystemStreams = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, AtomicLong> sequences = new ConcurrentHashMap<>();
+
+    public SimulationRandom(@Value("${app.simulation.random.seed:-1}") long configuredSeed) {
+        this.configuredSeed = configuredSeed;
+        startRun();
+    }
+
+    /**
+     * 开始新一次运行：使用配置的种子，未配置时重新生成
+     *
+     * @return 本次运行种子
+     */
+    public synchronized long startRun() {
+        return startRun(configuredSeed >= 0 ? configuredSeed : new SecureRandom().nextLong() >>> 1);
+    }
+
+    /**
+     * 以指定种子开始新一次运行（实验计划、对比实验的各策略共用同一场景种子时使用）
+     */
+    public synchronized long startRun(long seed) {
+        runSeed = seed;
+        subsystemStreams.clear();
+        sequences.clear();
+        logger.info("[SimulationRandom] run seed = {}", seed);
+        return seed;
+    }
+
+    public long runSeed() {
+        return runSeed;
+    }
+
+    /**
+     * 子系统流：同一运行内同名子系统共享一条序列（按调用顺序取数）
+     *
+     * SplittableRandom 不是线程安全的，只能在单线程中使用（如主循环中的运单生成）；
+     * 并行场景请用 {@link #forEntity} 或 {@link #nextSeed}。
+     */
+    public SplittableRandom subsystem(String name) {
+        return subsystemStreams.computeIfAbsent(name, key -> new SplittableRandom(subsystemSeed(key)));
+    }
+
+    /**
+     * 某个实体（车辆等）在某一步的独立流：只由 (子系统, 实体 ID, 步) 决定，与调用顺序和线程无关
+     */
+    public SplittableRandom forEntity(String subsystem, long entityId, long step) {
+        return new SplittableRandom(derive(derive(subsystemSeed(subsystem), entityId), step));
+    }
+
+    /**
+     * 子系统内下一次求解（如一次调度）的种子：第 n 次调用得到第 n 个派生种子，线程安全
+     */
+    public long nextSeed(String subsystem) {
+        long index = sequences.computeIfAbsent(subsystem, key -> new AtomicLong()).getAndIncrement();
+        return derive(subsystemSeed(subsystem), index) >>> 1;
+    }
+
+    /** Fisher-Yates 洗牌（Collections.shuffle 在 JDK 17 只接受 java.util.Random） */
+    public static <T> void shuffle(List<T> list, SplittableRandom random) {
+        for (int i = list.size() - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            list.set(i, list.set(j, list.get(i)));
+        }
+    }
+
+    /** 由父种子与键派生子种子（SplitMix64 终混） */
+    public static long derive(long parent, long key) {
+        long z = parent + SEED_STRIDE * (key + 1);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private long subsystemSeed(String name) {
+        return derive(runSeed, name.hashCode());
+    }
+}
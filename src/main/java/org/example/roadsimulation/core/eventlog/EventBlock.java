@@ -0,0 +1,89 @@
+package org.example.roadsimulation.core.eventlog;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 列式事件块：一次刷盘的最小单位
+ *
+ * 生产者在 {@link SimulationEventLog} 的锁内追加原始类型字段，不产生任何对象分配；
+ * 刷盘线程把整块按列编码写入段文件。块格式：
+ * <pre>
+ * int count | int valueCount
+ * byte[count] types | long[count] simTimes | long[count] subjectIds | long[count] refIds
+ * int[count] codesA | int[count] codesB | double[valueCount] values
+ * </pre>
+ */
+final class EventBlock {
+
+    final int capacity;
+    final byte[] types;
+    final long[] simTimes;
+    final long[] subjectIds;
+    final long[] refIds;
+    final int[] codesA;
+    final int[] codesB;
+    final double[] values;
+
+    int size;
+    int valueSize;
+
+    EventBlock(int capacity) {
+        this.capacity = capacity;
+        this.types = new byte[capacity];
+        this.simTimes = new long[capacity];
+        this.subjectIds = new long[capacity];
+        this.refIds = new long[capacity];
+        this.codesA = new int[capacity];
+        this.codesB = new int[capacity];
+        this.values = new double[capacity * SimulationEventType.MAX_VALUE_ARITY];
+    }
+
+    boolean hasRoomFor(SimulationEventType type) {
+        return size < capacity && valueSize + type.getValueArity() <= values.length;
+    }
+
+    void begin(SimulationEventType type, long simTime, long subjectId, long refId, int codeA, int codeB) {
+        types[size] = type.getCode();
+        simTimes[size] = simTime;
+        subjectIds[size] = subjectId;
+        refIds[size] = refId;
+        codesA[size] = codeA;
+        codesB[size] = codeB;
+        size++;
+    }
+
+    void value(double value) {
+        values[valueSize++] = value;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void clear() {
+        size = 0;
+        valueSize = 0;
+    }
+
+    static int maxEncodedBytes(int capacity) {
+        return 8 + capacity * (1 + 8 + 8 + 8 + 4 + 4) + capacity * SimulationEventType.MAX_VALUE_ARITY * 8;
+    }
+
+    void encodeTo(ByteBuffer buffer) {
+        buffer.putInt(size);
+        buffer.putInt(valueSize);
+        buffer.put(types, 0, size);
+        buffer.asLongBuffer().put(simTimes, 0, size);
+        buffer.position(buffer.position() + size * 8);
+        buffer.asLongBuffer().put(subjectIds, 0, size);
+        buffer.position(buffer.position() + size * 8);
+        buffer.asLongBuffer().put(refIds, 0, size);
+        buffer.position(buffer.position() + size * 8);
+        buffer.asIntBuffer().put(codesA, 0, size);
+        buffer.position(buffer.position() + size * 4);
+        buffer.asIntBuffer().put(codesB, 0, size);
+        buffer.position(buffer.position() + size * 4);
+        buffer.asDoubleBuffer().put(values, 0, valueSize);
+        buffer.position(buffer.position() + valueSize * 8);
+    }
+}
@@ -0,0 +1,89 @@
+package org.example.roadsimulation.core.eventlog;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 滚动段文件写入器（仅由刷盘线程使用，非线程安全）
+ *
+ * 每个运行目录下按 segment-00000.rsev、segment-00001.rsev ... 顺序滚动，
+ * 段头为魔数 + 版本号，之后是若干个 {@link EventBlock} 编码块。
+ */
+final class EventSegmentWriter implements AutoCloseable {
+
+    static final int MAGIC = 0x52534556; // "RSEV"
+    static final int VERSION = 1;
+    static final String SEGMENT_SUFFIX = ".rsev";
+    static final int HEADER_BYTES = 8;
+
+    private final Path runDirectory;
+    private final long segmentMaxBytes;
+    private final ByteBuffer buffer;
+
+    private FileChannel channel;
+    private int segmentIndex;
+    private long segmentBytes;
+
+    EventSegmentWriter(Path runDirectory, long segmentMaxBytes, int blockCapacity) {
+        this.runDirectory = runDirectory;
+        this.segmentMaxBytes = segmentMaxBytes;
+        this.buffer = ByteBuffer.allocateDirect(EventBlock.maxEncodedBytes(blockCapacity)).order(ByteOrder.BIG_ENDIAN);
+    }
+
+    Path getRunDirectory() {
+        return runDirectory;
+    }
+
+    void write(EventBlock block) throws IOException {
+        if (block.isEmpty()) {
+            return;
+        }
+        buffer.clear();
+        block.encodeTo(buffer);
+        buffer.flip();
+
+        if (channel == null || segmentBytes + buffer.remaining() > segmentMaxBytes) {
+            roll();
+        }
+        while (buffer.hasRemaining()) {
+            segmentBytes += channel.write(buffer);
+        }
+    }
+
+    void force() throws IOException {
+        if (channel != null) {
+            channel.force(false);
+        }
+    }
+
+    private void roll() throws IOException {
+        close();
+        Files.createDirectories(runDirectory);
+        Path segment = runDirectory.resolve(String.format("segment-%05d%s", segmentIndex++, SEGMENT_SUFFIX));
+        channel = FileChannel.open(segment,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(VERSION);
+        header.flip();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+        segmentBytes = HEADER_BYTES;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            try {
+                channel.force(false);
+            } finally {
+                channel.close();
+                channel = null;
+            }
+        }
+    }
+}
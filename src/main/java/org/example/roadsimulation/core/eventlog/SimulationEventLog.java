@@ -0,0 +1,330 @@
+package org.example.roadsimulation.core.eventlog;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 仿真事件日志（列式、二进制、仅追加）
+ *
+ * 记录车辆状态转移、调度决策和成本快照，供事后回放与聚合（见 {@link SimulationEventLogReader}）。
+ * 主循环侧只在一个很短的锁内把原始字段写入预分配的列数组；写满的块交给后台刷盘线程编码落盘，
+ * 文件 IO 永远不在调用线程上发生。若所有块都在等待刷盘，生产者不会等待，而是丢弃事件并计数，
+ * 保证日志不会反压仿真主循环。
+ */
+@Component
+public class SimulationEventLog {
+
+    private static final Logger log = LoggerFactory.getLogger(SimulationEventLog.class);
+
+    static final int DEFAULT_BLOCK_EVENTS = 4096;
+    static final int DEFAULT_BLOCKS = 8;
+    static final long DEFAULT_SEGMENT_MAX_BYTES = 64L * 1024 * 1024;
+    static final long DEFAULT_FLUSH_INTERVAL_MS = 1000;
+
+    private static final DateTimeFormatter RUN_DIR_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+    private final boolean enabled;
+    private final Path baseDirectory;
+    private final int blockEvents;
+    private final long segmentMaxBytes;
+
+    private final Object appendLock = new Object();
+    private final Object flushLock = new Object();
+    private final ArrayDeque<EventBlock> freeBlocks = new ArrayDeque<>();
+    private final ArrayDeque<EventBlock> fullBlocks = new ArrayDeque<>();
+    private EventBlock activeBlock;
+
+    private final LongAdder appendedEvents = new LongAdder();
+    private final LongAdder droppedEvents = new LongAdder();
+    private final LongAdder writtenBlocks = new LongAdder();
+
+    private final ScheduledExecutorService flusher;
+    private EventSegmentWriter writer;
+    private volatile boolean closed;
+
+    public SimulationEventLog(
+            @Value("${app.simulation.event-log.enabled:true}") boolean enabled,
+            @Value("${app.simulation.event-log.dir:target/sim-event-log}") String directory,
+            @Value("${app.simulation.event-log.block-events:" + DEFAULT_BLOCK_EVENTS + "}") int blockEvents,
+            @Value("${app.simulation.event-log.blocks:" + DEFAULT_BLOCKS + "}") int blocks,
+            @Value("${app.simulation.event-log.segment-max-bytes:" + DEFAULT_SEGMENT_MAX_BYTES + "}") long segmentMaxBytes,
+            @Value("${app.simulation.event-log.flush-interval-ms:" + DEFAULT_FLUSH_INTERVAL_MS + "}") long flushIntervalMs) {
+        this.enabled = enabled;
+        this.baseDirectory = Paths.get(directory);
+        this.blockEvents = Math.max(16, blockEvents);
+        this.segmentMaxBytes = Math.max(EventBlock.maxEncodedBytes(this.blockEvents) + EventSegmentWriter.HEADER_BYTES,
+                segmentMaxBytes);
+
+        if (!enabled) {
+            this.flusher = null;
+            return;
+        }
+        int blockCount = Math.max(2, blocks);
+        for (int i = 0; i < blockCount - 1; i++) {
+            freeBlocks.add(new EventBlock(this.blockEvents));
+        }
+        this.activeBlock = new EventBlock(this.blockEvents);
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "sim-event-log-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(10, flushIntervalMs);
+        this.flusher.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    // ==================== 写入 ====================
+
+    public void recordVehicleTransition(LocalDateTime simTime, Long vehicleId, Long assignmentId,
+                                        Enum<?> fromStatus, Enum<?> toStatus, long stayMinutes) {
+        synchronized (appendLock) {
+            EventBlock block = blockFor(SimulationEventType.VEHICLE_TRANSITION);
+            if (block == null) {
+                return;
+            }
+            block.begin(SimulationEventType.VEHICLE_TRANSITION, toEpochMillis(simTime),
+                    idOrZero(vehicleId), idOrZero(assignmentId), ordinal(fromStatus), ordinal(toStatus));
+            block.value(stayMinutes);
+        }
+    }
+
+    public void recordDispatchDecision(LocalDateTime simTime, Long vehicleId, Long assignmentId,
+                                       Enum<?> strategy, int itemCount, double weight, double volume) {
+        synchronized (appendLock) {
+            EventBlock block = blockFor(SimulationEventType.DISPATCH_DECISION);
+            if (block == null) {
+                return;
+            }
+            block.begin(SimulationEventType.DISPATCH_DECISION, toEpochMillis(simTime),
+                    idOrZero(vehicleId), idOrZero(assignmentId), ordinal(strategy), itemCount);
+            block.value(weight);
+            block.value(volume);
+        }
+    }
+
+    public void recordCostSnapshot(LocalDateTime simTime, Long strategyRunId, long loop, Enum<?> strategy,
+                                   int completedItems, double costA, double costB, double costC,
+                                   double costD, double costE, double allCost, double normalizedAllCost) {
+        synchronized (appendLock) {
+            EventBlock block = blockFor(SimulationEventType.COST_SNAPSHOT);
+            if (block == null) {
+                return;
+            }
+            block.begin(SimulationEventType.COST_SNAPSHOT, toEpochMillis(simTime),
+                    idOrZero(strategyRunId), loop, ordinal(strategy), completedItems);
+            block.value(costA);
+            block.value(costB);
+            block.value(costC);
+            block.value(costD);
+            block.value(costE);
+            block.value(allCost);
+            block.value(normalizedAllCost);
+        }
+    }
+
+    /**
+     * 返回可写入该事件的块；当前块已满且没有空闲块时丢弃事件并返回 null。
+     * 调用方必须持有 appendLock。
+     */
+    private EventBlock blockFor(SimulationEventType type) {
+        if (!enabled || closed) {
+            return null;
+        }
+        if (!activeBlock.hasRoomFor(type)) {
+            EventBlock next = freeBlocks.poll();
+            if (next == null) {
+                droppedEvents.increment();
+                return null;
+            }
+            fullBlocks.add(activeBlock);
+            activeBlock = next;
+        }
+        appendedEvents.increment();
+        return activeBlock;
+    }
+
+    // ==================== 刷盘 ====================
+
+    /**
+     * 把已写满的块以及当前块落盘。由后台线程周期调用，也可在重置/关闭时同步调用。
+     */
+    public void flush() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        synchronized (flushLock) {
+            List<EventBlock> toWrite = new ArrayList<>();
+            synchronized (appendLock) {
+                if (!activeBlock.isEmpty()) {
+                    EventBlock next = freeBlocks.poll();
+                    if (next != null) {
+                        fullBlocks.add(activeBlock);
+                        activeBlock = next;
+                    }
+                }
+                toWrite.addAll(fullBlocks);
+                fullBlocks.clear();
+            }
+            if (toWrite.isEmpty()) {
+                return;
+            }
+
+            try {
+                if (writer == null) {
+                    writer = new EventSegmentWriter(newRunDirectory(), segmentMaxBytes, blockEvents);
+                }
+                for (EventBlock block : toWrite) {
+                    writer.write(block);
+                    writtenBlocks.increment();
+                }
+                writer.force();
+            } finally {
+                synchronized (appendLock) {
+                    for (EventBlock block : toWrite) {
+                        block.clear();
+                        freeBlocks.add(block);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 仿真重置时调用：落盘当前运行的剩余事件，后续事件写入新的运行目录。
+     *
+     * 没有空闲块时 flush 会把当前块留在原处；第一次 flush 归还已写满的块后再刷一次，
+     * 保证当前块也写进本次运行。若期间仍有并发写入留在当前块中，这些事件计为丢弃，
+     * 不会混入下一次运行。
+     */
+    public void startNewRun() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (flushLock) {
+            flushQuietly();
+            if (hasPendingActiveEvents()) {
+                flushQuietly();
+            }
+            synchronized (appendLock) {
+                if (!activeBlock.isEmpty()) {
+                    log.warn("仿真事件日志切换运行时丢弃 {} 条未能落盘的事件", activeBlock.size);
+                    droppedEvents.add(activeBlock.size);
+                    activeBlock.clear();
+                }
+            }
+            closeWriterQuietly();
+        }
+    }
+
+    private boolean hasPendingActiveEvents() {
+        synchronized (appendLock) {
+            return !activeBlock.isEmpty();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!enabled || closed) {
+            return;
+        }
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (flushLock) {
+            flushQuietly();
+            closed = true;
+            closeWriterQuietly();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException | RuntimeException e) {
+            log.warn("仿真事件日志刷盘失败: {}", e.getMessage());
+        }
+    }
+
+    private void closeWriterQuietly() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            log.warn("关闭仿真事件日志段文件失败: {}", e.getMessage());
+        } finally {
+            writer = null;
+        }
+    }
+
+    private Path newRunDirectory() {
+        return baseDirectory.resolve("run-" + LocalDateTime.now().format(RUN_DIR_FORMAT));
+    }
+
+    // ==================== 状态 ====================
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Path getBaseDirectory() {
+        return baseDirectory;
+    }
+
+    /**
+     * 当前运行目录（尚未落盘任何块时为 null）
+     */
+    public Path getCurrentRunDirectory() {
+        synchronized (flushLock) {
+            return writer == null ? null : writer.getRunDirectory();
+        }
+    }
+
+    public long getAppendedEvents() {
+        return appendedEvents.sum();
+    }
+
+    public long getDroppedEvents() {
+        return droppedEvents.sum();
+    }
+
+    public long getWrittenBlocks() {
+        return writtenBlocks.sum();
+    }
+
+    // ==================== 工具 ====================
+
+    static long toEpochMillis(LocalDateTime simTime) {
+        return simTime == null ? Long.MIN_VALUE : simTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static long idOrZero(Long id) {
+        return id == null ? 0L : id;
+    }
+
+    private static int ordinal(Enum<?> value) {
+        return value == null ? -1 : value.ordinal();
+    }
+}
@@ -0,0 +1,205 @@
+package org.example.roadsimulation.core.eventlog;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * 仿真事件日志读取器
+ *
+ * 以内存映射方式顺序读取一个运行目录下的所有段文件，按列解码后逐条回放给 {@link Visitor}。
+ * 在回放之上提供常用聚合：每辆车的状态时间线、成本曲线和按类型计数。
+ * 状态与策略字段以序号存储，由调用方按对应枚举的 values() 解释。
+ */
+public class SimulationEventLogReader {
+
+    private final Path runDirectory;
+
+    public SimulationEventLogReader(Path runDirectory) {
+        this.runDirectory = runDirectory;
+    }
+
+    /**
+     * 事件回放回调，按需覆盖关心的事件类型
+     */
+    public interface Visitor {
+        default void onVehicleTransition(VehicleTransition transition) {
+        }
+
+        default void onDispatchDecision(DispatchDecision decision) {
+        }
+
+        default void onCostSnapshot(CostPoint point) {
+        }
+    }
+
+    public record VehicleTransition(LocalDateTime simTime, long vehicleId, long assignmentId,
+                                    int fromStatusOrdinal, int toStatusOrdinal, long stayMinutes) {
+    }
+
+    public record DispatchDecision(LocalDateTime simTime, long vehicleId, long assignmentId,
+                                   int strategyOrdinal, int itemCount, double weight, double volume) {
+    }
+
+    public record CostPoint(LocalDateTime simTime, long strategyRunId, long loop, int strategyOrdinal,
+                            int completedItems, double costA, double costB, double costC, double costD,
+                            double costE, double allCost, double normalizedAllCost) {
+    }
+
+    // ==================== 回放 ====================
+
+    public void replay(Visitor visitor) throws IOException {
+        for (Path segment : listSegments()) {
+            replaySegment(segment, visitor);
+        }
+    }
+
+    private void replaySegment(Path segment, Visitor visitor) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.BIG_ENDIAN);
+            if (buffer.remaining() < EventSegmentWriter.HEADER_BYTES
+                    || buffer.getInt() != EventSegmentWriter.MAGIC) {
+                throw new IOException("不是仿真事件日志段文件: " + segment);
+            }
+            int version = buffer.getInt();
+            if (version != EventSegmentWriter.VERSION) {
+                throw new IOException("不支持的事件日志版本 " + version + ": " + segment);
+            }
+
+            while (buffer.remaining() >= 8) {
+                int count = buffer.getInt();
+                int valueCount = buffer.getInt();
+                byte[] types = new byte[count];
+                long[] simTimes = new long[count];
+                long[] subjectIds = new long[count];
+                long[] refIds = new long[count];
+                int[] codesA = new int[count];
+                int[] codesB = new int[count];
+                double[] values = new double[valueCount];
+
+                buffer.get(types);
+                readLongs(buffer, simTimes);
+                readLongs(buffer, subjectIds);
+                readLongs(buffer, refIds);
+                readInts(buffer, codesA);
+                readInts(buffer, codesB);
+                buffer.asDoubleBuffer().get(values);
+                buffer.position(buffer.position() + valueCount * 8);
+
+                int v = 0;
+                for (int i = 0; i < count; i++) {
+                    SimulationEventType type = SimulationEventType.fromCode(types[i]);
+                    LocalDateTime simTime = toSimTime(simTimes[i]);
+                    switch (type) {
+                        case VEHICLE_TRANSITION -> visitor.onVehicleTransition(new VehicleTransition(
+                                simTime, subjectIds[i], refIds[i], codesA[i], codesB[i], (long) values[v]));
+                        case DISPATCH_DECISION -> visitor.onDispatchDecision(new DispatchDecision(
+                                simTime, subjectIds[i], refIds[i], codesA[i], codesB[i], values[v], values[v + 1]));
+                        case COST_SNAPSHOT -> visitor.onCostSnapshot(new CostPoint(
+                                simTime, subjectIds[i], refIds[i], codesA[i], codesB[i],
+                                values[v], values[v + 1], values[v + 2], values[v + 3], values[v + 4],
+                                values[v + 5], values[v + 6]));
+                    }
+                    v += type.getValueArity();
+                }
+            }
+        }
+    }
+
+    // ==================== 聚合 ====================
+
+    /**
+     * 每辆车按时间顺序的状态转移序列
+     */
+    public Map<Long, List<VehicleTransition>> vehicleTimelines() throws IOException {
+        Map<Long, List<VehicleTransition>> timelines = new LinkedHashMap<>();
+        replay(new Visitor() {
+            @Override
+            public void onVehicleTransition(VehicleTransition transition) {
+                timelines.computeIfAbsent(transition.vehicleId(), k -> new ArrayList<>()).add(transition);
+            }
+        });
+        return timelines;
+    }
+
+    /**
+     * 指定策略运行的成本曲线（主循环为 0），按写入顺序即循环顺序
+     */
+    public List<CostPoint> costCurve(long strategyRunId) throws IOException {
+        List<CostPoint> curve = new ArrayList<>();
+        replay(new Visitor() {
+            @Override
+            public void onCostSnapshot(CostPoint point) {
+                if (point.strategyRunId() == strategyRunId) {
+                    curve.add(point);
+                }
+            }
+        });
+        return curve;
+    }
+
+    public Map<SimulationEventType, Long> countByType() throws IOException {
+        Map<SimulationEventType, Long> counts = new EnumMap<>(SimulationEventType.class);
+        replay(new Visitor() {
+            @Override
+            public void onVehicleTransition(VehicleTransition transition) {
+                counts.merge(SimulationEventType.VEHICLE_TRANSITION, 1L, Long::sum);
+            }
+
+            @Override
+            public void onDispatchDecision(DispatchDecision decision) {
+                counts.merge(SimulationEventType.DISPATCH_DECISION, 1L, Long::sum);
+            }
+
+            @Override
+            public void onCostSnapshot(CostPoint point) {
+                counts.merge(SimulationEventType.COST_SNAPSHOT, 1L, Long::sum);
+            }
+        });
+        return counts;
+    }
+
+    // ==================== 工具 ====================
+
+    private List<Path> listSegments() throws IOException {
+        if (!Files.isDirectory(runDirectory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(runDirectory)) {
+            return files
+                    .filter(p -> p.getFileName().toString().endsWith(EventSegmentWriter.SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static void readLongs(MappedByteBuffer buffer, long[] target) {
+        buffer.asLongBuffer().get(target);
+        buffer.position(buffer.position() + target.length * 8);
+    }
+
+    private static void readInts(MappedByteBuffer buffer, int[] target) {
+        buffer.asIntBuffer().get(target);
+        buffer.position(buffer.position() + target.length * 4);
+    }
+
+    private static LocalDateTime toSimTime(long epochMillis) {
+        return epochMillis == Long.MIN_VALUE
+                ? null
+                : LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,47 @@
+package org.example.roadsimulation.core.eventlog;
+
+/**
+ * 仿真事件类型
+ *
+ * 每种事件除公共列（类型、仿真时间、主体 ID、关联 ID、两个整型编码）外，
+ * 还携带固定个数的 double 值（valueArity），按事件顺序连续写入 values 列：
+ * <ul>
+ *     <li>VEHICLE_TRANSITION：subject=车辆 ID，ref=任务 ID，codeA/codeB=前后状态序号，values=[驻留分钟]</li>
+ *     <li>DISPATCH_DECISION：subject=车辆 ID，ref=任务 ID，codeA=调度策略序号，codeB=货物项数，values=[重量, 体积]</li>
+ *     <li>COST_SNAPSHOT：subject=策略运行 ID（主循环为 0），ref=循环序号，codeA=调度策略序号，codeB=已完成货物项数（主循环记录已分配货物项数），
+ *     values=[A, B, C, D, E, allCost, normalizedAllCost]</li>
+ * </ul>
+ */
+public enum SimulationEventType {
+
+    VEHICLE_TRANSITION((byte) 1, 1),
+    DISPATCH_DECISION((byte) 2, 2),
+    COST_SNAPSHOT((byte) 3, 7);
+
+    static final int MAX_VALUE_ARITY = 7;
+
+    private final byte code;
+    private final int valueArity;
+
+    SimulationEventType(byte code, int valueArity) {
+        this.code = code;
+        this.valueArity = valueArity;
+    }
+
+    public byte getCode() {
+        return code;
+    }
+
+    public int getValueArity() {
+        return valueArity;
+    }
+
+    public static SimulationEventType fromCode(byte code) {
+        for (SimulationEventType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown simulation event type code: " + code);
+    }
+}
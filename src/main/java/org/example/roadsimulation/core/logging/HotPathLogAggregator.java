@@ -0,0 +1,110 @@
+package org.example.roadsimulation.core.logging;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 热路径日志聚合器
+ *
+ * 逐车、逐货物的高频日志（未到转移时间、任务推进、ORIGINAL VRP 跳过原因等）先在这里按
+ * “类别 + 原因”计数，每个 tick 结束时汇总成一行输出。调用方通过 {@link #record} 的返回值决定
+ * 是否输出这一条明细，明细参数的格式化放在判断之后，未被采样时不产生任何格式化开销。
+ * <ul>
+ *     <li>VERBOSE：每条都输出明细（旧行为），同时计数</li>
+ *     <li>SAMPLED：每个类别每个 tick 只输出前 samples-per-tick 条明细</li>
+ *     <li>AGGREGATED：只计数，不输出明细</li>
+ * </ul>
+ */
+@Component
+public class HotPathLogAggregator {
+
+    private static final Logger log = LoggerFactory.getLogger(HotPathLogAggregator.class);
+
+    public static final String VEHICLE_STATE = "VehicleState";
+    public static final String STATE_FINISHED = "StateFinished";
+    public static final String ORIGINAL_VRP = "OriginalVrp";
+
+    static final int DEFAULT_SAMPLES_PER_TICK = 5;
+
+    public enum Mode {
+        VERBOSE, SAMPLED, AGGREGATED
+    }
+
+    private final Mode mode;
+    private final int samplesPerTick;
+
+    private final Map<String, Map<String, LongAdder>> counts = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> samples = new ConcurrentHashMap<>();
+
+    public HotPathLogAggregator(
+            @Value("${app.logging.hot-path.mode:SAMPLED}") String mode,
+            @Value("${app.logging.hot-path.samples-per-tick:" + DEFAULT_SAMPLES_PER_TICK + "}") int samplesPerTick) {
+        this.mode = Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+        this.samplesPerTick = Math.max(0, samplesPerTick);
+    }
+
+    /**
+     * 记一次热路径事件
+     *
+     * @return true 表示调用方应输出这一条明细日志
+     */
+    public boolean record(String category, String reason) {
+        counts.computeIfAbsent(category, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(reason, k -> new LongAdder())
+                .increment();
+        switch (mode) {
+            case VERBOSE:
+                return true;
+            case AGGREGATED:
+                return false;
+            default:
+                return samples.computeIfAbsent(category, k -> new AtomicInteger()).incrementAndGet() <= samplesPerTick;
+        }
+    }
+
+    /**
+     * 输出本 tick 的计数汇总并清零，由状态更新 tick 结束时调用
+     */
+    public void flushTick(int loopCount, LocalDateTime simNow) {
+        samples.values().forEach(counter -> counter.set(0));
+        if (!log.isInfoEnabled()) {
+            counts.values().forEach(reasons -> reasons.values().forEach(LongAdder::reset));
+            return;
+        }
+
+        StringBuilder summary = new StringBuilder();
+        for (Map.Entry<String, Map<String, LongAdder>> category : new TreeMap<>(counts).entrySet()) {
+            StringBuilder reasons = new StringBuilder();
+            for (Map.Entry<String, LongAdder> reason : new TreeMap<>(category.getValue()).entrySet()) {
+                long count = reason.getValue().sumThenReset();
+                if (count == 0) {
+                    continue;
+                }
+                if (reasons.length() > 0) {
+                    reasons.append(", ");
+                }
+                reasons.append(reason.getKey()).append('=').append(count);
+            }
+            if (reasons.length() > 0) {
+                summary.append(' ').append(category.getKey()).append('{').append(reasons).append('}');
+            }
+        }
+        if (summary.length() > 0) {
+            log.info("[HotPath] loop={} simNow={}{}", loopCount, simNow, summary);
+        }
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+}
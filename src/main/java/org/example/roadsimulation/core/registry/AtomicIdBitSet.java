@@ -0,0 +1,75 @@
+package org.example.roadsimulation.core.registry;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 以实体 id 为下标的无锁位集合，附带原子计数（O(1) 获取置位数量）
+ */
+public class AtomicIdBitSet extends IdSegmentDirectory<AtomicLongArray> {
+
+    private static final int WORDS_PER_SEGMENT = SEGMENT_SIZE / Long.SIZE;
+
+    private final AtomicInteger cardinality = new AtomicInteger();
+
+    @Override
+    AtomicLongArray newSegment() {
+        return new AtomicLongArray(WORDS_PER_SEGMENT);
+    }
+
+    public boolean get(long id) {
+        AtomicLongArray words = segmentOrNull(id);
+        return words != null && (words.get(offset(id) >>> 6) & (1L << id)) != 0;
+    }
+
+    /** @return 本次调用是否把该位从 0 置为 1 */
+    public boolean set(long id) {
+        if (!setBit(id)) {
+            return false;
+        }
+        cardinality.incrementAndGet();
+        return true;
+    }
+
+    /** @return 本次调用是否把该位从 1 清为 0 */
+    public boolean clear(long id) {
+        AtomicLongArray words = segmentOrNull(id);
+        if (words == null) {
+            return false;
+        }
+        int word = offset(id) >>> 6;
+        long mask = 1L << id;
+        long prev;
+        do {
+            prev = words.get(word);
+            if ((prev & mask) == 0) {
+                return false;
+            }
+        } while (!words.compareAndSet(word, prev, prev & ~mask));
+        cardinality.decrementAndGet();
+        return true;
+    }
+
+    public int cardinality() {
+        return cardinality.get();
+    }
+
+    public void clearAll() {
+        clearSegments();
+        cardinality.set(0);
+    }
+
+    private boolean setBit(long id) {
+        AtomicLongArray words = segmentFor(id);
+        int word = offset(id) >>> 6;
+        long mask = 1L << id;
+        long prev;
+        do {
+            prev = words.get(word);
+            if ((prev & mask) != 0) {
+                return false;
+            }
+        } while (!words.compareAndSet(word, prev, prev | mask));
+        return true;
+    }
+}
@@ -0,0 +1,36 @@
+package org.example.roadsimulation.core.registry;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 以实体 id 为下标的无锁 long 表，未写入的位置读作 0
+ */
+public class AtomicIdLongTable extends IdSegmentDirectory<AtomicLongArray> {
+
+    @Override
+    AtomicLongArray newSegment() {
+        return new AtomicLongArray(SEGMENT_SIZE);
+    }
+
+    public long get(long id) {
+        AtomicLongArray values = segmentOrNull(id);
+        return values == null ? 0L : values.get(offset(id));
+    }
+
+    public long getAndSet(long id, long value) {
+        return segmentFor(id).getAndSet(offset(id), value);
+    }
+
+    public boolean compareAndSet(long id, long expected, long value) {
+        AtomicLongArray values = expected == 0L ? segmentFor(id) : segmentOrNull(id);
+        return values != null && values.compareAndSet(offset(id), expected, value);
+    }
+
+    public long addAndGet(long id, long delta) {
+        return segmentFor(id).addAndGet(offset(id), delta);
+    }
+
+    public void clearAll() {
+        clearSegments();
+    }
+}
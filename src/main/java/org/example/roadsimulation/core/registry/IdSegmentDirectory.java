@@ -0,0 +1,74 @@
+package org.example.roadsimulation.core.registry;
+
+/**
+ * 按实体 id 分段的稠密表骨架
+ *
+ * id（非负、不超过 {@link #MAX_ID}）按 {@link #SEGMENT_SIZE} 分段，段按需创建。
+ * 读写段内元素完全无锁（由子类的原子数组保证）；只有"新建段 / 扩容目录 / 清空"这类结构性变化
+ * 在本对象上加锁，它们每 4096 个 id 最多发生一次。
+ *
+ * @param <S> 段类型（AtomicLongArray / AtomicReferenceArray 等）
+ */
+abstract class IdSegmentDirectory<S> {
+
+    static final int SEGMENT_SHIFT = 12;
+    static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+    static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    public static final long MAX_ID = Integer.MAX_VALUE;
+
+    private volatile Object[] segments = new Object[16];
+
+    /** 新建一个空段 */
+    abstract S newSegment();
+
+    /** 段已存在时返回，否则返回 null（只读路径不建段） */
+    @SuppressWarnings("unchecked")
+    final S segmentOrNull(long id) {
+        int index = segmentIndex(id);
+        Object[] current = segments;
+        return index < current.length ? (S) current[index] : null;
+    }
+
+    /** 写路径：段不存在时创建 */
+    @SuppressWarnings("unchecked")
+    final S segmentFor(long id) {
+        int index = segmentIndex(id);
+        Object[] current = segments;
+        if (index < current.length && current[index] != null) {
+            return (S) current[index];
+        }
+        synchronized (this) {
+            current = segments;
+            if (index >= current.length) {
+                Object[] grown = new Object[Math.max(index + 1, current.length * 2)];
+                System.arraycopy(current, 0, grown, 0, current.length);
+                current = grown;
+            } else if (current[index] != null) {
+                return (S) current[index];
+            } else {
+                current = current.clone();
+            }
+            S created = newSegment();
+            current[index] = created;
+            segments = current;
+            return created;
+        }
+    }
+
+    /** 丢弃全部段 */
+    final synchronized void clearSegments() {
+        segments = new Object[16];
+    }
+
+    static int offset(long id) {
+        return (int) (id & SEGMENT_MASK);
+    }
+
+    private static int segmentIndex(long id) {
+        if (id < 0 || id > MAX_ID) {
+            throw new IllegalArgumentException("id 超出可索引范围 [0, " + MAX_ID + "]: " + id);
+        }
+        return (int) (id >>> SEGMENT_SHIFT);
+    }
+}
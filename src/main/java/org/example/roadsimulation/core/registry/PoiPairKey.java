@@ -0,0 +1,32 @@
+package org.example.roadsimulation.core.registry;
+
+/**
+ * POI 配对键：把 (起点 id, 终点 id) 打包成一个 long，取代 "source_dest" 字符串
+ *
+ * 高 32 位为起点 id，低 32 位为终点 id，两者都必须在 [0, 2^32) 内。
+ */
+public final class PoiPairKey {
+
+    private PoiPairKey() {
+    }
+
+    public static long of(long sourceId, long destId) {
+        if ((sourceId >>> 32) != 0 || (destId >>> 32) != 0) {
+            throw new IllegalArgumentException("POI id 超出配对键范围: " + sourceId + ", " + destId);
+        }
+        return (sourceId << 32) | destId;
+    }
+
+    public static long sourceId(long pairKey) {
+        return pairKey >>> 32;
+    }
+
+    public static long destId(long pairKey) {
+        return pairKey & 0xFFFFFFFFL;
+    }
+
+    /** 日志展示用，与旧的字符串键格式一致 */
+    public static String format(long pairKey) {
+        return sourceId(pairKey) + "_" + destId(pairKey);
+    }
+}
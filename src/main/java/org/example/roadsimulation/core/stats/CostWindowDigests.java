@@ -0,0 +1,197 @@
+package org.example.roadsimulation.core.stats;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.example.roadsimulation.config.DispatchStrategy;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 按调度策略 × 成本维度（A–E）的单位成本分位数草图集合
+ *
+ * 每个策略 5 个 {@link TDigest}，可跨运行 / 跨进程合并；JSON 形式为
+ * {@code {"a": {"count", "min", "max", "means": [...], "weights": [...]}, ..., "e": {...}}}，
+ * 嵌在基线文件每个策略节点的 "digests" 字段下。非线程安全。
+ */
+public final class CostWindowDigests {
+
+    public static final String[] DIMENSIONS = {"a", "b", "c", "d", "e"};
+
+    private final double compression;
+    private final Map<DispatchStrategy, TDigest[]> byStrategy = new EnumMap<>(DispatchStrategy.class);
+
+    public CostWindowDigests() {
+        this(TDigest.DEFAULT_COMPRESSION);
+    }
+
+    public CostWindowDigests(double compression) {
+        this.compression = compression;
+    }
+
+    public double compression() {
+        return compression;
+    }
+
+    public void add(CostWindowSample sample) {
+        TDigest[] digests = digests(sample.strategy());
+        for (int d = 0; d < DIMENSIONS.length; d++) {
+            digests[d].add(sample.unit(d));
+        }
+    }
+
+    public void merge(CostWindowDigests other) {
+        for (Map.Entry<DispatchStrategy, TDigest[]> entry : other.byStrategy.entrySet()) {
+            TDigest[] digests = digests(entry.getKey());
+            for (int d = 0; d < DIMENSIONS.length; d++) {
+                digests[d].merge(entry.getValue()[d]);
+            }
+        }
+    }
+
+    public long sampleCount(DispatchStrategy strategy) {
+        TDigest[] digests = byStrategy.get(strategy);
+        return digests == null ? 0L : Math.round(digests[0].count());
+    }
+
+    /** 各维度的 q 分位数（A..E），该策略没有样本时全为 NaN */
+    public double[] quantiles(DispatchStrategy strategy, double q) {
+        double[] values = new double[DIMENSIONS.length];
+        TDigest[] digests = byStrategy.get(strategy);
+        for (int d = 0; d < DIMENSIONS.length; d++) {
+            values[d] = digests == null ? Double.NaN : digests[d].quantile(q);
+        }
+        return values;
+    }
+
+    // ==================== JSON ====================
+
+    public ObjectNode toJson() {
+        ObjectNode root = JsonNodeFactory.instance.objectNode();
+        root.put("compression", compression);
+        ObjectNode strategies = root.putObject("strategies");
+        for (DispatchStrategy strategy : byStrategy.keySet()) {
+            strategies.set(strategy.name(), strategyToJson(strategy));
+        }
+        return root;
+    }
+
+    public static CostWindowDigests fromJson(JsonNode root) {
+        CostWindowDigests digests = new CostWindowDigests(
+                root.path("compression").asDouble(TDigest.DEFAULT_COMPRESSION));
+        JsonNode strategies = root.path("strategies");
+        for (DispatchStrategy strategy : DispatchStrategy.values()) {
+            if (strategies.has(strategy.name())) {
+                digests.mergeStrategyJson(strategy, strategies.get(strategy.name()));
+            }
+        }
+        return digests;
+    }
+
+    // ==================== 基线文件 ====================
+
+    /**
+     * 从基线文件读取各策略的 "digests"（旧格式没有草图的策略视为空）
+     */
+    public static CostWindowDigests fromBaseline(JsonNode baselineRoot) {
+        CostWindowDigests digests = new CostWindowDigests(
+                baselineRoot.path("compression").asDouble(TDigest.DEFAULT_COMPRESSION));
+        JsonNode strategies = baselineRoot.path("strategies");
+        for (DispatchStrategy strategy : DispatchStrategy.values()) {
+            JsonNode digestNode = strategies.path(strategy.name()).path("digests");
+            if (digestNode.isObject()) {
+                digests.mergeStrategyJson(strategy, digestNode);
+            }
+        }
+        return digests;
+    }
+
+    /**
+     * 把有样本的策略写入基线文件的 strategies 节点：sampleCount、p90、p95（A..E）与 digests，
+     * 节点中的其它字段保持不变
+     */
+    public void writeBaselineStrategies(ObjectNode strategies) {
+        for (DispatchStrategy strategy : byStrategy.keySet()) {
+            if (sampleCount(strategy) == 0) {
+                continue;
+            }
+            JsonNode existing = strategies.get(strategy.name());
+            ObjectNode node = existing instanceof ObjectNode object ? object : strategies.putObject(strategy.name());
+            node.put("sampleCount", sampleCount(strategy));
+            node.set("p90", percentileJson(quantiles(strategy, 0.90)));
+            node.set("p95", percentileJson(quantiles(strategy, 0.95)));
+            node.set("digests", strategyToJson(strategy));
+        }
+    }
+
+    /** A..E 的一组分位数，缺失值写 0（与标定 IT 的空样本口径一致） */
+    public static ObjectNode percentileJson(double[] values) {
+        ObjectNode node = JsonNodeFactory.instance.objectNode();
+        for (int d = 0; d < DIMENSIONS.length; d++) {
+            node.put(DIMENSIONS[d], Double.isNaN(values[d]) ? 0.0 : values[d]);
+        }
+        return node;
+    }
+
+    /** 单个策略的 5 个维度草图 */
+    public ObjectNode strategyToJson(DispatchStrategy strategy) {
+        ObjectNode node = JsonNodeFactory.instance.objectNode();
+        TDigest[] digests = digests(strategy);
+        for (int d = 0; d < DIMENSIONS.length; d++) {
+            TDigest digest = digests[d];
+            ObjectNode dimension = node.putObject(DIMENSIONS[d]);
+            dimension.put("count", digest.count());
+            if (digest.count() > 0) {
+                dimension.put("min", digest.min());
+                dimension.put("max", digest.max());
+            }
+            ArrayNode means = dimension.putArray("means");
+            for (double mean : digest.centroidMeans()) {
+                means.add(mean);
+            }
+            ArrayNode weights = dimension.putArray("weights");
+            for (double weight : digest.centroidWeights()) {
+                weights.add(weight);
+            }
+        }
+        return node;
+    }
+
+    /** 把 {@link #strategyToJson} 的结果并入当前草图；缺失的维度跳过 */
+    public void mergeStrategyJson(DispatchStrategy strategy, JsonNode node) {
+        if (node == null || !node.isObject()) {
+            return;
+        }
+        TDigest[] digests = digests(strategy);
+        for (int d = 0; d < DIMENSIONS.length; d++) {
+            JsonNode dimension = node.path(DIMENSIONS[d]);
+            JsonNode means = dimension.path("means");
+            JsonNode weights = dimension.path("weights");
+            if (!means.isArray() || !weights.isArray() || means.size() != weights.size() || means.isEmpty()) {
+                continue;
+            }
+            double[] meanValues = new double[means.size()];
+            double[] weightValues = new double[weights.size()];
+            for (int i = 0; i < meanValues.length; i++) {
+                meanValues[i] = means.get(i).asDouble();
+                weightValues[i] = weights.get(i).asDouble();
+            }
+            digests[d].merge(TDigest.fromCentroids(compression,
+                    dimension.path("min").asDouble(Double.POSITIVE_INFINITY),
+                    dimension.path("max").asDouble(Double.NEGATIVE_INFINITY),
+                    meanValues, weightValues));
+        }
+    }
+
+    private TDigest[] digests(DispatchStrategy strategy) {
+        return byStrategy.computeIfAbsent(strategy, s -> {
+            TDigest[] digests = new TDigest[DIMENSIONS.length];
+            for (int d = 0; d < DIMENSIONS.length; d++) {
+                digests[d] = new TDigest(compression);
+            }
+            return digests;
+        });
+    }
+}
@@ -0,0 +1,89 @@
+package org.example.roadsimulation.core.stats;
+
+import org.example.roadsimulation.config.DispatchStrategy;
+
+/**
+ * 相邻两次调度之间的一个成本窗口样本（成本基线标定与归一化共用同一套口径）
+ *
+ * A / C / D 为窗口内增量按任务规模摊薄，B / E 为窗口首尾的平均水平；
+ * 任务规模 = 窗口开始时未分配的运单项 + 窗口内新生成的运单项（至少为 1）。
+ */
+public record CostWindowSample(
+        DispatchStrategy strategy,
+        int runIndex,
+        long runStartEpochMillis,
+        int windowIndex,
+        int startLoop,
+        int endLoop,
+        long taskScale,
+        Snapshot start,
+        Snapshot end,
+        double unitA,
+        double unitB,
+        double unitC,
+        double unitD,
+        double unitE
+) {
+
+    /**
+     * 一次调度时刻的累计成本与运单项规模
+     */
+    public record Snapshot(
+            double costA,
+            double costB,
+            double costC,
+            double costD,
+            double costE,
+            long totalShipmentItems,
+            long notAssignedItems
+    ) {
+    }
+
+    public static CostWindowSample of(
+            DispatchStrategy strategy,
+            int runIndex,
+            long runStartEpochMillis,
+            int windowIndex,
+            int startLoop,
+            int endLoop,
+            Snapshot start,
+            Snapshot end
+    ) {
+        long taskScale = taskScale(start, end);
+        return new CostWindowSample(
+                strategy,
+                runIndex,
+                runStartEpochMillis,
+                windowIndex,
+                startLoop,
+                endLoop,
+                taskScale,
+                start,
+                end,
+                Math.max(0.0, end.costA() - start.costA()) / taskScale,
+                (start.costB() + end.costB()) / 2.0,
+                Math.max(0.0, end.costC() - start.costC()) / taskScale,
+                Math.max(0.0, end.costD() - start.costD()) / taskScale,
+                (start.costE() + end.costE()) / 2.0
+        );
+    }
+
+    public static long taskScale(Snapshot start, Snapshot end) {
+        return Math.max(
+                1L,
+                start.notAssignedItems() + Math.max(0L, end.totalShipmentItems() - start.totalShipmentItems())
+        );
+    }
+
+    /** 按维度取单位成本（0..4 对应 A..E） */
+    public double unit(int dimension) {
+        return switch (dimension) {
+            case 0 -> unitA;
+            case 1 -> unitB;
+            case 2 -> unitC;
+            case 3 -> unitD;
+            case 4 -> unitE;
+            default -> throw new IllegalArgumentException("未知成本维度：" + dimension);
+        };
+    }
+}
@@ -0,0 +1,254 @@
+package org.example.roadsimulation.core.stats;
+
+import java.util.Arrays;
+
+/**
+ * 可合并的流式分位数草图（merging t-digest，k1 尺度函数）
+ *
+ * 样本先进缓冲区，缓冲区满或查询时与现有质心一起按均值排序、按 k 尺度合并；
+ * 质心数上界约为 compression，内存与样本总数无关。两端（q 接近 0 / 1）的质心更小，
+ * 因此 P90 / P95 这类尾部分位数的误差远小于中位数附近。
+ *
+ * 多个草图可以 {@link #merge} 合并（跨运行、跨进程），也可以按质心导出 / 恢复用于持久化。
+ * 非线程安全。
+ */
+public final class TDigest {
+
+    public static final double DEFAULT_COMPRESSION = 100.0;
+
+    private final double compression;
+
+    private double[] mean;
+    private double[] weight;
+    private int centroids;
+
+    private final double[] bufferMean;
+    private final double[] bufferWeight;
+    private int buffered;
+
+    private double totalWeight;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public TDigest() {
+        this(DEFAULT_COMPRESSION);
+    }
+
+    public TDigest(double compression) {
+        if (!(compression >= 10.0)) {
+            throw new IllegalArgumentException("compression 必须 ≥ 10：" + compression);
+        }
+        this.compression = compression;
+        int capacity = (int) Math.ceil(compression) * 2 + 10;
+        this.mean = new double[capacity];
+        this.weight = new double[capacity];
+        this.bufferMean = new double[capacity * 5];
+        this.bufferWeight = new double[capacity * 5];
+    }
+
+    /**
+     * 由导出的质心恢复（{@link #centroidMeans()} / {@link #centroidWeights()} 的结果）
+     */
+    public static TDigest fromCentroids(double compression, double min, double max,
+                                        double[] means, double[] weights) {
+        if (means.length != weights.length) {
+            throw new IllegalArgumentException("means 与 weights 长度不一致");
+        }
+        TDigest digest = new TDigest(compression);
+        for (int i = 0; i < means.length; i++) {
+            digest.add(means[i], weights[i]);
+        }
+        if (digest.totalWeight > 0) {
+            digest.min = Math.min(digest.min, min);
+            digest.max = Math.max(digest.max, max);
+        }
+        return digest;
+    }
+
+    public void add(double value) {
+        add(value, 1.0);
+    }
+
+    /** 非有限值与非正权重直接忽略 */
+    public void add(double value, double w) {
+        if (!Double.isFinite(value) || !(w > 0.0) || !Double.isFinite(w)) {
+            return;
+        }
+        if (buffered == bufferMean.length) {
+            compress();
+        }
+        bufferMean[buffered] = value;
+        bufferWeight[buffered] = w;
+        buffered++;
+        totalWeight += w;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /** 把另一个草图的全部样本并入本草图（other 不变） */
+    public void merge(TDigest other) {
+        if (other == null || other.totalWeight == 0.0) {
+            return;
+        }
+        other.compress();
+        for (int i = 0; i < other.centroids; i++) {
+            add(other.mean[i], other.weight[i]);
+        }
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /** 样本总权重（未加权时即样本数） */
+    public double count() {
+        return totalWeight;
+    }
+
+    public double compression() {
+        return compression;
+    }
+
+    public double min() {
+        return totalWeight > 0 ? min : Double.NaN;
+    }
+
+    public double max() {
+        return totalWeight > 0 ? max : Double.NaN;
+    }
+
+    /**
+     * 估计 q 分位数（0 ≤ q ≤ 1），没有样本时返回 NaN
+     *
+     * 质心视为集中在其累计权重的中点，相邻质心之间线性插值；首尾质心与 min / max 之间同样插值。
+     */
+    public double quantile(double q) {
+        if (q < 0.0 || q > 1.0) {
+            throw new IllegalArgumentException("q 必须在 [0, 1] 内：" + q);
+        }
+        compress();
+        if (centroids == 0) {
+            return Double.NaN;
+        }
+        if (centroids == 1) {
+            return mean[0];
+        }
+
+        double index = q * totalWeight;
+        double firstCenter = weight[0] / 2.0;
+        if (index <= firstCenter) {
+            return interpolate(index, 0.0, min, firstCenter, mean[0]);
+        }
+
+        double cumulative = 0.0;
+        for (int i = 0; i < centroids - 1; i++) {
+            double center = cumulative + weight[i] / 2.0;
+            double nextCenter = cumulative + weight[i] + weight[i + 1] / 2.0;
+            if (index <= nextCenter) {
+                return interpolate(index, center, mean[i], nextCenter, mean[i + 1]);
+            }
+            cumulative += weight[i];
+        }
+
+        double lastCenter = totalWeight - weight[centroids - 1] / 2.0;
+        return interpolate(index, lastCenter, mean[centroids - 1], totalWeight, max);
+    }
+
+    /** 导出质心均值（升序），与 {@link #centroidWeights()} 一一对应 */
+    public double[] centroidMeans() {
+        compress();
+        return Arrays.copyOf(mean, centroids);
+    }
+
+    public double[] centroidWeights() {
+        compress();
+        return Arrays.copyOf(weight, centroids);
+    }
+
+    public int centroidCount() {
+        compress();
+        return centroids;
+    }
+
+    // ==================== 内部 ====================
+
+    private static double interpolate(double x, double x0, double y0, double x1, double y1) {
+        if (x1 <= x0) {
+            return y1;
+        }
+        double t = (x - x0) / (x1 - x0);
+        return y0 + (y1 - y0) * Math.max(0.0, Math.min(1.0, t));
+    }
+
+    /** 缓冲区与现有质心一起排序，按 k1 尺度从左到右贪心合并 */
+    private void compress() {
+        if (buffered == 0) {
+            return;
+        }
+        int n = centroids + buffered;
+        double[] allMean = new double[n];
+        double[] allWeight = new double[n];
+        System.arraycopy(mean, 0, allMean, 0, centroids);
+        System.arraycopy(weight, 0, allWeight, 0, centroids);
+        System.arraycopy(bufferMean, 0, allMean, centroids, buffered);
+        System.arraycopy(bufferWeight, 0, allWeight, centroids, buffered);
+        buffered = 0;
+        sortByMean(allMean, allWeight, n);
+
+        int out = 0;
+        double soFar = 0.0;
+        double currentMean = allMean[0];
+        double currentWeight = allWeight[0];
+        double weightLimit = totalWeight * qOfK(kOfQ(0.0) + 1.0);
+        for (int i = 1; i < n; i++) {
+            if (soFar + currentWeight + allWeight[i] <= weightLimit) {
+                currentWeight += allWeight[i];
+                currentMean += (allMean[i] - currentMean) * allWeight[i] / currentWeight;
+            } else {
+                out = emit(out, currentMean, currentWeight);
+                soFar += currentWeight;
+                weightLimit = totalWeight * qOfK(kOfQ(soFar / totalWeight) + 1.0);
+                currentMean = allMean[i];
+                currentWeight = allWeight[i];
+            }
+        }
+        centroids = emit(out, currentMean, currentWeight);
+    }
+
+    private int emit(int out, double m, double w) {
+        if (out == mean.length) {
+            mean = Arrays.copyOf(mean, out * 2);
+            weight = Arrays.copyOf(weight, out * 2);
+        }
+        mean[out] = m;
+        weight[out] = w;
+        return out + 1;
+    }
+
+    /** k1(q) = δ / (2π) · asin(2q − 1) */
+    private double kOfQ(double q) {
+        return compression / (2.0 * Math.PI) * Math.asin(Math.max(-1.0, Math.min(1.0, 2.0 * q - 1.0)));
+    }
+
+    private double qOfK(double k) {
+        double limit = compression / 4.0;
+        if (k >= limit) {
+            return 1.0;
+        }
+        return (Math.sin(k * 2.0 * Math.PI / compression) + 1.0) / 2.0;
+    }
+
+    private static void sortByMean(double[] means, double[] weights, int n) {
+        Integer[] index = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            index[i] = i;
+        }
+        Arrays.sort(index, (a, b) -> Double.compare(means[a], means[b]));
+        double[] sortedMean = new double[n];
+        double[] sortedWeight = new double[n];
+        for (int i = 0; i < n; i++) {
+            sortedMean[i] = means[index[i]];
+            sortedWeight[i] = weights[index[i]];
+        }
+        System.arraycopy(sortedMean, 0, means, 0, n);
+        System.arraycopy(sortedWeight, 0, weights, 0, n);
+    }
+}
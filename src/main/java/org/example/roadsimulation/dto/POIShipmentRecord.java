@@ -1,5 +1,6 @@
 package org.example.roadsimulation.dto;
 
+import org.example.roadsimulation.core.registry.PoiPairKey;
 import org.example.roadsimulation.entity.POI;
 import org.example.roadsimulation.entity.Shipment;
 
@@ -10,7 +11,7 @@ import java.time.LocalDateTime;
  */
 public class POIShipmentRecord {
 
-    private final String pairKey;
+    private final long pairKey;
     private final Long sourcePoiId;
     private final Long destPoiId;
     private final Long shipmentId;
@@ -19,16 +20,24 @@ public class POIShipmentRecord {
     private boolean active;
 
     public POIShipmentRecord(POI source, POI dest, Shipment shipment) {
-        this.pairKey = source.getId() + "_" + dest.getId();
+        this(source, dest, shipment, LocalDateTime.now());
+    }
+
+    /**
+     * @param createdAt 创建时间（仿真时间），超时判断以此为基准
+     */
+    public POIShipmentRecord(POI source, POI dest, Shipment shipment, LocalDateTime createdAt) {
+        this.pairKey = PoiPairKey.of(source.getId(), dest.getId());
         this.sourcePoiId = source.getId();
         this.destPoiId = dest.getId();
         this.shipmentId = shipment != null ? shipment.getId() : null;
-        this.createdAt = LocalDateTime.now();
+        this.createdAt = createdAt;
         this.lastUpdated = this.createdAt;
         this.active = true;
     }
 
-    public String getPairKey() { return pairKey; }
+    /** 打包的配对键，见 {@link PoiPairKey} */
+    public long getPairKey() { return pairKey; }
     public Long getSourcePoiId() { return sourcePoiId; }
     public Long getDestPoiId() { return destPoiId; }
     public Long getShipmentId() { return shipmentId; }
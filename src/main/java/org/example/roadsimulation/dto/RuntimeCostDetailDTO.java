@@ -16,6 +16,7 @@ public class RuntimeCostDetailDTO {
     private CostEDetail costE;
     private WindowDetail window;
     private BaselineDetail baseline;
+    private LivePercentileDetail livePercentiles;
 
     @Data
     public static class CostADetail {
@@ -108,4 +109,22 @@ public class RuntimeCostDetailDTO {
         private Double runtimeWeightD;
         private Double runtimeWeightE;
     }
+
+    @Data
+    public static class LivePercentileDetail {
+        private String strategy;
+        private Long sampleCount;
+        private UnitCostPercentiles p50;
+        private UnitCostPercentiles p90;
+        private UnitCostPercentiles p95;
+    }
+
+    @Data
+    public static class UnitCostPercentiles {
+        private Double unitCostA;
+        private Double unitCostB;
+        private Double unitCostC;
+        private Double unitCostD;
+        private Double unitCostE;
+    }
 }
@@ -18,7 +18,8 @@ import java.util.List;
 public class AssignmentLeg {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "assignment_leg_seq")
+    @SequenceGenerator(name = "assignment_leg_seq", sequenceName = "assignment_leg_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -12,7 +12,8 @@ import java.time.LocalDateTime;
 public class AssignmentNode {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "assignment_nodes_seq")
+    @SequenceGenerator(name = "assignment_nodes_seq", sequenceName = "assignment_nodes_seq", allocationSize = 50)
     private Long id;
 
     // 所属的运输任务
@@ -3,6 +3,8 @@ package org.example.roadsimulation.entity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -12,6 +14,7 @@ import java.util.Set;
 /**
  * Goods（货物主数据）
  * 作为标准化的货物/SKU 定义，ShipmentItem 引用它以实现复用与分类管理。
+ * 主数据运行期几乎不变，开启二级缓存。
  */
 @Entity
 @Table(
@@ -20,6 +23,8 @@ import java.util.Set;
                 @UniqueConstraint(name = "uk_goods_sku", columnNames = "sku")
         }
 )
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Goods {
 
     @Id
@@ -66,7 +71,8 @@ public class Goods {
     @OneToMany(mappedBy = "goods", cascade = {CascadeType.PERSIST, CascadeType.MERGE}, fetch = FetchType.LAZY)
     private Set<ShipmentItem> shipmentItems = new HashSet<>();
 
-    @OneToMany(mappedBy = "goods", cascade = {CascadeType.PERSIST, CascadeType.MERGE}, fetch = FetchType.EAGER)
+    // 懒加载：避免每次加载货物都连带查询全部 POI 登记
+    @OneToMany(mappedBy = "goods", cascade = {CascadeType.PERSIST, CascadeType.MERGE}, fetch = FetchType.LAZY)
     private List<Enrollment> enrollments = new ArrayList<>();
 
     @Column(name = "vehicle_fit")
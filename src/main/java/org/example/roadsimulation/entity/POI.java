@@ -2,6 +2,8 @@ package org.example.roadsimulation.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -16,13 +18,17 @@ import java.util.Set;
  * 1. 表示系统中的关键点，如仓库、配送中心、工厂等
  * 2. 与 Vehicle 维护一对多双向关系（一个 POI 可包含多辆车）
  * 3. 支持基本属性：名称、经纬度、类型
+ * 4. 运行期几乎不变，开启二级缓存（Caffeine / JCache）
  */
 @Entity
 @Table(name = "poi")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class POI {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "poi_seq")
+    @SequenceGenerator(name = "poi_seq", sequenceName = "poi_seq", allocationSize = 50)
     private Long id; // POI 唯一主键
 
     @Column(nullable = false)
@@ -83,8 +89,9 @@ public class POI {
 
     /**
      * 一对多关系： 一个 POI 可以产生或接受多个种类的货物
+     * 懒加载：需要货物登记时使用 POIRepository.findByIdWithEnrollments 显式抓取
      */
-    @OneToMany(mappedBy = "poi", cascade = CascadeType.PERSIST, fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "poi", cascade = CascadeType.PERSIST, fetch = FetchType.LAZY)
     @JsonIgnore
     private List<Enrollment> enrollments = new ArrayList<>();
 
@@ -2,15 +2,20 @@ package org.example.roadsimulation.entity;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 import java.util.*;
 
 /**
  * 加工链主表 - 定义完整的跨 POI 加工流程
  * 支持 Y 形加工链（多链合并）
+ * 运行期几乎不变，实体与工序集合均开启二级缓存
  */
 @Entity
 @Table(name = "processing_chain")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class ProcessingChain {
 
     @Id
@@ -55,6 +60,7 @@ public class ProcessingChain {
      * 例如：加工链 C 的 predecessorChainIds = [A.id, B.id]
      */
     @ElementCollection
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @CollectionTable(name = "processing_chain_predecessors", 
                      joinColumns = @JoinColumn(name = "chain_id"))
     @Column(name = "predecessor_chain_id")
@@ -73,7 +79,9 @@ public class ProcessingChain {
     @Column(name = "input_materials", columnDefinition = "TEXT")
     private String inputMaterials;
 
-    @OneToMany(mappedBy = "processingChain", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+    // 懒加载：需要工序时使用 ProcessingChainRepository.findByStatusWithStages 显式抓取
+    @OneToMany(mappedBy = "processingChain", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @OrderBy("stageOrder ASC")
     private List<ProcessingStage> stages = new ArrayList<>();
     
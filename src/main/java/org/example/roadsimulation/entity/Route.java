@@ -16,7 +16,8 @@ import java.util.Set;
 @Table(name = "route")
 public class Route {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "route_seq")
+    @SequenceGenerator(name = "route_seq", sequenceName = "route_seq", allocationSize = 50)
     private Long id;
 
     //@NotBlank(message = "路线编号不能为空")
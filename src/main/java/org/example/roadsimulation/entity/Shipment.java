@@ -6,6 +6,8 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 
+import org.example.roadsimulation.persistence.ShipmentStateListener;
+
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
@@ -15,6 +17,7 @@ import java.util.Set;
  * 支持 Y 形加工链（多链合并）
  */
 @Entity
+@EntityListeners(ShipmentStateListener.class)
 @Table(
         name = "shipment",
         indexes = {
@@ -32,7 +35,8 @@ import java.util.Set;
 public class Shipment {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "shipment_seq")
+    @SequenceGenerator(name = "shipment_seq", sequenceName = "shipment_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "参考号不能为空")
@@ -82,6 +86,10 @@ public class Shipment {
     @Column(name = "status", length = 20, nullable = false)
     private ShipmentStatus status = ShipmentStatus.CREATED;
 
+    /** 最近一次从数据库加载 / 写入时的状态，供进度计数器计算增量 */
+    @Transient
+    private ShipmentStatus persistedStatus;
+
     // 与客户的多对一关系
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "customer_id")
@@ -286,6 +294,14 @@ public class Shipment {
         this.status = status;
     }
 
+    public ShipmentStatus getPersistedStatus() {
+        return persistedStatus;
+    }
+
+    public void rememberPersistedState() {
+        this.persistedStatus = status;
+    }
+
     public Customer getCustomer() {
         return customer;
     }
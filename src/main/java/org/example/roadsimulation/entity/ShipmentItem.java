@@ -5,12 +5,15 @@ import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 
+import org.example.roadsimulation.persistence.ShipmentStateListener;
+
 import java.time.LocalDateTime;
 
 /**
  * 运单明细 - 方案 A：直接添加加工字段
  */
 @Entity
+@EntityListeners(ShipmentStateListener.class)
 @Table(
         name = "shipment_item",
         indexes = {
@@ -23,7 +26,8 @@ import java.time.LocalDateTime;
 public class ShipmentItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "shipment_item_seq")
+    @SequenceGenerator(name = "shipment_item_seq", sequenceName = "shipment_item_seq", allocationSize = 50)
     private Long id;
 
     @NotNull(message = "运单不能为空")
@@ -123,6 +127,14 @@ public class ShipmentItem {
     @Column(name = "weight")
     private Double weight;
 
+    /** 最近一次从数据库加载 / 写入时的状态、重量、体积，供进度计数器计算增量 */
+    @Transient
+    private ShipmentItemStatus persistedStatus;
+    @Transient
+    private double persistedWeight;
+    @Transient
+    private double persistedVolume;
+
     @Min(value = 0, message = "体积不能为负数")
     @Column(name = "volume")
     private Double volume;
@@ -246,6 +258,15 @@ public class ShipmentItem {
     public Double getVolume() { return volume; }
     public void setVolume(Double volume) { this.volume = volume; }
 
+    public ShipmentItemStatus getPersistedStatus() { return persistedStatus; }
+    public double getPersistedWeight() { return persistedWeight; }
+    public double getPersistedVolume() { return persistedVolume; }
+    public void rememberPersistedState() {
+        this.persistedStatus = status;
+        this.persistedWeight = weight != null ? weight : 0.0;
+        this.persistedVolume = volume != null ? volume : 0.0;
+    }
+
     public LocalDateTime getCreatedTime() { return createdTime; }
     public void setCreatedTime(LocalDateTime createdTime) { this.createdTime = createdTime; }
 
@@ -0,0 +1,269 @@
+package org.example.roadsimulation.experiment;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.example.roadsimulation.config.DispatchStrategy;
+import org.example.roadsimulation.core.stats.CostWindowDigests;
+import org.example.roadsimulation.core.stats.TDigest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 并行的成本基线标定（Monte-Carlo）
+ *
+ * 协调进程把 策略 × 运行序号 的全部运行按轮转分给 N 个 worker；每个 worker 先得到一份从基础库复制出的
+ * 独立 schema，再以独立 JVM（{@link CostBaselineCalibrationWorker}）在其上顺序执行分到的运行。
+ * worker 只回传 A–E 单位成本的分位数草图，协调进程合并后输出与 CostBaselineCalibrationIT 相同结构的
+ * baseline-result.json（P90 / P95 由合并后的草图给出，另附 "digests" 供后续增量合并），
+ * 可被 CostBaselineNormalizationService 直接读取。
+ *
+ * 用法（需可访问的 MySQL，基础库中已有车辆 / POI / 货物等基础数据）：
+ * <pre>
+ * java -cp ... org.example.roadsimulation.experiment.CostBaselineCalibrationEngine \
+ *     --runs=500 --workers=8 --totalLoops=60 --seed=20260101 --outputDir=target/cost-baseline
+ * </pre>
+ * 数据库连接默认取 classpath 下 application.properties 的 spring.datasource.*，可用
+ * --jdbcUrl / --username / --password 覆盖；--keepSchemas=true 保留 worker schema，--samplesCsv=true 输出原始样本。
+ */
+public final class CostBaselineCalibrationEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(CostBaselineCalibrationEngine.class);
+
+    public static final String BASELINE_VERSION = "dispatch-window-v1";
+
+    private static final long SEED_STRIDE = 0x9E3779B97F4A7C15L;
+    private static final List<DispatchStrategy> STRATEGIES = List.of(DispatchStrategy.ORIGINAL, DispatchStrategy.HEURISTIC);
+
+    private final Options options;
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    public CostBaselineCalibrationEngine(Options options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.from(ExperimentArgs.parse(args));
+        Result result = new CostBaselineCalibrationEngine(options).run();
+        System.exit(result.failedRuns() == 0 && result.failedWorkers() == 0 ? 0 : 1);
+    }
+
+    /**
+     * 标定参数
+     *
+     * @param runs       每个策略的运行次数
+     * @param totalLoops 每次运行驱动的主循环轮数（0..totalLoops）
+     * @param workers    并发 worker 进程数（每个一份独立 schema）
+     */
+    public record Options(
+            int runs,
+            int totalLoops,
+            int workers,
+            long baseSeed,
+            double compression,
+            Path outputDir,
+            String jdbcUrl,
+            String username,
+            String password,
+            boolean keepSchemas,
+            boolean samplesCsv,
+            List<String> workerJvmArgs
+    ) {
+        static Options from(ExperimentArgs args) throws IOException {
+            Properties defaults = ExperimentArgs.applicationProperties();
+            String workerJvmArgs = args.string("workerJvmArgs", "");
+            return new Options(
+                    args.positiveInt("runs", 100),
+                    args.nonNegativeInt("totalLoops", 60),
+                    args.positiveInt("workers", Math.max(1, Runtime.getRuntime().availableProcessors() / 2)),
+                    args.longValue("seed", 20260101L),
+                    args.doubleValue("compression", TDigest.DEFAULT_COMPRESSION),
+                    Path.of(args.string("outputDir", "target/cost-baseline")),
+                    args.string("jdbcUrl", defaults.getProperty("spring.datasource.url")),
+                    args.string("username", defaults.getProperty("spring.datasource.username", "root")),
+                    args.string("password", defaults.getProperty("spring.datasource.password", "")),
+                    args.bool("keepSchemas", false),
+                    args.bool("samplesCsv", false),
+                    workerJvmArgs.isBlank() ? List.of() : List.of(workerJvmArgs.trim().split("\\s+"))
+            );
+        }
+    }
+
+    public record Result(CostWindowDigests digests, int completedRuns, int failedRuns, int failedWorkers, Path baselineFile) {
+    }
+
+    public Result run() throws IOException, InterruptedException {
+        Files.createDirectories(options.outputDir());
+        List<List<CostBaselineCalibrationWorker.PlannedRun>> plans = plan(options);
+        IsolatedSchemaProvisioner provisioner =
+                new IsolatedSchemaProvisioner(options.jdbcUrl(), options.username(), options.password());
+
+        long start = System.currentTimeMillis();
+        logger.info("成本基线标定开始：runs={} × {}，workers={}，totalLoops={}，baseSchema={}",
+                options.runs(), STRATEGIES, plans.size(), options.totalLoops(), provisioner.baseSchema());
+
+        ExecutorService executor = Executors.newFixedThreadPool(plans.size());
+        List<Future<JsonNode>> futures = new ArrayList<>();
+        try {
+            for (int w = 0; w < plans.size(); w++) {
+                int workerIndex = w;
+                futures.add(executor.submit(() -> runWorker(provisioner, workerIndex, plans.get(workerIndex))));
+            }
+
+            CostWindowDigests merged = new CostWindowDigests(options.compression());
+            ArrayNode completedRuns = objectMapper.createArrayNode();
+            int failedRuns = 0;
+            int failedWorkers = 0;
+            for (int w = 0; w < futures.size(); w++) {
+                try {
+                    JsonNode workerResult = futures.get(w).get();
+                    merged.merge(CostWindowDigests.fromJson(workerResult.path("digests")));
+                    workerResult.path("completedRuns").forEach(completedRuns::add);
+                    failedRuns += workerResult.path("failedRuns").size();
+                } catch (ExecutionException e) {
+                    failedWorkers++;
+                    logger.error("标定 worker {} 失败", w, e.getCause());
+                }
+            }
+
+            Path baselineFile = options.outputDir().resolve("baseline-result.json");
+            objectMapper.writeValue(baselineFile.toFile(), baselineJson(merged, completedRuns, plans.size()));
+            if (options.samplesCsv()) {
+                concatenateSampleCsv(plans.size());
+            }
+            logger.info("成本基线标定完成：completedRuns={}，failedRuns={}，failedWorkers={}，耗时 {}s，输出 {}",
+                    completedRuns.size(), failedRuns, failedWorkers,
+                    (System.currentTimeMillis() - start) / 1000, baselineFile.toAbsolutePath());
+            return new Result(merged, completedRuns.size(), failedRuns, failedWorkers, baselineFile);
+        } finally {
+            executor.shutdownNow();
+            if (!options.keepSchemas()) {
+                for (int w = 0; w < plans.size(); w++) {
+                    provisioner.drop(workerSuffix(w));
+                }
+            }
+        }
+    }
+
+    /**
+     * 策略 × 运行序号 按轮转分给 worker，两种策略在每个 worker 上交替出现，避免某个 worker 只跑慢策略
+     */
+    static List<List<CostBaselineCalibrationWorker.PlannedRun>> plan(Options options) {
+        int total = STRATEGIES.size() * options.runs();
+        int workers = Math.min(options.workers(), total);
+        List<List<CostBaselineCalibrationWorker.PlannedRun>> plans = new ArrayList<>();
+        for (int w = 0; w < workers; w++) {
+            plans.add(new ArrayList<>());
+        }
+        int task = 0;
+        for (int runIndex = 1; runIndex <= options.runs(); runIndex++) {
+            for (int s = 0; s < STRATEGIES.size(); s++) {
+                DispatchStrategy strategy = STRATEGIES.get(s);
+                long seed = options.baseSeed() + SEED_STRIDE * ((long) runIndex * STRATEGIES.size() + s);
+                plans.get(task++ % workers).add(new CostBaselineCalibrationWorker.PlannedRun(strategy, runIndex, seed));
+            }
+        }
+        return plans;
+    }
+
+    private JsonNode runWorker(IsolatedSchemaProvisioner provisioner, int workerIndex,
+                               List<CostBaselineCalibrationWorker.PlannedRun> plan) throws Exception {
+        String jdbcUrl = provisioner.provision(workerSuffix(workerIndex));
+
+        Path planFile = options.outputDir().resolve("worker-" + workerIndex + ".plan");
+        Path resultFile = options.outputDir().resolve("worker-" + workerIndex + ".json");
+        Path logFile = options.outputDir().resolve("worker-" + workerIndex + ".log");
+        Files.write(planFile, plan.stream().map(CostBaselineCalibrationWorker::planLine).toList(), StandardCharsets.UTF_8);
+        Files.deleteIfExists(resultFile);
+
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=" + jdbcUrl,
+                "--spring.datasource.username=" + options.username(),
+                "--calibration.plan=" + planFile.toAbsolutePath(),
+                "--calibration.result=" + resultFile.toAbsolutePath(),
+                "--calibration.totalLoops=" + options.totalLoops(),
+                "--calibration.compression=" + options.compression()
+        ));
+        if (options.samplesCsv()) {
+            args.add("--calibration.samplesCsv=" + samplesCsvOf(workerIndex).toAbsolutePath());
+        }
+
+        Process process = WorkerProcessLauncher.launch(
+                CostBaselineCalibrationWorker.class, options.workerJvmArgs(), args, options.password(), logFile);
+        int exitCode = process.waitFor();
+        if (!Files.exists(resultFile)) {
+            throw new IllegalStateException("worker " + workerIndex + " 未产出结果，exitCode=" + exitCode
+                    + "，日志：" + logFile.toAbsolutePath());
+        }
+        if (exitCode != 0) {
+            logger.warn("worker {} 退出码 {}，使用其已完成运行的结果，日志：{}", workerIndex, exitCode, logFile.toAbsolutePath());
+        }
+        return objectMapper.readTree(resultFile.toFile());
+    }
+
+    private ObjectNode baselineJson(CostWindowDigests digests, ArrayNode completedRuns, int workers) {
+        ObjectNode root = objectMapper.createObjectNode();
+        root.put("baselineVersion", BASELINE_VERSION);
+        root.put("runs", options.runs());
+        root.put("totalLoops", options.totalLoops());
+        root.put("loopRange", "0.." + options.totalLoops());
+        root.put("workers", workers);
+        root.put("baseSeed", options.baseSeed());
+        root.put("compression", digests.compression());
+        ObjectNode strategies = root.putObject("strategies");
+        for (DispatchStrategy strategy : STRATEGIES) {
+            ObjectNode node = strategies.putObject(strategy.name());
+            node.put("sampleCount", 0);
+            node.set("p90", CostWindowDigests.percentileJson(digests.quantiles(strategy, 0.90)));
+            node.set("p95", CostWindowDigests.percentileJson(digests.quantiles(strategy, 0.95)));
+            ArrayNode seeds = node.putArray("runSeeds");
+            completedRuns.forEach(run -> {
+                if (strategy.name().equals(run.path("strategy").asText())) {
+                    seeds.add(run.path("seed").asLong());
+                }
+            });
+        }
+        digests.writeBaselineStrategies(strategies);
+        return root;
+    }
+
+    private void concatenateSampleCsv(int workers) throws IOException {
+        Path target = options.outputDir().resolve("baseline-window-samples.csv");
+        try (BufferedWriter out = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+            out.write(CostWindowSampleCsv.HEADER);
+            out.newLine();
+            for (int w = 0; w < workers; w++) {
+                Path part = samplesCsvOf(w);
+                if (Files.exists(part)) {
+                    for (String line : Files.readAllLines(part, StandardCharsets.UTF_8)) {
+                        out.write(line);
+                        out.newLine();
+                    }
+                }
+            }
+        }
+    }
+
+    private Path samplesCsvOf(int workerIndex) {
+        return options.outputDir().resolve("worker-" + workerIndex + "-samples.csv");
+    }
+
+    private static String workerSuffix(int workerIndex) {
+        return "calib_w" + workerIndex;
+    }
+}
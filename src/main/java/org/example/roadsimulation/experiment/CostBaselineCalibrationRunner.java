@@ -0,0 +1,152 @@
+package org.example.roadsimulation.experiment;
+
+import org.example.roadsimulation.DataInitializer;
+import org.example.roadsimulation.SimulationMainLoop;
+import org.example.roadsimulation.config.DispatchStrategy;
+import org.example.roadsimulation.config.SimulationRuntimeConfig;
+import org.example.roadsimulation.core.SimulationContext;
+import org.example.roadsimulation.core.SimulationRandom;
+import org.example.roadsimulation.core.stats.CostWindowSample;
+import org.example.roadsimulation.dto.RuntimeCostDTO;
+import org.example.roadsimulation.entity.CostEntity;
+import org.example.roadsimulation.entity.ShipmentItem;
+import org.example.roadsimulation.repository.AssignmentRepository;
+import org.example.roadsimulation.repository.ShipmentItemRepository;
+import org.example.roadsimulation.repository.VehicleRepository;
+import org.example.roadsimulation.service.GetCostService;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Consumer;
+
+/**
+ * 成本基线标定的单次运行：在当前上下文的数据库上重置运行时数据，按指定策略逐轮驱动主循环，
+ * 每个调度轮（loop % 3 == 0）取一次成本快照，相邻两次快照构成一个窗口样本。
+ *
+ * 运行期间独占 SimulationMainLoop / SimulationContext，同一上下文内不能并发调用。
+ */
+@Component
+public class CostBaselineCalibrationRunner {
+
+    private final SimulationMainLoop simulationMainLoop;
+    private final DataInitializer dataInitializer;
+    private final SimulationContext simulationContext;
+    private final SimulationRandom simulationRandom;
+    private final SimulationRuntimeConfig simulationRuntimeConfig;
+    private final GetCostService getCostService;
+    private final VehicleRepository vehicleRepository;
+    private final AssignmentRepository assignmentRepository;
+    private final ShipmentItemRepository shipmentItemRepository;
+
+    public CostBaselineCalibrationRunner(SimulationMainLoop simulationMainLoop,
+                                         DataInitializer dataInitializer,
+                                         SimulationContext simulationContext,
+                                         SimulationRandom simulationRandom,
+                                         SimulationRuntimeConfig simulationRuntimeConfig,
+                                         GetCostService getCostService,
+                                         VehicleRepository vehicleRepository,
+                                         AssignmentRepository assignmentRepository,
+                                         ShipmentItemRepository shipmentItemRepository) {
+        this.simulationMainLoop = simulationMainLoop;
+        this.dataInitializer = dataInitializer;
+        this.simulationContext = simulationContext;
+        this.simulationRandom = simulationRandom;
+        this.simulationRuntimeConfig = simulationRuntimeConfig;
+        this.getCostService = getCostService;
+        this.vehicleRepository = vehicleRepository;
+        this.assignmentRepository = assignmentRepository;
+        this.shipmentItemRepository = shipmentItemRepository;
+    }
+
+    /**
+     * 执行一次标定运行（主循环 0..totalLoopIndex），窗口样本逐个交给 sink
+     *
+     * @param seed 运行种子（运单生成、车辆摆放、调度求解的随机序列都由它派生）
+     * @return 本次运行产生的样本数
+     */
+    public int run(DispatchStrategy strategy, int runIndex, long seed, long runStartEpochMillis, int totalLoopIndex,
+                   Consumer<CostWindowSample> sink) {
+        prepareRun(strategy, seed);
+
+        CostWindowSample.Snapshot previousDispatchSnapshot = null;
+        int previousDispatchLoop = -1;
+        int windowIndex = 0;
+
+        try {
+            while (simulationContext.getLoopCount() <= totalLoopIndex) {
+                int loopBeforeExecute = simulationContext.getLoopCount();
+                simulationMainLoop.executeMainLoop();
+
+                if (isDispatchLoop(loopBeforeExecute)) {
+                    CostWindowSample.Snapshot currentSnapshot = currentCostSnapshot();
+                    if (previousDispatchSnapshot != null) {
+                        windowIndex++;
+                        sink.accept(CostWindowSample.of(
+                                strategy,
+                                runIndex,
+                                runStartEpochMillis,
+                                windowIndex,
+                                previousDispatchLoop,
+                                loopBeforeExecute,
+                                previousDispatchSnapshot,
+                                currentSnapshot
+                        ));
+                    }
+                    previousDispatchSnapshot = currentSnapshot;
+                    previousDispatchLoop = loopBeforeExecute;
+                }
+            }
+        } finally {
+            simulationContext.setRunning(false);
+        }
+        return windowIndex;
+    }
+
+    /** 停止主循环并清空运行时数据（不恢复车辆，车辆由下一次 run 的初始化重新摆放） */
+    public void cleanupRuntimeData() {
+        simulationContext.setRunning(false);
+        simulationMainLoop.awaitLoopIdleAndResetContext();
+        dataInitializer.resetSimulationRuntimeData();
+        CostEntity.reset();
+    }
+
+    private void prepareRun(DispatchStrategy strategy, long seed) {
+        simulationMainLoop.awaitLoopIdleAndResetContext();
+        simulationRandom.startRun(seed);
+        dataInitializer.resetSimulationRuntimeData();
+        try {
+            dataInitializer.run();
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to initialize baseline run data", e);
+        }
+        simulationRuntimeConfig.setDispatchStrategy(strategy);
+        simulationContext.finishReset();
+        simulationContext.setRunning(true);
+    }
+
+    private boolean isDispatchLoop(int loop) {
+        return loop != 0 && loop % 3 == 0;
+    }
+
+    private CostWindowSample.Snapshot currentCostSnapshot() {
+        RuntimeCostDTO costs = getCostService.calculateRuntimeCosts(
+                vehicleRepository.findAll(),
+                assignmentRepository.findRuntimeActiveAssignments()
+        );
+        return new CostWindowSample.Snapshot(
+                safe(costs.getCostA()),
+                safe(costs.getCostB()),
+                safe(costs.getCostC()),
+                safe(costs.getCostD()),
+                safe(costs.getCostE()),
+                shipmentItemRepository.count(),
+                shipmentItemRepository.findByStatus(ShipmentItem.ShipmentItemStatus.NOT_ASSIGNED).size()
+        );
+    }
+
+    private double safe(Double value) {
+        if (value == null || Double.isNaN(value) || Double.isInfinite(value)) {
+            return 0.0;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,142 @@
+package org.example.roadsimulation.experiment;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.example.roadsimulation.config.DispatchStrategy;
+import org.example.roadsimulation.core.stats.CostWindowDigests;
+import org.example.roadsimulation.core.stats.TDigest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 成本基线标定 worker 进程入口（由 {@link CostBaselineCalibrationEngine} 启动）
+ *
+ * 在自己的隔离 schema 上按计划文件依次执行标定运行，样本只进分位数草图（可选同时写 CSV）；
+ * 每完成一次运行就把结果文件整体重写一次，进程中途退出时已完成的运行不会丢失。
+ *
+ * 参数：--calibration.plan=计划文件（每行 STRATEGY,runIndex,seed）
+ *       --calibration.result=结果 JSON
+ *       --calibration.totalLoops=N  --calibration.compression=δ  [--calibration.samplesCsv=路径]
+ *       其余参数（如 --spring.datasource.url）交给 Spring。
+ */
+public final class CostBaselineCalibrationWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(CostBaselineCalibrationWorker.class);
+
+    private CostBaselineCalibrationWorker() {
+    }
+
+    public static void main(String[] args) {
+        int exitCode;
+        try (ConfigurableApplicationContext context = HeadlessSimulationApplication.start(args)) {
+            exitCode = run(context.getBean(CostBaselineCalibrationRunner.class), ExperimentArgs.parse(args));
+        } catch (Exception e) {
+            logger.error("标定 worker 启动失败", e);
+            exitCode = 2;
+        }
+        System.exit(exitCode);
+    }
+
+    static int run(CostBaselineCalibrationRunner runner, ExperimentArgs options) throws IOException {
+        Path planFile = Path.of(options.required("calibration.plan"));
+        Path resultFile = Path.of(options.required("calibration.result"));
+        int totalLoops = options.nonNegativeInt("calibration.totalLoops", 60);
+        CostWindowDigests digests = new CostWindowDigests(
+                options.doubleValue("calibration.compression", TDigest.DEFAULT_COMPRESSION));
+        String samplesCsv = options.string("calibration.samplesCsv", null);
+
+        List<PlannedRun> plan = readPlan(planFile);
+        ObjectMapper objectMapper = new ObjectMapper();
+        ArrayNode completed = objectMapper.createArrayNode();
+        ArrayNode failed = objectMapper.createArrayNode();
+
+        try (BufferedWriter csv = samplesCsv == null ? null
+                : Files.newBufferedWriter(Path.of(samplesCsv), StandardCharsets.UTF_8)) {
+            for (PlannedRun planned : plan) {
+                long runStartEpochMillis = System.currentTimeMillis();
+                try {
+                    int samples = runner.run(planned.strategy(), planned.runIndex(), planned.seed(), runStartEpochMillis, totalLoops,
+                            sample -> {
+                                digests.add(sample);
+                                if (csv != null) {
+                                    try {
+                                        csv.write(CostWindowSampleCsv.row(sample));
+                                        csv.newLine();
+                                    } catch (IOException e) {
+                                        throw new IllegalStateException("写样本 CSV 失败", e);
+                                    }
+                                }
+                            });
+                    completed.addObject()
+                            .put("strategy", planned.strategy().name())
+                            .put("runIndex", planned.runIndex())
+                            .put("seed", planned.seed())
+                            .put("runStartEpochMillis", runStartEpochMillis)
+                            .put("samples", samples);
+                    logger.info("标定运行完成：strategy={}, run={}, samples={}, 耗时 {}ms",
+                            planned.strategy(), planned.runIndex(), samples,
+                            System.currentTimeMillis() - runStartEpochMillis);
+                } catch (RuntimeException e) {
+                    logger.warn("标定运行失败：strategy={}, run={}", planned.strategy(), planned.runIndex(), e);
+                    failed.addObject()
+                            .put("strategy", planned.strategy().name())
+                            .put("runIndex", planned.runIndex())
+                            .put("seed", planned.seed())
+                            .put("error", String.valueOf(e.getMessage()));
+                }
+                if (csv != null) {
+                    csv.flush();
+                }
+                writeResult(objectMapper, resultFile, completed, failed, digests);
+            }
+        } finally {
+            runner.cleanupRuntimeData();
+        }
+        writeResult(objectMapper, resultFile, completed, failed, digests);
+        return 0;
+    }
+
+    private static void writeResult(ObjectMapper objectMapper, Path resultFile,
+                                    ArrayNode completed, ArrayNode failed, CostWindowDigests digests) throws IOException {
+        ObjectNode root = objectMapper.createObjectNode();
+        root.set("completedRuns", completed);
+        root.set("failedRuns", failed);
+        root.set("digests", digests.toJson());
+        Path temp = resultFile.resolveSibling(resultFile.getFileName() + ".tmp");
+        objectMapper.writeValue(temp.toFile(), root);
+        Files.move(temp, resultFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static List<PlannedRun> readPlan(Path planFile) throws IOException {
+        List<PlannedRun> plan = new ArrayList<>();
+        for (String line : Files.readAllLines(planFile, StandardCharsets.UTF_8)) {
+            if (line.isBlank()) {
+                continue;
+            }
+            String[] parts = line.trim().split(",");
+            plan.add(new PlannedRun(DispatchStrategy.valueOf(parts[0]), Integer.parseInt(parts[1]), Long.parseLong(parts[2])));
+        }
+        return plan;
+    }
+
+    static String planLine(PlannedRun run) {
+        return run.strategy().name() + "," + run.runIndex() + "," + run.seed();
+    }
+
+    /**
+     * 计划中的一次运行；seed 由协调进程按 (基础种子, 策略, 运行序号) 派生，随结果一起记录
+     */
+    record PlannedRun(DispatchStrategy strategy, int runIndex, long seed) {
+    }
+}
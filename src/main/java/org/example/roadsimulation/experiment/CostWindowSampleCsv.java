@@ -0,0 +1,70 @@
+package org.example.roadsimulation.experiment;
+
+import org.example.roadsimulation.core.stats.CostWindowSample;
+
+import java.util.Locale;
+
+/**
+ * 窗口样本 CSV（baseline-window-samples.csv）的表头与行格式
+ */
+public final class CostWindowSampleCsv {
+
+    public static final String HEADER = String.join(",",
+            "strategy",
+            "runIndex",
+            "runStartEpochMillis",
+            "windowIndex",
+            "startLoop",
+            "endLoop",
+            "taskScale",
+            "costAStart",
+            "costAEnd",
+            "unitA",
+            "costBStart",
+            "costBEnd",
+            "unitB",
+            "costCStart",
+            "costCEnd",
+            "unitC",
+            "costDStart",
+            "costDEnd",
+            "unitD",
+            "costEStart",
+            "costEEnd",
+            "unitE"
+    );
+
+    private CostWindowSampleCsv() {
+    }
+
+    public static String row(CostWindowSample sample) {
+        return String.join(",",
+                sample.strategy().name(),
+                String.valueOf(sample.runIndex()),
+                String.valueOf(sample.runStartEpochMillis()),
+                String.valueOf(sample.windowIndex()),
+                String.valueOf(sample.startLoop()),
+                String.valueOf(sample.endLoop()),
+                String.valueOf(sample.taskScale()),
+                format(sample.start().costA()),
+                format(sample.end().costA()),
+                format(sample.unitA()),
+                format(sample.start().costB()),
+                format(sample.end().costB()),
+                format(sample.unitB()),
+                format(sample.start().costC()),
+                format(sample.end().costC()),
+                format(sample.unitC()),
+                format(sample.start().costD()),
+                format(sample.end().costD()),
+                format(sample.unitD()),
+                format(sample.start().costE()),
+                format(sample.end().costE()),
+                format(sample.unitE())
+        );
+    }
+
+    public static String format(double value) {
+        return String.format(Locale.US, "%.10f", value);
+    }
+}
@@ -0,0 +1,380 @@
+package org.example.roadsimulation.experiment;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.example.roadsimulation.config.DispatchStrategy;
+import org.example.roadsimulation.entity.DispatchComparisonStrategyRun;
+import org.example.roadsimulation.entity.DispatchComparisonStrategyRun.StrategyRunStatus;
+import org.example.roadsimulation.service.DispatchComparisonScenarioSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 并行的批量调度对比实验（无界面）
+ *
+ * 可视化实验一次只能跑一个场景，且 ORIGINAL / HEURISTIC 在共享表上串行执行、按 4 秒定时器与前端到达确认推进。
+ * 这里把 场景 × 策略 的全部运行按轮转分给 N 个 worker：每个 worker 得到一份从基础库复制出的独立 schema，
+ * 以独立 JVM（{@link DispatchComparisonBatchWorker}）逐轮同步推进主循环，不等待前端。
+ * 同一场景的两种策略由场景种子重建出完全相同的车辆摆放与运单，通常落在不同 worker 上并行执行。
+ *
+ * 全部 worker 结束后，结果写回基础库：每个场景一条 DispatchComparisonExperimentRun、每个策略一条
+ * DispatchComparisonStrategyRun（与可视化实验同一结构），另在输出目录写 comparison-summary.json。
+ *
+ * 用法（需可访问的 MySQL，基础库中已有车辆 / POI / 货物等基础数据）：
+ * <pre>
+ * java -cp ... org.example.roadsimulation.experiment.DispatchComparisonBatchEngine \
+ *     --scenarios=50 --shipments=10 --workers=8 --maxLoops=360 --seed=20260101 --outputDir=target/dispatch-comparison
+ * </pre>
+ * 数据库连接默认取 classpath 下 application.properties 的 spring.datasource.*，可用
+ * --jdbcUrl / --username / --password 覆盖；--persist=false 只输出汇总文件，--keepSchemas=true 保留 worker schema。
+ */
+public final class DispatchComparisonBatchEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(DispatchComparisonBatchEngine.class);
+
+    private static final long SEED_STRIDE = 0x9E3779B97F4A7C15L;
+    private static final List<DispatchStrategy> STRATEGIES = List.of(DispatchStrategy.ORIGINAL, DispatchStrategy.HEURISTIC);
+    private static final DateTimeFormatter BATCH_ID_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    private final Options options;
+    private final ObjectMapper objectMapper = objectMapper();
+
+    public DispatchComparisonBatchEngine(Options options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.from(ExperimentArgs.parse(args));
+        Result result = new DispatchComparisonBatchEngine(options).run();
+        System.exit(result.failedRuns() == 0 && result.failedWorkers() == 0 ? 0 : 1);
+    }
+
+    /** worker 与协调进程共用的序列化配置（实体中的 LocalDateTime、忽略未知字段） */
+    static ObjectMapper objectMapper() {
+        return new ObjectMapper()
+                .findAndRegisterModules()
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+
+    /**
+     * 批量对比参数
+     *
+     * @param scenarios 场景数（每个场景两种策略各跑一次）
+     * @param shipments 每个场景的运单数（1..20）
+     * @param maxLoops  单次运行的主循环上限，超过记为 FAILED
+     * @param workers   并发 worker 进程数（每个一份独立 schema）
+     * @param persist   是否把结果写回基础库
+     */
+    public record Options(
+            int scenarios,
+            int shipments,
+            int maxLoops,
+            int workers,
+            long baseSeed,
+            Path outputDir,
+            String jdbcUrl,
+            String username,
+            String password,
+            boolean persist,
+            boolean keepSchemas,
+            List<String> workerJvmArgs
+    ) {
+        static Options from(ExperimentArgs args) throws IOException {
+            Properties defaults = ExperimentArgs.applicationProperties();
+            String workerJvmArgs = args.string("workerJvmArgs", "");
+            int shipments = args.positiveInt("shipments", 10);
+            if (shipments > DispatchComparisonScenarioSupport.MAX_EXPERIMENT_SHIPMENTS) {
+                throw new IllegalArgumentException("shipments must be between 1 and 20");
+            }
+            return new Options(
+                    args.positiveInt("scenarios", 50),
+                    shipments,
+                    args.positiveInt("maxLoops", 360),
+                    args.positiveInt("workers", Math.max(1, Runtime.getRuntime().availableProcessors() / 2)),
+                    args.longValue("seed", 20260101L),
+                    Path.of(args.string("outputDir", "target/dispatch-comparison")),
+                    args.string("jdbcUrl", defaults.getProperty("spring.datasource.url")),
+                    args.string("username", defaults.getProperty("spring.datasource.username", "root")),
+                    args.string("password", defaults.getProperty("spring.datasource.password", "")),
+                    args.bool("persist", true),
+                    args.bool("keepSchemas", false),
+                    workerJvmArgs.isBlank() ? List.of() : List.of(workerJvmArgs.trim().split("\\s+"))
+            );
+        }
+    }
+
+    public record Result(String batchId, int completedScenarios, int failedRuns, int failedWorkers,
+                         List<Long> experimentRunIds, Path summaryFile) {
+    }
+
+    public Result run() throws IOException, InterruptedException {
+        Files.createDirectories(options.outputDir());
+        String batchId = "BATCH-" + LocalDateTime.now().format(BATCH_ID_FORMAT);
+        List<List<DispatchComparisonBatchWorker.PlannedRun>> plans = plan(options);
+        IsolatedSchemaProvisioner provisioner =
+                new IsolatedSchemaProvisioner(options.jdbcUrl(), options.username(), options.password());
+
+        long start = System.currentTimeMillis();
+        logger.info("批量调度对比开始：batch={}，scenarios={} × {}，shipments={}，workers={}，baseSchema={}",
+                batchId, options.scenarios(), STRATEGIES, options.shipments(), plans.size(), provisioner.baseSchema());
+
+        ExecutorService executor = Executors.newFixedThreadPool(plans.size());
+        List<Future<JsonNode>> futures = new ArrayList<>();
+        try {
+            for (int w = 0; w < plans.size(); w++) {
+                int workerIndex = w;
+                futures.add(executor.submit(() -> runWorker(provisioner, batchId, workerIndex, plans.get(workerIndex))));
+            }
+
+            Map<Integer, ScenarioOutcome> outcomes = new TreeMap<>();
+            for (int scenarioIndex = 1; scenarioIndex <= options.scenarios(); scenarioIndex++) {
+                outcomes.put(scenarioIndex, new ScenarioOutcome());
+            }
+            int failedWorkers = 0;
+            for (int w = 0; w < futures.size(); w++) {
+                try {
+                    for (JsonNode entry : futures.get(w).get().path("runs")) {
+                        outcomes.get(entry.path("scenarioIndex").asInt()).add(entry);
+                    }
+                } catch (ExecutionException e) {
+                    failedWorkers++;
+                    logger.error("调度对比 worker {} 失败", w, e.getCause());
+                }
+            }
+
+            List<Long> experimentRunIds = options.persist() ? persist(batchId, outcomes) : List.of();
+            Path summaryFile = options.outputDir().resolve("comparison-summary.json");
+            objectMapper.writeValue(summaryFile.toFile(), summaryJson(batchId, outcomes, experimentRunIds));
+
+            int failedRuns = outcomes.values().stream().mapToInt(ScenarioOutcome::failedRuns).sum();
+            int completedScenarios = (int) outcomes.values().stream().filter(ScenarioOutcome::completed).count();
+            logger.info("批量调度对比完成：batch={}，completedScenarios={}/{}，failedRuns={}，failedWorkers={}，耗时 {}s，输出 {}",
+                    batchId, completedScenarios, options.scenarios(), failedRuns, failedWorkers,
+                    (System.currentTimeMillis() - start) / 1000, summaryFile.toAbsolutePath());
+            return new Result(batchId, completedScenarios, failedRuns, failedWorkers, experimentRunIds, summaryFile);
+        } finally {
+            executor.shutdownNow();
+            if (!options.keepSchemas()) {
+                for (int w = 0; w < plans.size(); w++) {
+                    provisioner.drop(workerSuffix(w));
+                }
+            }
+        }
+    }
+
+    /**
+     * 场景 × 策略 按轮转分给 worker；同一场景的两种策略相邻分配，worker 数大于 1 时落在不同 worker 上并行
+     */
+    static List<List<DispatchComparisonBatchWorker.PlannedRun>> plan(Options options) {
+        int total = STRATEGIES.size() * options.scenarios();
+        int workers = Math.min(options.workers(), total);
+        List<List<DispatchComparisonBatchWorker.PlannedRun>> plans = new ArrayList<>();
+        for (int w = 0; w < workers; w++) {
+            plans.add(new ArrayList<>());
+        }
+        int task = 0;
+        for (int scenarioIndex = 1; scenarioIndex <= options.scenarios(); scenarioIndex++) {
+            long seed = options.baseSeed() + SEED_STRIDE * scenarioIndex;
+            for (DispatchStrategy strategy : STRATEGIES) {
+                plans.get(task++ % workers).add(new DispatchComparisonBatchWorker.PlannedRun(scenarioIndex, strategy, seed));
+            }
+        }
+        return plans;
+    }
+
+    private JsonNode runWorker(IsolatedSchemaProvisioner provisioner, String batchId, int workerIndex,
+                               List<DispatchComparisonBatchWorker.PlannedRun> plan) throws Exception {
+        String jdbcUrl = provisioner.provision(workerSuffix(workerIndex));
+
+        Path planFile = options.outputDir().resolve("worker-" + workerIndex + ".plan");
+        Path resultFile = options.outputDir().resolve("worker-" + workerIndex + ".json");
+        Path logFile = options.outputDir().resolve("worker-" + workerIndex + ".log");
+        Files.write(planFile, plan.stream().map(DispatchComparisonBatchWorker::planLine).toList(), StandardCharsets.UTF_8);
+        Files.deleteIfExists(resultFile);
+
+        List<String> args = List.of(
+                "--spring.datasource.url=" + jdbcUrl,
+                "--spring.datasource.username=" + options.username(),
+                "--comparison.plan=" + planFile.toAbsolutePath(),
+                "--comparison.result=" + resultFile.toAbsolutePath(),
+                "--comparison.batchId=" + batchId,
+                "--comparison.shipments=" + options.shipments(),
+                "--comparison.maxLoops=" + options.maxLoops()
+        );
+
+        Process process = WorkerProcessLauncher.launch(
+                DispatchComparisonBatchWorker.class, options.workerJvmArgs(), args, options.password(), logFile);
+        int exitCode = process.waitFor();
+        if (!Files.exists(resultFile)) {
+            throw new IllegalStateException("worker " + workerIndex + " 未产出结果，exitCode=" + exitCode
+                    + "，日志：" + logFile.toAbsolutePath());
+        }
+        if (exitCode != 0) {
+            logger.warn("worker {} 退出码 {}，使用其已完成运行的结果，日志：{}", workerIndex, exitCode, logFile.toAbsolutePath());
+        }
+        return objectMapper.readTree(resultFile.toFile());
+    }
+
+    /** 在基础库上起一个无界面上下文，逐场景写入实验记录 */
+    private List<Long> persist(String batchId, Map<Integer, ScenarioOutcome> outcomes) throws IOException {
+        List<Long> ids = new ArrayList<>();
+        try (ConfigurableApplicationContext context = HeadlessSimulationApplication.start(
+                "--spring.datasource.url=" + options.jdbcUrl(),
+                "--spring.datasource.username=" + options.username(),
+                "--spring.datasource.password=" + options.password())) {
+            DispatchComparisonBatchRecorder recorder = context.getBean(DispatchComparisonBatchRecorder.class);
+            for (Map.Entry<Integer, ScenarioOutcome> entry : outcomes.entrySet()) {
+                ScenarioOutcome outcome = entry.getValue();
+                if (outcome.scenario == null) {
+                    continue;
+                }
+                List<DispatchComparisonStrategyRun> strategyRuns = new ArrayList<>();
+                for (JsonNode node : outcome.strategyRuns) {
+                    ObjectNode copy = node.deepCopy();
+                    copy.remove("id");
+                    copy.remove("experimentRun");
+                    strategyRuns.add(objectMapper.treeToValue(copy, DispatchComparisonStrategyRun.class));
+                }
+                Long id = recorder.record(
+                        DispatchComparisonBatchWorker.scenarioExperimentId(batchId, entry.getKey()),
+                        objectMapper.writeValueAsString(outcome.scenario),
+                        options.shipments(),
+                        outcome.scenario.path("vehicleCount").asInt(),
+                        options.maxLoops(),
+                        strategyRuns,
+                        outcome.failureReason());
+                outcome.experimentRunId = id;
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    private ObjectNode summaryJson(String batchId, Map<Integer, ScenarioOutcome> outcomes, List<Long> experimentRunIds) {
+        ObjectNode root = objectMapper.createObjectNode();
+        root.put("batchId", batchId);
+        root.put("scenarios", options.scenarios());
+        root.put("shipments", options.shipments());
+        root.put("maxLoops", options.maxLoops());
+        root.put("baseSeed", options.baseSeed());
+        root.put("persistedExperimentRuns", experimentRunIds.size());
+
+        double[] totalAllCost = new double[STRATEGIES.size()];
+        int[] completedCount = new int[STRATEGIES.size()];
+        int heuristicWins = 0;
+        int comparable = 0;
+        ArrayNode scenarios = root.putArray("scenarioResults");
+        for (Map.Entry<Integer, ScenarioOutcome> entry : outcomes.entrySet()) {
+            ScenarioOutcome outcome = entry.getValue();
+            ObjectNode node = scenarios.addObject();
+            node.put("scenarioIndex", entry.getKey());
+            if (outcome.experimentRunId != null) {
+                node.put("experimentRunId", outcome.experimentRunId);
+            }
+            double[] allCost = new double[STRATEGIES.size()];
+            boolean bothCompleted = true;
+            for (int s = 0; s < STRATEGIES.size(); s++) {
+                JsonNode run = outcome.strategyRun(STRATEGIES.get(s));
+                ObjectNode strategyNode = node.putObject(STRATEGIES.get(s).name());
+                if (run == null) {
+                    strategyNode.put("status", "MISSING");
+                    bothCompleted = false;
+                    continue;
+                }
+                strategyNode.put("status", run.path("status").asText());
+                strategyNode.put("loopCount", run.path("loopCount").asInt());
+                strategyNode.put("allCost", run.path("allCost").asDouble());
+                strategyNode.put("vehicleUsedCount", run.path("vehicleUsedCount").asInt());
+                allCost[s] = run.path("allCost").asDouble();
+                if (StrategyRunStatus.COMPLETED.name().equals(run.path("status").asText())) {
+                    totalAllCost[s] += allCost[s];
+                    completedCount[s]++;
+                } else {
+                    bothCompleted = false;
+                }
+            }
+            if (bothCompleted) {
+                comparable++;
+                if (allCost[1] < allCost[0]) {
+                    heuristicWins++;
+                }
+            }
+        }
+
+        ObjectNode aggregate = root.putObject("aggregate");
+        for (int s = 0; s < STRATEGIES.size(); s++) {
+            aggregate.putObject(STRATEGIES.get(s).name())
+                    .put("completedRuns", completedCount[s])
+                    .put("meanAllCost", completedCount[s] == 0 ? 0.0 : totalAllCost[s] / completedCount[s]);
+        }
+        aggregate.put("comparableScenarios", comparable);
+        aggregate.put("heuristicLowerAllCost", heuristicWins);
+        return root;
+    }
+
+    private static String workerSuffix(int workerIndex) {
+        return "cmp_w" + workerIndex;
+    }
+
+    /** 一个场景在各 worker 上的运行结果汇总 */
+    private static final class ScenarioOutcome {
+        private JsonNode scenario;
+        private final List<JsonNode> strategyRuns = new ArrayList<>();
+        private final List<String> errors = new ArrayList<>();
+        private Long experimentRunId;
+
+        void add(JsonNode entry) {
+            if (entry.has("error")) {
+                errors.add(entry.path("strategy").asText() + ": " + entry.path("error").asText());
+                return;
+            }
+            scenario = entry.path("scenario");
+            strategyRuns.add(entry.path("strategyRun"));
+        }
+
+        JsonNode strategyRun(DispatchStrategy strategy) {
+            return strategyRuns.stream()
+                    .filter(run -> strategy.name().equals(run.path("strategy").asText()))
+                    .findFirst()
+                    .orElse(null);
+        }
+
+        int failedRuns() {
+            return STRATEGIES.size() - strategyRuns.size();
+        }
+
+        boolean completed() {
+            return failedRuns() == 0 && strategyRuns.stream()
+                    .allMatch(run -> StrategyRunStatus.COMPLETED.name().equals(run.path("status").asText()));
+        }
+
+        String failureReason() {
+            if (!errors.isEmpty()) {
+                return String.join("; ", errors);
+            }
+            return strategyRuns.size() < STRATEGIES.size() ? "strategy run missing (worker failed)" : null;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package org.example.roadsimulation.experiment;
+
+import org.example.roadsimulation.entity.DispatchComparisonExperimentRun;
+import org.example.roadsimulation.entity.DispatchComparisonExperimentRun.RunStatus;
+import org.example.roadsimulation.entity.DispatchComparisonStrategyRun;
+import org.example.roadsimulation.entity.DispatchComparisonStrategyRun.StrategyRunStatus;
+import org.example.roadsimulation.repository.DispatchComparisonExperimentRunRepository;
+import org.example.roadsimulation.repository.DispatchComparisonStrategyRunRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 把批量调度对比的结果写成与可视化实验相同的 DispatchComparisonExperimentRun / DispatchComparisonStrategyRun 行
+ *
+ * 每个场景一条实验记录，其下每个策略一条策略记录；结果页与导出逻辑无需区分数据来源。
+ */
+@Component
+public class DispatchComparisonBatchRecorder {
+
+    private static final int MAX_FAILURE_REASON_LENGTH = 1000;
+
+    private final DispatchComparisonExperimentRunRepository experimentRunRepository;
+    private final DispatchComparisonStrategyRunRepository strategyRunRepository;
+
+    public DispatchComparisonBatchRecorder(DispatchComparisonExperimentRunRepository experimentRunRepository,
+                                           DispatchComparisonStrategyRunRepository strategyRunRepository) {
+        this.experimentRunRepository = experimentRunRepository;
+        this.strategyRunRepository = strategyRunRepository;
+    }
+
+    /**
+     * @param strategyRuns  worker 回传的未持久化策略记录（按策略顺序）
+     * @param failureReason 有运行失败（进程内异常 / worker 丢失）时的原因，没有则为 null
+     * @return 新建实验记录的 ID
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public Long record(String experimentId, String scenarioJson, int shipmentCount, int vehicleCount, int maxLoops,
+                       List<DispatchComparisonStrategyRun> strategyRuns, String failureReason) {
+        boolean completed = failureReason == null && !strategyRuns.isEmpty()
+                && strategyRuns.stream().allMatch(run -> run.getStatus() == StrategyRunStatus.COMPLETED);
+
+        DispatchComparisonExperimentRun run = new DispatchComparisonExperimentRun();
+        run.setExperimentId(experimentId);
+        run.setStatus(completed ? RunStatus.COMPLETED : RunStatus.FAILED);
+        run.setScenarioJson(scenarioJson);
+        run.setShipmentCount(shipmentCount);
+        run.setVehicleCount(vehicleCount);
+        run.setTotalItems(shipmentCount);
+        run.setMaxLoops(maxLoops);
+        run.setStartedAt(strategyRuns.stream().map(DispatchComparisonStrategyRun::getStartedAt)
+                .filter(Objects::nonNull).min(Comparator.naturalOrder()).orElse(LocalDateTime.now()));
+        run.setEndedAt(strategyRuns.stream().map(DispatchComparisonStrategyRun::getEndedAt)
+                .filter(Objects::nonNull).max(Comparator.naturalOrder()).orElse(LocalDateTime.now()));
+        if (!strategyRuns.isEmpty()) {
+            DispatchComparisonStrategyRun last = strategyRuns.get(strategyRuns.size() - 1);
+            run.setCurrentStrategy(last.getStrategy());
+            run.setCurrentLoop(last.getLoopCount());
+            run.setCompletedItems(last.getCompletedItems());
+        }
+        if (!completed) {
+            String reason = failureReason != null ? failureReason : "max loop exceeded";
+            run.setFailureReason(reason.length() > MAX_FAILURE_REASON_LENGTH
+                    ? reason.substring(0, MAX_FAILURE_REASON_LENGTH) : reason);
+        }
+        DispatchComparisonExperimentRun saved = experimentRunRepository.save(run);
+
+        for (DispatchComparisonStrategyRun strategyRun : strategyRuns) {
+            strategyRun.setExperimentRun(saved);
+            strategyRunRepository.save(strategyRun);
+        }
+        return saved.getId();
+    }
+}
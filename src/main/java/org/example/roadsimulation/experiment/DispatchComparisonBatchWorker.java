@@ -0,0 +1,126 @@
+package org.example.roadsimulation.experiment;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.example.roadsimulation.config.DispatchStrategy;
+import org.example.roadsimulation.dto.DispatchComparisonScenarioDTO;
+import org.example.roadsimulation.entity.DispatchComparisonStrategyRun;
+import org.example.roadsimulation.service.DispatchComparisonScenarioSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 批量调度对比实验的 worker 进程入口（由 {@link DispatchComparisonBatchEngine} 启动）
+ *
+ * 在自己的隔离 schema 上按计划文件依次执行 (场景, 策略) 运行。场景由 (场景种子, 运单数) 唯一确定，
+ * 同一场景的两种策略即使落在不同 worker 上也得到相同的车辆摆放与运单。每完成一次运行就整体重写结果文件。
+ *
+ * 参数：--comparison.plan=计划文件（每行 scenarioIndex,STRATEGY,seed）
+ *       --comparison.result=结果 JSON
+ *       --comparison.batchId=批次号  --comparison.shipments=N  --comparison.maxLoops=N
+ *       其余参数（如 --spring.datasource.url）交给 Spring。
+ */
+public final class DispatchComparisonBatchWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(DispatchComparisonBatchWorker.class);
+
+    private DispatchComparisonBatchWorker() {
+    }
+
+    public static void main(String[] args) {
+        int exitCode;
+        try (ConfigurableApplicationContext context = HeadlessSimulationApplication.start(args)) {
+            exitCode = run(context.getBean(DispatchComparisonScenarioSupport.class),
+                    context.getBean(DispatchComparisonHeadlessRunner.class), ExperimentArgs.parse(args));
+        } catch (Exception e) {
+            logger.error("调度对比 worker 启动失败", e);
+            exitCode = 2;
+        }
+        System.exit(exitCode);
+    }
+
+    static int run(DispatchComparisonScenarioSupport scenarioSupport, DispatchComparisonHeadlessRunner runner,
+                   ExperimentArgs options) throws IOException {
+        Path planFile = Path.of(options.required("comparison.plan"));
+        Path resultFile = Path.of(options.required("comparison.result"));
+        String batchId = options.required("comparison.batchId");
+        int shipments = options.positiveInt("comparison.shipments", 10);
+        int maxLoops = options.positiveInt("comparison.maxLoops", 360);
+
+        ObjectMapper objectMapper = DispatchComparisonBatchEngine.objectMapper();
+        ArrayNode runs = objectMapper.createArrayNode();
+        try {
+            for (PlannedRun planned : readPlan(planFile)) {
+                long start = System.currentTimeMillis();
+                ObjectNode entry = runs.addObject()
+                        .put("scenarioIndex", planned.scenarioIndex())
+                        .put("strategy", planned.strategy().name())
+                        .put("seed", planned.seed());
+                try {
+                    DispatchComparisonScenarioDTO scenario = scenarioSupport.planScenario(
+                            scenarioExperimentId(batchId, planned.scenarioIndex()), shipments, new Random(planned.seed()));
+                    DispatchComparisonStrategyRun strategyRun = runner.run(scenario, planned.strategy(), maxLoops,
+                            "BAT_" + planned.scenarioIndex() + "_" + planned.strategy().name(), planned.seed());
+                    entry.set("scenario", objectMapper.valueToTree(scenario));
+                    entry.set("strategyRun", objectMapper.valueToTree(strategyRun));
+                    logger.info("调度对比运行完成：scenario={}, strategy={}, status={}, loops={}, allCost={}, 耗时 {}ms",
+                            planned.scenarioIndex(), planned.strategy(), strategyRun.getStatus(),
+                            strategyRun.getLoopCount(), strategyRun.getAllCost(), System.currentTimeMillis() - start);
+                } catch (RuntimeException e) {
+                    logger.warn("调度对比运行失败：scenario={}, strategy={}", planned.scenarioIndex(), planned.strategy(), e);
+                    entry.put("error", String.valueOf(e.getMessage()));
+                }
+                writeResult(objectMapper, resultFile, runs);
+            }
+        } finally {
+            runner.cleanupRuntimeData();
+        }
+        writeResult(objectMapper, resultFile, runs);
+        return 0;
+    }
+
+    static String scenarioExperimentId(String batchId, int scenarioIndex) {
+        return batchId + "-S" + String.format("%03d", scenarioIndex);
+    }
+
+    private static void writeResult(ObjectMapper objectMapper, Path resultFile, ArrayNode runs) throws IOException {
+        ObjectNode root = objectMapper.createObjectNode();
+        root.set("runs", runs);
+        Path temp = resultFile.resolveSibling(resultFile.getFileName() + ".tmp");
+        objectMapper.writeValue(temp.toFile(), root);
+        Files.move(temp, resultFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static List<PlannedRun> readPlan(Path planFile) throws IOException {
+        List<PlannedRun> plan = new ArrayList<>();
+        for (String line : Files.readAllLines(planFile, StandardCharsets.UTF_8)) {
+            if (line.isBlank()) {
+                continue;
+            }
+            String[] parts = line.trim().split(",");
+            plan.add(new PlannedRun(Integer.parseInt(parts[0]), DispatchStrategy.valueOf(parts[1]), Long.parseLong(parts[2])));
+        }
+        return plan;
+    }
+
+    static String planLine(PlannedRun run) {
+        return run.scenarioIndex() + "," + run.strategy().name() + "," + run.seed();
+    }
+
+    /**
+     * 计划中的一次运行；同一 scenarioIndex 的各策略共用同一个场景种子
+     */
+    record PlannedRun(int scenarioIndex, DispatchStrategy strategy, long seed) {
+    }
+}
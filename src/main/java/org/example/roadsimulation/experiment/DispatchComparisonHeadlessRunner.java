@@ -0,0 +1,199 @@
+package org.example.roadsimulation.experiment;
+
+import org.example.roadsimulation.DataInitializer;
+import org.example.roadsimulation.SimulationDataCleanupService;
+import org.example.roadsimulation.config.DispatchStrategy;
+import org.example.roadsimulation.config.SimulationRuntimeConfig;
+import org.example.roadsimulation.core.SimulationContext;
+import org.example.roadsimulation.core.SimulationRandom;
+import org.example.roadsimulation.dto.DispatchComparisonScenarioDTO;
+import org.example.roadsimulation.dto.RuntimeCostDTO;
+import org.example.roadsimulation.entity.CostEntity;
+import org.example.roadsimulation.entity.DispatchComparisonStrategyRun;
+import org.example.roadsimulation.entity.DispatchComparisonStrategyRun.StrategyRunStatus;
+import org.example.roadsimulation.entity.ShipmentItem;
+import org.example.roadsimulation.repository.AssignmentRepository;
+import org.example.roadsimulation.repository.ShipmentItemRepository;
+import org.example.roadsimulation.repository.VehicleRepository;
+import org.example.roadsimulation.service.CostBaselineNormalizationService;
+import org.example.roadsimulation.service.DispatchComparisonScenarioSupport;
+import org.example.roadsimulation.service.GaodeRoutePlanningQueueService;
+import org.example.roadsimulation.service.GetCostService;
+import org.example.roadsimulation.service.impl.SimulationDispatchRouter;
+import org.example.roadsimulation.service.impl.StateUpdateService;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 调度对比实验的无界面单策略运行
+ *
+ * 与可视化实验相同的场景重建与主循环节奏（每 3 轮调度一次、每轮 tick 30 分钟），但不等待前端到达确认、
+ * 不设定时器节拍：逐轮同步推进，直到场景内全部货物送达且没有运行中的任务单，或超过 maxLoops。
+ * 结果以未持久化的 {@link DispatchComparisonStrategyRun} 返回（experimentRun 为空），由调用方决定落库位置。
+ *
+ * 运行期间独占 SimulationContext 与运行时表，同一上下文内不能并发调用。
+ */
+@Component
+public class DispatchComparisonHeadlessRunner {
+
+    private static final int MINUTES_PER_LOOP = 30;
+
+    private final SimulationContext simulationContext;
+    private final SimulationRandom simulationRandom;
+    private final SimulationRuntimeConfig simulationRuntimeConfig;
+    private final DataInitializer dataInitializer;
+    private final SimulationDataCleanupService cleanupService;
+    private final SimulationDispatchRouter simulationDispatchRouter;
+    private final StateUpdateService stateUpdateService;
+    private final GetCostService getCostService;
+    private final CostBaselineNormalizationService costBaselineNormalizationService;
+    private final GaodeRoutePlanningQueueService routePlanningQueueService;
+    private final DispatchComparisonScenarioSupport scenarioSupport;
+    private final VehicleRepository vehicleRepository;
+    private final AssignmentRepository assignmentRepository;
+    private final ShipmentItemRepository shipmentItemRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public DispatchComparisonHeadlessRunner(SimulationContext simulationContext,
+                                            SimulationRandom simulationRandom,
+                                            SimulationRuntimeConfig simulationRuntimeConfig,
+                                            DataInitializer dataInitializer,
+                                            SimulationDataCleanupService cleanupService,
+                                            SimulationDispatchRouter simulationDispatchRouter,
+                                            StateUpdateService stateUpdateService,
+                                            GetCostService getCostService,
+                                            CostBaselineNormalizationService costBaselineNormalizationService,
+                                            GaodeRoutePlanningQueueService routePlanningQueueService,
+                                            DispatchComparisonScenarioSupport scenarioSupport,
+                                            VehicleRepository vehicleRepository,
+                                            AssignmentRepository assignmentRepository,
+                                            ShipmentItemRepository shipmentItemRepository,
+                                            TransactionTemplate transactionTemplate) {
+        this.simulationContext = simulationContext;
+        this.simulationRandom = simulationRandom;
+        this.simulationRuntimeConfig = simulationRuntimeConfig;
+        this.dataInitializer = dataInitializer;
+        this.cleanupService = cleanupService;
+        this.simulationDispatchRouter = simulationDispatchRouter;
+        this.stateUpdateService = stateUpdateService;
+        this.getCostService = getCostService;
+        this.costBaselineNormalizationService = costBaselineNormalizationService;
+        this.routePlanningQueueService = routePlanningQueueService;
+        this.scenarioSupport = scenarioSupport;
+        this.vehicleRepository = vehicleRepository;
+        this.assignmentRepository = assignmentRepository;
+        this.shipmentItemRepository = shipmentItemRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * 在当前库上重建场景并以指定策略跑到结束
+     *
+     * @param refPrefix 运单 refNo 前缀（同一库内需唯一）
+     * @param seed      运行种子（同一场景的各策略传同一种子，随机序列一致）
+     */
+    public DispatchComparisonStrategyRun run(DispatchComparisonScenarioDTO scenario, DispatchStrategy strategy,
+                                             int maxLoops, String refPrefix, long seed) {
+        DispatchComparisonStrategyRun strategyRun = new DispatchComparisonStrategyRun();
+        strategyRun.setStrategy(strategy.name());
+        strategyRun.setStatus(StrategyRunStatus.RUNNING);
+
+        List<Long> itemIds = prepare(scenario, strategy, refPrefix, seed);
+        strategyRun.setTotalItems(itemIds.size());
+
+        StrategyRunStatus status = StrategyRunStatus.FAILED;
+        try {
+            while (simulationContext.getLoopCount() <= maxLoops) {
+                int loop = simulationContext.getLoopCount();
+                LocalDateTime simNow = simulationContext.getCurrentSimTime();
+                if (loop != 0 && loop % 3 == 0) {
+                    simulationDispatchRouter.dispatch();
+                    costBaselineNormalizationService.recordDispatchSnapshot(
+                            currentRuntimeCosts(),
+                            itemIds.size(),
+                            shipmentItemRepository.findByStatus(ShipmentItem.ShipmentItemStatus.NOT_ASSIGNED).size()
+                    );
+                }
+
+                stateUpdateService.tick(simNow, MINUTES_PER_LOOP, loop);
+
+                if (isComplete(itemIds)) {
+                    status = StrategyRunStatus.COMPLETED;
+                    break;
+                }
+                simulationContext.incrementLoop();
+            }
+
+            RuntimeCostDTO costs = currentRuntimeCosts();
+            costBaselineNormalizationService.applyLatest(costs);
+            strategyRun.setStatus(status);
+            strategyRun.setEndedAt(LocalDateTime.now());
+            strategyRun.setLoopCount(simulationContext.getLoopCount());
+            strategyRun.setCompletedItems(countDelivered(itemIds));
+            scenarioSupport.fillStrategyResult(strategyRun, costs);
+            return strategyRun;
+        } finally {
+            simulationContext.setRunning(false);
+        }
+    }
+
+    /** 停止主循环并清空运行时数据 */
+    public void cleanupRuntimeData() {
+        simulationContext.setRunning(false);
+        cleanupRuntimeDataForExperiment();
+        CostEntity.reset();
+        costBaselineNormalizationService.reset();
+    }
+
+    private List<Long> prepare(DispatchComparisonScenarioDTO scenario, DispatchStrategy strategy, String refPrefix,
+                               long seed) {
+        cleanupRuntimeDataForExperiment();
+        transactionTemplate.executeWithoutResult(status -> scenarioSupport.restoreVehicles(scenario));
+        List<Long> itemIds = scenarioSupport.rebuildShipments(scenario, refPrefix, simulationContext.getCurrentSimTime());
+
+        simulationContext.finishReset();
+        simulationContext.reset();
+        CostEntity.reset();
+        costBaselineNormalizationService.reset();
+        simulationRandom.startRun(seed);
+        simulationRuntimeConfig.setDispatchStrategy(strategy);
+        routePlanningQueueService.resume();
+        simulationContext.setRunning(true);
+        stateUpdateService.resetWindowsOnce(simulationContext.getCurrentSimTime(), MINUTES_PER_LOOP);
+        return itemIds;
+    }
+
+    private void cleanupRuntimeDataForExperiment() {
+        simulationContext.beginReset();
+        routePlanningQueueService.reset();
+        dataInitializer.clearExperimentRuntimeCaches();
+        cleanupService.cleanupAllSimulationData();
+        simulationContext.reset();
+        simulationContext.finishReset();
+    }
+
+    /** 全部送达且没有运行中的任务单（无界面运行不需要前端到达确认） */
+    private boolean isComplete(List<Long> itemIds) {
+        if (itemIds.isEmpty() || countDelivered(itemIds) < itemIds.size()) {
+            return false;
+        }
+        return !assignmentRepository.findAssignmentIdsByShipmentItemIds(itemIds).isEmpty()
+                && assignmentRepository.findRuntimeActiveAssignmentIdsByShipmentItemIds(itemIds).isEmpty();
+    }
+
+    private int countDelivered(List<Long> itemIds) {
+        return (int) shipmentItemRepository.findAllById(itemIds).stream()
+                .filter(item -> item.getStatus() == ShipmentItem.ShipmentItemStatus.DELIVERED)
+                .count();
+    }
+
+    private RuntimeCostDTO currentRuntimeCosts() {
+        return getCostService.calculateRuntimeCosts(
+                vehicleRepository.findAll(),
+                assignmentRepository.findRuntimeActiveAssignments()
+        );
+    }
+}
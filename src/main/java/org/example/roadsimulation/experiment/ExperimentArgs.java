@@ -0,0 +1,87 @@
+package org.example.roadsimulation.experiment;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * --key=value 形式的命令行参数（其余参数原样留给 Spring）
+ */
+final class ExperimentArgs {
+
+    private final Map<String, String> values = new HashMap<>();
+
+    private ExperimentArgs() {
+    }
+
+    static ExperimentArgs parse(String[] args) {
+        ExperimentArgs parsed = new ExperimentArgs();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.indexOf('=') > 2) {
+                int eq = arg.indexOf('=');
+                parsed.values.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+        return parsed;
+    }
+
+    String string(String name, String defaultValue) {
+        String value = values.get(name);
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+
+    String required(String name) {
+        String value = string(name, null);
+        if (value == null) {
+            throw new IllegalArgumentException("缺少参数 --" + name);
+        }
+        return value;
+    }
+
+    int positiveInt(String name, int defaultValue) {
+        int value = Integer.parseInt(string(name, String.valueOf(defaultValue)));
+        if (value <= 0) {
+            throw new IllegalArgumentException(name + " must be positive");
+        }
+        return value;
+    }
+
+    int nonNegativeInt(String name, int defaultValue) {
+        int value = Integer.parseInt(string(name, String.valueOf(defaultValue)));
+        if (value < 0) {
+            throw new IllegalArgumentException(name + " must be non-negative");
+        }
+        return value;
+    }
+
+    long longValue(String name, long defaultValue) {
+        String value = string(name, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        return value.startsWith("0x") || value.startsWith("0X")
+                ? Long.parseUnsignedLong(value.substring(2), 16)
+                : Long.parseLong(value);
+    }
+
+    double doubleValue(String name, double defaultValue) {
+        return Double.parseDouble(string(name, String.valueOf(defaultValue)));
+    }
+
+    boolean bool(String name, boolean defaultValue) {
+        return Boolean.parseBoolean(string(name, String.valueOf(defaultValue)));
+    }
+
+    /** classpath 下的 application.properties（协调进程取默认数据库连接用），不存在时为空 */
+    static Properties applicationProperties() throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = ExperimentArgs.class.getResourceAsStream("/application.properties")) {
+            if (in != null) {
+                properties.load(in);
+            }
+        }
+        return properties;
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.roadsimulation.experiment;
+
+import org.example.roadsimulation.RoadSimulationApplication;
+import org.example.roadsimulation.config.TimeModuleConfig;
+import org.example.roadsimulation.service.impl.VehicleDataImportServiceImpl;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Profile;
+
+import java.util.Map;
+
+/**
+ * 无界面的仿真上下文（离线标定 / 实验 worker 进程使用）
+ *
+ * 与 RoadSimulationApplication 相同的组件，但不启用 @Scheduled 主循环、不启动 Web 容器、不导入车辆数据，
+ * 主循环由调用方逐轮驱动。只在 "headless" profile 下生效，主应用扫描到本类时会跳过。
+ */
+@Configuration
+@Profile(HeadlessSimulationApplication.PROFILE)
+@EnableAutoConfiguration
+@EnableCaching
+@ComponentScan(
+        basePackages = "org.example.roadsimulation",
+        excludeFilters = @ComponentScan.Filter(
+                type = FilterType.ASSIGNABLE_TYPE,
+                classes = {
+                        RoadSimulationApplication.class,
+                        TimeModuleConfig.class,
+                        VehicleDataImportServiceImpl.class
+                }
+        )
+)
+public class HeadlessSimulationApplication {
+
+    public static final String PROFILE = "headless";
+
+    /**
+     * 启动一个无界面上下文，args 为 Spring 命令行参数（如 --spring.datasource.url=...）
+     */
+    public static ConfigurableApplicationContext start(String... args) {
+        SpringApplication application = new SpringApplication(HeadlessSimulationApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        application.setAdditionalProfiles(PROFILE);
+        application.setDefaultProperties(Map.of(
+                "spring.devtools.restart.enabled", "false",
+                "app.vehicle.import.enabled", "false"));
+        return application.run(args);
+    }
+}
@@ -0,0 +1,125 @@
+package org.example.roadsimulation.experiment;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * 为每个 worker 复制一份独立的 MySQL schema
+ *
+ * 在同一 MySQL 实例上执行 CREATE TABLE ... LIKE + INSERT ... SELECT，把基础库的全部表（含车辆、POI、货物、
+ * 加工链等基础数据）复制到 {@code <基础库名>_<后缀>}；运行时表一并复制，worker 每次运行前自行清空。
+ * 外键不随 LIKE 复制，对仿真无影响。worker 之间互不共享任何表，可以并发运行。
+ */
+public class IsolatedSchemaProvisioner {
+
+    private static final Logger logger = LoggerFactory.getLogger(IsolatedSchemaProvisioner.class);
+
+    private static final Pattern SAFE_NAME = Pattern.compile("[A-Za-z0-9_]+");
+
+    private final String baseJdbcUrl;
+    private final String username;
+    private final String password;
+    private final String baseSchema;
+
+    public IsolatedSchemaProvisioner(String baseJdbcUrl, String username, String password) {
+        this.baseJdbcUrl = baseJdbcUrl;
+        this.username = username;
+        this.password = password;
+        this.baseSchema = schemaOf(baseJdbcUrl);
+    }
+
+    public String baseSchema() {
+        return baseSchema;
+    }
+
+    /**
+     * 复制基础库到 {@code <baseSchema>_<suffix>}（已存在则整体覆盖）
+     *
+     * @return 指向新 schema 的 JDBC URL（连接参数与基础库相同）
+     */
+    public String provision(String suffix) throws SQLException {
+        String schema = baseSchema + "_" + requireSafe(suffix);
+        long start = System.currentTimeMillis();
+        try (Connection connection = DriverManager.getConnection(baseJdbcUrl, username, password);
+             Statement statement = connection.createStatement()) {
+            statement.execute("SET FOREIGN_KEY_CHECKS = 0");
+            statement.execute("CREATE DATABASE IF NOT EXISTS " + quote(schema));
+            List<String> tables = baseTables(connection);
+            for (String table : tables) {
+                statement.execute("DROP TABLE IF EXISTS " + quote(schema) + "." + quote(table));
+                statement.execute("CREATE TABLE " + quote(schema) + "." + quote(table)
+                        + " LIKE " + quote(baseSchema) + "." + quote(table));
+                statement.execute("INSERT INTO " + quote(schema) + "." + quote(table)
+                        + " SELECT * FROM " + quote(baseSchema) + "." + quote(table));
+            }
+            logger.info("复制隔离 schema：{} -> {}，tables={}，耗时 {}ms",
+                    baseSchema, schema, tables.size(), System.currentTimeMillis() - start);
+        }
+        return withSchema(baseJdbcUrl, schema);
+    }
+
+    public void drop(String suffix) {
+        String schema = baseSchema + "_" + requireSafe(suffix);
+        try (Connection connection = DriverManager.getConnection(baseJdbcUrl, username, password);
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP DATABASE IF EXISTS " + quote(schema));
+        } catch (SQLException e) {
+            logger.warn("删除隔离 schema 失败：{}，reason={}", schema, e.getMessage());
+        }
+    }
+
+    private List<String> baseTables(Connection connection) throws SQLException {
+        List<String> tables = new ArrayList<>();
+        try (PreparedStatement query = connection.prepareStatement(
+                "SELECT table_name FROM information_schema.tables WHERE table_schema = ? AND table_type = 'BASE TABLE'")) {
+            query.setString(1, baseSchema);
+            try (ResultSet rs = query.executeQuery()) {
+                while (rs.next()) {
+                    tables.add(rs.getString(1));
+                }
+            }
+        }
+        return tables;
+    }
+
+    // ==================== JDBC URL ====================
+
+    /** jdbc:mysql://host:port/schema?params 中的 schema */
+    static String schemaOf(String jdbcUrl) {
+        int hostStart = jdbcUrl.indexOf("//");
+        int pathStart = hostStart < 0 ? -1 : jdbcUrl.indexOf('/', hostStart + 2);
+        if (pathStart < 0) {
+            throw new IllegalArgumentException("JDBC URL 缺少数据库名：" + jdbcUrl);
+        }
+        int query = jdbcUrl.indexOf('?', pathStart);
+        String schema = jdbcUrl.substring(pathStart + 1, query < 0 ? jdbcUrl.length() : query);
+        return requireSafe(schema);
+    }
+
+    static String withSchema(String jdbcUrl, String schema) {
+        int pathStart = jdbcUrl.indexOf('/', jdbcUrl.indexOf("//") + 2);
+        int query = jdbcUrl.indexOf('?', pathStart);
+        return jdbcUrl.substring(0, pathStart + 1) + schema + (query < 0 ? "" : jdbcUrl.substring(query));
+    }
+
+    private static String requireSafe(String name) {
+        if (name == null || !SAFE_NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("schema 名只允许字母、数字和下划线：" + name);
+        }
+        return name;
+    }
+
+    private static String quote(String identifier) {
+        return "`" + identifier + "`";
+    }
+}
@@ -0,0 +1,69 @@
+package org.example.roadsimulation.experiment;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.jar.JarFile;
+
+/**
+ * 以独立 JVM 启动 worker 主类（与当前进程相同的 JDK 与 classpath）
+ *
+ * 每个 worker 进程拥有自己的静态状态（如 CostEntity 累计值）和 Spring 上下文，彼此完全隔离。
+ * 当前进程由 Spring Boot 可执行 jar 启动时，通过 PropertiesLauncher + loader.main 指定 worker 主类。
+ * 数据库密码经环境变量传给 worker，不出现在命令行里（命令行对本机所有用户可见，如 ps 与 /proc 下的 cmdline）。
+ */
+final class WorkerProcessLauncher {
+
+    private static final String BOOT_PROPERTIES_LAUNCHER = "org.springframework.boot.loader.launch.PropertiesLauncher";
+    private static final String DATASOURCE_PASSWORD_ENV = "SPRING_DATASOURCE_PASSWORD";
+
+    private WorkerProcessLauncher() {
+    }
+
+    /**
+     * @param datasourcePassword worker 的 spring.datasource.password，为 null 时沿用 worker 自身配置
+     */
+    static Process launch(Class<?> mainClass, List<String> jvmArgs, List<String> args,
+                          String datasourcePassword, Path logFile) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            command.add("--add-modules=jdk.incubator.vector");
+        }
+        command.addAll(jvmArgs);
+
+        String classPath = System.getProperty("java.class.path");
+        if (isBootJar(classPath)) {
+            command.add("-Dloader.main=" + mainClass.getName());
+            command.add("-cp");
+            command.add(classPath);
+            command.add(BOOT_PROPERTIES_LAUNCHER);
+        } else {
+            command.add("-cp");
+            command.add(classPath);
+            command.add(mainClass.getName());
+        }
+        command.addAll(args);
+
+        ProcessBuilder builder = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(logFile.toFile());
+        if (datasourcePassword != null) {
+            builder.environment().put(DATASOURCE_PASSWORD_ENV, datasourcePassword);
+        }
+        return builder.start();
+    }
+
+    private static boolean isBootJar(String classPath) {
+        if (classPath == null || classPath.contains(File.pathSeparator) || !classPath.endsWith(".jar")) {
+            return false;
+        }
+        try (JarFile jar = new JarFile(classPath)) {
+            return jar.getEntry("BOOT-INF/") != null;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package org.example.roadsimulation.optimizer;
+
+/**
+ * GA 种群的扁平双缓冲存储
+ *
+ * 个体 k 的基因位于 genes[k × geneCount, (k+1) × geneCount)，成本 / 可行性存放在平行数组中。
+ * 当代个体在 front 缓冲，子代直接写入 back 缓冲，一代结束后交换两个缓冲；
+ * 排序只排下标数组 order，不移动基因。整个求解过程中除这几块数组外不再分配个体对象。
+ *
+ * 非线程安全，每次求解新建一个实例。
+ */
+final class FlatPopulation {
+
+    private final int size;
+    private final int geneCount;
+
+    private int[] frontGenes;
+    private int[] backGenes;
+    private double[] frontCost;
+    private double[] backCost;
+    private boolean[] frontFeasible;
+    private boolean[] backFeasible;
+
+    /** front 中个体按成本升序排列后的下标 */
+    private final int[] order;
+
+    FlatPopulation(int size, int geneCount) {
+        this.size = size;
+        this.geneCount = geneCount;
+        this.frontGenes = new int[size * geneCount];
+        this.backGenes = new int[size * geneCount];
+        this.frontCost = new double[size];
+        this.backCost = new double[size];
+        this.frontFeasible = new boolean[size];
+        this.backFeasible = new boolean[size];
+        this.order = new int[size];
+        for (int k = 0; k < size; k++) order[k] = k;
+    }
+
+    int size()      { return size; }
+    int geneCount() { return geneCount; }
+
+    int offset(int individual) {
+        return individual * geneCount;
+    }
+
+    int[] front() { return frontGenes; }
+    int[] back()  { return backGenes; }
+
+    double frontCost(int individual)        { return frontCost[individual]; }
+    boolean frontFeasible(int individual)   { return frontFeasible[individual]; }
+
+    void setFront(int individual, double cost, boolean feasible) {
+        frontCost[individual] = cost;
+        frontFeasible[individual] = feasible;
+    }
+
+    void setBack(int individual, double cost, boolean feasible) {
+        backCost[individual] = cost;
+        backFeasible[individual] = feasible;
+    }
+
+    /** 把 front 中的个体（含成本）原样复制到 back 的指定位置 */
+    void copyFrontToBack(int from, int to) {
+        System.arraycopy(frontGenes, offset(from), backGenes, offset(to), geneCount);
+        backCost[to] = frontCost[from];
+        backFeasible[to] = frontFeasible[from];
+    }
+
+    /** 子代写满后交换缓冲，back 成为新的当代 */
+    void swapBuffers() {
+        int[] g = frontGenes; frontGenes = backGenes; backGenes = g;
+        double[] c = frontCost; frontCost = backCost; backCost = c;
+        boolean[] f = frontFeasible; frontFeasible = backFeasible; backFeasible = f;
+    }
+
+    /**
+     * 按成本对 front 的下标排序（插入排序：种群规模百级，且精英已在前部，接近有序）
+     */
+    void sortFrontByCost() {
+        for (int k = 0; k < size; k++) order[k] = k;
+        for (int i = 1; i < size; i++) {
+            int idx = order[i];
+            double c = frontCost[idx];
+            int j = i - 1;
+            while (j >= 0 && frontCost[order[j]] > c) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = idx;
+        }
+    }
+
+    /** 排序后第 rank 名个体的下标 */
+    int ranked(int rank) {
+        return order[rank];
+    }
+
+    void copyGenes(int individual, int[] target) {
+        System.arraycopy(frontGenes, offset(individual), target, 0, geneCount);
+    }
+}
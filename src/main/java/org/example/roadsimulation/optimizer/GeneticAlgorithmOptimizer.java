@@ -2,6 +2,7 @@ package org.example.roadsimulation.optimizer;
 
 import org.example.roadsimulation.entity.ShipmentItem;
 import org.example.roadsimulation.entity.Vehicle;
+import org.example.roadsimulation.rule.VehicleGoodsCompatibilityIndex.ViolationMatrix;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,6 +23,9 @@ import java.util.*;
  *   交叉率    CROSSOVER_RATE   = 0.85
  *   变异率    MUTATION_RATE    = 0.12
  *   精英比例  ELITE_RATIO      = 0.10
+ *
+ * 种群存放在 FlatPopulation 的扁平双缓冲 int 数组中，子代原地写入后缓冲交换，按下标排序；
+ * 只有最终最优个体会物化为 MatchingSolution。
  */
 
 @Component
@@ -56,47 +60,60 @@ public class GeneticAlgorithmOptimizer {
 
         log.info("[GA] 开始优化：{}辆车, {}票货物明细", V, S);
 
-        // Step1：初始化种群
-        List<MatchingSolution> population = initPopulation(S, V, rng);
-        evalAll(population, vehicles, items);
+        // Step1：初始化种群（扁平双缓冲，个体评估复用增量状态的全量重建，不分配临时数组）
+        FlatPopulation pop = new FlatPopulation(POPULATION_SIZE, S);
+        ViolationMatrix violations = evaluator.buildViolationMatrix(vehicles, items);
+        IncrementalMatchingState scorer = new IncrementalMatchingState(evaluator, vehicles, items, violations);
+        initPopulation(pop, V, rng);
+        for (int k = 0; k < POPULATION_SIZE; k++) {
+            scorer.load(pop.front(), pop.offset(k));
+            pop.setFront(k, scorer.cost(), scorer.feasible());
+        }
+        pop.sortFrontByCost();
 
-        MatchingSolution globalBest = deepCopyBest(population);
+        int[] globalBest = new int[S];
+        pop.copyGenes(pop.ranked(0), globalBest);
+        double globalBestCost = pop.frontCost(pop.ranked(0));
         int noImproveGen = 0;
+        int eliteCount = Math.max(1, (int)(POPULATION_SIZE * ELITE_RATIO));
 
         // Step2：迭代进化
         for (int gen = 0; gen < MAX_GENERATIONS; gen++) {
 
-            int eliteCount = Math.max(1, (int)(POPULATION_SIZE * ELITE_RATIO));
-            population.sort(Comparator.comparingDouble(MatchingSolution::getTotalCost));
-
             // 精英直接保留
-            List<MatchingSolution> nextGen = new ArrayList<>();
             for (int e = 0; e < eliteCount; e++) {
-                nextGen.add(new MatchingSolution(population.get(e)));
+                pop.copyFrontToBack(pop.ranked(e), e);
             }
 
-            // 填充子代
-            while (nextGen.size() < POPULATION_SIZE) {
-                MatchingSolution p1 = tournamentSelect(population, rng);
-                MatchingSolution p2 = tournamentSelect(population, rng);
-                MatchingSolution child = (rng.nextDouble() < CROSSOVER_RATE)
-                        ? uniformCrossover(p1, p2, rng)
-                        : new MatchingSolution(p1);
+            // 填充子代：交叉 / 变异直接写入 back 缓冲
+            int[] front = pop.front();
+            int[] back = pop.back();
+            for (int c = eliteCount; c < POPULATION_SIZE; c++) {
+                int p1 = tournamentSelect(pop, rng);
+                int p2 = tournamentSelect(pop, rng);
+                int childOff = pop.offset(c);
+                if (rng.nextDouble() < CROSSOVER_RATE) {
+                    uniformCrossover(front, pop.offset(p1), pop.offset(p2), back, childOff, S, rng);
+                } else {
+                    System.arraycopy(front, pop.offset(p1), back, childOff, S);
+                }
                 if (rng.nextDouble() < MUTATION_RATE) {
-                    mutate(child, V, rng);
+                    mutate(back, childOff, S, V, rng);
                 }
-                nextGen.add(child);
+                scorer.load(back, childOff);
+                pop.setBack(c, scorer.cost(), scorer.feasible());
             }
 
-            evalAll(nextGen, vehicles, items);
-            population = nextGen;
+            pop.swapBuffers();
+            pop.sortFrontByCost();
 
-            // 更新全局最优
-            MatchingSolution genBest = deepCopyBest(population);
-            if (genBest.getTotalCost() < globalBest.getTotalCost() - 1e-6) {
-                globalBest = genBest;
+            // 更新全局最优（只在改善时复制基因）
+            int genBest = pop.ranked(0);
+            if (pop.frontCost(genBest) < globalBestCost - 1e-6) {
+                globalBestCost = pop.frontCost(genBest);
+                pop.copyGenes(genBest, globalBest);
                 noImproveGen = 0;
-                log.debug("[GA] gen={} 新最优 cost={:.2f}", gen, globalBest.getTotalCost());
+                log.debug("[GA] gen={} 新最优 cost={}", gen, globalBestCost);
             } else {
                 noImproveGen++;
             }
@@ -108,75 +125,60 @@ public class GeneticAlgorithmOptimizer {
             }
         }
 
+        // Step3：最优个体物化为 MatchingSolution，并用全量评估给出最终成本
+        MatchingSolution best = new MatchingSolution(S);
+        System.arraycopy(globalBest, 0, best.getAssignmentArray(), 0, S);
+        evaluator.evaluate(best, vehicles, items, violations);
+
         long elapsed = System.currentTimeMillis() - start;
-        log.info("[GA] 完成，最优cost={:.2f}, feasible={}, 耗时={}ms",
-                globalBest.getTotalCost(), globalBest.isFeasible(), elapsed);
-        return globalBest;
+        log.info("[GA] 完成，最优cost={}, feasible={}, 耗时={}ms",
+                String.format("%.2f", best.getTotalCost()), best.isFeasible(), elapsed);
+        return best;
     }
 
     // ── 初始化种群 ────────────────────────────────────────────────────
-    private List<MatchingSolution> initPopulation(int S, int V, Random rng) {
-        List<MatchingSolution> pop = new ArrayList<>(POPULATION_SIZE);
+    private void initPopulation(FlatPopulation pop, int V, Random rng) {
+        int S = pop.geneCount();
+        int[] genes = pop.front();
 
         // ToDo 这里是进行按序号进行的直接分配？ 有考虑过超载问题吗？还是在后续处理？
         // 前20%使用轮询初始化（启发式，提升初代质量）
         int hCount = Math.max(1, POPULATION_SIZE / 5);
-        for (int k = 0; k < hCount; k++) {
-            MatchingSolution sol = new MatchingSolution(S);
-            for (int i = 0; i < S; i++) sol.setAssignment(i, i % V);
-            pop.add(sol);
-        }
-
-        // 剩余完全随机
-        while (pop.size() < POPULATION_SIZE) {
-            MatchingSolution sol = new MatchingSolution(S);
-            for (int i = 0; i < S; i++) sol.setAssignment(i, rng.nextInt(V));
-            pop.add(sol);
+        for (int k = 0; k < POPULATION_SIZE; k++) {
+            int off = pop.offset(k);
+            for (int i = 0; i < S; i++) {
+                // 剩余完全随机
+                genes[off + i] = k < hCount ? i % V : rng.nextInt(V);
+            }
         }
-        return pop;
     }
 
-    // ── 锦标赛选择 ────────────────────────────────────────────────────
-    private MatchingSolution tournamentSelect(List<MatchingSolution> pop, Random rng) {
-        MatchingSolution best = null;
+    // ── 锦标赛选择（返回个体下标） ────────────────────────────────────
+    private int tournamentSelect(FlatPopulation pop, Random rng) {
+        int best = -1;
         for (int i = 0; i < TOURNAMENT_SIZE; i++) {
-            MatchingSolution c = pop.get(rng.nextInt(pop.size()));
-            if (best == null || c.getTotalCost() < best.getTotalCost()) best = c;
+            int c = rng.nextInt(pop.size());
+            if (best < 0 || pop.frontCost(c) < pop.frontCost(best)) best = c;
         }
         return best;
     }
 
     // ── 均匀交叉 ──────────────────────────────────────────────────────
-    private MatchingSolution uniformCrossover(MatchingSolution p1, MatchingSolution p2, Random rng) {
-        int S = p1.getItemCount();
-        MatchingSolution child = new MatchingSolution(S);
+    private void uniformCrossover(int[] src, int p1, int p2, int[] dst, int childOff, int S, Random rng) {
         for (int i = 0; i < S; i++) {
-            child.setAssignment(i, rng.nextBoolean() ? p1.getAssignment(i) : p2.getAssignment(i));
+            dst[childOff + i] = rng.nextBoolean() ? src[p1 + i] : src[p2 + i];
         }
-        return child;
     }
 
     // ── 变异：随机1-3个位置重新分配 ──────────────────────────────────
-    private void mutate(MatchingSolution sol, int V, Random rng) {
-        int S = sol.getItemCount();
+    private void mutate(int[] genes, int off, int S, int V, Random rng) {
         int pts = 1 + rng.nextInt(Math.min(3, S));
         for (int m = 0; m < pts; m++) {
-            int idx = rng.nextInt(S);
-            int oldV = sol.getAssignment(idx);
+            int idx = off + rng.nextInt(S);
+            int oldV = genes[idx];
             int newV;
             do { newV = rng.nextInt(V); } while (V > 1 && newV == oldV);
-            sol.setAssignment(idx, newV);
+            genes[idx] = newV;
         }
     }
-
-    private void evalAll(List<MatchingSolution> pop, List<Vehicle> vehicles, List<ShipmentItem> items) {
-        for (MatchingSolution s : pop) evaluator.evaluate(s, vehicles, items);
-    }
-
-    private MatchingSolution deepCopyBest(List<MatchingSolution> pop) {
-        return pop.stream()
-                .min(Comparator.comparingDouble(MatchingSolution::getTotalCost))
-                .map(MatchingSolution::new)
-                .orElseThrow(() -> new RuntimeException("种群为空"));
-    }
 }
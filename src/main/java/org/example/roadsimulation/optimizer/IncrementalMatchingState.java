@@ -0,0 +1,335 @@
+package org.example.roadsimulation.optimizer;
+
+import org.example.roadsimulation.entity.ShipmentItem;
+import org.example.roadsimulation.entity.Vehicle;
+import org.example.roadsimulation.rule.VehicleGoodsCompatibilityIndex.ViolationMatrix;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * SA 的增量评估状态
+ *
+ * 维护每辆车的累计重量 / 体积 / 明细数与单车成本贡献，以及每票明细的违规惩罚，
+ * 邻域移动只重算被移动明细和涉及的车辆（单点 / 交换 O(1)，段转移 O(段长)），不再整体调用 SolutionEvaluator。
+ *
+ * 单项成本规则全部来自 SolutionEvaluator，增量结果与全量评估一致（浮点累加误差除外，由 SA 定期全量校验并重同步）。
+ *
+ * 使用方式：move(...) 应用移动并返回 Δcost；不接受时调用 undo() 撤销最近一次移动。
+ * 非线程安全，每次求解新建一个实例。
+ */
+class IncrementalMatchingState {
+
+    /** 一次移动最多涉及的明细数（段转移上限为 5） */
+    static final int MAX_MOVE = 8;
+
+    private final SolutionEvaluator evaluator;
+    private final ViolationMatrix violations;
+    private final int itemCount;
+    private final int vehicleCount;
+
+    // ── 只读输入（由实体拆成原始数组） ─────────────────────────────
+    private final double[] itemWeight;
+    private final double[] itemVolume;
+    private final double[] maxLoad;
+    private final double[] maxVolume;
+
+    // ── 可变状态 ────────────────────────────────────────────────────
+    private final int[] assignment;
+    private final double[] loadWeight;
+    private final double[] loadVolume;
+    private final double[] vehicleCost;
+    private final boolean[] vehicleOk;
+    private final double[] itemCost;
+    private final boolean[] itemOk;
+
+    /** 每辆车当前承运的明细下标（无序），memberPos[i] 为明细 i 在所属车辆列表中的位置 */
+    private final int[][] members;
+    private final int[] memberCount;
+    private final int[] memberPos;
+
+    private double totalCost;
+    private int infeasibleCount;
+
+    // ── 撤销信息 ────────────────────────────────────────────────────
+    private final int[] undoItems = new int[MAX_MOVE];
+    private final int[] undoFrom = new int[MAX_MOVE];
+    private int undoLen;
+    private double undoTotal;
+    private int undoInfeasible;
+
+    // ── 临时缓冲（避免每次移动分配） ────────────────────────────────
+    private final int[] touched = new int[2 * MAX_MOVE];
+    private final int[] segmentBuf = new int[MAX_MOVE];
+    private final int[] targetBuf = new int[MAX_MOVE];
+
+    IncrementalMatchingState(SolutionEvaluator evaluator, List<Vehicle> vehicles,
+                             List<ShipmentItem> items, ViolationMatrix violations) {
+        this.evaluator = evaluator;
+        this.violations = violations;
+        this.itemCount = items.size();
+        this.vehicleCount = vehicles.size();
+
+        this.itemWeight = new double[itemCount];
+        this.itemVolume = new double[itemCount];
+        for (int i = 0; i < itemCount; i++) {
+            ShipmentItem item = items.get(i);
+            itemWeight[i] = safe(item.getWeight());
+            itemVolume[i] = safe(item.getVolume());
+        }
+        this.maxLoad = new double[vehicleCount];
+        this.maxVolume = new double[vehicleCount];
+        for (int v = 0; v < vehicleCount; v++) {
+            Vehicle vehicle = vehicles.get(v);
+            maxLoad[v] = safe(vehicle.getMaxLoadCapacity());
+            maxVolume[v] = safe(vehicle.getCargoVolume());
+        }
+
+        this.assignment = new int[itemCount];
+        this.loadWeight = new double[vehicleCount];
+        this.loadVolume = new double[vehicleCount];
+        this.vehicleCost = new double[vehicleCount];
+        this.vehicleOk = new boolean[vehicleCount];
+        this.itemCost = new double[itemCount];
+        this.itemOk = new boolean[itemCount];
+        this.members = new int[vehicleCount][];
+        this.memberCount = new int[vehicleCount];
+        this.memberPos = new int[itemCount];
+        int initialCap = Math.max(4, itemCount / Math.max(1, vehicleCount) * 2);
+        for (int v = 0; v < vehicleCount; v++) members[v] = new int[initialCap];
+    }
+
+    /** 从完整方案重建全部累加量（初始化与定期重同步时使用） */
+    void load(int[] source) {
+        load(source, 0);
+    }
+
+    /**
+     * 从 source[offset, offset + itemCount) 重建全部累加量
+     * GA 也用它对扁平种群中的个体做无分配的全量评估
+     */
+    void load(int[] source, int offset) {
+        Arrays.fill(loadWeight, 0.0);
+        Arrays.fill(loadVolume, 0.0);
+        Arrays.fill(memberCount, 0);
+        System.arraycopy(source, offset, assignment, 0, itemCount);
+
+        totalCost = 0.0;
+        infeasibleCount = 0;
+        for (int i = 0; i < itemCount; i++) {
+            int v = assignment[i];
+            if (v >= 0 && v < vehicleCount) {
+                loadWeight[v] += itemWeight[i];
+                loadVolume[v] += itemVolume[i];
+                addMember(v, i);
+            }
+            refreshItem(i);
+            totalCost += itemCost[i];
+            if (!itemOk[i]) infeasibleCount++;
+        }
+        for (int v = 0; v < vehicleCount; v++) {
+            refreshVehicle(v);
+            totalCost += vehicleCost[v];
+            if (!vehicleOk[v]) infeasibleCount++;
+        }
+        undoLen = 0;
+    }
+
+    double cost()          { return totalCost; }
+    boolean feasible()     { return infeasibleCount == 0; }
+    int itemCount()        { return itemCount; }
+    int vehicleCount()     { return vehicleCount; }
+    int assignmentOf(int item) { return assignment[item]; }
+    int memberCount(int vehicle) { return memberCount[vehicle]; }
+
+    void copyAssignmentTo(int[] target) {
+        System.arraycopy(assignment, 0, target, 0, itemCount);
+    }
+
+    /** 空移动：邻域操作无可执行的移动时调用，使随后的 undo() 成为空操作 */
+    double noMove() {
+        undoTotal = totalCost;
+        undoInfeasible = infeasibleCount;
+        undoLen = 0;
+        return 0.0;
+    }
+
+    /** 单点重分配 */
+    double moveSingle(int item, int target) {
+        segmentBuf[0] = item;
+        targetBuf[0] = target;
+        return move(segmentBuf, targetBuf, 1);
+    }
+
+    /** 两点交换 */
+    double swap(int i, int j) {
+        segmentBuf[0] = i;
+        targetBuf[0] = assignment[j];
+        segmentBuf[1] = j;
+        targetBuf[1] = assignment[i];
+        return move(segmentBuf, targetBuf, 2);
+    }
+
+    /**
+     * 段转移：从 src 车随机挑 count 票明细转到 dst 车（部分 Fisher-Yates，只触碰被选中的位置）
+     */
+    double transferSegment(int src, int dst, int count, Random rng) {
+        int size = memberCount[src];
+        count = Math.min(Math.min(count, size), MAX_MOVE);
+        int[] list = members[src];
+        for (int k = 0; k < count; k++) {
+            int r = k + rng.nextInt(size - k);
+            int a = list[k], b = list[r];
+            list[k] = b; memberPos[b] = k;
+            list[r] = a; memberPos[a] = r;
+        }
+        for (int k = 0; k < count; k++) {
+            segmentBuf[k] = list[k];
+            targetBuf[k] = dst;
+        }
+        return move(segmentBuf, targetBuf, count);
+    }
+
+    /**
+     * 应用一组 (明细 → 目标车) 移动并返回 Δcost；撤销信息保存在实例内
+     */
+    double move(int[] items, int[] targets, int n) {
+        undoTotal = totalCost;
+        undoInfeasible = infeasibleCount;
+        undoLen = 0;
+
+        // 收集受影响车辆（去重），先扣掉它们的旧贡献
+        int touchedLen = 0;
+        for (int k = 0; k < n; k++) {
+            touchedLen = touch(assignment[items[k]], touchedLen);
+            touchedLen = touch(targets[k], touchedLen);
+        }
+        double delta = 0.0;
+        for (int t = 0; t < touchedLen; t++) {
+            int v = touched[t];
+            delta -= vehicleCost[v];
+            if (!vehicleOk[v]) infeasibleCount--;
+        }
+
+        for (int k = 0; k < n; k++) {
+            int i = items[k];
+            int from = assignment[i];
+            int to = targets[k];
+            undoItems[undoLen] = i;
+            undoFrom[undoLen] = from;
+            undoLen++;
+            if (from == to) continue;
+
+            delta -= itemCost[i];
+            if (!itemOk[i]) infeasibleCount--;
+            relocate(i, from, to);
+            refreshItem(i);
+            delta += itemCost[i];
+            if (!itemOk[i]) infeasibleCount++;
+        }
+
+        for (int t = 0; t < touchedLen; t++) {
+            int v = touched[t];
+            refreshVehicle(v);
+            delta += vehicleCost[v];
+            if (!vehicleOk[v]) infeasibleCount++;
+        }
+
+        totalCost += delta;
+        return delta;
+    }
+
+    /** 撤销最近一次 move */
+    void undo() {
+        int touchedLen = 0;
+        for (int k = undoLen - 1; k >= 0; k--) {
+            int i = undoItems[k];
+            int current = assignment[i];
+            int original = undoFrom[k];
+            touchedLen = touch(current, touchedLen);
+            touchedLen = touch(original, touchedLen);
+            if (current != original) {
+                relocate(i, current, original);
+                refreshItem(i);
+            }
+        }
+        for (int t = 0; t < touchedLen; t++) {
+            refreshVehicle(touched[t]);
+        }
+        totalCost = undoTotal;
+        infeasibleCount = undoInfeasible;
+        undoLen = 0;
+    }
+
+    // ── 内部 ────────────────────────────────────────────────────────
+
+    private int touch(int v, int len) {
+        if (v < 0 || v >= vehicleCount) return len;
+        for (int t = 0; t < len; t++) if (touched[t] == v) return len;
+        touched[len] = v;
+        return len + 1;
+    }
+
+    private void relocate(int i, int from, int to) {
+        if (from >= 0 && from < vehicleCount) {
+            loadWeight[from] -= itemWeight[i];
+            loadVolume[from] -= itemVolume[i];
+            removeMember(from, i);
+        }
+        if (to >= 0 && to < vehicleCount) {
+            loadWeight[to] += itemWeight[i];
+            loadVolume[to] += itemVolume[i];
+            addMember(to, i);
+        }
+        assignment[i] = to;
+    }
+
+    private void refreshItem(int i) {
+        int v = assignment[i];
+        if (v < 0 || v >= vehicleCount) {
+            itemCost[i] = evaluator.unassignedPenalty();
+            itemOk[i] = false;
+            return;
+        }
+        int violation = violations.violations(i, v);
+        itemCost[i] = violation == 0 ? 0.0 : evaluator.itemPenalty(violation);
+        itemOk[i] = violation == 0;
+    }
+
+    private void refreshVehicle(int v) {
+        if (memberCount[v] == 0) {
+            // 空车：清零累加量，消除反复加减带来的浮点残差
+            loadWeight[v] = 0.0;
+            loadVolume[v] = 0.0;
+            vehicleCost[v] = 0.0;
+            vehicleOk[v] = true;
+            return;
+        }
+        vehicleCost[v] = evaluator.vehicleFixedCost()
+                + evaluator.vehicleLoadPenalty(loadWeight[v], loadVolume[v], maxLoad[v], maxVolume[v]);
+        vehicleOk[v] = evaluator.withinCapacity(loadWeight[v], loadVolume[v], maxLoad[v], maxVolume[v]);
+    }
+
+    private void addMember(int v, int i) {
+        int n = memberCount[v];
+        if (n == members[v].length) {
+            members[v] = Arrays.copyOf(members[v], n * 2);
+        }
+        members[v][n] = i;
+        memberPos[i] = n;
+        memberCount[v] = n + 1;
+    }
+
+    private void removeMember(int v, int i) {
+        int pos = memberPos[i];
+        int last = --memberCount[v];
+        int moved = members[v][last];
+        members[v][pos] = moved;
+        memberPos[moved] = pos;
+    }
+
+    private static double safe(Double d) {
+        return d == null ? 0.0 : d;
+    }
+}
@@ -1,5 +1,6 @@
 package org.example.roadsimulation.optimizer;
 
+import org.example.roadsimulation.core.SimulationRandom;
 import org.example.roadsimulation.entity.Goods;
 import org.example.roadsimulation.entity.POI;
 import org.example.roadsimulation.entity.Shipment;
@@ -32,7 +33,7 @@ import java.util.*;
  *
  * 内部流程：
  *   1. 筛选出适配该货物的候选车辆（suitableGoods 匹配）
- *   2. 同时运行 GA 和 SA，选取成本更低的方案
+ *   2. 通过 QuantityPortfolioRunner 并发运行 GA 和 SA（共享截止时间），选取成本更低的方案
  *   3. 按最优方案创建 ShipmentItem 并组装返回 Map
  *   4. 若优化失败，自动降级到贪心策略（保证系统不中断）
  */
@@ -42,10 +43,7 @@ public class OptimizerBridge {
     private static final Logger log = LoggerFactory.getLogger(OptimizerBridge.class);
 
     @Autowired
-    private QuantityGA gaOptimizer;
-
-    @Autowired
-    private QuantitySA saOptimizer;
+    private QuantityPortfolioRunner portfolioRunner;
 
     @Autowired
     private QuantityEvaluator evaluator;
@@ -56,6 +54,9 @@ public class OptimizerBridge {
     @Autowired
     private VehicleRepository vehicleRepository;
 
+    @Autowired
+    private SimulationRandom simulationRandom;
+
     /**
      * 优化车辆-货物匹配，返回与原贪心方法完全相同的 Map<Vehicle, ShipmentItem>
      *
@@ -96,25 +97,19 @@ public class OptimizerBridge {
 
         log.info("[Optimizer] 适配车辆: {}/{}", compatibleVehicles.size(), candidateVehicles.size());
 
-        // ── Step2：并行运行 GA 和 SA，取更优方案 ─────────────────────
-        long seed = System.currentTimeMillis();
-        QuantitySolution gaSol, saSol, best;
+        // ── Step2：GA / SA 组合并发求解，共享截止时间，取更优方案 ──────
+        long seed = simulationRandom.nextSeed("quantity-split");
+        QuantitySolution best;
         try {
-            gaSol = gaOptimizer.optimize(compatibleVehicles, goods, totalQuantity, seed);
-            saSol = saOptimizer.optimize(compatibleVehicles, goods, totalQuantity, seed);
-
-            // 优先选 feasible 的；都 feasible 则选 cost 更低的
-            if (gaSol.isFeasible() && !saSol.isFeasible()) {
-                best = gaSol;
-                log.info("[Optimizer] 选择 GA 方案（feasible）");
-            } else if (!gaSol.isFeasible() && saSol.isFeasible()) {
-                best = saSol;
-                log.info("[Optimizer] 选择 SA 方案（feasible）");
-            } else {
-                best = gaSol.getCost() <= saSol.getCost() ? gaSol : saSol;
-                log.info("[Optimizer] 选择 {} 方案 cost={:.1f} vs {:.1f}",
-                        best == gaSol ? "GA" : "SA", gaSol.getCost(), saSol.getCost());
+            QuantityPortfolioRunner.PortfolioResult portfolio =
+                    portfolioRunner.run(compatibleVehicles, goods, totalQuantity, seed);
+            if (portfolio == null) {
+                log.warn("[Optimizer] 组合求解无结果，降级到贪心策略");
+                return greedyFallback(shipment, goods, totalQuantity, compatibleVehicles);
             }
+            best = portfolio.best();
+            log.info("[Optimizer] 选择 {} 方案 cost={} feasible={}",
+                    portfolio.winner(), String.format("%.1f", best.getCost()), best.isFeasible());
 
         } catch (Exception e) {
             log.error("[Optimizer] 算法执行异常，降级到贪心策略: {}", e.getMessage());
@@ -2,6 +2,7 @@ package org.example.roadsimulation.optimizer;
 
 import org.example.roadsimulation.entity.Goods;
 import org.example.roadsimulation.entity.Vehicle;
+import org.example.roadsimulation.rule.VehicleGoodsCompatibilityIndex;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
@@ -30,6 +31,19 @@ public class QuantityEvaluator {
     private static final double LOW_UTIL_PENALTY      = 5_000.0;    // 低利用率惩罚系数
     private static final double IDEAL_UTIL            = 0.5;        // 理想利用率下限（50%）
 
+    private final VehicleGoodsCompatibilityIndex compatibilityIndex;
+
+    public QuantityEvaluator(VehicleGoodsCompatibilityIndex compatibilityIndex) {
+        this.compatibilityIndex = compatibilityIndex;
+    }
+
+    /**
+     * 为一次求解构建车型适配位图（第 j 位 = 第 j 辆候选车适配该货物），QuantityGA / QuantitySA 在求解开始时调用一次
+     */
+    public long[] compatibleVehicleBits(List<Vehicle> vehicles, Goods goods) {
+        return compatibilityIndex.compatibleVehicleBits(vehicles, goods);
+    }
+
     /**
      * 评估方案成本，结果写回 solution 对象
      *
@@ -43,10 +57,40 @@ public class QuantityEvaluator {
                            List<Vehicle> vehicles,
                            Goods goods,
                            int totalQty) {
+        return evaluate(solution, vehicles, goods, totalQty, compatibleVehicleBits(vehicles, goods));
+    }
+
+    /**
+     * 评估方案成本（使用预先构建的车型适配位图）
+     */
+    public double evaluate(QuantitySolution solution,
+                           List<Vehicle> vehicles,
+                           Goods goods,
+                           int totalQty,
+                           long[] compatibleBits) {
+        Score score = new Score();
+        evaluate(solution.getQuantities(), 0, vehicles, goods, totalQty, compatibleBits, score);
+        solution.setCost(score.cost);
+        solution.setFeasible(score.feasible);
+        return score.cost;
+    }
+
+    /**
+     * 评估扁平基因数组中的一个方案：quantities[offset + j] 为第 j 辆车的件数
+     * 结果写入调用方复用的 Score，GA 迭代中不产生分配
+     */
+    double evaluate(int[] quantities, int offset,
+                    List<Vehicle> vehicles,
+                    Goods goods,
+                    int totalQty,
+                    long[] compatibleBits,
+                    Score out) {
 
         double penalty = 0.0;
         boolean feasible = true;
-        int assigned = solution.totalAssigned();
+        int V = vehicles.size();
+        int assigned = 0;
+        for (int j = 0; j < V; j++) assigned += quantities[offset + j];
 
         // ── 1. 未分配完惩罚 ───────────────────────────────────────────
         int unassigned = totalQty - assigned;
@@ -61,14 +105,14 @@ public class QuantityEvaluator {
         }
 
         // ── 2. 逐车检查 ───────────────────────────────────────────────
-        for (int j = 0; j < vehicles.size(); j++) {
-            int qty = solution.getQuantity(j);
+        for (int j = 0; j < V; j++) {
+            int qty = quantities[offset + j];
             if (qty <= 0) continue;   // 未使用的车辆跳过
 
             Vehicle vehicle = vehicles.get(j);
 
-            // 2a. 货物适配检查：suitableGoods 需包含货物 SKU 或名称
-            if (!isCompatible(vehicle, goods)) {
+            // 2a. 货物适配检查：车型适配位图
+            if (!VehicleGoodsCompatibilityIndex.isSet(compatibleBits, j)) {
                 penalty += INCOMPATIBLE_PENALTY;
                 feasible = false;
             }
@@ -94,25 +138,22 @@ public class QuantityEvaluator {
             penalty += VEHICLE_FIXED_COST;
         }
 
-        solution.setCost(penalty);
-        solution.setFeasible(feasible);
+        out.cost = penalty;
+        out.feasible = feasible;
         return penalty;
     }
 
+    /** 评估结果（可复用） */
+    static final class Score {
+        double cost;
+        boolean feasible;
+    }
+
     /**
      * 检查车辆是否适合运输该货物
-     * 判断逻辑：vehicle.suitableGoods 包含货物的 SKU 或 名称（忽略大小写）
+     * 判断逻辑：goods.vehicleFit 与 vehicle.vehicleType 去除首尾空白后相同（车型已驻留为整数 id，按 id 比较）
      */
     public boolean isCompatible(Vehicle vehicle, Goods goods) {
-        if (vehicle == null || goods == null) {
-            return false;
-        }
-
-        String suitableVehicle = goods.getVehicleFit();
-        String vehicleType = vehicle.getVehicleType();
-        if(suitableVehicle == null || suitableVehicle.isBlank()) return false;
-        if(vehicleType == null || vehicleType.isBlank()) return false;
-
-        return suitableVehicle.strip().equals(vehicleType.strip());
+        return compatibilityIndex.fitsVehicleType(vehicle, goods);
     }
 }
@@ -2,12 +2,14 @@ package org.example.roadsimulation.optimizer;
 
 import org.example.roadsimulation.entity.Goods;
 import org.example.roadsimulation.entity.Vehicle;
+import org.example.roadsimulation.rule.VehicleGoodsCompatibilityIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
+import java.util.function.BooleanSupplier;
 
 /**
  * 遗传算法（GA）- 货物数量分配优化
@@ -22,6 +24,8 @@ import java.util.*;
  *   交叉率      = 0.85
  *   变异率      = 0.15
  *   精英比例    = 0.10
+ *
+ * 种群使用 FlatPopulation（扁平双缓冲 int 数组），交叉 / 变异原地写入子代缓冲，只在结束时物化最优方案。
  */
 @Component
 public class QuantityGA {
@@ -49,46 +53,75 @@ public class QuantityGA {
      * @return 最优数量分配方案
      */
     public QuantitySolution optimize(List<Vehicle> vehicles, Goods goods, int totalQty, long seed) {
+        return optimize(vehicles, goods, totalQty, seed, () -> false);
+    }
+
+    /**
+     * 执行GA优化（可协作停止）
+     *
+     * 每代开始前检查 stop，返回 true 时立即结束并返回当前最优解，供组合求解器在截止时间或已得到足够好解时收敛。
+     */
+    public QuantitySolution optimize(List<Vehicle> vehicles, Goods goods, int totalQty, long seed,
+                                     BooleanSupplier stop) {
         int V = vehicles.size();
         Random rng = new Random(seed);
         long start = System.currentTimeMillis();
 
         log.info("[GA] 开始优化：{}辆候选车, {}件货物 ({})", V, totalQty, goods.getName());
 
-        // 初始化种群
-        List<QuantitySolution> pop = initPopulation(V, totalQty, vehicles, goods, rng);
-        evalAll(pop, vehicles, goods, totalQty);
+        // 初始化种群（扁平双缓冲：pop × V 的 int 数组，子代原地写入 back 缓冲）
+        long[] compatible = evaluator.compatibleVehicleBits(vehicles, goods);
+        FlatPopulation pop = new FlatPopulation(POP_SIZE, V);
+        QuantityEvaluator.Score score = new QuantityEvaluator.Score();
+        int[] perm = new int[V];
+        initPopulation(pop, totalQty, vehicles, goods, compatible, perm, rng);
+        for (int k = 0; k < POP_SIZE; k++) {
+            evaluator.evaluate(pop.front(), pop.offset(k), vehicles, goods, totalQty, compatible, score);
+            pop.setFront(k, score.cost, score.feasible);
+        }
+        pop.sortFrontByCost();
 
-        QuantitySolution best = deepCopy(bestOf(pop));
+        int[] best = new int[V];
+        pop.copyGenes(pop.ranked(0), best);
+        double bestCost = pop.frontCost(pop.ranked(0));
         int noImprove = 0;
+        int eliteN = Math.max(1, (int)(POP_SIZE * ELITE_RATIO));
 
         for (int gen = 0; gen < MAX_GEN; gen++) {
-            int eliteN = Math.max(1, (int)(POP_SIZE * ELITE_RATIO));
-            pop.sort(Comparator.comparingDouble(QuantitySolution::getCost));
+            if (stop.getAsBoolean()) {
+                log.info("[GA] 收到停止信号，结束于第{}代", gen);
+                break;
+            }
 
-            List<QuantitySolution> next = new ArrayList<>();
             // 精英保留
-            for (int e = 0; e < eliteN; e++) next.add(new QuantitySolution(pop.get(e)));
+            for (int e = 0; e < eliteN; e++) pop.copyFrontToBack(pop.ranked(e), e);
 
             // 填充子代
-            while (next.size() < POP_SIZE) {
-                QuantitySolution p1 = tournament(pop, rng);
-                QuantitySolution p2 = tournament(pop, rng);
-                QuantitySolution child = rng.nextDouble() < CROSSOVER_RATE
-                        ? crossover(p1, p2, totalQty, rng)
-                        : new QuantitySolution(p1);
-                if (rng.nextDouble() < MUTATION_RATE) mutate(child, totalQty, vehicles, goods, rng);
-                next.add(child);
+            int[] front = pop.front();
+            int[] back = pop.back();
+            for (int c = eliteN; c < POP_SIZE; c++) {
+                int p1 = tournament(pop, rng);
+                int p2 = tournament(pop, rng);
+                int childOff = pop.offset(c);
+                if (rng.nextDouble() < CROSSOVER_RATE) {
+                    crossover(front, pop.offset(p1), pop.offset(p2), back, childOff, V, totalQty, rng);
+                } else {
+                    System.arraycopy(front, pop.offset(p1), back, childOff, V);
+                }
+                if (rng.nextDouble() < MUTATION_RATE) mutate(back, childOff, V, rng);
+                evaluator.evaluate(back, childOff, vehicles, goods, totalQty, compatible, score);
+                pop.setBack(c, score.cost, score.feasible);
             }
 
-            evalAll(next, vehicles, goods, totalQty);
-            pop = next;
+            pop.swapBuffers();
+            pop.sortFrontByCost();
 
-            QuantitySolution genBest = deepCopy(bestOf(pop));
-            if (genBest.getCost() < best.getCost() - 1e-6) {
-                best = genBest;
+            int genBest = pop.ranked(0);
+            if (pop.frontCost(genBest) < bestCost - 1e-6) {
+                bestCost = pop.frontCost(genBest);
+                pop.copyGenes(genBest, best);
                 noImprove = 0;
-                log.debug("[GA] gen={} 新最优 cost={:.1f} feasible={}", gen, best.getCost(), best.isFeasible());
+                log.debug("[GA] gen={} 新最优 cost={} feasible={}", gen, bestCost, pop.frontFeasible(genBest));
             } else {
                 noImprove++;
             }
@@ -98,75 +131,77 @@ public class QuantityGA {
             }
         }
 
-        log.info("[GA] 完成 cost={:.1f} feasible={} 用{}辆 耗时={}ms",
-                best.getCost(), best.isFeasible(), best.usedVehicleCount(),
+        // 只在结束时物化最优个体
+        QuantitySolution result = new QuantitySolution(V);
+        System.arraycopy(best, 0, result.getQuantities(), 0, V);
+        evaluator.evaluate(result, vehicles, goods, totalQty, compatible);
+
+        log.info("[GA] 完成 cost={} feasible={} 用{}辆 耗时={}ms",
+                String.format("%.1f", result.getCost()), result.isFeasible(), result.usedVehicleCount(),
                 System.currentTimeMillis() - start);
-        return best;
+        return result;
     }
 
     // ── 初始化种群 ────────────────────────────────────────────────────
-    private List<QuantitySolution> initPopulation(int V, int totalQty,
-                                                   List<Vehicle> vehicles, Goods goods, Random rng) {
-        List<QuantitySolution> pop = new ArrayList<>(POP_SIZE);
+    private void initPopulation(FlatPopulation pop, int totalQty, List<Vehicle> vehicles, Goods goods,
+                                long[] compatible, int[] perm, Random rng) {
+        int V = pop.geneCount();
+        int[] genes = pop.front();
 
         // 前20%：贪心分配（按车辆最大载重从大到小分配）
         int greedyN = Math.max(1, POP_SIZE / 5);
-        for (int k = 0; k < greedyN; k++) {
-            pop.add(greedyInit(V, totalQty, vehicles, goods));
-        }
-
-        // 其余：随机分配（保证总量合法）
-        while (pop.size() < POP_SIZE) {
-            pop.add(randomInit(V, totalQty, rng));
+        for (int k = 0; k < POP_SIZE; k++) {
+            if (k < greedyN) {
+                greedyInit(genes, pop.offset(k), V, totalQty, vehicles, goods, compatible);
+            } else {
+                // 其余：随机分配（保证总量合法）
+                randomInit(genes, pop.offset(k), V, totalQty, perm, rng);
+            }
         }
-        return pop;
     }
 
     /** 贪心初始化：按载重比例分配，适配车辆才参与 */
-    private QuantitySolution greedyInit(int V, int totalQty, List<Vehicle> vehicles, Goods goods) {
-        QuantitySolution sol = new QuantitySolution(V);
-        if (goods.getWeightPerUnit() == null || goods.getWeightPerUnit() <= 0) return sol;
+    private void greedyInit(int[] genes, int off, int V, int totalQty, List<Vehicle> vehicles, Goods goods,
+                            long[] compatible) {
+        if (goods.getWeightPerUnit() == null || goods.getWeightPerUnit() <= 0) return;
 
         int remaining = totalQty;
         for (int j = 0; j < V && remaining > 0; j++) {
             Vehicle v = vehicles.get(j);
-            if (!evaluator.isCompatible(v, goods)) continue;
+            if (!VehicleGoodsCompatibilityIndex.isSet(compatible, j)) continue;
             Double maxLoad = v.getMaxLoadCapacity();
             if (maxLoad == null || maxLoad <= 0) continue;
             int cap = (int) Math.floor(maxLoad / goods.getWeightPerUnit());
             int assign = Math.min(cap, remaining);
             if (assign > 0) {
-                sol.setQuantity(j, assign);
+                genes[off + j] = assign;
                 remaining -= assign;
             }
         }
-        return sol;
     }
 
-    /** 随机初始化：将 totalQty 随机分配给各车辆（可能部分为0） */
-    private QuantitySolution randomInit(int V, int totalQty, Random rng) {
-        QuantitySolution sol = new QuantitySolution(V);
-        int remaining = totalQty;
-        // 随机打乱车辆顺序，防止前几辆总是被优先分配
-        List<Integer> order = new ArrayList<>();
-        for (int j = 0; j < V; j++) order.add(j);
-        Collections.shuffle(order, rng);
+    /** 随机初始化：将 totalQty 随机分配给各车辆（可能部分为0），车辆顺序用复用的排列缓冲洗牌 */
+    private void randomInit(int[] genes, int off, int V, int totalQty, int[] perm, Random rng) {
+        for (int j = 0; j < V; j++) perm[j] = j;
+        for (int i = V; i > 1; i--) {
+            int r = rng.nextInt(i);
+            int tmp = perm[i - 1]; perm[i - 1] = perm[r]; perm[r] = tmp;
+        }
 
-        for (int i = 0; i < order.size() - 1 && remaining > 0; i++) {
+        int remaining = totalQty;
+        for (int i = 0; i < V - 1 && remaining > 0; i++) {
             int give = rng.nextInt(remaining + 1);
-            sol.setQuantity(order.get(i), give);
+            genes[off + perm[i]] = give;
             remaining -= give;
         }
-        if (remaining > 0) sol.setQuantity(order.get(order.size() - 1), remaining);
-        return sol;
+        if (remaining > 0) genes[off + perm[V - 1]] += remaining;
     }
 
-    // ── 锦标赛选择 ────────────────────────────────────────────────────
-    private QuantitySolution tournament(List<QuantitySolution> pop, Random rng) {
-        QuantitySolution best = null;
+    private int tournament(FlatPopulation pop, Random rng) {
+        int best = -1;
         for (int i = 0; i < TOURNAMENT_SIZE; i++) {
-            QuantitySolution c = pop.get(rng.nextInt(pop.size()));
-            if (best == null || c.getCost() < best.getCost()) best = c;
+            int c = rng.nextInt(pop.size());
+            if (best < 0 || pop.frontCost(c) < pop.frontCost(best)) best = c;
         }
         return best;
     }
@@ -174,73 +209,52 @@ public class QuantityGA {
     /**
      * 算术交叉：子代 = α×p1 + (1-α)×p2，然后修正使总量=totalQty
      */
-    private QuantitySolution crossover(QuantitySolution p1, QuantitySolution p2, int totalQty, Random rng) {
-        int V = p1.getVehicleCount();
-        QuantitySolution child = new QuantitySolution(V);
+    private void crossover(int[] src, int p1, int p2, int[] dst, int childOff, int V, int totalQty, Random rng) {
         double alpha = rng.nextDouble();
-        int sum = 0;
         for (int j = 0; j < V; j++) {
-            int q = (int) Math.round(alpha * p1.getQuantity(j) + (1 - alpha) * p2.getQuantity(j));
-            q = Math.max(0, q);
-            child.setQuantity(j, q);
-            sum += q;
+            int q = (int) Math.round(alpha * src[p1 + j] + (1 - alpha) * src[p2 + j]);
+            dst[childOff + j] = Math.max(0, q);
         }
-        repair(child, totalQty, rng);
-        return child;
+        repair(dst, childOff, V, totalQty, rng);
     }
 
     /**
      * 变异：随机将一辆车的部分数量转移给另一辆车
      */
-    private void mutate(QuantitySolution sol, int totalQty, List<Vehicle> vehicles, Goods goods, Random rng) {
-        int V = sol.getVehicleCount();
+    private void mutate(int[] genes, int off, int V, Random rng) {
         if (V < 2) return;
 
         int src = rng.nextInt(V);
         int dst;
         do { dst = rng.nextInt(V); } while (dst == src);
 
-        int srcQty = sol.getQuantity(src);
+        int srcQty = genes[off + src];
         if (srcQty == 0) return;
 
         int transfer = 1 + rng.nextInt(srcQty);
-        sol.setQuantity(src, srcQty - transfer);
-        sol.setQuantity(dst, sol.getQuantity(dst) + transfer);
+        genes[off + src] = srcQty - transfer;
+        genes[off + dst] += transfer;
     }
 
     /**
      * 修复方案：调整总量到 totalQty
      */
-    private void repair(QuantitySolution sol, int totalQty, Random rng) {
-        int V = sol.getVehicleCount();
-        int diff = sol.totalAssigned() - totalQty;
+    private void repair(int[] genes, int off, int V, int totalQty, Random rng) {
+        int sum = 0;
+        for (int j = 0; j < V; j++) sum += genes[off + j];
+        int diff = sum - totalQty;
         while (diff > 0) {
-            // 随机减少某辆车的数量
-            int j = rng.nextInt(V);
-            int q = sol.getQuantity(j);
+            int j = off + rng.nextInt(V);
+            int q = genes[j];
             if (q > 0) {
                 int reduce = Math.min(diff, q);
-                sol.setQuantity(j, q - reduce);
+                genes[j] = q - reduce;
                 diff -= reduce;
             }
         }
         while (diff < 0) {
-            int j = rng.nextInt(V);
-            sol.setQuantity(j, sol.getQuantity(j) + 1);
+            genes[off + rng.nextInt(V)]++;
             diff++;
         }
     }
-
-    private void evalAll(List<QuantitySolution> pop, List<Vehicle> vehicles, Goods goods, int totalQty) {
-        for (QuantitySolution s : pop) evaluator.evaluate(s, vehicles, goods, totalQty);
-    }
-
-    private QuantitySolution bestOf(List<QuantitySolution> pop) {
-        return pop.stream().min(Comparator.comparingDouble(QuantitySolution::getCost))
-                .orElseThrow();
-    }
-
-    private QuantitySolution deepCopy(QuantitySolution s) {
-        return new QuantitySolution(s);
-    }
 }
@@ -0,0 +1,358 @@
+package org.example.roadsimulation.optimizer;
+
+import jakarta.annotation.PreDestroy;
+import org.example.roadsimulation.core.SimulationRandom;
+import org.example.roadsimulation.entity.Goods;
+import org.example.roadsimulation.entity.Vehicle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 货物数量分配组合求解器（portfolio）
+ *
+ * 将 GA、SA 以及可选的额外种子变体提交到有界线程池并发运行：
+ *   1. 所有求解器共享同一个截止时间，到期后通过停止信号协作结束，返回各自当前最优解；
+ *   2. 任一求解器给出"足够好"的解（可行且使用车辆数不超过下界 + 容差）时立即通知其余求解器停止，
+ *      并在宽限时间内收齐它们交回的当前最优解再比较；
+ *   3. 按 feasible 优先、cost 次之选出胜者，并记录每个求解器的耗时与胜出次数，
+ *      用于判断哪些求解器从不胜出、可以从组合中移除。
+ * 每个求解器 / 变体的种子由调用方种子与求解器名派生，互不相同。线程池满时多出的求解器直接跳过，
+ * 不在调用线程上执行（那样截止时间管不到）。
+ */
+@Component
+public class QuantityPortfolioRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(QuantityPortfolioRunner.class);
+
+    /** 截止后等待求解器响应停止信号、交回当前最优解的宽限时间 */
+    private static final long STOP_GRACE_MS = 200;
+
+    /** 每运行多少次组合打印一次胜率直方图 */
+    private static final int SUMMARY_EVERY_RUNS = 50;
+
+    private final QuantityGA gaOptimizer;
+    private final QuantitySA saOptimizer;
+    private final long deadlineMs;
+    private final int extraSeeds;
+    private final int vehicleSlack;
+    private final ThreadPoolExecutor executor;
+
+    private final Map<String, SolverStats> statsBySolver = new ConcurrentHashMap<>();
+    private final AtomicLong portfolioRuns = new AtomicLong();
+
+    public QuantityPortfolioRunner(
+            QuantityGA gaOptimizer,
+            QuantitySA saOptimizer,
+            @Value("${app.optimizer.portfolio.threads:4}") int threads,
+            @Value("${app.optimizer.portfolio.queue-capacity:64}") int queueCapacity,
+            @Value("${app.optimizer.portfolio.deadline-ms:3000}") long deadlineMs,
+            @Value("${app.optimizer.portfolio.extra-seeds:0}") int extraSeeds,
+            @Value("${app.optimizer.portfolio.good-enough-vehicle-slack:0}") int vehicleSlack) {
+        this.gaOptimizer = gaOptimizer;
+        this.saOptimizer = saOptimizer;
+        this.deadlineMs = Math.max(1, deadlineMs);
+        this.extraSeeds = Math.max(0, extraSeeds);
+        this.vehicleSlack = Math.max(0, vehicleSlack);
+
+        int poolSize = Math.max(1, threads);
+        AtomicInteger threadIndex = new AtomicInteger();
+        // 队列满时拒绝提交，由 run() 跳过该求解器
+        this.executor = new ThreadPoolExecutor(
+                poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                r -> {
+                    Thread thread = new Thread(r, "quantity-portfolio-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * 并发运行组合中的全部求解器并返回最优方案
+     *
+     * @return 胜出方案；所有求解器均失败或在截止 + 宽限时间内无一返回时为 null（调用方应降级）
+     */
+    public PortfolioResult run(List<Vehicle> vehicles, Goods goods, int totalQty, long seed) {
+        long start = System.nanoTime();
+        long deadlineNanos = start + TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+        int vehicleLowerBound = minVehiclesNeeded(vehicles, goods, totalQty);
+        AtomicBoolean stop = new AtomicBoolean(false);
+
+        List<SolverTask> tasks = buildTasks(vehicles, goods, totalQty, seed, stop);
+        ExecutorCompletionService<SolverOutcome> completion = new ExecutorCompletionService<>(executor);
+        List<Future<SolverOutcome>> futures = new ArrayList<>(tasks.size());
+        for (SolverTask task : tasks) {
+            try {
+                futures.add(completion.submit(task::call));
+            } catch (RejectedExecutionException e) {
+                stats(task.solver).rejected.increment();
+                log.warn("[Portfolio] 线程池已满，跳过求解器 {}", task.solver);
+            }
+        }
+
+        List<SolverOutcome> outcomes = new ArrayList<>(tasks.size());
+        boolean goodEnough = false;
+        boolean deadlineHit = false;
+        try {
+            int pending = futures.size();
+            while (pending > 0) {
+                long waitNanos = stop.get()
+                        ? TimeUnit.MILLISECONDS.toNanos(STOP_GRACE_MS)
+                        : deadlineNanos - System.nanoTime();
+                Future<SolverOutcome> done = waitNanos > 0 ? completion.poll(waitNanos, TimeUnit.NANOSECONDS) : null;
+                if (done == null) {
+                    if (stop.get()) {
+                        break;              // 宽限时间内仍未返回，放弃剩余求解器
+                    }
+                    deadlineHit = true;
+                    stop.set(true);         // 截止：通知所有求解器交回当前最优解
+                    continue;
+                }
+                pending--;
+                SolverOutcome outcome = collect(done);
+                if (outcome == null) {
+                    continue;
+                }
+                outcomes.add(outcome);
+                if (!stop.get() && isGoodEnough(outcome.solution(), vehicleLowerBound)) {
+                    goodEnough = true;
+                    stop.set(true);         // 已足够好：其余求解器交回当前最优解后一起比较
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stop.set(true);
+        } finally {
+            stop.set(true);
+            for (Future<SolverOutcome> f : futures) {
+                f.cancel(false);            // 尚未开始的任务直接取消；已在运行的靠 stop 信号协作结束
+            }
+        }
+
+        SolverOutcome winner = pickBest(outcomes);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        long runNo = portfolioRuns.incrementAndGet();
+        if (winner != null) {
+            stats(winner.solver()).wins.increment();
+            log.info("[Portfolio] 胜者={} cost={} feasible={} 用{}辆 下界{}辆 返回{}/{} 个结果 earlyStop={} deadlineHit={} 耗时={}ms",
+                    winner.solver(), String.format("%.1f", winner.solution().getCost()),
+                    winner.solution().isFeasible(), winner.solution().usedVehicleCount(), vehicleLowerBound,
+                    outcomes.size(), futures.size(), goodEnough, deadlineHit, elapsedMs);
+        } else {
+            log.warn("[Portfolio] 无求解器返回结果 (deadlineHit={}, 耗时={}ms)", deadlineHit, elapsedMs);
+        }
+        if (runNo % SUMMARY_EVERY_RUNS == 0) {
+            logSummary();
+        }
+
+        return winner == null ? null
+                : new PortfolioResult(winner.solution(), winner.solver(), outcomes, goodEnough, deadlineHit, elapsedMs);
+    }
+
+    /** 组合中的求解器：GA、SA 为基础成员，extraSeeds > 0 时再追加不同种子的变体 */
+    private List<SolverTask> buildTasks(List<Vehicle> vehicles, Goods goods, int totalQty,
+                                        long seed, AtomicBoolean stop) {
+        List<SolverTask> tasks = new ArrayList<>(2 + 2 * extraSeeds);
+        for (int k = 0; k <= extraSeeds; k++) {
+            String suffix = k == 0 ? "" : "#" + k;
+            String ga = "GA" + suffix;
+            String sa = "SA" + suffix;
+            long gaSeed = solverSeed(seed, ga);
+            long saSeed = solverSeed(seed, sa);
+            tasks.add(new SolverTask(ga,
+                    () -> gaOptimizer.optimize(vehicles, goods, totalQty, gaSeed, stop::get), stop));
+            tasks.add(new SolverTask(sa,
+                    () -> saOptimizer.optimize(vehicles, goods, totalQty, saSeed, stop::get), stop));
+        }
+        return tasks;
+    }
+
+    /** 按求解器名（含变体编号）派生种子，GA / SA 及各变体互不相同 */
+    static long solverSeed(long seed, String solver) {
+        return SimulationRandom.derive(seed, solver.hashCode());
+    }
+
+    private SolverOutcome collect(Future<SolverOutcome> done) {
+        try {
+            return done.get();
+        } catch (ExecutionException e) {
+            log.error("[Portfolio] 求解器执行异常: {}", e.getCause() == null ? e.getMessage() : e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (CancellationException ignored) {
+            // 被取消的任务没有结果
+        }
+        return null;
+    }
+
+    private boolean isGoodEnough(QuantitySolution solution, int vehicleLowerBound) {
+        return solution != null
+                && solution.isFeasible()
+                && solution.usedVehicleCount() <= vehicleLowerBound + vehicleSlack;
+    }
+
+    /** feasible 优先；同为 feasible 或同为不可行时取 cost 更低者（与原 GA/SA 二选一规则一致） */
+    static SolverOutcome pickBest(List<SolverOutcome> outcomes) {
+        SolverOutcome best = null;
+        for (SolverOutcome o : outcomes) {
+            if (o.solution() == null) continue;
+            if (best == null) {
+                best = o;
+                continue;
+            }
+            boolean f1 = o.solution().isFeasible();
+            boolean f2 = best.solution().isFeasible();
+            if (f1 != f2) {
+                if (f1) best = o;
+            } else if (o.solution().getCost() < best.solution().getCost()) {
+                best = o;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 车辆数下界：按可装件数从大到小累加，直到覆盖 totalQty 所需的最少车辆数
+     * 单位重量缺失时评估器不做超载检查，下界取 1
+     */
+    static int minVehiclesNeeded(List<Vehicle> vehicles, Goods goods, int totalQty) {
+        Double wpu = goods.getWeightPerUnit();
+        if (wpu == null || wpu <= 0) {
+            return 1;
+        }
+        List<Integer> caps = new ArrayList<>(vehicles.size());
+        for (Vehicle v : vehicles) {
+            Double maxLoad = v.getMaxLoadCapacity();
+            caps.add(maxLoad == null || maxLoad <= 0 ? Integer.MAX_VALUE : (int) Math.floor(maxLoad / wpu));
+        }
+        caps.sort(Collections.reverseOrder());
+        long covered = 0;
+        int count = 0;
+        for (int cap : caps) {
+            if (covered >= totalQty) break;
+            covered += cap;
+            count++;
+        }
+        return Math.max(1, count);
+    }
+
+    private SolverStats stats(String solver) {
+        return statsBySolver.computeIfAbsent(solver, k -> new SolverStats());
+    }
+
+    /** 各求解器运行次数、胜出次数、胜率、平均耗时与被拒绝次数（按求解器名排序） */
+    public Map<String, String> getStatsSummary() {
+        Map<String, String> summary = new LinkedHashMap<>();
+        statsBySolver.keySet().stream().sorted().forEach(name -> {
+            SolverStats s = statsBySolver.get(name);
+            long runs = s.runs.sum();
+            long wins = s.wins.sum();
+            summary.put(name, String.format("runs=%d wins=%d winRate=%.1f%% avg=%.1fms stopped=%d failed=%d rejected=%d",
+                    runs, wins, runs == 0 ? 0.0 : 100.0 * wins / runs,
+                    runs == 0 ? 0.0 : (double) s.totalMillis.sum() / runs,
+                    s.stopped.sum(), s.failed.sum(), s.rejected.sum()));
+        });
+        return summary;
+    }
+
+    /** 胜出次数直方图：求解器名 → 胜出次数 */
+    public Map<String, Long> getWinHistogram() {
+        Map<String, Long> histogram = new LinkedHashMap<>();
+        statsBySolver.keySet().stream().sorted()
+                .forEach(name -> histogram.put(name, statsBySolver.get(name).wins.sum()));
+        return histogram;
+    }
+
+    public long getPortfolioRuns() {
+        return portfolioRuns.get();
+    }
+
+    private void logSummary() {
+        log.info("[Portfolio] 累计{}次组合求解，求解器统计: {}", portfolioRuns.get(), getStatsSummary());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        if (portfolioRuns.get() > 0) {
+            logSummary();
+        }
+    }
+
+    /** 单个求解器任务：计时并记录运行、失败、被提前停止次数 */
+    private final class SolverTask {
+        private final String solver;
+        private final Supplier<QuantitySolution> body;
+        private final AtomicBoolean stop;
+
+        SolverTask(String solver, Supplier<QuantitySolution> body, AtomicBoolean stop) {
+            this.solver = solver;
+            this.body = body;
+            this.stop = stop;
+        }
+
+        SolverOutcome call() {
+            SolverStats s = stats(solver);
+            long t0 = System.nanoTime();
+            try {
+                QuantitySolution solution = body.get();
+                return new SolverOutcome(solver, solution, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t0));
+            } catch (RuntimeException e) {
+                s.failed.increment();
+                throw e;
+            } finally {
+                s.runs.increment();
+                s.totalMillis.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t0));
+                if (stop.get()) {
+                    s.stopped.increment();
+                }
+            }
+        }
+    }
+
+    private static final class SolverStats {
+        final LongAdder runs = new LongAdder();
+        final LongAdder wins = new LongAdder();
+        final LongAdder totalMillis = new LongAdder();
+        final LongAdder stopped = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+    }
+
+    /** 单个求解器的结果与耗时 */
+    public record SolverOutcome(String solver, QuantitySolution solution, long elapsedMs) {
+    }
+
+    /** 组合求解结果 */
+    public record PortfolioResult(QuantitySolution best,
+                                  String winner,
+                                  List<SolverOutcome> outcomes,
+                                  boolean stoppedEarly,
+                                  boolean deadlineHit,
+                                  long elapsedMs) {
+    }
+}
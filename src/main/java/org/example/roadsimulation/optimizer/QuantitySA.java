@@ -2,12 +2,14 @@ package org.example.roadsimulation.optimizer;
 
 import org.example.roadsimulation.entity.Goods;
 import org.example.roadsimulation.entity.Vehicle;
+import org.example.roadsimulation.rule.VehicleGoodsCompatibilityIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
+import java.util.function.BooleanSupplier;
 
 /**
  * 模拟退火（SA）- 货物数量分配优化
@@ -45,6 +47,16 @@ public class QuantitySA {
      * @return 最优数量分配方案
      */
     public QuantitySolution optimize(List<Vehicle> vehicles, Goods goods, int totalQty, long seed) {
+        return optimize(vehicles, goods, totalQty, seed, () -> false);
+    }
+
+    /**
+     * 执行SA优化（可协作停止）
+     *
+     * 每个温度层开始前检查 stop，返回 true 时立即结束并返回当前最优解。
+     */
+    public QuantitySolution optimize(List<Vehicle> vehicles, Goods goods, int totalQty, long seed,
+                                     BooleanSupplier stop) {
         int V = vehicles.size();
         int L = Math.max(150, 8 * V);
         Random rng = new Random(seed);
@@ -53,8 +65,9 @@ public class QuantitySA {
         log.info("[SA] 开始优化：{}辆候选车, {}件货物 ({}), 每层L={}", V, totalQty, goods.getName(), L);
 
         // 贪心初始解
-        QuantitySolution current = greedyInit(V, totalQty, vehicles, goods);
-        evaluator.evaluate(current, vehicles, goods, totalQty);
+        long[] compatible = evaluator.compatibleVehicleBits(vehicles, goods);
+        QuantitySolution current = greedyInit(V, totalQty, vehicles, goods, compatible);
+        evaluator.evaluate(current, vehicles, goods, totalQty, compatible);
         QuantitySolution best = new QuantitySolution(current);
 
         double T = T0;
@@ -62,9 +75,13 @@ public class QuantitySA {
         int improved = 0;
 
         while (T > T_MIN) {
+            if (stop.getAsBoolean()) {
+                log.info("[SA] 收到停止信号，结束于 T={}", T);
+                break;
+            }
             for (int l = 0; l < L; l++) {
                 QuantitySolution neighbor = generateNeighbor(current, totalQty, rng);
-                evaluator.evaluate(neighbor, vehicles, goods, totalQty);
+                evaluator.evaluate(neighbor, vehicles, goods, totalQty, compatible);
 
                 double delta = neighbor.getCost() - current.getCost();
                 if (delta < 0 || rng.nextDouble() < Math.exp(-delta / T)) {
@@ -86,14 +103,14 @@ public class QuantitySA {
     }
 
     // ── 贪心初始解 ────────────────────────────────────────────────────
-    private QuantitySolution greedyInit(int V, int totalQty, List<Vehicle> vehicles, Goods goods) {
+    private QuantitySolution greedyInit(int V, int totalQty, List<Vehicle> vehicles, Goods goods, long[] compatible) {
         QuantitySolution sol = new QuantitySolution(V);
         if (goods.getWeightPerUnit() == null || goods.getWeightPerUnit() <= 0) return sol;
 
         int remaining = totalQty;
         for (int j = 0; j < V && remaining > 0; j++) {
             Vehicle v = vehicles.get(j);
-            if (!evaluator.isCompatible(v, goods)) continue;
+            if (!VehicleGoodsCompatibilityIndex.isSet(compatible, j)) continue;
             Double maxLoad = v.getMaxLoadCapacity();
             if (maxLoad == null || maxLoad <= 0) continue;
             int cap = (int) Math.floor(maxLoad / goods.getWeightPerUnit());
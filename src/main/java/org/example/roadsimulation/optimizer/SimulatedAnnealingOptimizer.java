@@ -2,6 +2,7 @@ package org.example.roadsimulation.optimizer;
 
 import org.example.roadsimulation.entity.ShipmentItem;
 import org.example.roadsimulation.entity.Vehicle;
+import org.example.roadsimulation.rule.VehicleGoodsCompatibilityIndex.ViolationMatrix;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,6 +23,9 @@ import java.util.*;
  *   ALPHA = 0.997   几何冷却系数（每轮温度乘以ALPHA）
  *   T_MIN = 0.5     终止温度
  *   L     = max(200, 10×itemCount)  每温度层迭代次数
+ *
+ * 评估方式：邻域移动在 IncrementalMatchingState 上原地执行，只重算涉及的车辆与明细得到 Δcost，
+ * 不接受则撤销；每 VERIFY_EVERY_LAYERS 层用 SolutionEvaluator 全量评估校验并重同步一次。
  */
 @Component
 public class SimulatedAnnealingOptimizer {
@@ -32,6 +36,10 @@ public class SimulatedAnnealingOptimizer {
     private static final double ALPHA = 0.997;
     private static final double T_MIN = 0.5;
 
+    /** 每隔多少个温度层做一次全量评估校验 */
+    private static final int    VERIFY_EVERY_LAYERS = 50;
+    private static final double VERIFY_TOLERANCE    = 1e-9;
+
     @Autowired
     private SolutionEvaluator evaluator;
 
@@ -53,42 +61,83 @@ public class SimulatedAnnealingOptimizer {
         log.info("[SA] 开始优化：{}辆车, {}票货物明细, 每层L={}", V, S, L);
 
         // 生成启发式初始解（轮询分配）
-        MatchingSolution current = buildRoundRobinSolution(S, V);
-        evaluator.evaluate(current, vehicles, items);
+        MatchingSolution initial = buildRoundRobinSolution(S, V);
+        ViolationMatrix violations = evaluator.buildViolationMatrix(vehicles, items);
+        IncrementalMatchingState state = new IncrementalMatchingState(evaluator, vehicles, items, violations);
+        state.load(initial.getAssignmentArray());
 
-        MatchingSolution best = new MatchingSolution(current);
+        int[] bestAssignment = initial.getAssignmentArray().clone();
+        double bestCost = state.cost();
         double T = T0;
         long totalIter = 0;
         int improved = 0;
+        int layer = 0;
+        int mismatches = 0;
 
-        // 退火主循环
+        // 退火主循环：邻域移动直接作用在增量状态上，Δcost 由受影响的车辆 / 明细算出
         while (T > T_MIN) {
             for (int l = 0; l < L; l++) {
-                // 生成邻域解
-                MatchingSolution neighbor = generateNeighbor(current, V, rng);
-                evaluator.evaluate(neighbor, vehicles, items);
-
-                double delta = neighbor.getTotalCost() - current.getTotalCost();
+                double delta = applyRandomMove(state, V, rng);
 
                 // Metropolis准则：优则接受，劣以 e^(-Δ/T) 概率接受
                 if (delta < 0 || rng.nextDouble() < Math.exp(-delta / T)) {
-                    current = neighbor;
-                    if (current.getTotalCost() < best.getTotalCost() - 1e-6) {
-                        best = new MatchingSolution(current);
+                    if (state.cost() < bestCost - 1e-6) {
+                        bestCost = state.cost();
+                        state.copyAssignmentTo(bestAssignment);
                         improved++;
                     }
+                } else {
+                    state.undo();
                 }
                 totalIter++;
             }
             T *= ALPHA;  // 几何冷却
+
+            // 定期全量校验：纠正浮点累加漂移，同时兜底增量逻辑的正确性
+            if (++layer % VERIFY_EVERY_LAYERS == 0 && verifyAndResync(state, vehicles, items, violations)) {
+                mismatches++;
+            }
         }
 
+        MatchingSolution best = new MatchingSolution(S);
+        System.arraycopy(bestAssignment, 0, best.getAssignmentArray(), 0, S);
+        evaluator.evaluate(best, vehicles, items, violations);
+
         long elapsed = System.currentTimeMillis() - start;
-        log.info("[SA] 完成，最优cost={:.2f}, feasible={}, 总迭代={}, 改善{}次, 耗时={}ms",
-                best.getTotalCost(), best.isFeasible(), totalIter, improved, elapsed);
+        log.info("[SA] 完成，最优cost={}, feasible={}, 总迭代={}, 改善{}次, 校验偏差{}次, 耗时={}ms",
+                String.format("%.2f", best.getTotalCost()), best.isFeasible(), totalIter, improved, mismatches, elapsed);
         return best;
     }
 
+    /** 随机选3种操作之一，直接作用在增量状态上并返回 Δcost */
+    private double applyRandomMove(IncrementalMatchingState state, int V, Random rng) {
+        int op = rng.nextInt(3);
+        return switch (op) {
+            case 0 -> singleReassign(state, V, rng);
+            case 1 -> twoPointSwap(state, rng);
+            default -> segmentTransfer(state, V, rng);
+        };
+    }
+
+    /**
+     * 全量评估当前解并与增量成本比对；偏差超过容差时记录告警并从全量结果重建状态
+     *
+     * @return 是否发现超出容差的偏差
+     */
+    private boolean verifyAndResync(IncrementalMatchingState state, List<Vehicle> vehicles,
+                                    List<ShipmentItem> items, ViolationMatrix violations) {
+        MatchingSolution check = new MatchingSolution(state.itemCount());
+        state.copyAssignmentTo(check.getAssignmentArray());
+        double full = evaluator.evaluate(check, vehicles, items, violations);
+        boolean mismatch = Math.abs(full - state.cost()) > VERIFY_TOLERANCE * Math.max(1.0, Math.abs(full))
+                || check.isFeasible() != state.feasible();
+        if (mismatch) {
+            log.warn("[SA] 增量成本与全量评估不一致（增量={}, 全量={}），已重同步", state.cost(), full);
+        }
+        state.load(check.getAssignmentArray());
+        return mismatch;
+    }
+
     // ── 轮询初始解 ────────────────────────────────────────────────────
     private MatchingSolution buildRoundRobinSolution(int S, int V) {
         MatchingSolution sol = new MatchingSolution(S);
@@ -96,45 +145,31 @@ public class SimulatedAnnealingOptimizer {
         return sol;
     }
 
-    // ── 邻域生成（随机选3种操作之一）────────────────────────────────
-    private MatchingSolution generateNeighbor(MatchingSolution current, int V, Random rng) {
-        MatchingSolution neighbor = new MatchingSolution(current);
-        int op = rng.nextInt(3);
-        switch (op) {
-            case 0 -> singleReassign(neighbor, V, rng);
-            case 1 -> twoPointSwap(neighbor, rng);
-            case 2 -> segmentTransfer(neighbor, V, rng);
-        }
-        return neighbor;
-    }
-
     /**
      * 操作1：单点重分配
      * 随机选一票货，分配给不同于当前的另一辆车
      */
-    private void singleReassign(MatchingSolution sol, int V, Random rng) {
-        if (V < 2) return;
-        int S = sol.getItemCount();
+    private double singleReassign(IncrementalMatchingState state, int V, Random rng) {
+        if (V < 2) return state.noMove();
+        int S = state.itemCount();
         int idx = rng.nextInt(S);
-        int oldV = sol.getAssignment(idx);
+        int oldV = state.assignmentOf(idx);
         int newV;
         do { newV = rng.nextInt(V); } while (newV == oldV);
-        sol.setAssignment(idx, newV);
+        return state.moveSingle(idx, newV);
     }
 
     /**
      * 操作2：两点交换
      * 随机选2票货，互换分配的车辆
      */
-    private void twoPointSwap(MatchingSolution sol, Random rng) {
-        int S = sol.getItemCount();
-        if (S < 2) return;
+    private double twoPointSwap(IncrementalMatchingState state, Random rng) {
+        int S = state.itemCount();
+        if (S < 2) return state.noMove();
         int i = rng.nextInt(S);
         int j;
         do { j = rng.nextInt(S); } while (j == i);
-        int tmp = sol.getAssignment(i);
-        sol.setAssignment(i, sol.getAssignment(j));
-        sol.setAssignment(j, tmp);
+        return state.swap(i, j);
     }
 
     /**
@@ -142,28 +177,17 @@ public class SimulatedAnnealingOptimizer {
      * 随机选一辆源车中的2~5票货，统一转移到另一辆车
      * 模拟"批量重调度"场景
      */
-    private void segmentTransfer(MatchingSolution sol, int V, Random rng) {
-        if (V < 2) return;
-        int S = sol.getItemCount();
+    private double segmentTransfer(IncrementalMatchingState state, int V, Random rng) {
+        if (V < 2) return state.noMove();
         int srcV = rng.nextInt(V);
         int dstV;
         do { dstV = rng.nextInt(V); } while (dstV == srcV);
 
-        // 找出当前分配给srcV的货物下标
-        List<Integer> srcItems = new ArrayList<>();
-        for (int i = 0; i < S; i++) {
-            if (sol.getAssignment(i) == srcV) srcItems.add(i);
-        }
-        if (srcItems.isEmpty()) {
+        if (state.memberCount(srcV) == 0) {
             // 退化为单点重分配
-            singleReassign(sol, V, rng);
-            return;
-        }
-
-        int count = Math.min(2 + rng.nextInt(4), srcItems.size());
-        Collections.shuffle(srcItems, rng);
-        for (int k = 0; k < count; k++) {
-            sol.setAssignment(srcItems.get(k), dstV);
+            return singleReassign(state, V, rng);
         }
+        int count = 2 + rng.nextInt(4);
+        return state.transferSegment(srcV, dstV, count, rng);
     }
 }
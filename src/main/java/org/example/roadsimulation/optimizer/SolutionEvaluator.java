@@ -1,8 +1,9 @@
 package org.example.roadsimulation.optimizer;
 
-import org.example.roadsimulation.entity.Goods;
 import org.example.roadsimulation.entity.ShipmentItem;
 import org.example.roadsimulation.entity.Vehicle;
+import org.example.roadsimulation.rule.VehicleGoodsCompatibilityIndex;
+import org.example.roadsimulation.rule.VehicleGoodsCompatibilityIndex.ViolationMatrix;
 import org.springframework.stereotype.Component;
 
 import java.util.Arrays;
@@ -23,6 +24,8 @@ import java.util.List;
  *   软目标（优化方向）：
  *     - 启用车辆数固定成本  = VEHICLE_FIXED_COST × 实际用车数量（减少派车）
  *     - 低利用率惩罚        = LOW_UTIL_PENALTY × max(0, IDEAL_UTIL_MIN - 利用率)（避免大车拉小货）
+ *
+ * 温控 / 危险品适配通过 VehicleGoodsCompatibilityIndex 预先算好的违规矩阵查表，评估循环内不做字符串处理。
  */
 @Component
 public class SolutionEvaluator {
@@ -37,6 +40,19 @@ public class SolutionEvaluator {
     private static final double LOW_UTIL_PENALTY     = 8_000.0;   // 低利用率软惩罚系数
     private static final double IDEAL_UTIL_MIN       = 0.4;       // 理想最低利用率（40%以下视为资源浪费）
 
+    private final VehicleGoodsCompatibilityIndex compatibilityIndex;
+
+    public SolutionEvaluator(VehicleGoodsCompatibilityIndex compatibilityIndex) {
+        this.compatibilityIndex = compatibilityIndex;
+    }
+
+    /**
+     * 为一次求解构建温控 / 危险品违规矩阵，GA / SA 在求解开始时调用一次，之后传入 evaluate
+     */
+    public ViolationMatrix buildViolationMatrix(List<Vehicle> vehicles, List<ShipmentItem> items) {
+        return compatibilityIndex.violationMatrix(vehicles, items);
+    }
+
     /**
      * 评估方案总成本，结果写回 solution 对象
      *
@@ -48,6 +64,16 @@ public class SolutionEvaluator {
     public double evaluate(MatchingSolution solution,
                            List<Vehicle> vehicles,
                            List<ShipmentItem> items) {
+        return evaluate(solution, vehicles, items, buildViolationMatrix(vehicles, items));
+    }
+
+    /**
+     * 评估方案总成本（使用预先构建的违规矩阵）
+     */
+    public double evaluate(MatchingSolution solution,
+                           List<Vehicle> vehicles,
+                           List<ShipmentItem> items,
+                           ViolationMatrix violations) {
 
         int V = vehicles.size();
         int S = items.size();
@@ -71,25 +97,13 @@ public class SolutionEvaluator {
                 continue;
             }
 
-            Vehicle vehicle = vehicles.get(vIdx);
             vehicleUsed[vIdx] = true;
 
-            // ── 2. 温控适配检查 ───────────────────────────────────────
-            //    Goods.requireTemp=true 要求车辆 suitableGoods 包含温控关键字
-            Goods goods = item.getGoods();
-            if (goods != null && Boolean.TRUE.equals(goods.getRequireTemp())) {
-                if (!vehicleSupportsTempControl(vehicle)) {
-                    penalty += TEMP_PENALTY;
-                    feasible = false;
-                }
-            }
-
-            // ── 3. 危险品适配检查 ─────────────────────────────────────
-            if (goods != null && goods.getHazmatLevel() != null && !goods.getHazmatLevel().isBlank()) {
-                if (!vehicleSupportsHazmat(vehicle)) {
-                    penalty += HAZMAT_PENALTY;
-                    feasible = false;
-                }
+            // ── 2/3. 温控 / 危险品适配检查（查表） ──────────────────────
+            int violation = violations.violations(i, vIdx);
+            if (violation != 0) {
+                penalty += itemPenalty(violation);
+                feasible = false;
             }
 
             // ── 4. 累计载重 & 体积 ────────────────────────────────────
@@ -97,35 +111,17 @@ public class SolutionEvaluator {
             vehicleVolume[vIdx] += safeDouble(item.getVolume());
         }
 
-        // ── 5. 超重 / 超体积惩罚（按车汇总后检查） ───────────────────
+        // ── 5/6. 超重 / 超体积惩罚 + 低利用率软惩罚（按车汇总后检查） ──
         for (int v = 0; v < V; v++) {
             if (!vehicleUsed[v]) continue;
 
             Vehicle vehicle = vehicles.get(v);
-
-            // 超重
-            Double maxLoad = vehicle.getMaxLoadCapacity();
-            if (maxLoad != null && maxLoad > 0 && vehicleWeight[v] > maxLoad) {
-                double overRatio = (vehicleWeight[v] - maxLoad) / maxLoad;
-                penalty += OVERLOAD_PENALTY * overRatio;
+            double maxLoad = safeDouble(vehicle.getMaxLoadCapacity());
+            double maxVol  = safeDouble(vehicle.getCargoVolume());
+            penalty += vehicleLoadPenalty(vehicleWeight[v], vehicleVolume[v], maxLoad, maxVol);
+            if (!withinCapacity(vehicleWeight[v], vehicleVolume[v], maxLoad, maxVol)) {
                 feasible = false;
             }
-
-            // 超体积
-            Double maxVol = vehicle.getCargoVolume();
-            if (maxVol != null && maxVol > 0 && vehicleVolume[v] > maxVol) {
-                double overRatio = (vehicleVolume[v] - maxVol) / maxVol;
-                penalty += OVERVOLUME_PENALTY * overRatio;
-                feasible = false;
-            }
-
-            // ── 6. 低利用率软惩罚（优化目标：不派大车拉小货） ────────
-            if (maxLoad != null && maxLoad > 0) {
-                double util = vehicleWeight[v] / maxLoad;
-                if (util < IDEAL_UTIL_MIN) {
-                    penalty += LOW_UTIL_PENALTY * (IDEAL_UTIL_MIN - util);
-                }
-            }
         }
 
         // ── 7. 派车固定成本 ───────────────────────────────────────────
@@ -138,21 +134,43 @@ public class SolutionEvaluator {
         return totalCost;
     }
 
-    // ── 温控判断：vehicle.suitableGoods 包含冷链/温控关键字 ──────────
-    private boolean vehicleSupportsTempControl(Vehicle vehicle) {
-        String sg = vehicle.getSuitableGoods();
-        if (sg == null || sg.isBlank()) return false;
-        String lower = sg.toLowerCase();
-        return lower.contains("冷链") || lower.contains("冷藏") || lower.contains("温控")
-                || lower.contains("refriger") || lower.contains("temp");
+    // ── 以下为单项成本规则，全量评估与 SA 增量评估（IncrementalMatchingState）共用 ──
+
+    /** 已分配明细的温控 / 危险品违规惩罚 */
+    double itemPenalty(int violation) {
+        double p = 0.0;
+        if ((violation & VehicleGoodsCompatibilityIndex.TEMP_VIOLATION) != 0)   p += TEMP_PENALTY;
+        if ((violation & VehicleGoodsCompatibilityIndex.HAZMAT_VIOLATION) != 0) p += HAZMAT_PENALTY;
+        return p;
+    }
+
+    double unassignedPenalty() { return UNASSIGNED_PENALTY; }
+
+    double vehicleFixedCost()  { return VEHICLE_FIXED_COST; }
+
+    /**
+     * 单辆已使用车辆的超重 / 超体积 / 低利用率惩罚（不含固定成本）
+     * maxLoad / maxVol ≤ 0 表示该项未知，不做检查
+     */
+    double vehicleLoadPenalty(double weight, double volume, double maxLoad, double maxVol) {
+        double p = 0.0;
+        if (maxLoad > 0 && weight > maxLoad) {
+            p += OVERLOAD_PENALTY * ((weight - maxLoad) / maxLoad);
+        }
+        if (maxVol > 0 && volume > maxVol) {
+            p += OVERVOLUME_PENALTY * ((volume - maxVol) / maxVol);
+        }
+        if (maxLoad > 0) {
+            double util = weight / maxLoad;
+            if (util < IDEAL_UTIL_MIN) {
+                p += LOW_UTIL_PENALTY * (IDEAL_UTIL_MIN - util);
+            }
+        }
+        return p;
     }
 
-    // ── 危险品判断：vehicle.suitableGoods 包含危险品关键字 ───────────
-    private boolean vehicleSupportsHazmat(Vehicle vehicle) {
-        String sg = vehicle.getSuitableGoods();
-        if (sg == null || sg.isBlank()) return false;
-        String lower = sg.toLowerCase();
-        return lower.contains("危") || lower.contains("hazmat") || lower.contains("dangerous");
+    boolean withinCapacity(double weight, double volume, double maxLoad, double maxVol) {
+        return !(maxLoad > 0 && weight > maxLoad) && !(maxVol > 0 && volume > maxVol);
     }
 
     private double safeDouble(Double v) { return v == null ? 0.0 : v; }
@@ -8,7 +8,7 @@ import org.example.roadsimulation.optimizer.multi.MultiOrderSolution;
 import org.example.roadsimulation.optimizer.multi.NodeGene;
 import org.example.roadsimulation.optimizer.multi.VehicleRouteGene;
 import org.example.roadsimulation.optimizer.multi.insertion.RouteSequenceCostEstimator;
-import org.example.roadsimulation.optimizer.node.AssignmentNodeSequenceValidator;
+import org.example.roadsimulation.optimizer.node.PrimitiveRouteValidator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
@@ -30,12 +30,12 @@ public class MultiOrderCostEvaluator {
 
     private static final double EPS = 1e-6;
 
-    private final AssignmentNodeSequenceValidator validator;
+    private final PrimitiveRouteValidator validator;
     private final RouteSequenceCostEstimator routeEstimator;
 
     @Autowired
     public MultiOrderCostEvaluator(
-            AssignmentNodeSequenceValidator validator,
+            PrimitiveRouteValidator validator,
             RouteSequenceCostEstimator routeEstimator
     ) {
         this.validator = validator;
@@ -89,10 +89,7 @@ public class MultiOrderCostEvaluator {
 
                 usedVehicleCount++;
 
-                AssignmentNodeSequenceValidator.ValidationResult validation =
-                        validator.validate(nodes, vehicle);
-
-                if (!validation.isValid()) {
+                if (!validator.validate(nodes, vehicle).isValid()) {
                     hardPenalty += config.getHardConstraintPenalty();
                     feasible = false;
                 }
@@ -0,0 +1,187 @@
+package org.example.roadsimulation.optimizer.multi.decompose;
+
+import jakarta.annotation.PreDestroy;
+import org.example.roadsimulation.entity.ShipmentItem;
+import org.example.roadsimulation.entity.Vehicle;
+import org.example.roadsimulation.optimizer.multi.MultiOrderSolution;
+import org.example.roadsimulation.optimizer.multi.cost.CostNormalizationConfig;
+import org.example.roadsimulation.optimizer.multi.cost.MultiOrderCostEvaluator;
+import org.example.roadsimulation.optimizer.multi.ga.MultiOrderGA;
+import org.example.roadsimulation.optimizer.multi.ga.MultiOrderGAConfig;
+import org.example.roadsimulation.optimizer.multi.ga.MutationConfig;
+import org.example.roadsimulation.optimizer.multi.init.InitialPopulationConfig;
+import org.example.roadsimulation.optimizer.multi.init.MultiOrderInitialPopulationBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 分解式多运单求解。
+ *
+ * 1. GeographicDecomposer 把待分配运单与空闲车辆切成互不相交的区域子问题；
+ * 2. 各子问题在线程池上独立运行 MultiOrderGA；
+ * 3. 合并各子问题的路线，再对所有未分配运单做一次面向全部车辆的最优插入，
+ *    让边界附近、本区没车可用的运单使用其他区域空着的车辆；
+ * 4. 合并结果统一重新评价。
+ *
+ * 运单数低于 minItemsToSplit 或只分出一个簇时直接整体求解，与分解前行为一致。
+ */
+@Component
+public class DecomposedMultiOrderSolver {
+
+    private static final Logger log = LoggerFactory.getLogger(DecomposedMultiOrderSolver.class);
+
+    /** 子问题种子之间的间隔（黄金比例常数，保证种子分散） */
+    private static final long SEED_STRIDE = 0x9E3779B97F4A7C15L;
+
+    private final GeographicDecomposer decomposer;
+    private final MultiOrderGA multiOrderGA;
+    private final MultiOrderInitialPopulationBuilder initialPopulationBuilder;
+    private final MultiOrderCostEvaluator costEvaluator;
+    private final boolean enabled;
+    private final int minItemsToSplit;
+    private final ThreadPoolExecutor executor;
+
+    public DecomposedMultiOrderSolver(
+            GeographicDecomposer decomposer,
+            MultiOrderGA multiOrderGA,
+            MultiOrderInitialPopulationBuilder initialPopulationBuilder,
+            MultiOrderCostEvaluator costEvaluator,
+            @Value("${app.simulation.heuristic.decomposition.enabled:true}") boolean enabled,
+            @Value("${app.simulation.heuristic.decomposition.min-items:40}") int minItemsToSplit,
+            @Value("${app.simulation.heuristic.decomposition.threads:0}") int threads
+    ) {
+        this.decomposer = decomposer;
+        this.multiOrderGA = multiOrderGA;
+        this.initialPopulationBuilder = initialPopulationBuilder;
+        this.costEvaluator = costEvaluator;
+        this.enabled = enabled;
+        this.minItemsToSplit = Math.max(2, minItemsToSplit);
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                r -> {
+                    Thread thread = new Thread(r, "dispatch-cluster-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public MultiOrderSolution solve(
+            List<ShipmentItem> pendingItems,
+            List<Vehicle> vehicles,
+            MultiOrderGAConfig gaConfig,
+            CostNormalizationConfig costConfig,
+            MutationConfig mutationConfig,
+            long seed
+    ) {
+        if (!enabled || pendingItems.size() < minItemsToSplit) {
+            return solveWhole(pendingItems, vehicles, gaConfig, costConfig, mutationConfig, seed);
+        }
+
+        long start = System.currentTimeMillis();
+        List<DispatchCluster> clusters = decomposer.decompose(pendingItems, vehicles);
+        if (clusters.size() <= 1) {
+            return solveWhole(pendingItems, vehicles, gaConfig, costConfig, mutationConfig, seed);
+        }
+
+        // 按运单数降序提交，大簇先开始，缩短整体完成时间
+        List<Future<MultiOrderSolution>> futures = new ArrayList<>(clusters.size());
+        for (int k = 0; k < clusters.size(); k++) {
+            DispatchCluster cluster = clusters.get(k);
+            long clusterSeed = seed + k * SEED_STRIDE;
+            futures.add(executor.submit(() -> solveWhole(
+                    cluster.items(), cluster.vehicles(), gaConfig, costConfig, mutationConfig, clusterSeed)));
+        }
+
+        MultiOrderSolution merged = new MultiOrderSolution();
+        int failed = 0;
+        for (int k = 0; k < clusters.size(); k++) {
+            MultiOrderSolution part = await(futures.get(k), k);
+            if (part == null) {
+                failed++;
+                for (ShipmentItem item : clusters.get(k).items()) {
+                    merged.getUnassignedShipmentItemIds().add(item.getId());
+                }
+                continue;
+            }
+            merged.getVehicleRoutes().addAll(part.getVehicleRoutes());
+            merged.getUnassignedShipmentItemIds().addAll(part.getUnassignedShipmentItemIds());
+        }
+        long solvedAt = System.currentTimeMillis();
+
+        // 边界修复：未分配运单对全部车辆重新做最优插入（各簇路线保持不变）
+        int unassignedBefore = merged.getUnassignedShipmentItemIds().size();
+        MultiOrderSolution reconciled = unassignedBefore == 0
+                ? null
+                : initialPopulationBuilder.repair(merged, pendingItems, vehicles, mutationConfig);
+        MultiOrderSolution result = reconciled != null ? reconciled : merged;
+
+        costEvaluator.evaluate(result, pendingItems, vehicles, costConfig);
+
+        log.info(
+                "[Dispatch][HEURISTIC] Decomposed. clusters={}, largestItems={}, failedClusters={}, "
+                        + "unassigned={}->{}, solveMs={}, reconcileMs={}",
+                clusters.size(),
+                clusters.get(0).items().size(),
+                failed,
+                unassignedBefore,
+                result.getUnassignedShipmentItemIds().size(),
+                solvedAt - start,
+                System.currentTimeMillis() - solvedAt
+        );
+        return result;
+    }
+
+    private MultiOrderSolution solveWhole(
+            List<ShipmentItem> pendingItems,
+            List<Vehicle> vehicles,
+            MultiOrderGAConfig gaConfig,
+            CostNormalizationConfig costConfig,
+            MutationConfig mutationConfig,
+            long seed
+    ) {
+        return multiOrderGA.optimize(
+                pendingItems,
+                vehicles,
+                gaConfig,
+                new InitialPopulationConfig(),
+                costConfig,
+                mutationConfig,
+                seed
+        );
+    }
+
+    private MultiOrderSolution await(Future<MultiOrderSolution> future, int clusterIndex) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            return null;
+        } catch (ExecutionException e) {
+            log.warn("[Dispatch][HEURISTIC] Cluster {} failed, its items stay unassigned for reconciliation: {}",
+                    clusterIndex, e.getCause() == null ? e.toString() : e.getCause().toString());
+            return null;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
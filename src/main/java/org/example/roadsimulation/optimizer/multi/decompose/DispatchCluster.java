@@ -0,0 +1,12 @@
+package org.example.roadsimulation.optimizer.multi.decompose;
+
+import org.example.roadsimulation.entity.ShipmentItem;
+import org.example.roadsimulation.entity.Vehicle;
+
+import java.util.List;
+
+/**
+ * 地理分解后的一个独立子问题：一组运单及归入该区域的空闲车辆。
+ */
+public record DispatchCluster(List<ShipmentItem> items, List<Vehicle> vehicles) {
+}
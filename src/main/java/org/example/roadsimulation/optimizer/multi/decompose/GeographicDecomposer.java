@@ -0,0 +1,272 @@
+package org.example.roadsimulation.optimizer.multi.decompose;
+
+import org.example.roadsimulation.entity.POI;
+import org.example.roadsimulation.entity.ShipmentItem;
+import org.example.roadsimulation.entity.Vehicle;
+import org.example.roadsimulation.optimizer.multi.insertion.RouteSequenceCostEstimator;
+import org.example.roadsimulation.service.OriginalVrpDispatchPolicy;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 调度问题的地理分解。
+ *
+ * 以运单起点 POI 为坐标，按边长 = 连接距离（默认取 OriginalVrpDispatchPolicy.maxAnchorDistanceKm）的网格分桶，
+ * 相邻（8 邻域）非空格子合并为一个簇。任意两票起点距离不超过连接距离的运单必落在同格或相邻格，
+ * 因此不同簇之间的运单一定相距超过连接距离，不会拼到同一辆车上，可以独立求解。
+ *
+ * 空闲车辆按当前位置归入最近的簇中心；没有车辆的簇并入最近的有车簇。
+ * 整个过程为 O(运单数 + 车辆数 × 簇数)，并在调用线程上预先读取全部坐标（含懒加载的 POI），
+ * 之后各簇可以在工作线程上并行求解。
+ */
+@Component
+public class GeographicDecomposer {
+
+    private static final double KM_PER_DEGREE = 111.195;
+
+    private final OriginalVrpDispatchPolicy dispatchPolicy;
+    private final RouteSequenceCostEstimator distanceEstimator;
+
+    public GeographicDecomposer(
+            OriginalVrpDispatchPolicy dispatchPolicy,
+            RouteSequenceCostEstimator distanceEstimator
+    ) {
+        this.dispatchPolicy = dispatchPolicy;
+        this.distanceEstimator = distanceEstimator;
+    }
+
+    public List<DispatchCluster> decompose(List<ShipmentItem> items, List<Vehicle> vehicles) {
+        return decompose(items, vehicles, dispatchPolicy.getMaxAnchorDistanceKm());
+    }
+
+    /**
+     * @return 按运单数降序排列的簇；运单或车辆为空、连接距离非法时返回单个整体簇
+     */
+    public List<DispatchCluster> decompose(List<ShipmentItem> items, List<Vehicle> vehicles, double linkDistanceKm) {
+        if (items == null || items.isEmpty() || vehicles == null || vehicles.isEmpty()
+                || !(linkDistanceKm > 0.0) || Double.isInfinite(linkDistanceKm)) {
+            return single(items, vehicles);
+        }
+
+        int n = items.size();
+        double[] lat = new double[n];
+        double[] lon = new double[n];
+        boolean[] located = new boolean[n];
+        double maxAbsLat = 0.0;
+        int locatedCount = 0;
+
+        for (int i = 0; i < n; i++) {
+            ShipmentItem item = items.get(i);
+            POI origin = item == null || item.getShipment() == null ? null : item.getShipment().getOriginPOI();
+            if (origin != null && origin.getLatitude() != null && origin.getLongitude() != null) {
+                lat[i] = origin.getLatitude().doubleValue();
+                lon[i] = origin.getLongitude().doubleValue();
+                located[i] = true;
+                maxAbsLat = Math.max(maxAbsLat, Math.abs(lat[i]));
+                locatedCount++;
+            }
+            touchDestination(item);
+        }
+
+        if (locatedCount == 0) {
+            return single(items, vehicles);
+        }
+
+        // 经度方向按最高纬度缩放（纬线最短处），保证任意位置格子的东西向宽度也不小于连接距离
+        double cellLatDeg = linkDistanceKm / KM_PER_DEGREE;
+        double cellLonDeg = cellLatDeg / Math.max(0.05, Math.cos(Math.toRadians(Math.min(89.0, maxAbsLat + cellLatDeg))));
+
+        Map<Long, Integer> cellIndex = new HashMap<>();
+        int[] itemCell = new int[n];
+        List<long[]> cells = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            if (!located[i]) {
+                itemCell[i] = -1;
+                continue;
+            }
+            long cy = (long) Math.floor(lat[i] / cellLatDeg);
+            long cx = (long) Math.floor(lon[i] / cellLonDeg);
+            long key = cellKey(cx, cy);
+            Integer idx = cellIndex.get(key);
+            if (idx == null) {
+                idx = cells.size();
+                cellIndex.put(key, idx);
+                cells.add(new long[]{cx, cy});
+            }
+            itemCell[i] = idx;
+        }
+
+        // 相邻非空格子并查集合并
+        int[] parent = new int[cells.size()];
+        for (int c = 0; c < parent.length; c++) parent[c] = c;
+        for (int c = 0; c < cells.size(); c++) {
+            long cx = cells.get(c)[0];
+            long cy = cells.get(c)[1];
+            for (long dy = -1; dy <= 1; dy++) {
+                for (long dx = -1; dx <= 1; dx++) {
+                    Integer other = cellIndex.get(cellKey(cx + dx, cy + dy));
+                    if (other != null) {
+                        union(parent, c, other);
+                    }
+                }
+            }
+        }
+
+        Map<Integer, Builder> byRoot = new HashMap<>();
+        List<Builder> clusters = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            if (!located[i]) {
+                continue;
+            }
+            int root = find(parent, itemCell[i]);
+            Builder b = byRoot.get(root);
+            if (b == null) {
+                b = new Builder();
+                byRoot.put(root, b);
+                clusters.add(b);
+            }
+            b.addItem(items.get(i), lat[i], lon[i]);
+        }
+
+        clusters.sort(Comparator.comparingInt((Builder b) -> b.items.size()).reversed());
+        Builder largest = clusters.get(0);
+
+        // 没有坐标的运单无法判断归属，放进最大的簇
+        for (int i = 0; i < n; i++) {
+            if (!located[i] && items.get(i) != null) {
+                largest.items.add(items.get(i));
+            }
+        }
+
+        for (Vehicle vehicle : vehicles) {
+            if (vehicle == null) {
+                continue;
+            }
+            double[] pos = vehiclePosition(vehicle);
+            Builder target = pos == null ? largest : nearest(clusters, pos[0], pos[1], false);
+            target.vehicles.add(vehicle);
+        }
+
+        // 没有车辆的簇并入最近的有车簇
+        List<Builder> withoutVehicles = new ArrayList<>();
+        for (Builder b : clusters) {
+            if (b.vehicles.isEmpty()) {
+                withoutVehicles.add(b);
+            }
+        }
+        for (Builder b : withoutVehicles) {
+            nearest(clusters, b.centerLat(), b.centerLon(), true).absorb(b);
+        }
+        clusters.removeAll(withoutVehicles);
+
+        clusters.sort(Comparator.comparingInt((Builder b) -> b.items.size()).reversed());
+        List<DispatchCluster> result = new ArrayList<>(clusters.size());
+        for (Builder b : clusters) {
+            result.add(new DispatchCluster(b.items, b.vehicles));
+        }
+        return result;
+    }
+
+    private List<DispatchCluster> single(List<ShipmentItem> items, List<Vehicle> vehicles) {
+        List<DispatchCluster> result = new ArrayList<>(1);
+        result.add(new DispatchCluster(
+                items == null ? new ArrayList<>() : new ArrayList<>(items),
+                vehicles == null ? new ArrayList<>() : new ArrayList<>(vehicles)
+        ));
+        return result;
+    }
+
+    private Builder nearest(List<Builder> clusters, double lat, double lon, boolean requireVehicles) {
+        Builder best = null;
+        double bestKm = Double.MAX_VALUE;
+        for (Builder b : clusters) {
+            if (requireVehicles && b.vehicles.isEmpty()) {
+                continue;
+            }
+            double km = distanceEstimator.haversineKm(lat, lon, b.centerLat(), b.centerLon());
+            if (km < bestKm) {
+                bestKm = km;
+                best = b;
+            }
+        }
+        return best;
+    }
+
+    /** 与插入引擎一致：优先取当前 POI，其次取当前坐标 */
+    private double[] vehiclePosition(Vehicle vehicle) {
+        POI poi = vehicle.getCurrentPOI();
+        if (poi != null && poi.getLatitude() != null && poi.getLongitude() != null) {
+            return new double[]{poi.getLatitude().doubleValue(), poi.getLongitude().doubleValue()};
+        }
+        BigDecimal vLat = vehicle.getCurrentLatitude();
+        BigDecimal vLon = vehicle.getCurrentLongitude();
+        if (vLat != null && vLon != null) {
+            return new double[]{vLat.doubleValue(), vLon.doubleValue()};
+        }
+        return null;
+    }
+
+    /** 终点 POI 由工作线程上的插入 / 成本评估读取，这里先在调用线程上完成懒加载 */
+    private void touchDestination(ShipmentItem item) {
+        if (item != null && item.getShipment() != null && item.getShipment().getDestPOI() != null) {
+            item.getShipment().getDestPOI().getLatitude();
+        }
+    }
+
+    private static long cellKey(long cx, long cy) {
+        return (cy << 32) ^ (cx & 0xffffffffL);
+    }
+
+    private static int find(int[] parent, int x) {
+        while (parent[x] != x) {
+            parent[x] = parent[parent[x]];
+            x = parent[x];
+        }
+        return x;
+    }
+
+    private static void union(int[] parent, int a, int b) {
+        int ra = find(parent, a);
+        int rb = find(parent, b);
+        if (ra != rb) {
+            parent[Math.max(ra, rb)] = Math.min(ra, rb);
+        }
+    }
+
+    private static final class Builder {
+        private final List<ShipmentItem> items = new ArrayList<>();
+        private final List<Vehicle> vehicles = new ArrayList<>();
+        private double latSum;
+        private double lonSum;
+        private int located;
+
+        void addItem(ShipmentItem item, double lat, double lon) {
+            items.add(item);
+            latSum += lat;
+            lonSum += lon;
+            located++;
+        }
+
+        void absorb(Builder other) {
+            items.addAll(other.items);
+            vehicles.addAll(other.vehicles);
+            latSum += other.latSum;
+            lonSum += other.lonSum;
+            located += other.located;
+        }
+
+        double centerLat() {
+            return located == 0 ? 0.0 : latSum / located;
+        }
+
+        double centerLon() {
+            return located == 0 ? 0.0 : lonSum / located;
+        }
+    }
+}
@@ -142,6 +142,158 @@ public class MultiOrderInitialPopulationBuilder {
         return population;
     }
 
+    /**
+     * 按给定运单与车辆修复一个已有解（分解求解合并后，用于把未分配运单插入全部车辆）。
+     *
+     * 1. 车辆不在给定范围内的路线整条丢弃，其中仍待分配的运单转入重插；
+     * 2. 保留路线中删除不在给定运单内的运单（成对删除装 / 卸节点，剩余序列仍满足 LIFO，载重只减不增）；
+     * 3. 其余运单（原解未分配的与被丢弃路线上的）按贪心顺序做最优合法插入。
+     *
+     * 没有任何路线被保留时返回 null（此时修复等同于一次新的贪心插入），由调用方沿用原解。
+     */
+    public MultiOrderSolution repair(
+            MultiOrderSolution solution,
+            List<ShipmentItem> pendingItems,
+            List<Vehicle> vehicles,
+            MutationConfig mutationConfig
+    ) {
+        if (solution == null) {
+            return null;
+        }
+        if (mutationConfig == null) {
+            mutationConfig = new MutationConfig();
+        }
+
+        validateInput(pendingItems, vehicles);
+
+        Map<Long, ShipmentItem> itemMap = new LinkedHashMap<>();
+        for (ShipmentItem item : pendingItems) {
+            if (item != null && item.getId() != null) {
+                itemMap.put(item.getId(), item);
+            }
+        }
+
+        Map<Long, Vehicle> vehicleMap = new LinkedHashMap<>();
+        Map<Long, List<AssignmentNode>> vehicleNodes = new LinkedHashMap<>();
+        for (Vehicle vehicle : vehicles) {
+            if (vehicle != null && vehicle.getId() != null) {
+                vehicleMap.put(vehicle.getId(), vehicle);
+                vehicleNodes.put(vehicle.getId(), new ArrayList<>());
+            }
+        }
+
+        Set<Long> placed = new HashSet<>();
+        boolean retained = false;
+
+        if (solution.getVehicleRoutes() != null) {
+            for (VehicleRouteGene route : solution.getVehicleRoutes()) {
+                if (route == null || !vehicleMap.containsKey(route.getVehicleId())) {
+                    continue;
+                }
+
+                List<AssignmentNode> nodes = toRetainedNodes(route, itemMap);
+                for (AssignmentNode node : nodes) {
+                    placed.add(node.getShipmentItem().getId());
+                }
+                vehicleNodes.put(route.getVehicleId(), nodes);
+                retained |= !nodes.isEmpty();
+            }
+        }
+
+        if (!retained) {
+            return null;
+        }
+
+        List<ShipmentItem> toInsert = new ArrayList<>();
+        for (ShipmentItem item : itemMap.values()) {
+            if (!placed.contains(item.getId())) {
+                toInsert.add(item);
+            }
+        }
+
+        Set<Long> unassigned = new HashSet<>();
+
+        for (ShipmentItem item : sortItemsForGreedy(toInsert)) {
+            List<InsertionCandidate> allCandidates = new ArrayList<>();
+
+            for (Vehicle vehicle : vehicleMap.values()) {
+                allCandidates.addAll(insertionService.findAllFeasibleInsertions(
+                        vehicle, vehicleNodes.get(vehicle.getId()), item));
+            }
+
+            allCandidates = InsertionThresholdPolicy.filterAcceptable(allCandidates, item, mutationConfig);
+
+            if (allCandidates.isEmpty()) {
+                unassigned.add(item.getId());
+                continue;
+            }
+
+            InsertionCandidate selected = Collections.min(
+                    allCandidates,
+                    Comparator.comparingDouble(InsertionCandidate::getScore)
+            );
+
+            vehicleNodes.put(selected.getVehicle().getId(), selected.getNodesAfterInsertion());
+        }
+
+        return toSolution(vehicleMap, vehicleNodes, unassigned);
+    }
+
+    /**
+     * 把路线基因还原为节点序列，只保留装、卸节点都在且运单仍待分配的部分。
+     */
+    private List<AssignmentNode> toRetainedNodes(VehicleRouteGene route, Map<Long, ShipmentItem> itemMap) {
+        List<AssignmentNode> nodes = new ArrayList<>();
+
+        if (route.getNodes() == null) {
+            return nodes;
+        }
+
+        Map<Long, Integer> actionCount = new HashMap<>();
+        for (NodeGene gene : route.getNodes()) {
+            if (gene != null && gene.getShipmentItemId() != null) {
+                actionCount.merge(gene.getShipmentItemId(), 1, Integer::sum);
+            }
+        }
+
+        for (NodeGene gene : route.getNodes()) {
+            if (gene == null || gene.getActionType() == null) {
+                continue;
+            }
+
+            ShipmentItem item = itemMap.get(gene.getShipmentItemId());
+            if (item == null
+                    || item.getShipment() == null
+                    || actionCount.get(item.getId()) != 2) {
+                continue;
+            }
+
+            double weight = safe(item.getWeight());
+            double volume = safe(item.getVolume());
+
+            AssignmentNode node = new AssignmentNode();
+            node.setSequenceIndex(nodes.size());
+            node.setActionType(gene.getActionType());
+            node.setShipmentItem(item);
+
+            if (gene.getActionType() == AssignmentNode.NodeActionType.LOAD) {
+                node.setPoi(item.getShipment().getOriginPOI());
+                node.setWeightDelta(weight);
+                node.setVolumeDelta(volume);
+            } else if (gene.getActionType() == AssignmentNode.NodeActionType.UNLOAD) {
+                node.setPoi(item.getShipment().getDestPOI());
+                node.setWeightDelta(-weight);
+                node.setVolumeDelta(-volume);
+            } else {
+                continue;
+            }
+
+            nodes.add(node);
+        }
+
+        return nodes;
+    }
+
     /**
      * 基于合法插入算子的贪心构造。
      *
@@ -0,0 +1,243 @@
+package org.example.roadsimulation.optimizer.multi.insertion;
+
+import org.example.roadsimulation.entity.AssignmentNode;
+import org.example.roadsimulation.entity.POI;
+import org.example.roadsimulation.entity.ShipmentItem;
+import org.example.roadsimulation.entity.Vehicle;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基于原始类型数组的快速插入枚举引擎。
+ *
+ * 对一条已合法的路线（P0 = 车辆当前位置，P1..Pn = 各节点 POI）一次性预计算：
+ * 1. 每个节点之后的累计载重 / 体积 / LIFO 栈深度
+ * 2. 每条相邻边的距离，以及每个点到新货物起点 O、终点 D 的距离
+ *
+ * 之后对每个 (loadIndex, unloadIndex) 组合：
+ * - 载重 / 体积可行性：区间内累计值 + 新货物 ≤ 上限，随区间右移增量维护最大值
+ * - LIFO 可行性：两节点之间的片段必须自身配平（栈深度回到起点且中途不低于起点）
+ * - 新增里程：只改动两条边，O(1) 计算
+ *
+ * 整体 O(n²) 次 O(1) 判断，不创建任何 AssignmentNode；
+ * 候选的完整节点序列由 {@link Materializer} 在被选中时才生成。
+ */
+final class FastInsertionEngine {
+
+    private static final double CAPACITY_EPS = 1e-6;
+    private static final double WEIGHT_EPS = 1e-6;
+
+    @FunctionalInterface
+    interface Materializer {
+        List<AssignmentNode> materialize(int loadIndex, int unloadIndex);
+    }
+
+    private final RouteSequenceCostEstimator costEstimator;
+    private final ThreadLocal<Workspace> workspaces = ThreadLocal.withInitial(Workspace::new);
+
+    FastInsertionEngine(RouteSequenceCostEstimator costEstimator) {
+        this.costEstimator = costEstimator;
+    }
+
+    /**
+     * 枚举所有合法插入候选。
+     *
+     * @param orderedBase 已按 sequenceIndex 排序、且已通过合法性校验的当前路线
+     */
+    List<InsertionCandidate> enumerate(
+            Vehicle vehicle,
+            List<AssignmentNode> orderedBase,
+            ShipmentItem item,
+            Materializer materializer
+    ) {
+        Double maxLoadValue = vehicle.getMaxLoadCapacity();
+        Double maxVolumeValue = vehicle.getCargoVolume();
+        if (maxLoadValue == null || maxLoadValue <= 0 || maxVolumeValue == null || maxVolumeValue <= 0) {
+            return new ArrayList<>();
+        }
+        double loadLimit = maxLoadValue + CAPACITY_EPS;
+        double volumeLimit = maxVolumeValue + CAPACITY_EPS;
+
+        double itemWeight = item.getWeight();
+        double itemVolume = item.getVolume();
+
+        int n = orderedBase.size();
+        Workspace ws = workspaces.get();
+        ws.ensureCapacity(n);
+
+        // 点 0：车辆当前位置；点 1..n：节点 POI
+        setVehiclePoint(ws, vehicle);
+        double load = 0.0;
+        double volume = 0.0;
+        int depth = 0;
+        for (int m = 0; m < n; m++) {
+            AssignmentNode node = orderedBase.get(m);
+            setPoiPoint(ws, m + 1, node.getPoi());
+
+            load += safe(node.getWeightDelta());
+            volume += safe(node.getVolumeDelta());
+            if (node.getActionType() == AssignmentNode.NodeActionType.LOAD) {
+                depth++;
+            } else if (node.getActionType() == AssignmentNode.NodeActionType.UNLOAD) {
+                depth--;
+            }
+            ws.load[m] = load;
+            ws.volume[m] = volume;
+            ws.depth[m] = depth;
+        }
+
+        double beforeDistance = 0.0;
+        for (int t = 0; t < n; t++) {
+            ws.edge[t] = distance(ws, t, ws.lat[t + 1], ws.lon[t + 1], ws.hasCoord[t + 1]);
+            beforeDistance += ws.edge[t];
+        }
+
+        POI origin = item.getShipment().getOriginPOI();
+        POI dest = item.getShipment().getDestPOI();
+        boolean hasOrigin = hasCoord(origin);
+        boolean hasDest = hasCoord(dest);
+        double originLat = hasOrigin ? origin.getLatitude().doubleValue() : 0.0;
+        double originLon = hasOrigin ? origin.getLongitude().doubleValue() : 0.0;
+        double destLat = hasDest ? dest.getLatitude().doubleValue() : 0.0;
+        double destLon = hasDest ? dest.getLongitude().doubleValue() : 0.0;
+        double originToDest = hasOrigin && hasDest
+                ? costEstimator.haversineKm(originLat, originLon, destLat, destLon)
+                : 0.0;
+        for (int t = 0; t <= n; t++) {
+            ws.toOrigin[t] = distance(ws, t, originLat, originLon, hasOrigin);
+            ws.toDest[t] = distance(ws, t, destLat, destLon, hasDest);
+        }
+
+        double scoreDivisor = Math.max(itemWeight, WEIGHT_EPS);
+        List<InsertionCandidate> result = new ArrayList<>();
+
+        for (int i = 0; i <= n; i++) {
+            double loadBefore = i == 0 ? 0.0 : ws.load[i - 1];
+            double volumeBefore = i == 0 ? 0.0 : ws.volume[i - 1];
+            int depthBefore = i == 0 ? 0 : ws.depth[i - 1];
+
+            // LOAD 节点本身就超限，则以 i 为装货位置的所有方案都不可行
+            if (loadBefore + itemWeight > loadLimit || volumeBefore + itemVolume > volumeLimit) {
+                continue;
+            }
+
+            double loadSplitDelta = i < n
+                    ? ws.toOrigin[i] + ws.toOrigin[i + 1] - ws.edge[i]
+                    : 0.0;
+
+            // k：UNLOAD 之前包含的原节点个数（k = i 表示紧跟在 LOAD 之后）
+            for (int k = i; k <= n; k++) {
+                if (k > i) {
+                    int m = k - 1;
+                    // 片段中途栈深度低于起点：后续更长的片段同样会弹出 LOAD 之前的货物
+                    if (ws.depth[m] < depthBefore) {
+                        break;
+                    }
+                    // 片段内任一节点叠加新货物后超限：后续更长的片段同样包含该节点
+                    if (ws.load[m] + itemWeight > loadLimit || ws.volume[m] + itemVolume > volumeLimit) {
+                        break;
+                    }
+                    // 片段未配平：UNLOAD 时栈顶不是新货物
+                    if (ws.depth[m] != depthBefore) {
+                        continue;
+                    }
+                }
+
+                double delta;
+                if (k == i) {
+                    delta = ws.toOrigin[i] + originToDest
+                            + (i < n ? ws.toDest[i + 1] - ws.edge[i] : 0.0);
+                } else {
+                    delta = loadSplitDelta + ws.toDest[k]
+                            + (k < n ? ws.toDest[k + 1] - ws.edge[k] : 0.0);
+                }
+
+                int loadIndex = i;
+                int unloadIndex = k + 1;
+                result.add(new InsertionCandidate(
+                        vehicle,
+                        item,
+                        loadIndex,
+                        unloadIndex,
+                        () -> materializer.materialize(loadIndex, unloadIndex),
+                        beforeDistance,
+                        beforeDistance + delta,
+                        Math.max(0.0, delta) / scoreDivisor
+                ));
+            }
+        }
+
+        return result;
+    }
+
+    private void setVehiclePoint(Workspace ws, Vehicle vehicle) {
+        if (vehicle.getCurrentPOI() != null) {
+            setPoiPoint(ws, 0, vehicle.getCurrentPOI());
+            return;
+        }
+        BigDecimal lat = vehicle.getCurrentLatitude();
+        BigDecimal lon = vehicle.getCurrentLongitude();
+        ws.hasCoord[0] = lat != null && lon != null;
+        ws.lat[0] = lat != null ? lat.doubleValue() : 0.0;
+        ws.lon[0] = lon != null ? lon.doubleValue() : 0.0;
+    }
+
+    private void setPoiPoint(Workspace ws, int index, POI poi) {
+        boolean valid = hasCoord(poi);
+        ws.hasCoord[index] = valid;
+        ws.lat[index] = valid ? poi.getLatitude().doubleValue() : 0.0;
+        ws.lon[index] = valid ? poi.getLongitude().doubleValue() : 0.0;
+    }
+
+    /**
+     * 与 {@link RouteSequenceCostEstimator} 一致：任一端缺坐标时距离记 0。
+     */
+    private double distance(Workspace ws, int point, double lat, double lon, boolean valid) {
+        if (!valid || !ws.hasCoord[point]) {
+            return 0.0;
+        }
+        return costEstimator.haversineKm(ws.lat[point], ws.lon[point], lat, lon);
+    }
+
+    private static boolean hasCoord(POI poi) {
+        return poi != null && poi.getLatitude() != null && poi.getLongitude() != null;
+    }
+
+    private static double safe(Double value) {
+        return value == null ? 0.0 : value;
+    }
+
+    /**
+     * 线程私有的可复用数组，按需扩容，避免每次枚举重新分配。
+     */
+    private static final class Workspace {
+        double[] lat = new double[0];
+        double[] lon = new double[0];
+        boolean[] hasCoord = new boolean[0];
+        double[] load = new double[0];
+        double[] volume = new double[0];
+        int[] depth = new int[0];
+        double[] edge = new double[0];
+        double[] toOrigin = new double[0];
+        double[] toDest = new double[0];
+
+        void ensureCapacity(int nodeCount) {
+            int points = nodeCount + 1;
+            if (lat.length >= points) {
+                return;
+            }
+            int size = Math.max(points, lat.length * 2);
+            lat = new double[size];
+            lon = new double[size];
+            hasCoord = new boolean[size];
+            load = new double[size];
+            volume = new double[size];
+            depth = new int[size];
+            edge = new double[size];
+            toOrigin = new double[size];
+            toDest = new double[size];
+        }
+    }
+}
@@ -4,7 +4,7 @@ import org.example.roadsimulation.entity.AssignmentNode;
 import org.example.roadsimulation.entity.ShipmentItem;
 import org.example.roadsimulation.entity.Vehicle;
 import org.example.roadsimulation.optimizer.node.AssignmentNodeFactory;
-import org.example.roadsimulation.optimizer.node.AssignmentNodeSequenceValidator;
+import org.example.roadsimulation.optimizer.node.PrimitiveRouteValidator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -28,18 +28,20 @@ import java.util.*;
 public class FeasibleInsertionService {
 
     private final AssignmentNodeFactory nodeFactory;
-    private final AssignmentNodeSequenceValidator validator;
+    private final PrimitiveRouteValidator validator;
     private final RouteSequenceCostEstimator costEstimator;
+    private final FastInsertionEngine fastEngine;
 
     @Autowired
     public FeasibleInsertionService(
             AssignmentNodeFactory nodeFactory,
-            AssignmentNodeSequenceValidator validator,
+            PrimitiveRouteValidator validator,
             RouteSequenceCostEstimator costEstimator
     ) {
         this.nodeFactory = nodeFactory;
         this.validator = validator;
         this.costEstimator = costEstimator;
+        this.fastEngine = new FastInsertionEngine(costEstimator);
     }
 
     /**
@@ -60,6 +62,9 @@ public class FeasibleInsertionService {
 
     /**
      * 枚举所有合法插入方案。
+     *
+     * 当前路线合法时走 {@link FastInsertionEngine}：在原始类型数组上 O(1) 判断每个候选，
+     * 候选的节点序列延迟到被选中时才生成；当前路线本身不合法时退回逐个候选全量校验。
      */
     public List<InsertionCandidate> findAllFeasibleInsertions(
             Vehicle vehicle,
@@ -68,6 +73,37 @@ public class FeasibleInsertionService {
     ) {
         validateInput(vehicle, item);
 
+        List<AssignmentNode> ordered = sortBySequence(currentNodes);
+
+        if (alreadyContainsItem(ordered, item)) {
+            return Collections.emptyList();
+        }
+
+        /*
+         * 插入一对配平的 LOAD/UNLOAD 只会增加区间载重，无法修复原路线已有的违规，
+         * 因此只在原路线合法时使用快速引擎。
+         */
+        if (validator.validate(ordered, vehicle).isValid()) {
+            return fastEngine.enumerate(
+                    vehicle,
+                    ordered,
+                    item,
+                    (loadIndex, unloadIndex) -> materialize(ordered, item, loadIndex, unloadIndex)
+            );
+        }
+
+        return enumerateWithFullValidation(vehicle, currentNodes, item);
+    }
+
+    /**
+     * 逐个候选生成节点序列并全量校验的原始枚举方式。
+     * 包可见：测试用它校验快速引擎结果一致。
+     */
+    List<InsertionCandidate> enumerateWithFullValidation(
+            Vehicle vehicle,
+            List<AssignmentNode> currentNodes,
+            ShipmentItem item
+    ) {
         List<AssignmentNode> base = normalizeAndCopy(currentNodes);
 
         if (alreadyContainsItem(base, item)) {
@@ -102,10 +138,7 @@ public class FeasibleInsertionService {
                 candidateNodes.add(unloadIndex, unloadNode);
                 normalizeSequence(candidateNodes);
 
-                AssignmentNodeSequenceValidator.ValidationResult validation =
-                        validator.validate(candidateNodes, vehicle);
-
-                if (!validation.isValid()) {
+                if (!validator.validate(candidateNodes, vehicle).isValid()) {
                     continue;
                 }
 
@@ -184,9 +217,30 @@ public class FeasibleInsertionService {
     }
 
     /**
-     * 排序 + 深拷贝，避免在枚举插入时污染 JPA 托管实体。
+     * 物化一个选中的候选：拷贝原路线，在 loadIndex 插入 LOAD，
+     * 再在插入 LOAD 后序列的 unloadIndex 处插入 UNLOAD。
      */
-    private List<AssignmentNode> normalizeAndCopy(List<AssignmentNode> nodes) {
+    private List<AssignmentNode> materialize(
+            List<AssignmentNode> ordered,
+            ShipmentItem item,
+            int loadIndex,
+            int unloadIndex
+    ) {
+        List<AssignmentNode> nodes = new ArrayList<>(ordered.size() + 2);
+        for (AssignmentNode node : ordered) {
+            nodes.add(copyNodeForPlanning(node));
+        }
+
+        nodes.add(loadIndex, nodeFactory.createLoadNode(null, loadIndex, item));
+        nodes.add(unloadIndex, nodeFactory.createUnloadNode(null, unloadIndex, item));
+        normalizeSequence(nodes);
+        return nodes;
+    }
+
+    /**
+     * 只按 sequenceIndex 排序引用，不拷贝节点。
+     */
+    private List<AssignmentNode> sortBySequence(List<AssignmentNode> nodes) {
         if (nodes == null || nodes.isEmpty()) {
             return new ArrayList<>();
         }
@@ -196,6 +250,18 @@ public class FeasibleInsertionService {
                 AssignmentNode::getSequenceIndex,
                 Comparator.nullsLast(Integer::compareTo)
         ));
+        return ordered;
+    }
+
+    /**
+     * 排序 + 深拷贝，避免在枚举插入时污染 JPA 托管实体。
+     */
+    private List<AssignmentNode> normalizeAndCopy(List<AssignmentNode> nodes) {
+        if (nodes == null || nodes.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<AssignmentNode> ordered = sortBySequence(nodes);
 
         List<AssignmentNode> copied = new ArrayList<>();
         for (AssignmentNode node : ordered) {
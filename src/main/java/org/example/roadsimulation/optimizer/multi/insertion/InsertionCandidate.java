@@ -6,6 +6,7 @@ import org.example.roadsimulation.entity.Vehicle;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * 一个合法插入候选：
@@ -29,8 +30,10 @@ public class InsertionCandidate {
 
     /**
      * 插入后的完整节点序列。
+     * 快速枚举生成的候选在首次读取时才由 nodesSupplier 物化。
      */
-    private final List<AssignmentNode> nodesAfterInsertion;
+    private List<AssignmentNode> nodesAfterInsertion;
+    private Supplier<List<AssignmentNode>> nodesSupplier;
 
     /**
      * 插入前路线距离，km。
@@ -75,6 +78,24 @@ public class InsertionCandidate {
         this.score = score;
     }
 
+    /**
+     * 延迟物化的候选：枚举阶段只保存位置与评分，被选中后才生成完整节点序列。
+     */
+    InsertionCandidate(
+            Vehicle vehicle,
+            ShipmentItem shipmentItem,
+            int loadInsertIndex,
+            int unloadInsertIndex,
+            Supplier<List<AssignmentNode>> nodesSupplier,
+            double beforeDistanceKm,
+            double afterDistanceKm,
+            double score
+    ) {
+        this(vehicle, shipmentItem, loadInsertIndex, unloadInsertIndex, (List<AssignmentNode>) null,
+                beforeDistanceKm, afterDistanceKm, score);
+        this.nodesSupplier = nodesSupplier;
+    }
+
     public Vehicle getVehicle() {
         return vehicle;
     }
@@ -92,6 +113,10 @@ public class InsertionCandidate {
     }
 
     public List<AssignmentNode> getNodesAfterInsertion() {
+        if (nodesSupplier != null) {
+            nodesAfterInsertion = new ArrayList<>(nodesSupplier.get());
+            nodesSupplier = null;
+        }
         return new ArrayList<>(nodesAfterInsertion);
     }
 
@@ -122,6 +122,13 @@ public class RouteSequenceCostEstimator {
         );
     }
 
+    /**
+     * 坐标级距离，供快速插入引擎在预取的原始坐标数组上直接计算。
+     */
+    public double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        return haversine(lat1, lon1, lat2, lon2);
+    }
+
     private double haversine(double lat1, double lon1, double lat2, double lon2) {
         double dLat = Math.toRadians(lat2 - lat1);
         double dLon = Math.toRadians(lon2 - lon1);
@@ -8,11 +8,14 @@ import org.example.roadsimulation.entity.Vehicle;
 import org.example.roadsimulation.optimizer.multi.MultiOrderSolution;
 import org.example.roadsimulation.optimizer.multi.NodeGene;
 import org.example.roadsimulation.optimizer.multi.VehicleRouteGene;
+import org.example.roadsimulation.optimizer.node.AssignmentNodeSequenceValidator;
 import org.example.roadsimulation.repository.AssignmentRepository;
 import org.example.roadsimulation.repository.ShipmentItemRepository;
 import org.example.roadsimulation.repository.VehicleRepository;
 import org.example.roadsimulation.service.TransportMetricsService;
 import org.example.roadsimulation.service.TransportLifecycleService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -23,11 +26,14 @@ import java.util.*;
 @Service
 public class MultiOrderAssignmentMaterializer {
 
+    private static final Logger log = LoggerFactory.getLogger(MultiOrderAssignmentMaterializer.class);
+
     private final AssignmentRepository assignmentRepository;
     private final ShipmentItemRepository shipmentItemRepository;
     private final VehicleRepository vehicleRepository;
     private final TransportMetricsService transportMetricsService;
     private final TransportLifecycleService transportLifecycleService;
+    private final AssignmentNodeSequenceValidator nodeSequenceValidator;
 
     @Autowired
     public MultiOrderAssignmentMaterializer(
@@ -35,13 +41,15 @@ public class MultiOrderAssignmentMaterializer {
             ShipmentItemRepository shipmentItemRepository,
             VehicleRepository vehicleRepository,
             TransportMetricsService transportMetricsService,
-            TransportLifecycleService transportLifecycleService
+            TransportLifecycleService transportLifecycleService,
+            AssignmentNodeSequenceValidator nodeSequenceValidator
     ) {
         this.assignmentRepository = assignmentRepository;
         this.shipmentItemRepository = shipmentItemRepository;
         this.vehicleRepository = vehicleRepository;
         this.transportMetricsService = transportMetricsService;
         this.transportLifecycleService = transportLifecycleService;
+        this.nodeSequenceValidator = nodeSequenceValidator;
     }
 
     /**
@@ -109,6 +117,21 @@ public class MultiOrderAssignmentMaterializer {
                 assignment.setDestPOI(dest);
             }
 
+            // 创建 AssignmentNode 链
+            List<AssignmentNode> nodes = buildAssignmentNodes(
+                    assignment,
+                    routeGene,
+                    itemMap
+            );
+
+            // 落库前的实体级校验：优化器内部用原始类型校验器，这里对最终实体再确认一次
+            AssignmentNodeSequenceValidator.ValidationResult validation =
+                    nodeSequenceValidator.validate(nodes, vehicle);
+            if (!validation.isValid()) {
+                log.warn("[MultiOrderGA] 车辆 {} 的路线未通过落库校验，跳过: {}", vehicle.getId(), validation.getReason());
+                continue;
+            }
+
             // 绑定 ShipmentItems
             for (Long itemId : servedItemIds) {
                 ShipmentItem item = itemMap.get(itemId);
@@ -119,13 +142,6 @@ public class MultiOrderAssignmentMaterializer {
                 assignment.addShipmentItem(item);
             }
 
-            // 创建 AssignmentNode 链
-            List<AssignmentNode> nodes = buildAssignmentNodes(
-                    assignment,
-                    routeGene,
-                    itemMap
-            );
-
             for (AssignmentNode node : nodes) {
                 assignment.addNode(node);
             }
@@ -0,0 +1,225 @@
+package org.example.roadsimulation.optimizer.node;
+
+import org.example.roadsimulation.entity.AssignmentNode;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 优化器使用的原始类型路线表示。
+ *
+ * 每个节点只保留：货物稠密下标、动作、载重增量、体积增量；
+ * 货物 ID 到稠密下标的映射用开放寻址的 long→int 表维护。
+ * 同时持有 {@link PrimitiveRouteValidator} 所需的 int 栈与位图，
+ * 实例可反复 {@link #clear()} 复用，扩容后不再分配。
+ *
+ * 非线程安全，每个线程使用自己的实例。
+ */
+public final class PrimitiveRoute {
+
+    public static final byte ACTION_NULL = -1;
+    public static final byte ACTION_LOAD = 0;
+    public static final byte ACTION_UNLOAD = 1;
+    public static final byte ACTION_PASS_BY = 2;
+
+    static final int NO_ITEM = -1;
+
+    // 节点列
+    int size;
+    int[] itemIndex = new int[16];
+    byte[] action = new byte[16];
+    double[] weightDelta = new double[16];
+    double[] volumeDelta = new double[16];
+
+    // 货物稠密下标 -> 货物 ID
+    int itemCount;
+    long[] itemIds = new long[16];
+
+    // 校验用的可复用结构
+    int[] stack = new int[16];
+    long[] loadedBits = new long[1];
+    long[] unloadedBits = new long[1];
+
+    // 最近一次失败的详情，用于按需渲染原因
+    long failItemId;
+    long failStackTopId;
+
+    // 货物 ID -> 稠密下标（开放寻址，用代数戳避免每次清空）
+    private long[] hashKeys = new long[32];
+    private int[] hashValues = new int[32];
+    private int[] hashStamps = new int[32];
+    private int stamp = 1;
+
+    // 排序用
+    private int[] sequenceKeys = new int[16];
+    private int[] order = new int[16];
+
+    public void clear() {
+        size = 0;
+        itemCount = 0;
+        if (++stamp == 0) {
+            Arrays.fill(hashStamps, 0);
+            stamp = 1;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 追加一个节点。itemId 为 null 表示节点没有关联货物。
+     */
+    public void add(byte actionCode, Long itemId, double weight, double volume) {
+        ensureNodeCapacity(size + 1);
+        action[size] = actionCode;
+        itemIndex[size] = itemId == null ? NO_ITEM : indexOf(itemId);
+        weightDelta[size] = weight;
+        volumeDelta[size] = volume;
+        size++;
+    }
+
+    /**
+     * 从节点实体加载，按 sequenceIndex 稳定排序（null 排在最后），与 JPA 校验器的顺序一致。
+     */
+    public PrimitiveRoute load(List<AssignmentNode> nodes) {
+        clear();
+        if (nodes == null || nodes.isEmpty()) {
+            return this;
+        }
+
+        int n = nodes.size();
+        if (sequenceKeys.length < n) {
+            sequenceKeys = new int[Math.max(n, sequenceKeys.length * 2)];
+            order = new int[sequenceKeys.length];
+        }
+
+        boolean sorted = true;
+        for (int i = 0; i < n; i++) {
+            Integer sequenceIndex = nodes.get(i).getSequenceIndex();
+            sequenceKeys[i] = sequenceIndex == null ? Integer.MAX_VALUE : sequenceIndex;
+            order[i] = i;
+            if (i > 0 && sequenceKeys[i] < sequenceKeys[i - 1]) {
+                sorted = false;
+            }
+        }
+        if (!sorted) {
+            insertionSortOrder(n);
+        }
+
+        for (int i = 0; i < n; i++) {
+            AssignmentNode node = nodes.get(order[i]);
+            Long itemId = node.getShipmentItem() != null ? node.getShipmentItem().getId() : null;
+            add(toActionCode(node.getActionType()), itemId, safe(node.getWeightDelta()), safe(node.getVolumeDelta()));
+        }
+        return this;
+    }
+
+    /**
+     * 按最近一次校验失败的详情渲染原因文本。
+     */
+    public String describe(RouteViolation violation) {
+        return violation.render(failItemId, failStackTopId);
+    }
+
+    public static byte toActionCode(AssignmentNode.NodeActionType actionType) {
+        if (actionType == null) {
+            return ACTION_NULL;
+        }
+        return switch (actionType) {
+            case LOAD -> ACTION_LOAD;
+            case UNLOAD -> ACTION_UNLOAD;
+            case PASS_BY -> ACTION_PASS_BY;
+        };
+    }
+
+    /**
+     * 为校验准备栈与位图容量，并清空位图。
+     */
+    void prepareValidation() {
+        if (stack.length < size) {
+            stack = new int[Math.max(size, stack.length * 2)];
+        }
+        int words = (itemCount >>> 6) + 1;
+        if (loadedBits.length < words) {
+            loadedBits = new long[words];
+            unloadedBits = new long[words];
+        } else {
+            Arrays.fill(loadedBits, 0, words, 0L);
+            Arrays.fill(unloadedBits, 0, words, 0L);
+        }
+    }
+
+    private int indexOf(long itemId) {
+        if (itemCount * 2 >= hashKeys.length) {
+            rehash(hashKeys.length * 2);
+        }
+        int mask = hashKeys.length - 1;
+        int slot = mix(itemId) & mask;
+        while (hashStamps[slot] == stamp) {
+            if (hashKeys[slot] == itemId) {
+                return hashValues[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        hashStamps[slot] = stamp;
+        hashKeys[slot] = itemId;
+        hashValues[slot] = itemCount;
+
+        if (itemIds.length <= itemCount) {
+            itemIds = Arrays.copyOf(itemIds, itemIds.length * 2);
+        }
+        itemIds[itemCount] = itemId;
+        return itemCount++;
+    }
+
+    private void rehash(int capacity) {
+        hashKeys = new long[capacity];
+        hashValues = new int[capacity];
+        hashStamps = new int[capacity];
+        stamp = 1;
+        int mask = capacity - 1;
+        for (int i = 0; i < itemCount; i++) {
+            int slot = mix(itemIds[i]) & mask;
+            while (hashStamps[slot] == stamp) {
+                slot = (slot + 1) & mask;
+            }
+            hashStamps[slot] = stamp;
+            hashKeys[slot] = itemIds[i];
+            hashValues[slot] = i;
+        }
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private void insertionSortOrder(int n) {
+        for (int i = 1; i < n; i++) {
+            int current = order[i];
+            int key = sequenceKeys[current];
+            int j = i - 1;
+            while (j >= 0 && sequenceKeys[order[j]] > key) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = current;
+        }
+    }
+
+    private void ensureNodeCapacity(int capacity) {
+        if (itemIndex.length >= capacity) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, itemIndex.length * 2);
+        itemIndex = Arrays.copyOf(itemIndex, newCapacity);
+        action = Arrays.copyOf(action, newCapacity);
+        weightDelta = Arrays.copyOf(weightDelta, newCapacity);
+        volumeDelta = Arrays.copyOf(volumeDelta, newCapacity);
+    }
+
+    private static double safe(Double value) {
+        return value == null ? 0.0 : value;
+    }
+}
@@ -0,0 +1,145 @@
+package org.example.roadsimulation.optimizer.node;
+
+import org.example.roadsimulation.entity.AssignmentNode;
+import org.example.roadsimulation.entity.Vehicle;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 面向优化器的路线合法性校验器。
+ *
+ * 规则与 {@link AssignmentNodeSequenceValidator} 完全一致（检查顺序也一致），但：
+ * 1. 在 {@link PrimitiveRoute} 的原始类型数组上运行，不拷贝、不装箱
+ * 2. LIFO 用可复用 int 栈，已装 / 已卸集合用位图
+ * 3. 只返回 {@link RouteViolation} 结果码，原因文本按需渲染
+ *
+ * 插入枚举与适应度评价走这里；落库前仍由 {@link AssignmentNodeSequenceValidator} 做实体级校验。
+ */
+@Component
+public class PrimitiveRouteValidator {
+
+    private static final double EPS = 1e-6;
+
+    private final ThreadLocal<PrimitiveRoute> routes = ThreadLocal.withInitial(PrimitiveRoute::new);
+
+    /**
+     * 便捷入口：把节点实体加载进线程私有的 {@link PrimitiveRoute} 后校验。
+     */
+    public RouteViolation validate(List<AssignmentNode> nodes, Vehicle vehicle) {
+        if (vehicle == null) {
+            return RouteViolation.VEHICLE_MISSING;
+        }
+        if (nodes == null || nodes.isEmpty()) {
+            return RouteViolation.VALID;
+        }
+        return validate(routes.get().load(nodes), vehicle.getMaxLoadCapacity(), vehicle.getCargoVolume());
+    }
+
+    /**
+     * 当前线程最近一次便捷校验失败的原因文本。
+     */
+    public String describeLastViolation(RouteViolation violation) {
+        return routes.get().describe(violation);
+    }
+
+    public RouteViolation validate(PrimitiveRoute route, Double maxLoad, Double maxVolume) {
+        int n = route.size;
+        if (n == 0) {
+            return RouteViolation.VALID;
+        }
+        if (maxLoad == null || maxLoad <= 0) {
+            return RouteViolation.INVALID_MAX_LOAD;
+        }
+        if (maxVolume == null || maxVolume <= 0) {
+            return RouteViolation.INVALID_MAX_VOLUME;
+        }
+
+        route.prepareValidation();
+        int[] stack = route.stack;
+        long[] loaded = route.loadedBits;
+        long[] unloaded = route.unloadedBits;
+        int top = 0;
+
+        double loadLimit = maxLoad + EPS;
+        double volumeLimit = maxVolume + EPS;
+        double currentWeight = 0.0;
+        double currentVolume = 0.0;
+
+        for (int i = 0; i < n; i++) {
+            byte action = route.action[i];
+            if (action == PrimitiveRoute.ACTION_NULL) {
+                return RouteViolation.NULL_ACTION;
+            }
+
+            currentWeight += route.weightDelta[i];
+            currentVolume += route.volumeDelta[i];
+
+            if (currentWeight < -EPS) {
+                return RouteViolation.NEGATIVE_WEIGHT;
+            }
+            if (currentVolume < -EPS) {
+                return RouteViolation.NEGATIVE_VOLUME;
+            }
+            if (currentWeight > loadLimit) {
+                return RouteViolation.OVERWEIGHT;
+            }
+            if (currentVolume > volumeLimit) {
+                return RouteViolation.OVER_VOLUME;
+            }
+
+            int item = route.itemIndex[i];
+            if (action == PrimitiveRoute.ACTION_LOAD) {
+                if (item == PrimitiveRoute.NO_ITEM) {
+                    return RouteViolation.LOAD_WITHOUT_ITEM;
+                }
+                if (isSet(loaded, item)) {
+                    return fail(route, RouteViolation.DUPLICATE_LOAD, item, -1);
+                }
+                if (isSet(unloaded, item)) {
+                    return fail(route, RouteViolation.LOAD_AFTER_UNLOAD, item, -1);
+                }
+                set(loaded, item);
+                stack[top++] = item;
+            } else if (action == PrimitiveRoute.ACTION_UNLOAD) {
+                if (item == PrimitiveRoute.NO_ITEM) {
+                    return RouteViolation.UNLOAD_WITHOUT_ITEM;
+                }
+                if (!isSet(loaded, item)) {
+                    return fail(route, RouteViolation.UNLOAD_BEFORE_LOAD, item, -1);
+                }
+                if (isSet(unloaded, item)) {
+                    return fail(route, RouteViolation.DUPLICATE_UNLOAD, item, -1);
+                }
+                if (top == 0) {
+                    return RouteViolation.LIFO_EMPTY_STACK;
+                }
+                if (stack[top - 1] != item) {
+                    return fail(route, RouteViolation.LIFO_VIOLATION, item, stack[top - 1]);
+                }
+                top--;
+                set(unloaded, item);
+            }
+        }
+
+        // 栈为空时每个已装货物都已出栈卸货，而卸货前又要求已装，两集合必然相等
+        if (top != 0) {
+            return RouteViolation.UNBALANCED;
+        }
+        return RouteViolation.VALID;
+    }
+
+    private static RouteViolation fail(PrimitiveRoute route, RouteViolation violation, int item, int stackTop) {
+        route.failItemId = route.itemIds[item];
+        route.failStackTopId = stackTop >= 0 ? route.itemIds[stackTop] : 0L;
+        return violation;
+    }
+
+    private static boolean isSet(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    private static void set(long[] bits, int index) {
+        bits[index >>> 6] |= 1L << index;
+    }
+}
@@ -0,0 +1,48 @@
+package org.example.roadsimulation.optimizer.node;
+
+/**
+ * 优化器路线校验结果码。
+ *
+ * 校验热路径只返回枚举常量，不拼接字符串；需要展示时再用
+ * {@link #render(long, long)} 按失败节点的货物 ID 生成与
+ * {@link AssignmentNodeSequenceValidator} 相同的中文原因。
+ */
+public enum RouteViolation {
+
+    VALID("合法"),
+    VEHICLE_MISSING("车辆为空"),
+    INVALID_MAX_LOAD("车辆最大载重无效"),
+    INVALID_MAX_VOLUME("车辆最大容积无效"),
+    NULL_ACTION("节点动作类型为空"),
+    NEGATIVE_WEIGHT("节点序列导致车辆载重为负"),
+    NEGATIVE_VOLUME("节点序列导致车辆体积为负"),
+    OVERWEIGHT("车辆超重"),
+    OVER_VOLUME("车辆超体积"),
+    LOAD_WITHOUT_ITEM("LOAD 节点缺少 ShipmentItem"),
+    DUPLICATE_LOAD("ShipmentItem 重复装货: %1$d"),
+    LOAD_AFTER_UNLOAD("ShipmentItem 已卸货后又装货: %1$d"),
+    UNLOAD_WITHOUT_ITEM("UNLOAD 节点缺少 ShipmentItem"),
+    UNLOAD_BEFORE_LOAD("未装先卸: %1$d"),
+    DUPLICATE_UNLOAD("ShipmentItem 重复卸货: %1$d"),
+    LIFO_EMPTY_STACK("LIFO 栈为空但发生卸货"),
+    LIFO_VIOLATION("违反 LIFO，当前栈顶为 %2$d，但尝试卸货 %1$d"),
+    UNBALANCED("存在已装未卸货物");
+
+    private final String template;
+
+    RouteViolation(String template) {
+        this.template = template;
+    }
+
+    public boolean isValid() {
+        return this == VALID;
+    }
+
+    /**
+     * @param itemId     失败节点的货物 ID
+     * @param stackTopId 失败时 LIFO 栈顶货物 ID（仅 LIFO_VIOLATION 使用）
+     */
+    public String render(long itemId, long stackTopId) {
+        return template.indexOf('%') < 0 ? template : String.format(template, itemId, stackTopId);
+    }
+}
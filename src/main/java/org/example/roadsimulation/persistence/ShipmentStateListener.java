@@ -0,0 +1,76 @@
+package org.example.roadsimulation.persistence;
+
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.example.roadsimulation.entity.Shipment;
+import org.example.roadsimulation.entity.ShipmentItem;
+import org.example.roadsimulation.service.ShipmentItemStatusTracker;
+import org.example.roadsimulation.service.ShipmentProgressCounters;
+
+/**
+ * Shipment / ShipmentItem 唯一的 JPA 实体监听器：把状态流转折算成 {@link ShipmentProgressCounters} 的增量，
+ * 运单项的状态变化与删除同时转给 {@link ShipmentItemStatusTracker}
+ *
+ * 加载和写入后都会把当前状态记到实体的 persisted* 瞬态字段里，下次更新时据此求差。
+ * 由 Hibernate 通过 Spring 的 BeanContainer 实例化，因此可以构造器注入。
+ */
+public class ShipmentStateListener {
+
+    private final ShipmentProgressCounters counters;
+    private final ShipmentItemStatusTracker tracker;
+
+    public ShipmentStateListener(ShipmentProgressCounters counters, ShipmentItemStatusTracker tracker) {
+        this.counters = counters;
+        this.tracker = tracker;
+    }
+
+    @PostLoad
+    public void loaded(Object entity) {
+        if (entity instanceof Shipment shipment) {
+            shipment.rememberPersistedState();
+        } else if (entity instanceof ShipmentItem item) {
+            item.rememberPersistedState();
+        }
+    }
+
+    @PostPersist
+    public void persisted(Object entity) {
+        if (entity instanceof Shipment shipment) {
+            counters.shipmentInserted(shipment.getStatus());
+            shipment.rememberPersistedState();
+        } else if (entity instanceof ShipmentItem item) {
+            item.rememberPersistedState();
+            counters.itemInserted(item.getPersistedStatus(), item.getPersistedWeight(), item.getPersistedVolume());
+        }
+    }
+
+    @PostUpdate
+    public void updated(Object entity) {
+        if (entity instanceof Shipment shipment) {
+            counters.shipmentChanged(shipment.getPersistedStatus(), shipment.getStatus());
+            shipment.rememberPersistedState();
+        } else if (entity instanceof ShipmentItem item) {
+            ShipmentItem.ShipmentItemStatus fromStatus = item.getPersistedStatus();
+            double fromWeight = item.getPersistedWeight();
+            double fromVolume = item.getPersistedVolume();
+            item.rememberPersistedState();
+            counters.itemChanged(fromStatus, fromWeight, fromVolume,
+                    item.getPersistedStatus(), item.getPersistedWeight(), item.getPersistedVolume());
+            if (fromStatus != item.getPersistedStatus()) {
+                tracker.itemUpdated(item.getId(), item.getPersistedStatus());
+            }
+        }
+    }
+
+    @PostRemove
+    public void removed(Object entity) {
+        if (entity instanceof Shipment shipment) {
+            counters.shipmentRemoved(shipment.getPersistedStatus());
+        } else if (entity instanceof ShipmentItem item) {
+            counters.itemRemoved(item.getPersistedStatus(), item.getPersistedWeight(), item.getPersistedVolume());
+            tracker.itemRemoved(item.getId());
+        }
+    }
+}
@@ -3,6 +3,9 @@ package org.example.roadsimulation.repository;
 import org.example.roadsimulation.entity.DispatchComparisonExperimentRun;
 import org.example.roadsimulation.entity.DispatchComparisonExperimentRun.RunStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Collection;
 import java.util.Optional;
@@ -12,4 +15,11 @@ public interface DispatchComparisonExperimentRunRepository extends JpaRepository
     Optional<DispatchComparisonExperimentRun> findTopByOrderByCreatedAtDesc();
 
     Optional<DispatchComparisonExperimentRun> findTopByStatusInOrderByCreatedAtDesc(Collection<RunStatus> statuses);
+
+    // 只更新进度列，不覆盖并发的状态变更（暂停 / 中止）
+    @Modifying
+    @Query("UPDATE DispatchComparisonExperimentRun r SET r.currentLoop = :loop, r.completedItems = :completed, " +
+            "r.totalItems = :total WHERE r.id = :id")
+    int updateProgress(@Param("id") Long id, @Param("loop") int loop,
+                       @Param("completed") int completed, @Param("total") int total);
 }
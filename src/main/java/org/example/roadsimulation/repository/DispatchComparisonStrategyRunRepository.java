@@ -2,6 +2,9 @@ package org.example.roadsimulation.repository;
 
 import org.example.roadsimulation.entity.DispatchComparisonStrategyRun;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -14,4 +17,11 @@ public interface DispatchComparisonStrategyRunRepository extends JpaRepository<D
             Long experimentRunId,
             String strategy
     );
+
+    // 只更新进度列，收尾时的成本与状态由 save 整行写入
+    @Modifying
+    @Query("UPDATE DispatchComparisonStrategyRun r SET r.loopCount = :loop, r.completedItems = :completed, " +
+            "r.totalItems = :total WHERE r.id = :id")
+    int updateProgress(@Param("id") Long id, @Param("loop") int loop,
+                       @Param("completed") int completed, @Param("total") int total);
 }
@@ -1,10 +1,13 @@
 package org.example.roadsimulation.repository;
 
+import jakarta.persistence.QueryHint;
 import org.example.roadsimulation.entity.Goods;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -15,7 +18,8 @@ import java.util.Optional;
 public interface GoodsRepository extends JpaRepository<Goods, Long> {
     // 根据名称模糊搜索（用于前端搜索功能）
     List<Goods> findByNameContainingIgnoreCase(String name);
-    // 根据SKU查询货物
+    // 根据SKU查询货物（查询缓存：链段货物解析按 SKU 反复查询）
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Goods> findBySku(@Param("sku") String sku);
     // 根据类别查询
     List<Goods> findByCategory(String category);
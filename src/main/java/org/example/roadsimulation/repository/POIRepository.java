@@ -1,15 +1,20 @@
 package org.example.roadsimulation.repository;
 
+import jakarta.persistence.QueryHint;
 import org.example.roadsimulation.entity.POI;
+import org.hibernate.jpa.HibernateHints;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * POI Repository
@@ -29,8 +34,9 @@ public interface POIRepository extends JpaRepository<POI, Long> {
     List<POI> findByNameContainingIgnoreCase(String name);
 
     /**
-     * 根据 POI 类型查询
+     * 根据 POI 类型查询（查询缓存：主循环每轮按类型筛选 POI）
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<POI> findByPoiType(POI.POIType poiType);
 
     /**
@@ -54,4 +60,10 @@ public interface POIRepository extends JpaRepository<POI, Long> {
     // 根据名称和类型进行模糊化查询
     @Query("SELECT p FROM POI p WHERE p.name = :name AND p.poiType = :poiType")
     List<POI> findByNameAndPoiType(String name, POI.POIType poiType);
+
+    /**
+     * 按 ID 查询 POI，并一次性抓取其货物登记及对应货物（enrollments 为懒加载）
+     */
+    @Query("SELECT DISTINCT p FROM POI p LEFT JOIN FETCH p.enrollments e LEFT JOIN FETCH e.goods WHERE p.id = :id")
+    Optional<POI> findByIdWithEnrollments(@Param("id") Long id);
 }
@@ -1,8 +1,11 @@
 package org.example.roadsimulation.repository;
 
+import jakarta.persistence.QueryHint;
 import org.example.roadsimulation.entity.ProcessingChain;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -16,6 +19,17 @@ public interface ProcessingChainRepository extends JpaRepository<ProcessingChain
 
     List<ProcessingChain> findByStatus(ProcessingChain.ChainStatus status);
 
+    /**
+     * 按状态查询加工链，并一次性抓取工序及工序绑定的 POI（stages 为懒加载）
+     * 开启查询缓存：主循环每轮随机选择加工链段时调用
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT DISTINCT pc FROM ProcessingChain pc " +
+            "LEFT JOIN FETCH pc.stages s " +
+            "LEFT JOIN FETCH s.processingPOI " +
+            "WHERE pc.status = :status")
+    List<ProcessingChain> findByStatusWithStages(@Param("status") ProcessingChain.ChainStatus status);
+
     boolean existsByChainCode(String chainCode);
 
     /**
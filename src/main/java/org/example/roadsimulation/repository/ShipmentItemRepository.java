@@ -19,6 +19,24 @@ public interface ShipmentItemRepository extends JpaRepository<ShipmentItem, Long
     Optional<ShipmentItem> findByName(@Param("name") String name);
 
     List<ShipmentItem> findByShipmentId(Long shipmentId);
+
+    @Query("SELECT si FROM ShipmentItem si LEFT JOIN FETCH si.assignment a LEFT JOIN FETCH a.assignedVehicle " +
+            "WHERE si.shipment.id IN :shipmentIds")
+    List<ShipmentItem> findByShipmentIdInWithAssignment(@Param("shipmentIds") List<Long> shipmentIds);
+
+    // 按状态分组汇总：[status, count, sum(weight), sum(volume)]
+    @Query("SELECT si.status, COUNT(si), COALESCE(SUM(si.weight), 0), COALESCE(SUM(si.volume), 0) " +
+            "FROM ShipmentItem si GROUP BY si.status")
+    List<Object[]> aggregateGroupByStatus();
+
+    // 按运单汇总：[shipmentId, 有效(非取消)项数, 已送达项数]
+    @Query("SELECT si.shipment.id, " +
+            "SUM(CASE WHEN si.status <> :cancelled THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN si.status = :delivered THEN 1 ELSE 0 END) " +
+            "FROM ShipmentItem si WHERE si.shipment.id IN :shipmentIds GROUP BY si.shipment.id")
+    List<Object[]> countProgressByShipmentIds(@Param("shipmentIds") List<Long> shipmentIds,
+                                              @Param("cancelled") ShipmentItem.ShipmentItemStatus cancelled,
+                                              @Param("delivered") ShipmentItem.ShipmentItemStatus delivered);
     
     Page<ShipmentItem> findByShipmentId(Long shipmentId, Pageable pageable);
 
@@ -30,6 +48,19 @@ public interface ShipmentItemRepository extends JpaRepository<ShipmentItem, Long
 
     List<ShipmentItem> findByStatus(String status);
     List<ShipmentItem> findByStatus(ShipmentItem.ShipmentItemStatus status);
+
+    /**
+     * 按状态查询运单项，按重量降序（同重量按 ID 升序），并抓取运单及起终点 POI。
+     * 供 VRP 拼载使用，避免 findAll 后在内存中过滤排序。
+     */
+    @Query("SELECT si FROM ShipmentItem si " +
+            "JOIN FETCH si.shipment s " +
+            "LEFT JOIN FETCH s.originPOI " +
+            "LEFT JOIN FETCH s.destPOI " +
+            "WHERE si.status = :status " +
+            "ORDER BY si.weight DESC, si.id ASC")
+    List<ShipmentItem> findByStatusWithShipmentOrderByWeightDesc(
+            @Param("status") ShipmentItem.ShipmentItemStatus status);
     /**
      * 统计运单的运单项数量
      */
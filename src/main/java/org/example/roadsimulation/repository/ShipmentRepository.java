@@ -22,6 +22,17 @@ public interface ShipmentRepository extends JpaRepository<Shipment, Long> {
     List<Shipment> findByStatus(Shipment.ShipmentStatus status);
     List<Shipment> findByStatusIn(List<Shipment.ShipmentStatus> statuses);
 
+    // 同上，一并取出起终点 POI（列表页展示名称，避免逐条懒加载）
+    @Query("SELECT s FROM Shipment s LEFT JOIN FETCH s.originPOI LEFT JOIN FETCH s.destPOI WHERE s.status IN :statuses")
+    List<Shipment> findByStatusInWithPois(@Param("statuses") List<Shipment.ShipmentStatus> statuses);
+
+    @Query("SELECT s FROM Shipment s LEFT JOIN FETCH s.originPOI LEFT JOIN FETCH s.destPOI WHERE s.id IN :ids")
+    List<Shipment> findByIdInWithPois(@Param("ids") List<Long> ids);
+
+    // 按状态分组计数：[status, count]
+    @Query("SELECT s.status, COUNT(s) FROM Shipment s GROUP BY s.status")
+    List<Object[]> countGroupByStatus();
+
     // 检查运单系统参考号是否存在
     boolean existsByRefNo(String refNo);
 
@@ -74,6 +74,18 @@ public interface VehicleRepository extends JpaRepository<Vehicle, Long> {
     @Query("SELECT v FROM Vehicle v WHERE v.currentStatus = 'IDLE' ORDER BY v.maxLoadCapacity DESC")
     List<Vehicle> findAvailableVehiclesOrderByLoadCapacityDesc();
 
+    /**
+     * 车辆状态分布投影：只返回状态与数量，不加载车辆实体
+     */
+    interface StatusCount {
+        Vehicle.VehicleStatus getStatus();
+        Long getCount();
+    }
+
+    // 按状态分组统计车辆数量
+    @Query("SELECT v.currentStatus AS status, COUNT(v) AS count FROM Vehicle v GROUP BY v.currentStatus")
+    List<StatusCount> countGroupByCurrentStatus();
+
     // 根据品牌分组统计车辆数量
     @Query("SELECT v.brand, COUNT(v) FROM Vehicle v GROUP BY v.brand")
     List<Object[]> countVehiclesByBrand();
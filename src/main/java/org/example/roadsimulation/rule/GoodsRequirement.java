@@ -0,0 +1,46 @@
+package org.example.roadsimulation.rule;
+
+import org.example.roadsimulation.entity.Goods;
+
+/**
+ * 货物运输要求位
+ */
+public enum GoodsRequirement {
+
+    /** requireTemp = true */
+    TEMP_CONTROL,
+
+    /** hazmatLevel 非空 */
+    HAZMAT;
+
+    public long bit() {
+        return 1L << ordinal();
+    }
+
+    public boolean isSetIn(long mask) {
+        return (mask & bit()) != 0;
+    }
+
+    public static long maskOf(Goods goods) {
+        if (goods == null) {
+            return 0L;
+        }
+        return maskOf(goods.getRequireTemp(), goods.getHazmatLevel());
+    }
+
+    /**
+     * 按匹配条件计算要求掩码（VehicleMatchingCriteria 只携带这两个字段）
+     *
+     * 危险品等级为空白字符串时不视为危险品，与 SolutionEvaluator 原有判断一致。
+     */
+    public static long maskOf(Boolean requireTemp, String hazmatLevel) {
+        long mask = 0L;
+        if (Boolean.TRUE.equals(requireTemp)) {
+            mask |= TEMP_CONTROL.bit();
+        }
+        if (hazmatLevel != null && !hazmatLevel.isBlank()) {
+            mask |= HAZMAT.bit();
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,64 @@
+package org.example.roadsimulation.rule;
+
+import org.example.roadsimulation.entity.Vehicle;
+
+/**
+ * 车辆能力位
+ *
+ * 车辆的温控 / 危险品能力有两个来源，两条匹配链路各用其一，因此分开成不同的位：
+ *   - *_EQUIPPED / *_QUALIFIED：结构化字段 hasTempControl / hazmatQualification（VehicleMatchingServiceImpl 使用）
+ *   - *_DECLARED：suitableGoods 文本中声明的关键字（SolutionEvaluator 使用）
+ *
+ * 掩码按车辆缓存，相关字段变化后才重算（见 VehicleGoodsCompatibilityIndex），评估时只做位运算。
+ */
+public enum VehicleCapability {
+
+    /** hasTempControl = true */
+    TEMP_CONTROL_EQUIPPED,
+
+    /** hazmatQualification 非空 */
+    HAZMAT_QUALIFIED,
+
+    /** suitableGoods 包含 冷链 / 冷藏 / 温控 / refriger / temp */
+    TEMP_CONTROL_DECLARED,
+
+    /** suitableGoods 包含 危 / hazmat / dangerous */
+    HAZMAT_DECLARED;
+
+    public long bit() {
+        return 1L << ordinal();
+    }
+
+    public boolean isSetIn(long mask) {
+        return (mask & bit()) != 0;
+    }
+
+    /**
+     * 由车辆字段计算能力掩码（字符串解析只发生在这里）
+     */
+    public static long maskOf(Vehicle vehicle) {
+        if (vehicle == null) {
+            return 0L;
+        }
+        long mask = 0L;
+        if (Boolean.TRUE.equals(vehicle.getHasTempControl())) {
+            mask |= TEMP_CONTROL_EQUIPPED.bit();
+        }
+        String qualification = vehicle.getHazmatQualification();
+        if (qualification != null && !qualification.isEmpty()) {
+            mask |= HAZMAT_QUALIFIED.bit();
+        }
+        String sg = vehicle.getSuitableGoods();
+        if (sg != null && !sg.isBlank()) {
+            String lower = sg.toLowerCase();
+            if (lower.contains("冷链") || lower.contains("冷藏") || lower.contains("温控")
+                    || lower.contains("refriger") || lower.contains("temp")) {
+                mask |= TEMP_CONTROL_DECLARED.bit();
+            }
+            if (lower.contains("危") || lower.contains("hazmat") || lower.contains("dangerous")) {
+                mask |= HAZMAT_DECLARED.bit();
+            }
+        }
+        return mask;
+    }
+}
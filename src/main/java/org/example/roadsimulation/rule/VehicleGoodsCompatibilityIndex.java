@@ -0,0 +1,223 @@
+package org.example.roadsimulation.rule;
+
+import org.example.roadsimulation.entity.Goods;
+import org.example.roadsimulation.entity.ShipmentItem;
+import org.example.roadsimulation.entity.Vehicle;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 车辆-货物适配索引
+ *
+ * 把适配判断里的字符串解析从每次判断挪到缓存里：
+ *   - 车辆能力掩码（VehicleCapability）与车型 id，按车辆 id 缓存；
+ *   - 货物要求掩码（GoodsRequirement）与适配车型 id，按货物 id 缓存；
+ *   - 车型字符串统一 strip 后驻留为整数 id，车型匹配退化为 int 比较。
+ *
+ * 缓存条目记录计算时所用字段的值，访问时逐字段比较值（Hibernate 每次重新加载都会生成新的
+ * String 实例，不能比较引用），字段未变即命中，变了就重算，因此不需要在保存实体时显式刷新。
+ *
+ * 优化器在一次求解开始时构建 {@link ViolationMatrix} / 适配位图，迭代中的评估只做数组下标与位运算。
+ */
+@Component
+public class VehicleGoodsCompatibilityIndex {
+
+    /** ViolationMatrix 中的违规位 */
+    public static final int TEMP_VIOLATION = 1;
+    public static final int HAZMAT_VIOLATION = 2;
+
+    /** 车型字符串为空时的 id */
+    public static final int NO_TYPE = -1;
+
+    private static final int REQUIREMENT_CLASSES = 1 << GoodsRequirement.values().length;
+
+    private final Map<Long, VehicleEntry> vehicleEntries = new ConcurrentHashMap<>();
+    private final Map<Long, GoodsEntry> goodsEntries = new ConcurrentHashMap<>();
+    private final Map<String, Integer> typeIds = new ConcurrentHashMap<>();
+    private final AtomicInteger nextTypeId = new AtomicInteger();
+
+    public void invalidateAll() {
+        vehicleEntries.clear();
+        goodsEntries.clear();
+    }
+
+    // ==================== 单个查询 ====================
+
+    public long vehicleCapabilities(Vehicle vehicle) {
+        return vehicle == null ? 0L : vehicleEntry(vehicle).mask();
+    }
+
+    public long goodsRequirements(Goods goods) {
+        return goods == null ? 0L : goodsEntry(goods).mask();
+    }
+
+    /**
+     * 货物适配车型（vehicleFit）与车辆车型（vehicleType）是否一致（均 strip 后比较，任一为空则不适配）
+     */
+    public boolean fitsVehicleType(Vehicle vehicle, Goods goods) {
+        if (vehicle == null || goods == null) {
+            return false;
+        }
+        int fit = goodsEntry(goods).fitTypeId();
+        return fit != NO_TYPE && fit == vehicleEntry(vehicle).typeId();
+    }
+
+    /**
+     * 按 suitableGoods 声明判断违规位（SolutionEvaluator 的温控 / 危险品口径）
+     */
+    public static int declaredViolations(long requirementMask, long capabilityMask) {
+        int violations = 0;
+        if (GoodsRequirement.TEMP_CONTROL.isSetIn(requirementMask)
+                && !VehicleCapability.TEMP_CONTROL_DECLARED.isSetIn(capabilityMask)) {
+            violations |= TEMP_VIOLATION;
+        }
+        if (GoodsRequirement.HAZMAT.isSetIn(requirementMask)
+                && !VehicleCapability.HAZMAT_DECLARED.isSetIn(capabilityMask)) {
+            violations |= HAZMAT_VIOLATION;
+        }
+        return violations;
+    }
+
+    // ==================== 批量矩阵（一次求解构建一次） ====================
+
+    /**
+     * 构建 items × vehicles 违规矩阵：货物按要求掩码归类，矩阵实际大小为 要求类别数 × 车辆数
+     */
+    public ViolationMatrix violationMatrix(List<Vehicle> vehicles, List<ShipmentItem> items) {
+        int vehicleCount = vehicles.size();
+        byte[] table = new byte[REQUIREMENT_CLASSES * vehicleCount];
+        for (int v = 0; v < vehicleCount; v++) {
+            long cap = vehicleCapabilities(vehicles.get(v));
+            for (int req = 0; req < REQUIREMENT_CLASSES; req++) {
+                table[req * vehicleCount + v] = (byte) declaredViolations(req, cap);
+            }
+        }
+        int[] itemClass = new int[items.size()];
+        for (int i = 0; i < itemClass.length; i++) {
+            ShipmentItem item = items.get(i);
+            itemClass[i] = (int) goodsRequirements(item == null ? null : item.getGoods());
+        }
+        return new ViolationMatrix(vehicleCount, itemClass, table);
+    }
+
+    /**
+     * 构建单一货物对候选车辆的车型适配位图（第 j 位 = 第 j 辆车适配）
+     */
+    public long[] compatibleVehicleBits(List<Vehicle> vehicles, Goods goods) {
+        long[] bits = new long[(vehicles.size() + 63) >>> 6];
+        int fit = goods == null ? NO_TYPE : goodsEntry(goods).fitTypeId();
+        if (fit == NO_TYPE) {
+            return bits;
+        }
+        for (int j = 0; j < vehicles.size(); j++) {
+            Vehicle v = vehicles.get(j);
+            if (v != null && vehicleEntry(v).typeId() == fit) {
+                bits[j >>> 6] |= 1L << j;
+            }
+        }
+        return bits;
+    }
+
+    public static boolean isSet(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    // ==================== 内部 ====================
+
+    private VehicleEntry vehicleEntry(Vehicle vehicle) {
+        Long id = vehicle.getId();
+        if (id == null) {
+            return computeVehicle(vehicle);
+        }
+        VehicleEntry entry = vehicleEntries.get(id);
+        if (entry == null || !entry.matches(vehicle)) {
+            entry = computeVehicle(vehicle);
+            vehicleEntries.put(id, entry);
+        }
+        return entry;
+    }
+
+    private GoodsEntry goodsEntry(Goods goods) {
+        Long id = goods.getId();
+        if (id == null) {
+            return computeGoods(goods);
+        }
+        GoodsEntry entry = goodsEntries.get(id);
+        if (entry == null || !entry.matches(goods)) {
+            entry = computeGoods(goods);
+            goodsEntries.put(id, entry);
+        }
+        return entry;
+    }
+
+    private VehicleEntry computeVehicle(Vehicle vehicle) {
+        return new VehicleEntry(vehicle.getSuitableGoods(), vehicle.getHasTempControl(),
+                vehicle.getHazmatQualification(), vehicle.getVehicleType(),
+                VehicleCapability.maskOf(vehicle), typeId(vehicle.getVehicleType()));
+    }
+
+    private GoodsEntry computeGoods(Goods goods) {
+        return new GoodsEntry(goods.getRequireTemp(), goods.getHazmatLevel(), goods.getVehicleFit(),
+                GoodsRequirement.maskOf(goods), typeId(goods.getVehicleFit()));
+    }
+
+    private int typeId(String type) {
+        if (type == null || type.isBlank()) {
+            return NO_TYPE;
+        }
+        return typeIds.computeIfAbsent(type.strip(), k -> nextTypeId.getAndIncrement());
+    }
+
+    /** 参与计算的字段值都未变即视为未修改 */
+    private record VehicleEntry(String suitableGoods, Boolean hasTempControl, String hazmatQualification,
+                                String vehicleType, long mask, int typeId) {
+        boolean matches(Vehicle v) {
+            return Objects.equals(v.getSuitableGoods(), suitableGoods)
+                    && Objects.equals(v.getHasTempControl(), hasTempControl)
+                    && Objects.equals(v.getHazmatQualification(), hazmatQualification)
+                    && Objects.equals(v.getVehicleType(), vehicleType);
+        }
+    }
+
+    private record GoodsEntry(Boolean requireTemp, String hazmatLevel, String vehicleFit,
+                              long mask, int fitTypeId) {
+        boolean matches(Goods g) {
+            return Objects.equals(g.getRequireTemp(), requireTemp)
+                    && Objects.equals(g.getHazmatLevel(), hazmatLevel)
+                    && Objects.equals(g.getVehicleFit(), vehicleFit);
+        }
+    }
+
+    /**
+     * 货物 × 车辆违规矩阵
+     */
+    public static final class ViolationMatrix {
+        private final int vehicleCount;
+        private final int[] itemClass;
+        private final byte[] table;
+
+        ViolationMatrix(int vehicleCount, int[] itemClass, byte[] table) {
+            this.vehicleCount = vehicleCount;
+            this.itemClass = itemClass;
+            this.table = table;
+        }
+
+        /** 第 itemIdx 个明细放到第 vehicleIdx 辆车上的违规位（TEMP_VIOLATION / HAZMAT_VIOLATION） */
+        public int violations(int itemIdx, int vehicleIdx) {
+            return table[itemClass[itemIdx] * vehicleCount + vehicleIdx];
+        }
+
+        public int vehicleCount() {
+            return vehicleCount;
+        }
+
+        public int itemCount() {
+            return itemClass.length;
+        }
+    }
+}
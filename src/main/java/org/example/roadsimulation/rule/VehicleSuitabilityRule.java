@@ -22,13 +22,15 @@ public enum VehicleSuitabilityRule {
      * 温控需求匹配 - 硬性条件
      * 规则：需要温控的货物必须使用有温控设备的车辆
      */
-    TEMP_CONTROL("温控需求", RuleType.HARD, 0.20),
+    TEMP_CONTROL("温控需求", RuleType.HARD, 0.20,
+            GoodsRequirement.TEMP_CONTROL, VehicleCapability.TEMP_CONTROL_EQUIPPED),
 
     /**
      * 危险品资质匹配 - 硬性条件
      * 规则：危险品货物必须使用有相应资质级别的车辆
      */
-    HAZMAT_QUALIFICATION("危险品资质", RuleType.HARD, 0.15),
+    HAZMAT_QUALIFICATION("危险品资质", RuleType.HARD, 0.15,
+            GoodsRequirement.HAZMAT, VehicleCapability.HAZMAT_QUALIFIED),
 
     /**
      * 车辆类型匹配 - 软性条件
@@ -87,10 +89,23 @@ public enum VehicleSuitabilityRule {
      */
     private final double weight;
 
+    /**
+     * 规则对应的货物要求位与车辆能力位（仅温控 / 危险品规则有，其余为 null）
+     */
+    private final GoodsRequirement requirement;
+    private final VehicleCapability capability;
+
     VehicleSuitabilityRule(String displayName, RuleType ruleType, double weight) {
+        this(displayName, ruleType, weight, null, null);
+    }
+
+    VehicleSuitabilityRule(String displayName, RuleType ruleType, double weight,
+                           GoodsRequirement requirement, VehicleCapability capability) {
         this.displayName = displayName;
         this.ruleType = ruleType;
         this.weight = weight;
+        this.requirement = requirement;
+        this.capability = capability;
     }
 
     public String getDisplayName() {
@@ -105,6 +120,28 @@ public enum VehicleSuitabilityRule {
         return weight;
     }
 
+    public GoodsRequirement getRequirement() {
+        return requirement;
+    }
+
+    public VehicleCapability getCapability() {
+        return capability;
+    }
+
+    /**
+     * 按位判断规则是否满足：货物没有该项要求，或车辆具备对应能力
+     * 非能力类规则（载重、容积等）不在此判断，恒为 true
+     *
+     * @param requirementMask 货物要求掩码（GoodsRequirement）
+     * @param capabilityMask  车辆能力掩码（VehicleCapability）
+     */
+    public boolean isSatisfiedBy(long requirementMask, long capabilityMask) {
+        if (requirement == null || !requirement.isSetIn(requirementMask)) {
+            return true;
+        }
+        return capability.isSetIn(capabilityMask);
+    }
+
     /**
      * 判断是否为硬性条件
      */
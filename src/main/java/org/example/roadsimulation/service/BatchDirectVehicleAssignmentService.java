@@ -1,5 +1,6 @@
 package org.example.roadsimulation.service;
 
+import org.example.roadsimulation.core.geo.HaversineBatch;
 import org.example.roadsimulation.entity.POI;
 import org.example.roadsimulation.entity.Route;
 import org.example.roadsimulation.entity.ShipmentItem;
@@ -63,11 +64,14 @@ public class BatchDirectVehicleAssignmentService {
             }
         }
 
+        // 起点 × 车辆的距离一次性批量算出，缺坐标的一侧为 NaN
+        double[] distances = HaversineBatch.manyToMany(requestStartPoints(cleanRequests), vehiclePoints(cleanVehicles));
+
         for (int row = 0; row < requestCount; row++) {
             DirectAssignmentRequest request = cleanRequests.get(row);
             for (int col = 0; col < vehicleCount; col++) {
                 Vehicle vehicle = cleanVehicles.get(col);
-                PairCost pairCost = calculatePairCost(request, vehicle);
+                PairCost pairCost = calculatePairCost(request, vehicle, distances[row * vehicleCount + col]);
                 if (pairCost.feasible) {
                     cost[row][col] = pairCost.cost;
                 }
@@ -302,7 +306,7 @@ public class BatchDirectVehicleAssignmentService {
                 : request.getShipmentItem().getId();
     }
 
-    private PairCost calculatePairCost(DirectAssignmentRequest request, Vehicle vehicle) {
+    private PairCost calculatePairCost(DirectAssignmentRequest request, Vehicle vehicle, double distanceKm) {
         ShipmentItem item = request.getShipmentItem();
         if (item == null || vehicle == null || request.getStartPOI() == null) {
             return PairCost.infeasible();
@@ -326,13 +330,10 @@ public class BatchDirectVehicleAssignmentService {
             return PairCost.infeasible();
         }
 
-        Point vehiclePoint = pointFromVehicle(vehicle);
-        Point startPoint = pointFromPoi(request.getStartPOI());
-        if (vehiclePoint == null || startPoint == null) {
+        if (Double.isNaN(distanceKm)) {
             return PairCost.infeasible();
         }
 
-        double distanceKm = haversineKm(vehiclePoint.lat, vehiclePoint.lon, startPoint.lat, startPoint.lon);
         double cost = distanceKm + (1.0 - loadFactor) * LOAD_FACTOR_TIE_BREAK_WEIGHT;
         return PairCost.feasible(cost);
     }
@@ -399,6 +400,28 @@ public class BatchDirectVehicleAssignmentService {
         return assignment;
     }
 
+    private HaversineBatch.Points requestStartPoints(List<DirectAssignmentRequest> requests) {
+        double[] lat = new double[requests.size()];
+        double[] lon = new double[requests.size()];
+        for (int i = 0; i < requests.size(); i++) {
+            Point point = pointFromPoi(requests.get(i).getStartPOI());
+            lat[i] = point == null ? Double.NaN : point.lat;
+            lon[i] = point == null ? Double.NaN : point.lon;
+        }
+        return HaversineBatch.Points.of(lat, lon);
+    }
+
+    private HaversineBatch.Points vehiclePoints(List<Vehicle> vehicles) {
+        double[] lat = new double[vehicles.size()];
+        double[] lon = new double[vehicles.size()];
+        for (int i = 0; i < vehicles.size(); i++) {
+            Point point = pointFromVehicle(vehicles.get(i));
+            lat[i] = point == null ? Double.NaN : point.lat;
+            lon[i] = point == null ? Double.NaN : point.lon;
+        }
+        return HaversineBatch.Points.of(lat, lon);
+    }
+
     private Point pointFromVehicle(Vehicle vehicle) {
         if (vehicle.getCurrentPOI() != null) {
             return pointFromPoi(vehicle.getCurrentPOI());
@@ -2,8 +2,11 @@ package org.example.roadsimulation.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.example.roadsimulation.config.DispatchStrategy;
 import org.example.roadsimulation.config.SimulationRuntimeConfig;
+import org.example.roadsimulation.core.stats.CostWindowDigests;
+import org.example.roadsimulation.core.stats.CostWindowSample;
 import org.example.roadsimulation.dto.RuntimeCostDetailDTO;
 import org.example.roadsimulation.dto.RuntimeCostDTO;
 import org.slf4j.Logger;
@@ -14,6 +17,7 @@ import org.springframework.stereotype.Service;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
 import java.util.EnumMap;
 import java.util.HashMap;
@@ -48,6 +52,10 @@ public class CostBaselineNormalizationService {
     @Value("${simulation.cost-baseline.percentile:P95}")
     private String baselinePercentile;
 
+    /** 为 true 时每次仿真重置前把本次运行的单位成本草图合并进基线文件 */
+    @Value("${simulation.cost-baseline.accumulate-runs:false}")
+    private boolean accumulateRuns;
+
     private BaselineCatalog cachedCatalog;
     private Path cachedPath;
     private long cachedLastModifiedMillis = Long.MIN_VALUE;
@@ -57,6 +65,9 @@ public class CostBaselineNormalizationService {
     private NormalizedWindow latestWindow;
     private long nextWindowSequence = 1L;
 
+    /** 当前运行各窗口单位成本的分位数草图（按策略 × A–E），内存与窗口数无关 */
+    private CostWindowDigests liveDigests = new CostWindowDigests();
+
     public CostBaselineNormalizationService(SimulationRuntimeConfig simulationRuntimeConfig) {
         this.simulationRuntimeConfig = simulationRuntimeConfig;
         this.objectMapper = new ObjectMapper();
@@ -90,6 +101,9 @@ public class CostBaselineNormalizationService {
             return;
         }
 
+        CostWindowSample sample = toSample(previousSnapshot, current);
+        liveDigests.add(sample);
+
         BaselineValues baseline = findBaseline(strategy);
         if (baseline == null || !baseline.isValid()) {
             latestWindow = null;
@@ -100,7 +114,7 @@ public class CostBaselineNormalizationService {
             return;
         }
 
-        latestWindow = calculateNormalizedWindow(previousSnapshot, current, baseline, normalizedPercentile());
+        latestWindow = calculateNormalizedWindow(previousSnapshot, current, sample, baseline, normalizedPercentile());
         previousSnapshot = current;
     }
 
@@ -226,13 +240,92 @@ public class CostBaselineNormalizationService {
         );
     }
 
+    /**
+     * 当前运行、当前策略的单位成本 P50 / P90 / P95（来自流式草图），没有样本时返回 null
+     */
+    public synchronized RuntimeCostDetailDTO.LivePercentileDetail exportLivePercentiles() {
+        DispatchStrategy strategy = currentStrategy();
+        long sampleCount = liveDigests.sampleCount(strategy);
+        if (!enabled || sampleCount == 0) {
+            return null;
+        }
+
+        RuntimeCostDetailDTO.LivePercentileDetail detail = new RuntimeCostDetailDTO.LivePercentileDetail();
+        detail.setStrategy(strategy.name());
+        detail.setSampleCount(sampleCount);
+        detail.setP50(unitCostPercentiles(liveDigests.quantiles(strategy, 0.50)));
+        detail.setP90(unitCostPercentiles(liveDigests.quantiles(strategy, 0.90)));
+        detail.setP95(unitCostPercentiles(liveDigests.quantiles(strategy, 0.95)));
+        return detail;
+    }
+
+    /**
+     * 把当前运行的草图合并进基线文件（P90 / P95 按合并后的草图重算）
+     *
+     * 基线文件中没有 "digests" 的策略（旧版按全量排序标定的结果）无法增量合并，保持原值不动。
+     *
+     * @return 是否写入了基线文件
+     */
+    public synchronized boolean mergeLiveIntoBaseline() {
+        if (!enabled) {
+            return false;
+        }
+        Path path = Path.of(baselinePath);
+        try {
+            ObjectNode root = Files.exists(path)
+                    ? (ObjectNode) objectMapper.readTree(path.toFile())
+                    : objectMapper.createObjectNode().put("baselineVersion", "dispatch-window-v1");
+            ObjectNode strategies = root.withObject("/strategies");
+            CostWindowDigests accumulated = CostWindowDigests.fromBaseline(root);
+
+            int mergedStrategies = 0;
+            for (DispatchStrategy strategy : DispatchStrategy.values()) {
+                if (liveDigests.sampleCount(strategy) == 0) {
+                    continue;
+                }
+                JsonNode existing = strategies.path(strategy.name());
+                if (existing.has("p90") && !existing.has("digests")) {
+                    warnOnce("legacy-baseline-" + strategy,
+                            "Cost baseline accumulation skipped for " + strategy
+                                    + ": baseline file has no digests to merge into");
+                    continue;
+                }
+                accumulated.mergeStrategyJson(strategy, liveDigests.strategyToJson(strategy));
+                mergedStrategies++;
+            }
+            if (mergedStrategies == 0) {
+                return false;
+            }
+
+            accumulated.writeBaselineStrategies(strategies);
+            root.put("compression", accumulated.compression());
+            root.put("incrementalRuns", root.path("incrementalRuns").asInt(0) + 1);
+
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(temp.toFile(), root);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            cachedCatalog = null;
+            return true;
+        } catch (IOException | RuntimeException ex) {
+            warnOnce("merge-failed-" + path.toAbsolutePath() + "-" + ex.getClass().getName(),
+                    "Cost baseline accumulation failed for " + path.toAbsolutePath() + ", reason=" + ex.getMessage());
+            return false;
+        }
+    }
+
     public synchronized void reset() {
+        if (accumulateRuns) {
+            mergeLiveIntoBaseline();
+        }
         previousSnapshot = null;
         latestWindow = null;
         nextWindowSequence = 1L;
+        liveDigests = new CostWindowDigests();
     }
 
     void configureForTest(boolean enabled, String baselinePath, String baselinePercentile) {
+        this.accumulateRuns = false;
         this.enabled = enabled;
         this.baselinePath = baselinePath;
         this.baselinePercentile = baselinePercentile;
@@ -247,17 +340,18 @@ public class CostBaselineNormalizationService {
     private NormalizedWindow calculateNormalizedWindow(
             WindowSnapshot start,
             WindowSnapshot end,
+            CostWindowSample sample,
             BaselineValues baseline,
             String percentile
     ) {
         long generatedItems = Math.max(0L, end.totalShipmentItems() - start.totalShipmentItems());
-        double taskScale = Math.max(1L, start.notAssignedItems() + generatedItems);
+        double taskScale = sample.taskScale();
 
-        double unitA = Math.max(0.0, end.costA() - start.costA()) / taskScale;
-        double unitB = (start.costB() + end.costB()) / 2.0;
-        double unitC = Math.max(0.0, end.costC() - start.costC()) / taskScale;
-        double unitD = Math.max(0.0, end.costD() - start.costD()) / taskScale;
-        double unitE = (start.costE() + end.costE()) / 2.0;
+        double unitA = sample.unitA();
+        double unitB = sample.unitB();
+        double unitC = sample.unitC();
+        double unitD = sample.unitD();
+        double unitE = sample.unitE();
 
         double normalizedA = unitA / baseline.a();
         double normalizedB = unitB / baseline.b();
@@ -303,6 +397,21 @@ public class CostBaselineNormalizationService {
         );
     }
 
+    /** 与标定使用同一套窗口口径（{@link CostWindowSample}） */
+    private CostWindowSample toSample(WindowSnapshot start, WindowSnapshot end) {
+        return CostWindowSample.of(end.strategy(), 0, 0L, 0, 0, 0, start.toSampleSnapshot(), end.toSampleSnapshot());
+    }
+
+    private RuntimeCostDetailDTO.UnitCostPercentiles unitCostPercentiles(double[] values) {
+        RuntimeCostDetailDTO.UnitCostPercentiles percentiles = new RuntimeCostDetailDTO.UnitCostPercentiles();
+        percentiles.setUnitCostA(values[0]);
+        percentiles.setUnitCostB(values[1]);
+        percentiles.setUnitCostC(values[2]);
+        percentiles.setUnitCostD(values[3]);
+        percentiles.setUnitCostE(values[4]);
+        return percentiles;
+    }
+
     private BaselineValues findBaseline(DispatchStrategy strategy) {
         return findBaseline(strategy, normalizedPercentile());
     }
@@ -450,6 +559,9 @@ public class CostBaselineNormalizationService {
             long totalShipmentItems,
             long notAssignedItems
     ) {
+        CostWindowSample.Snapshot toSampleSnapshot() {
+            return new CostWindowSample.Snapshot(costA, costB, costC, costD, costE, totalShipmentItems, notAssignedItems);
+        }
     }
 
     private record NormalizedWindow(
@@ -0,0 +1,361 @@
+package org.example.roadsimulation.service;
+
+import org.example.roadsimulation.dto.DispatchComparisonScenarioDTO;
+import org.example.roadsimulation.dto.RuntimeCostDTO;
+import org.example.roadsimulation.entity.Assignment;
+import org.example.roadsimulation.entity.DispatchComparisonStrategyRun;
+import org.example.roadsimulation.entity.Enrollment;
+import org.example.roadsimulation.entity.Goods;
+import org.example.roadsimulation.entity.POI;
+import org.example.roadsimulation.entity.Shipment;
+import org.example.roadsimulation.entity.ShipmentItem;
+import org.example.roadsimulation.entity.Vehicle;
+import org.example.roadsimulation.repository.AssignmentRepository;
+import org.example.roadsimulation.repository.EnrollmentRepository;
+import org.example.roadsimulation.repository.GoodsRepository;
+import org.example.roadsimulation.repository.POIRepository;
+import org.example.roadsimulation.repository.ShipmentItemRepository;
+import org.example.roadsimulation.repository.ShipmentRepository;
+import org.example.roadsimulation.repository.VehicleRepository;
+import org.example.roadsimulation.service.CostBaselineNormalizationService.ExperimentRunNormalizationResult;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * 调度对比实验的场景与结果口径（可视化实验与离线批量实验共用）
+ *
+ * 场景 = 车辆初始位置（按车辆 ID 与候选 POI ID 轮转摆放）+ 若干条按模板生成的运单；
+ * 场景只引用车辆 / POI / 货物 ID，可以在任意一份含相同基础数据的库上重建。
+ */
+@Component
+public class DispatchComparisonScenarioSupport {
+
+    public static final int MAX_EXPERIMENT_SHIPMENTS = 20;
+
+    private final VehicleRepository vehicleRepository;
+    private final POIRepository poiRepository;
+    private final GoodsRepository goodsRepository;
+    private final ShipmentRepository shipmentRepository;
+    private final ShipmentItemRepository shipmentItemRepository;
+    private final AssignmentRepository assignmentRepository;
+    private final EnrollmentRepository enrollmentRepository;
+    private final POIShipmentManager poiShipmentManager;
+    private final CostBaselineNormalizationService costBaselineNormalizationService;
+    private final VehicleStatusTransitions vehicleStatusTransitions;
+
+    public DispatchComparisonScenarioSupport(
+            VehicleRepository vehicleRepository,
+            POIRepository poiRepository,
+            GoodsRepository goodsRepository,
+            ShipmentRepository shipmentRepository,
+            ShipmentItemRepository shipmentItemRepository,
+            AssignmentRepository assignmentRepository,
+            EnrollmentRepository enrollmentRepository,
+            POIShipmentManager poiShipmentManager,
+            CostBaselineNormalizationService costBaselineNormalizationService,
+            VehicleStatusTransitions vehicleStatusTransitions
+    ) {
+        this.vehicleRepository = vehicleRepository;
+        this.poiRepository = poiRepository;
+        this.goodsRepository = goodsRepository;
+        this.shipmentRepository = shipmentRepository;
+        this.shipmentItemRepository = shipmentItemRepository;
+        this.assignmentRepository = assignmentRepository;
+        this.enrollmentRepository = enrollmentRepository;
+        this.poiShipmentManager = poiShipmentManager;
+        this.costBaselineNormalizationService = costBaselineNormalizationService;
+        this.vehicleStatusTransitions = vehicleStatusTransitions;
+    }
+
+    // ==================== 场景描述 ====================
+
+    /**
+     * 只生成场景描述、不写库：车辆按 ID 轮转摆放到候选 POI，运单模板由 random 抽取
+     */
+    public DispatchComparisonScenarioDTO planScenario(String experimentId, int shipmentCount, Random random) {
+        List<POI> initialPoiCandidates = fixedInitialPoiCandidates();
+        if (initialPoiCandidates.isEmpty()) {
+            throw new IllegalStateException("no warehouse or distribution center poi with coordinates");
+        }
+        List<Vehicle> vehicles = vehicleRepository.findAll().stream()
+                .sorted(Comparator.comparing(Vehicle::getId))
+                .toList();
+
+        DispatchComparisonScenarioDTO scenario = new DispatchComparisonScenarioDTO();
+        scenario.setExperimentId(experimentId);
+        scenario.setStatus("PREPARED");
+        scenario.setPreparedAt(LocalDateTime.now());
+        scenario.setShipmentCount(shipmentCount);
+        scenario.setVehicleCount(vehicles.size());
+        for (int i = 0; i < vehicles.size(); i++) {
+            scenario.getVehicleInitialPositions().add(
+                    vehicleSummary(vehicles.get(i), initialPoiCandidates.get(i % initialPoiCandidates.size())));
+        }
+        for (ShipmentTemplate template : selectTemplates(shipmentCount, random)) {
+            scenario.getShipments().add(describeShipment(template));
+        }
+        return scenario;
+    }
+
+    public List<POI> fixedInitialPoiCandidates() {
+        List<POI> candidates = new ArrayList<>();
+        candidates.addAll(poiRepository.findByPoiType(POI.POIType.WAREHOUSE));
+        candidates.addAll(poiRepository.findByPoiType(POI.POIType.DISTRIBUTION_CENTER));
+        return candidates.stream()
+                .filter(Objects::nonNull)
+                .filter(poi -> poi.getLongitude() != null && poi.getLatitude() != null)
+                .sorted(Comparator.comparing(POI::getId))
+                .toList();
+    }
+
+    public DispatchComparisonScenarioDTO.VehiclePositionSummary vehicleSummary(Vehicle vehicle, POI poi) {
+        DispatchComparisonScenarioDTO.VehiclePositionSummary summary =
+                new DispatchComparisonScenarioDTO.VehiclePositionSummary();
+        summary.setVehicleId(vehicle.getId());
+        summary.setLicensePlate(vehicle.getLicensePlate());
+        summary.setPoiId(poi.getId());
+        summary.setPoiName(poi.getName());
+        summary.setPoiType(poi.getPoiType() == null ? "" : poi.getPoiType().name());
+        return summary;
+    }
+
+    public List<ShipmentTemplate> selectTemplates(int count, Random random) {
+        List<ShipmentTemplate> templates = new ArrayList<>(templates());
+        Collections.shuffle(templates, random);
+        return templates.subList(0, count);
+    }
+
+    /**
+     * 解析模板对应的起终点 POI 与货物，算出总重量 / 体积（不写库，shipmentId / shipmentItemId 为空）
+     */
+    public DispatchComparisonScenarioDTO.ExperimentShipmentSummary describeShipment(ShipmentTemplate template) {
+        POI origin = resolvePoi(template.originType(), template.originOffset(), template.code(), "origin");
+        POI destination = resolvePoi(template.destinationType(), template.destinationOffset(), template.code(), "destination");
+        Goods goods = goodsRepository.findBySku(template.goodsSku())
+                .orElseThrow(() -> new IllegalStateException("missing goods sku: " + template.goodsSku()));
+        if (goods.getWeightPerUnit() == null || goods.getVolumePerUnit() == null) {
+            throw new IllegalStateException("goods missing weight or volume: " + goods.getSku());
+        }
+
+        Integer quantity = template.quantity();
+        DispatchComparisonScenarioDTO.ExperimentShipmentSummary summary =
+                new DispatchComparisonScenarioDTO.ExperimentShipmentSummary();
+        summary.setTemplateCode(template.code());
+        summary.setOriginPoiId(origin.getId());
+        summary.setOriginPoiName(origin.getName());
+        summary.setDestinationPoiId(destination.getId());
+        summary.setDestinationPoiName(destination.getName());
+        summary.setGoodsId(goods.getId());
+        summary.setGoodsSku(goods.getSku());
+        summary.setGoodsName(goods.getName());
+        summary.setQuantity(quantity);
+        summary.setTotalWeight(quantity * goods.getWeightPerUnit());
+        summary.setTotalVolume(quantity * goods.getVolumePerUnit());
+        return summary;
+    }
+
+    // ==================== 场景落库 ====================
+
+    /**
+     * 把场景中的车辆恢复到初始 POI（空载、IDLE），需在事务内调用
+     */
+    public void restoreVehicles(DispatchComparisonScenarioDTO scenario) {
+        LocalDateTime now = LocalDateTime.now();
+        for (DispatchComparisonScenarioDTO.VehiclePositionSummary position : scenario.getVehicleInitialPositions()) {
+            Vehicle vehicle = vehicleRepository.findById(position.getVehicleId())
+                    .orElseThrow(() -> new IllegalStateException("vehicle not found: " + position.getVehicleId()));
+            POI poi = poiRepository.findById(position.getPoiId())
+                    .orElseThrow(() -> new IllegalStateException("poi not found: " + position.getPoiId()));
+            vehicleStatusTransitions.transition(vehicle, null, Vehicle.VehicleStatus.IDLE, now, Duration.ZERO);
+            vehicle.setPreviousStatus(null);
+            vehicle.setCurrentPOI(poi);
+            if (poi.getLongitude() != null && poi.getLatitude() != null) {
+                vehicle.setCurrentLongitude(poi.getLongitude());
+                vehicle.setCurrentLatitude(poi.getLatitude());
+            }
+            vehicle.setCurrentLoad(0.0);
+            vehicle.setCurrentVolumn(0.0);
+            vehicle.setUpdatedBy("DispatchComparisonExperiment");
+            vehicle.setUpdatedTime(now);
+            vehicleRepository.save(vehicle);
+        }
+    }
+
+    /**
+     * 按场景重建运单（每条一个 ShipmentItem），refNo 为 {@code <refPrefix>_<序号>_<模板编码>}
+     *
+     * @return 新建的 ShipmentItem ID（按场景顺序）
+     */
+    public List<Long> rebuildShipments(DispatchComparisonScenarioDTO scenario, String refPrefix, LocalDateTime createdTime) {
+        List<Long> itemIds = new ArrayList<>();
+        int index = 0;
+        for (DispatchComparisonScenarioDTO.ExperimentShipmentSummary source : scenario.getShipments()) {
+            POI origin = poiRepository.findById(source.getOriginPoiId())
+                    .orElseThrow(() -> new IllegalStateException("origin poi not found: " + source.getOriginPoiId()));
+            POI destination = poiRepository.findById(source.getDestinationPoiId())
+                    .orElseThrow(() -> new IllegalStateException("destination poi not found: " + source.getDestinationPoiId()));
+            Goods goods = resolveGoods(source);
+            String refNo = refPrefix + "_" + String.format("%02d", ++index) + "_" + source.getTemplateCode();
+
+            Shipment shipment = new Shipment(refNo, origin, destination, source.getTotalWeight(), source.getTotalVolume());
+            shipment.setStatus(Shipment.ShipmentStatus.CREATED);
+            shipment.setUpdatedBy("DispatchComparisonExperiment");
+            Shipment savedShipment = shipmentRepository.save(shipment);
+
+            ShipmentItem item = new ShipmentItem(
+                    savedShipment,
+                    source.getGoodsName() == null ? goods.getName() : source.getGoodsName(),
+                    source.getQuantity(),
+                    source.getGoodsSku(),
+                    source.getTotalWeight(),
+                    source.getTotalVolume()
+            );
+            item.setCreatedTime(createdTime);
+            item.setGoods(goods);
+            item.setStatus(ShipmentItem.ShipmentItemStatus.NOT_ASSIGNED);
+            item.setUpdatedBy("DispatchComparisonExperiment");
+            ShipmentItem savedItem = shipmentItemRepository.save(item);
+            ensureOriginEnrollment(origin, goods, source.getQuantity());
+            poiShipmentManager.registerShipment(origin, destination, savedShipment);
+            itemIds.add(savedItem.getId());
+        }
+        return itemIds;
+    }
+
+    public void ensureOriginEnrollment(POI origin, Goods goods, Integer quantity) {
+        Enrollment enrollment = enrollmentRepository.findByPoiAndGoods(origin, goods)
+                .orElseGet(() -> new Enrollment(origin, goods, 0));
+        enrollment.setQuantity((enrollment.getQuantity() == null ? 0 : enrollment.getQuantity()) + quantity);
+        enrollment.setUpdatedBy("DispatchComparisonExperiment");
+        enrollment.setUpdatedTime(LocalDateTime.now());
+        enrollmentRepository.save(enrollment);
+    }
+
+    // ==================== 结果口径 ====================
+
+    /**
+     * 填充策略运行的收尾指标：任务单数、用车数、A–E 成本、实时归一化成本与相对 ORIGINAL P95 的整体归一化成本
+     *
+     * costs 应已经过 {@link CostBaselineNormalizationService#applyLatest}；totalItems 需先设置好。
+     */
+    public void fillStrategyResult(DispatchComparisonStrategyRun strategyRun, RuntimeCostDTO costs) {
+        strategyRun.setAssignmentCount((int) assignmentRepository.count());
+        strategyRun.setVehicleUsedCount(countUsedVehicles());
+        copyCosts(strategyRun, costs);
+        copyExperimentNormalizedCosts(strategyRun, costs);
+    }
+
+    private int countUsedVehicles() {
+        Set<Long> vehicleIds = new HashSet<>();
+        for (Assignment assignment : assignmentRepository.findAll()) {
+            if (assignment.getAssignedVehicle() != null && assignment.getAssignedVehicle().getId() != null) {
+                vehicleIds.add(assignment.getAssignedVehicle().getId());
+            }
+        }
+        return vehicleIds.size();
+    }
+
+    private void copyCosts(DispatchComparisonStrategyRun strategyRun, RuntimeCostDTO costs) {
+        strategyRun.setCostA(costs.getCostA());
+        strategyRun.setCostB(costs.getCostB());
+        strategyRun.setCostC(costs.getCostC());
+        strategyRun.setCostD(costs.getCostD());
+        strategyRun.setCostE(costs.getCostE());
+        strategyRun.setAllCost(costs.getAllCost());
+        strategyRun.setNormalizedCostA(costs.getNormalizedCostA());
+        strategyRun.setNormalizedCostB(costs.getNormalizedCostB());
+        strategyRun.setNormalizedCostC(costs.getNormalizedCostC());
+        strategyRun.setNormalizedCostD(costs.getNormalizedCostD());
+        strategyRun.setNormalizedCostE(costs.getNormalizedCostE());
+        strategyRun.setNormalizedAllCost(costs.getNormalizedAllCost());
+    }
+
+    private void copyExperimentNormalizedCosts(DispatchComparisonStrategyRun strategyRun, RuntimeCostDTO costs) {
+        ExperimentRunNormalizationResult result =
+                costBaselineNormalizationService.normalizeExperimentTotalAgainstOriginalP95(
+                        costs,
+                        strategyRun.getTotalItems()
+                );
+        if (result == null) {
+            return;
+        }
+
+        strategyRun.setExperimentNormalizedCostA(result.normalizedCostA());
+        strategyRun.setExperimentNormalizedCostB(result.normalizedCostB());
+        strategyRun.setExperimentNormalizedCostC(result.normalizedCostC());
+        strategyRun.setExperimentNormalizedCostD(result.normalizedCostD());
+        strategyRun.setExperimentNormalizedCostE(result.normalizedCostE());
+        strategyRun.setExperimentNormalizedAllCost(result.normalizedAllCost());
+        strategyRun.setExperimentNormalizationBaselineStrategy(result.baselineStrategy());
+        strategyRun.setExperimentNormalizationBaselinePercentile(result.baselinePercentile());
+        strategyRun.setExperimentNormalizationScope(result.scope());
+    }
+
+    private Goods resolveGoods(DispatchComparisonScenarioDTO.ExperimentShipmentSummary source) {
+        if (source.getGoodsId() != null) {
+            return goodsRepository.findById(source.getGoodsId())
+                    .orElseThrow(() -> new IllegalStateException("goods not found: " + source.getGoodsId()));
+        }
+        return goodsRepository.findBySku(source.getGoodsSku())
+                .orElseThrow(() -> new IllegalStateException("goods sku not found: " + source.getGoodsSku()));
+    }
+
+    private POI resolvePoi(POI.POIType type, int offset, String templateCode, String role) {
+        List<POI> pois = poiRepository.findByPoiType(type).stream()
+                .filter(Objects::nonNull)
+                .filter(poi -> poi.getLongitude() != null && poi.getLatitude() != null)
+                .sorted(Comparator.comparing(POI::getId))
+                .toList();
+        if (pois.isEmpty()) {
+            throw new IllegalStateException("missing " + role + " poi type: " + type + ", template=" + templateCode);
+        }
+        return pois.get(Math.floorMod(offset, pois.size()));
+    }
+
+    private List<ShipmentTemplate> templates() {
+        return List.of(
+                new ShipmentTemplate("EXP-LOG-01", POI.POIType.TIMBER_YARD, 23, POI.POIType.SAWMILL, 3, "LOG", 8),
+                new ShipmentTemplate("EXP-LOG-02", POI.POIType.TIMBER_YARD, 19, POI.POIType.SAWMILL, 1, "LOG", 10),
+                new ShipmentTemplate("EXP-LOG-02", POI.POIType.TIMBER_YARD, 21, POI.POIType.SAWMILL, 2, "LOG", 12),
+                new ShipmentTemplate("EXP-PLANK-01", POI.POIType.SAWMILL, 3, POI.POIType.BOARD_FACTORY, 0, "PLANK", 10),
+                new ShipmentTemplate("EXP-PLANK-02", POI.POIType.SAWMILL, 1, POI.POIType.BOARD_FACTORY, 1, "PLANK", 12),
+                new ShipmentTemplate("EXP-PLANK-02", POI.POIType.SAWMILL, 2, POI.POIType.BOARD_FACTORY, 2, "PLANK", 18),
+                new ShipmentTemplate("EXP-PANEL-01", POI.POIType.BOARD_FACTORY, 0, POI.POIType.FURNITURE_FACTORY, 0, "PANEL", 12),
+                new ShipmentTemplate("EXP-PANEL-02", POI.POIType.BOARD_FACTORY, 1, POI.POIType.FURNITURE_FACTORY, 8, "PANEL", 14),
+                new ShipmentTemplate("EXP-PANEL-02", POI.POIType.BOARD_FACTORY, 2, POI.POIType.FURNITURE_FACTORY, 2, "PANEL", 13),
+                new ShipmentTemplate("EXP-STEEL-PRODUCT-01", POI.POIType.STEEL_PROCESSING_PLANT, 0, POI.POIType.AUTO_ASSEMBLY_PLANT, 0, "STEEL_PRODUCT", 10),
+                new ShipmentTemplate("EXP-STEEL-PRODUCT-02", POI.POIType.STEEL_PROCESSING_PLANT, 1, POI.POIType.AUTO_ASSEMBLY_PLANT, 1, "STEEL_PRODUCT", 12),
+                new ShipmentTemplate("EXP-STEEL-PRODUCT-02", POI.POIType.STEEL_PROCESSING_PLANT, 2, POI.POIType.AUTO_ASSEMBLY_PLANT, 2, "STEEL_PRODUCT", 12),
+                new ShipmentTemplate("EXP-STEEL-PRODUCT-03", POI.POIType.STEEL_PROCESSING_PLANT, 4, POI.POIType.FURNITURE_FACTORY, 4, "STEEL_PRODUCT", 10),
+                new ShipmentTemplate("EXP-STEEL-PRODUCT-03", POI.POIType.STEEL_PROCESSING_PLANT, 2, POI.POIType.FURNITURE_FACTORY, 7, "STEEL_PRODUCT", 10),
+                new ShipmentTemplate("EXP-STEEL-PRODUCT-04", POI.POIType.STEEL_PROCESSING_PLANT, 3, POI.POIType.FURNITURE_FACTORY, 3, "STEEL_PRODUCT", 12),
+                new ShipmentTemplate("EXP-RUBBER-RAW-01", POI.POIType.WAREHOUSE, 2, POI.POIType.RUBBER_PROCESSING_PLANT, 0, "RUBBER_RAW", 10),
+                new ShipmentTemplate("EXP-RUBBER-RAW-02", POI.POIType.WAREHOUSE, 3, POI.POIType.RUBBER_PROCESSING_PLANT, 1, "RUBBER_RAW", 12),
+                new ShipmentTemplate("EXP-RUBBER-SEMI-01", POI.POIType.RUBBER_PROCESSING_PLANT, 0, POI.POIType.TIRE_MANUFACTURING_PLANT, 0, "RUBBER_SEMI", 10),
+                new ShipmentTemplate("EXP-RUBBER-SEMI-02", POI.POIType.RUBBER_PROCESSING_PLANT, 1, POI.POIType.TIRE_MANUFACTURING_PLANT, 1, "RUBBER_SEMI", 12),
+                new ShipmentTemplate("EXP-TIRE-01", POI.POIType.TIRE_MANUFACTURING_PLANT, 0, POI.POIType.AUTO_ASSEMBLY_PLANT, 2, "TIRE", 10),
+                new ShipmentTemplate("EXP-TIRE-02", POI.POIType.TIRE_MANUFACTURING_PLANT, 1, POI.POIType.AUTO_ASSEMBLY_PLANT, 3, "TIRE", 12)
+        );
+    }
+
+    public record ShipmentTemplate(
+            String code,
+            POI.POIType originType,
+            int originOffset,
+            POI.POIType destinationType,
+            int destinationOffset,
+            String goodsSku,
+            Integer quantity
+    ) {
+    }
+}
@@ -0,0 +1,273 @@
+package org.example.roadsimulation.service;
+
+import org.example.roadsimulation.entity.POI;
+import org.example.roadsimulation.entity.ShipmentItem;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * ORIGINAL 策略 VRP 拼载的候选运单索引。
+ *
+ * vrpDispatchingCycle 对每辆车按"重量降序"扫描整个待接单池，逐票做容量、锚点距离、边际成本判断。
+ * 本索引保持同样的扫描顺序，但跳过一定不会被接受的运单：
+ *   1. 运单按 (重量降序, 原始顺序) 排成固定位次，重量数组单调，剩余载重对应的起始位次用二分查找得到；
+ *   2. 起点 POI 按边长 = maxAnchorDistanceKm 的网格分桶，每个格子一个按位次排序的 TreeSet；
+ *      车辆锚点确定后只在锚点格及其 8 邻域中按位次多路归并，并做精确的 Haversine 复核；
+ *   3. 体积、锚点距离在返回前用原始 double 判断，不再逐票打日志；
+ *   4. 已拼载的运单从全局集合与格子集合中 O(log n) 删除。
+ *
+ * 因此同一辆车看到的候选序列与原先全量扫描中"能通过容量 / 锚点关"的子序列完全一致，拼载结果不变。
+ * 缺少 Shipment、起终点 POI 或坐标的运单在构建时剔除（原扫描对它们也从不接受）。
+ *
+ * 非线程安全，每个调度周期构建一次。
+ */
+public class OriginalVrpCandidateIndex {
+
+    private static final double EARTH_RADIUS_KM = 6371;
+    private static final double KM_PER_DEGREE = 111.195;
+
+    private final ShipmentItem[] items;
+    private final double[] weight;
+    private final double[] volume;
+    private final double[] originLat;
+    private final double[] originLon;
+    private final double[] destLat;
+    private final double[] destLon;
+    private final long[] cellOf;
+
+    private final double maxAnchorDistanceKm;
+    private final boolean gridEnabled;
+    private final double cellLatDeg;
+    private final double cellLonDeg;
+
+    private final TreeSet<Integer> alive = new TreeSet<>();
+    private final Map<Long, TreeSet<Integer>> cells = new HashMap<>();
+    private final List<ShipmentItem> rejected;
+
+    private OriginalVrpCandidateIndex(List<ShipmentItem> accepted, List<ShipmentItem> rejected, double maxAnchorDistanceKm) {
+        int n = accepted.size();
+        this.items = accepted.toArray(new ShipmentItem[0]);
+        this.weight = new double[n];
+        this.volume = new double[n];
+        this.originLat = new double[n];
+        this.originLon = new double[n];
+        this.destLat = new double[n];
+        this.destLon = new double[n];
+        this.cellOf = new long[n];
+        this.rejected = rejected;
+        this.maxAnchorDistanceKm = maxAnchorDistanceKm;
+
+        double maxAbsLat = 0.0;
+        for (int p = 0; p < n; p++) {
+            ShipmentItem item = items[p];
+            POI origin = item.getShipment().getOriginPOI();
+            POI dest = item.getShipment().getDestPOI();
+            weight[p] = item.getWeight() != null ? item.getWeight() : 0.0;
+            volume[p] = item.getVolume() != null ? item.getVolume() : 0.0;
+            originLat[p] = origin.getLatitude().doubleValue();
+            originLon[p] = origin.getLongitude().doubleValue();
+            destLat[p] = dest.getLatitude().doubleValue();
+            destLon[p] = dest.getLongitude().doubleValue();
+            maxAbsLat = Math.max(maxAbsLat, Math.abs(originLat[p]));
+            alive.add(p);
+        }
+
+        this.gridEnabled = maxAnchorDistanceKm > 0.0 && !Double.isInfinite(maxAnchorDistanceKm) && n > 0;
+        if (gridEnabled) {
+            // 经度方向按最高纬度缩放，保证格子东西向宽度也不小于锚点距离，3×3 邻域必然覆盖锚点半径
+            this.cellLatDeg = maxAnchorDistanceKm / KM_PER_DEGREE;
+            this.cellLonDeg = cellLatDeg / Math.max(0.05, Math.cos(Math.toRadians(Math.min(89.0, maxAbsLat + cellLatDeg))));
+            for (int p = 0; p < n; p++) {
+                long key = cellKey(cellX(originLon[p]), cellY(originLat[p]));
+                cellOf[p] = key;
+                cells.computeIfAbsent(key, k -> new TreeSet<>()).add(p);
+            }
+        } else {
+            this.cellLatDeg = 0.0;
+            this.cellLonDeg = 0.0;
+        }
+    }
+
+    /**
+     * @param pendingItems 待拼载运单（通常已按重量降序、id 升序排好；这里再做一次稳定排序以保证重量单调）
+     */
+    public static OriginalVrpCandidateIndex build(List<ShipmentItem> pendingItems, double maxAnchorDistanceKm) {
+        List<ShipmentItem> accepted = new ArrayList<>(pendingItems.size());
+        List<ShipmentItem> rejected = new ArrayList<>();
+        for (ShipmentItem item : pendingItems) {
+            if (isIndexable(item)) {
+                accepted.add(item);
+            } else if (item != null) {
+                rejected.add(item);
+            }
+        }
+        accepted.sort((a, b) -> Double.compare(
+                b.getWeight() != null ? b.getWeight() : 0.0,
+                a.getWeight() != null ? a.getWeight() : 0.0));
+        return new OriginalVrpCandidateIndex(accepted, rejected, maxAnchorDistanceKm);
+    }
+
+    /** 因缺少 Shipment / POI / 坐标而未进入索引的运单 */
+    public List<ShipmentItem> getRejectedItems() {
+        return rejected;
+    }
+
+    public boolean isEmpty() {
+        return alive.isEmpty();
+    }
+
+    public int size() {
+        return alive.size();
+    }
+
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /** 拼载成功后移除运单 */
+    public void removeAll(Collection<Candidate> packed) {
+        for (Candidate candidate : packed) {
+            int p = candidate.position;
+            if (alive.remove(p) && gridEnabled) {
+                TreeSet<Integer> cell = cells.get(cellOf[p]);
+                cell.remove(p);
+                if (cell.isEmpty()) {
+                    cells.remove(cellOf[p]);
+                }
+            }
+        }
+    }
+
+    /**
+     * 单辆车的一次扫描。按位次递增返回满足 weight ≤ 剩余载重、volume ≤ 剩余体积、
+     * 且（锚点已设置时）起点到锚点距离 ≤ maxAnchorDistanceKm 的运单。
+     */
+    public final class Cursor {
+
+        private int lastPosition = -1;
+        private boolean anchored;
+        private double anchorLat;
+        private double anchorLon;
+        private final List<TreeSet<Integer>> anchorCells = new ArrayList<>(9);
+
+        /** 首票接受后设置锚点（首个装货点） */
+        public void anchor(Candidate first) {
+            anchored = true;
+            anchorLat = first.originLat();
+            anchorLon = first.originLon();
+            anchorCells.clear();
+            if (gridEnabled) {
+                long cx = cellX(anchorLon);
+                long cy = cellY(anchorLat);
+                for (long dy = -1; dy <= 1; dy++) {
+                    for (long dx = -1; dx <= 1; dx++) {
+                        TreeSet<Integer> cell = cells.get(cellKey(cx + dx, cy + dy));
+                        if (cell != null) {
+                            anchorCells.add(cell);
+                        }
+                    }
+                }
+            }
+        }
+
+        public Candidate next(double remainingWeight, double remainingVolume) {
+            while (true) {
+                int from = Math.max(lastPosition + 1, firstPositionWithin(remainingWeight));
+                int p = anchored && gridEnabled ? ceilingInAnchorCells(from) : ceiling(alive, from);
+                if (p < 0) {
+                    return null;
+                }
+                lastPosition = p;
+
+                if (volume[p] > remainingVolume) {
+                    continue;
+                }
+                if (anchored && haversine(anchorLat, anchorLon, originLat[p], originLon[p]) > maxAnchorDistanceKm) {
+                    continue;
+                }
+                return new Candidate(p, items[p], weight[p], volume[p],
+                        originLat[p], originLon[p], destLat[p], destLon[p]);
+            }
+        }
+
+        private int ceilingInAnchorCells(int from) {
+            int best = -1;
+            for (TreeSet<Integer> cell : anchorCells) {
+                int p = ceiling(cell, from);
+                if (p >= 0 && (best < 0 || p < best)) {
+                    best = p;
+                }
+            }
+            return best;
+        }
+    }
+
+    /** 索引中的一票候选运单及其预取坐标 */
+    public record Candidate(int position, ShipmentItem item, double weight, double volume,
+                            double originLat, double originLon, double destLat, double destLon) {
+    }
+
+    // ==================== 内部 ====================
+
+    /** weight 数组单调不增，返回第一个 weight ≤ limit 的位次 */
+    private int firstPositionWithin(double limit) {
+        int lo = 0;
+        int hi = weight.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (weight[mid] > limit) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static int ceiling(TreeSet<Integer> set, int from) {
+        Integer p = set.ceiling(from);
+        return p == null ? -1 : p;
+    }
+
+    private long cellX(double lon) {
+        return (long) Math.floor(lon / cellLonDeg);
+    }
+
+    private long cellY(double lat) {
+        return (long) Math.floor(lat / cellLatDeg);
+    }
+
+    private static long cellKey(long cx, long cy) {
+        return (cy << 32) ^ (cx & 0xffffffffL);
+    }
+
+    private static boolean isIndexable(ShipmentItem item) {
+        if (item == null || item.getShipment() == null) {
+            return false;
+        }
+        POI origin = item.getShipment().getOriginPOI();
+        POI dest = item.getShipment().getDestPOI();
+        return origin != null && dest != null
+                && origin.getLatitude() != null && origin.getLongitude() != null
+                && dest.getLatitude() != null && dest.getLongitude() != null;
+    }
+
+    /** 与 DataInitializer.calculateHaversineDistance 相同的公式，保证锚点判断结果一致 */
+    static double haversine(double lat1, double lon1, double lat2, double lon2) {
+        double latDistance = Math.toRadians(lat2 - lat1);
+        double lonDistance = Math.toRadians(lon2 - lon1);
+
+        double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(lonDistance / 2) * Math.sin(lonDistance / 2);
+
+        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+
+        return EARTH_RADIUS_KM * c;
+    }
+}
@@ -128,6 +128,10 @@ public interface POIService {
      */
     POI.POIType convertPOIType(String frontendType);
 
+    /**
+     * 把 POI 主键的下一个值重置为 max(id)+1（表为空时为 1）；
+     * 进程内已缓存的 id 段不受影响，用完后才按新值分配
+     */
     void resetAutoIncrement();
     boolean isTableEmpty();
 }
\ No newline at end of file
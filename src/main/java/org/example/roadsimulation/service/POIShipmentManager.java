@@ -52,11 +52,11 @@ public interface POIShipmentManager {
     /** 根据起点POI获取终点POI */
     POI getDestination(POI source);
 
-    /** 根据POI配对Key获取运单 */
-    Shipment getShipment(POI source, POI dest);
+    /** 获取POI配对当前活跃运单的 id（只保存 id，实体由调用方按需加载） */
+    Long getShipmentId(POI source, POI dest);
 
-    /** 获取POI配对Key */
-    String getPairKey(POI source, POI dest);
+    /** 获取POI配对Key（见 PoiPairKey） */
+    long getPairKey(POI source, POI dest);
 
     /** 获取运单记录 */
     POIShipmentRecord getRecord(POI source, POI dest);
@@ -78,6 +78,12 @@ public interface POIShipmentManager {
      */
     List<POIShipmentRecord> sweepExpiredShipments(int timeoutMinutes);
 
+    /** 进程内累计超时清理的运单数（单调递增，reset 不清零） */
+    long getExpiredShipmentTotal();
+
+    /** 当前在超时队列中等待的运单数 */
+    int getPendingExpiryCount();
+
     // ========== 概率管理 ==========
 
     /** 衰减判断概率 */
@@ -0,0 +1,227 @@
+package org.example.roadsimulation.service;
+
+import org.example.roadsimulation.core.AfterCommit;
+import org.example.roadsimulation.entity.ProcessingChain;
+import org.example.roadsimulation.entity.Shipment;
+import org.example.roadsimulation.repository.ProcessingChainRepository;
+import org.example.roadsimulation.repository.ShipmentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Y 形加工链的常驻 DAG：前驱链 → 下游合并链，以及每个下游链的就绪计数
+ *
+ * 每个下游链记录"还没有任何完成运单的前驱链数"和"每个前驱链最近完成的运单"。
+ * 上游运单完成时只遍历其所在链的出边：计数减到 0 的下游链即可合并，取各前驱链最近完成的运单组成上游集合；
+ * 已创建过的合并运单按上游运单 id 建索引，查重只看包含本次完成运单的那几条。
+ *
+ * 冷启动、加工链增删、批量清理之后从数据库重建；事务回滚时整体丢弃（完成事件会随事务一起重放）。
+ */
+@Component
+public class ProcessingChainDag {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProcessingChainDag.class);
+
+    private final ProcessingChainRepository processingChainRepository;
+    private final ShipmentRepository shipmentRepository;
+
+    /** null 表示尚未加载或已失效；读写都在 this 上同步 */
+    private Graph graph;
+
+    public ProcessingChainDag(ProcessingChainRepository processingChainRepository,
+                              ShipmentRepository shipmentRepository) {
+        this.processingChainRepository = processingChainRepository;
+        this.shipmentRepository = shipmentRepository;
+    }
+
+    /**
+     * 登记一个上游运单完成，返回因此可以创建合并运单的下游链及其上游运单集合
+     *
+     * 代价 O(出度)；同一组上游运单已经合并过的下游链不会再次返回。
+     */
+    public synchronized List<MergeReady> onShipmentCompleted(long chainId, long shipmentId, LocalDateTime finishTime) {
+        Graph current = loaded();
+        discardOnRollback();
+
+        List<Downstream> successors = current.successors.get(chainId);
+        if (successors == null) {
+            return List.of();
+        }
+        List<MergeReady> ready = new ArrayList<>();
+        for (Downstream downstream : successors) {
+            downstream.complete(chainId, shipmentId, finishTime);
+            if (downstream.pending == 0) {
+                List<Long> upstreamIds = downstream.latestUpstreamIds();
+                if (!downstream.alreadyMerged(upstreamIds)) {
+                    ready.add(new MergeReady(downstream.chainId, upstreamIds));
+                }
+            }
+        }
+        return ready;
+    }
+
+    /** 登记一个已创建的合并运单（DAG 尚未加载时忽略，加载时会从数据库读到） */
+    public synchronized void recordMerge(long downstreamChainId, Collection<Long> upstreamShipmentIds) {
+        if (graph == null) {
+            return;
+        }
+        Downstream downstream = graph.downstreamById.get(downstreamChainId);
+        if (downstream != null) {
+            discardOnRollback();
+            downstream.recordMerge(upstreamShipmentIds);
+        }
+    }
+
+    /** 丢弃 DAG，下次使用时重建；在事务中调用时推迟到事务结束之后 */
+    public void invalidate() {
+        AfterCommit.afterCompletion(this::discard);
+    }
+
+    private synchronized void discard() {
+        graph = null;
+    }
+
+    private void discardOnRollback() {
+        AfterCommit.onRollback(this::discard);
+    }
+
+    private Graph loaded() {
+        if (graph == null) {
+            graph = loadFromDatabase();
+        }
+        return graph;
+    }
+
+    private Graph loadFromDatabase() {
+        Graph loaded = new Graph();
+        Set<Long> predecessorIds = new HashSet<>();
+        for (ProcessingChain chain : processingChainRepository.findAllMergeChains()) {
+            loaded.addChain(chain.getId(), chain.getPredecessorChainIds());
+            predecessorIds.addAll(chain.getPredecessorChainIds());
+        }
+        if (loaded.downstreamById.isEmpty()) {
+            return loaded;
+        }
+
+        List<Shipment> completed = shipmentRepository.findByProcessingChainIdInAndProcessingStatus(
+                new ArrayList<>(predecessorIds), Shipment.ProcessingStatus.COMPLETED);
+        for (Shipment shipment : completed) {
+            List<Downstream> successors = loaded.successors.get(shipment.getProcessingChain().getId());
+            if (successors != null) {
+                for (Downstream downstream : successors) {
+                    downstream.complete(shipment.getProcessingChain().getId(), shipment.getId(),
+                            shipment.getProcessingActualFinishTime());
+                }
+            }
+        }
+
+        int merges = 0;
+        for (Downstream downstream : loaded.downstreamById.values()) {
+            for (Shipment shipment : shipmentRepository.findByProcessingChainId(downstream.chainId)) {
+                if (shipment.isMergeShipment()) {
+                    downstream.recordMerge(shipment.getUpstreamShipmentIds());
+                    merges++;
+                }
+            }
+        }
+        logger.info("加载加工链 DAG：downstreamChains={}, completedUpstream={}, mergeShipments={}",
+                loaded.downstreamById.size(), completed.size(), merges);
+        return loaded;
+    }
+
+    /** 可以创建合并运单的下游链，upstreamShipmentIds 为各前驱链最近完成的运单 */
+    public record MergeReady(long downstreamChainId, List<Long> upstreamShipmentIds) {
+    }
+
+    private static final class Graph {
+        final Map<Long, List<Downstream>> successors = new HashMap<>();
+        final Map<Long, Downstream> downstreamById = new HashMap<>();
+
+        void addChain(long chainId, Set<Long> predecessorChainIds) {
+            Downstream downstream = new Downstream(chainId, predecessorChainIds);
+            downstreamById.put(chainId, downstream);
+            for (Long predecessorId : predecessorChainIds) {
+                successors.computeIfAbsent(predecessorId, k -> new ArrayList<>()).add(downstream);
+            }
+        }
+    }
+
+    private static final class Downstream {
+        final long chainId;
+        /** 前驱链 → 最近完成的运单（未完成过的前驱链为 null） */
+        final Map<Long, Completion> latestByPredecessor = new LinkedHashMap<>();
+        /** 还没有任何完成运单的前驱链数 */
+        int pending;
+        /** 上游运单 id → 包含它的已有合并运单的上游集合 */
+        final Map<Long, List<Set<Long>>> mergesByUpstream = new HashMap<>();
+
+        Downstream(long chainId, Set<Long> predecessorChainIds) {
+            this.chainId = chainId;
+            for (Long predecessorId : predecessorChainIds) {
+                latestByPredecessor.put(predecessorId, null);
+            }
+            this.pending = latestByPredecessor.size();
+        }
+
+        void complete(long predecessorId, long shipmentId, LocalDateTime finishTime) {
+            if (!latestByPredecessor.containsKey(predecessorId)) {
+                return;
+            }
+            LocalDateTime at = finishTime != null ? finishTime : LocalDateTime.MIN;
+            Completion latest = latestByPredecessor.get(predecessorId);
+            if (latest == null) {
+                pending--;
+            }
+            // 完成时间相同时保留先登记的运单，与原先按完成时间取最大值的结果一致
+            if (latest == null || at.isAfter(latest.finishTime())) {
+                latestByPredecessor.put(predecessorId, new Completion(shipmentId, at));
+            }
+        }
+
+        List<Long> latestUpstreamIds() {
+            List<Long> ids = new ArrayList<>(latestByPredecessor.size());
+            for (Completion completion : latestByPredecessor.values()) {
+                ids.add(completion.shipmentId());
+            }
+            return ids;
+        }
+
+        /** 是否已有合并运单的上游集合包含全部 upstreamIds */
+        boolean alreadyMerged(List<Long> upstreamIds) {
+            if (upstreamIds.isEmpty()) {
+                return false;
+            }
+            List<Set<Long>> candidates = mergesByUpstream.get(upstreamIds.get(0));
+            if (candidates == null) {
+                return false;
+            }
+            for (Set<Long> merged : candidates) {
+                if (merged.containsAll(upstreamIds)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void recordMerge(Collection<Long> upstreamShipmentIds) {
+            Set<Long> merged = Set.copyOf(upstreamShipmentIds);
+            for (Long upstreamId : merged) {
+                mergesByUpstream.computeIfAbsent(upstreamId, k -> new ArrayList<>()).add(merged);
+            }
+        }
+    }
+
+    private record Completion(long shipmentId, LocalDateTime finishTime) {
+    }
+}
@@ -84,10 +84,15 @@ public interface ProcessingChainServiceV2 {
     void cancelProcessing(Long shipmentId);
 
     /**
-     * 更新所有加工中运单的进度
+     * 推进加工进度：处理截至 simNow 已到期的工序完成事件
      */
     void updateProcessingProgress(LocalDateTime simNow, int minutesPerLoop);
 
+    /**
+     * 清空工序完成事件队列，下次推进时从数据库重新补登（仿真数据清理后调用）
+     */
+    void resetStageCompletionQueue();
+
     /**
      * 完成单个工序
      */
@@ -0,0 +1,57 @@
+package org.example.roadsimulation.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.roadsimulation.entity.Goods;
+import org.example.roadsimulation.entity.POI;
+import org.example.roadsimulation.entity.ProcessingChain;
+import org.example.roadsimulation.entity.ProcessingStage;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * 参考数据二级缓存失效入口
+ *
+ * POI、货物、加工链/工序在仿真运行期间几乎不变，已开启 Hibernate 二级缓存与查询缓存。
+ * 经 Hibernate 写入时缓存会自动维护；这里供 CRUD 控制器在修改后显式失效，
+ * 同时覆盖原生 SQL / 批量更新等绕过持久化上下文的修改。
+ */
+@Service
+public class ReferenceDataCacheService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReferenceDataCacheService.class);
+
+    private final Cache cache;
+
+    public ReferenceDataCacheService(EntityManagerFactory entityManagerFactory) {
+        this.cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+
+    public void evictPOIs() {
+        cache.evictEntityData(POI.class);
+        cache.evictQueryRegions();
+        logger.debug("已失效 POI 二级缓存与查询缓存");
+    }
+
+    public void evictGoods() {
+        cache.evictEntityData(Goods.class);
+        cache.evictQueryRegions();
+        logger.debug("已失效 Goods 二级缓存与查询缓存");
+    }
+
+    public void evictProcessingChains() {
+        cache.evictEntityData(ProcessingChain.class);
+        cache.evictEntityData(ProcessingStage.class);
+        cache.evictCollectionData(ProcessingChain.class.getName() + ".stages");
+        cache.evictCollectionData(ProcessingChain.class.getName() + ".predecessorChainIds");
+        cache.evictQueryRegions();
+        logger.debug("已失效加工链/工序二级缓存与查询缓存");
+    }
+
+    public void evictAll() {
+        cache.evictAllRegions();
+        logger.debug("已失效全部二级缓存区域");
+    }
+}
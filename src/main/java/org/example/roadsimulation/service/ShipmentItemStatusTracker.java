@@ -0,0 +1,124 @@
+package org.example.roadsimulation.service;
+
+import org.example.roadsimulation.core.AfterCommit;
+import org.example.roadsimulation.entity.ShipmentItem;
+import org.example.roadsimulation.repository.ShipmentItemRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 一组指定运单项（如对比实验当前策略的运单项）按状态的常驻计数
+ *
+ * {@link #track} 时查一次库取初始状态，之后的变化来自 {@link org.example.roadsimulation.persistence.ShipmentStateListener}，
+ * 读计数不再查库。事务内的变化经 {@link AfterCommit} 提交后才生效，回滚则丢弃。
+ * 所有运单项更新都会经过 {@link #itemUpdated}，是否在跟踪集合中先查一个不加锁的 id 快照。
+ * 批量删除（deleteAllInBatch）不经过实体回调，清空运行时数据后需重新 track 或 clear。
+ */
+@Component
+public class ShipmentItemStatusTracker {
+
+    private static final int SLOTS = ShipmentItem.ShipmentItemStatus.values().length + 1;
+
+    private final ShipmentItemRepository shipmentItemRepository;
+
+    /** 读写都在 this 上同步 */
+    private final Map<Long, ShipmentItem.ShipmentItemStatus> statusById = new HashMap<>();
+    private final int[] counts = new int[SLOTS];
+    /** 跟踪集合的 id 快照（不可变，track / clear 时替换），供监听器不加锁地过滤 */
+    private volatile Set<Long> trackedIds = Set.of();
+
+    private final AfterCommit.Sink<List<Change>> changes = new AfterCommit.Sink<>() {
+        @Override
+        public List<Change> newBuffer() {
+            return new ArrayList<>();
+        }
+
+        @Override
+        public void apply(List<Change> buffer) {
+            ShipmentItemStatusTracker.this.apply(buffer);
+        }
+    };
+
+    public ShipmentItemStatusTracker(ShipmentItemRepository shipmentItemRepository) {
+        this.shipmentItemRepository = shipmentItemRepository;
+    }
+
+    /** 改为跟踪给定运单项（替换之前的集合） */
+    public void track(Collection<Long> itemIds) {
+        List<ShipmentItem> items = itemIds.isEmpty() ? List.of() : shipmentItemRepository.findAllById(itemIds);
+        synchronized (this) {
+            clearInternal();
+            for (ShipmentItem item : items) {
+                statusById.put(item.getId(), item.getStatus());
+                counts[slot(item.getStatus())]++;
+            }
+            trackedIds = Set.copyOf(statusById.keySet());
+        }
+    }
+
+    public synchronized void clear() {
+        clearInternal();
+    }
+
+    public synchronized int trackedCount() {
+        return statusById.size();
+    }
+
+    public synchronized int count(ShipmentItem.ShipmentItemStatus status) {
+        return counts[slot(status)];
+    }
+
+    // ==================== 增量（由实体监听器调用） ====================
+
+    public void itemUpdated(Long itemId, ShipmentItem.ShipmentItemStatus status) {
+        if (itemId != null && trackedIds.contains(itemId)) {
+            Change change = new Change(itemId, status, false);
+            AfterCommit.record(changes, pending -> pending.add(change));
+        }
+    }
+
+    public void itemRemoved(Long itemId) {
+        if (itemId != null && trackedIds.contains(itemId)) {
+            Change change = new Change(itemId, null, true);
+            AfterCommit.record(changes, pending -> pending.add(change));
+        }
+    }
+
+    // ==================== 内部 ====================
+
+    private synchronized void apply(List<Change> buffer) {
+        for (Change change : buffer) {
+            // 事务期间集合可能已被 track / clear 替换，不在集合中的变化直接忽略
+            if (!statusById.containsKey(change.itemId())) {
+                continue;
+            }
+            counts[slot(statusById.get(change.itemId()))]--;
+            if (change.removed()) {
+                statusById.remove(change.itemId());
+            } else {
+                statusById.put(change.itemId(), change.status());
+                counts[slot(change.status())]++;
+            }
+        }
+    }
+
+    private void clearInternal() {
+        trackedIds = Set.of();
+        statusById.clear();
+        Arrays.fill(counts, 0);
+    }
+
+    private static int slot(ShipmentItem.ShipmentItemStatus status) {
+        return status == null ? 0 : status.ordinal() + 1;
+    }
+
+    private record Change(Long itemId, ShipmentItem.ShipmentItemStatus status, boolean removed) {
+    }
+}
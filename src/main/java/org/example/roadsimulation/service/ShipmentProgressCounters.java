@@ -0,0 +1,280 @@
+package org.example.roadsimulation.service;
+
+import org.example.roadsimulation.core.AfterCommit;
+import org.example.roadsimulation.entity.Shipment;
+import org.example.roadsimulation.entity.ShipmentItem;
+import org.example.roadsimulation.repository.ShipmentItemRepository;
+import org.example.roadsimulation.repository.ShipmentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Consumer;
+
+/**
+ * 运单 / 运单项按状态的常驻计数器（仪表板进度摘要用）
+ *
+ * 增量来自 {@link org.example.roadsimulation.persistence.ShipmentStateListener}：实体每次插入、状态 / 重量 / 体积变化、删除都会记一笔，
+ * 生命周期服务（TransportLifecycleService）中的状态流转以及其它直接改状态的路径都会经过它。
+ * 事务内的增量经 {@link AfterCommit} 攒到提交后才合入，回滚则丢弃。
+ *
+ * 冷启动、批量删除（deleteAllInBatch 绕过实体回调）之后以及计数超过 max-age 时，
+ * 用两条 GROUP BY status 聚合查询重建，全程不加载实体。聚合查询不持锁；查询开始时已有事务在提交、
+ * 或查询期间有事务提交 / 合入时，无法确定查询结果是否已包含这些增量，本次结果只返回、不装入。
+ */
+@Component
+public class ShipmentProgressCounters {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShipmentProgressCounters.class);
+
+    private static final int SHIPMENT_SLOTS = Shipment.ShipmentStatus.values().length + 1;
+    private static final int ITEM_SLOTS = ShipmentItem.ShipmentItemStatus.values().length + 1;
+
+    private final ShipmentRepository shipmentRepository;
+    private final ShipmentItemRepository shipmentItemRepository;
+    private final long maxAgeNanos;
+
+    /** null 表示尚未加载或已失效；以下字段读写都在 this 上同步 */
+    private Tally tally;
+    private long loadedAtNanos;
+    /** 每次有事务开始提交、增量合入或计数失效时递增 */
+    private long generation;
+    /** 已开始提交、增量尚未合入的事务数 */
+    private int committing;
+
+    private final AfterCommit.Sink<Tally> deltas = new AfterCommit.Sink<>() {
+        @Override
+        public Tally newBuffer() {
+            return new Tally();
+        }
+
+        @Override
+        public void apply(Tally delta) {
+            merge(delta);
+        }
+
+        @Override
+        public void commitStarted() {
+            ShipmentProgressCounters.this.commitStarted();
+        }
+
+        @Override
+        public void commitFinished(Tally committed) {
+            ShipmentProgressCounters.this.commitFinished(committed);
+        }
+    };
+
+    public ShipmentProgressCounters(ShipmentRepository shipmentRepository,
+                                    ShipmentItemRepository shipmentItemRepository,
+                                    @Value("${app.progress.counters.max-age-seconds:600}") long maxAgeSeconds) {
+        this.shipmentRepository = shipmentRepository;
+        this.shipmentItemRepository = shipmentItemRepository;
+        this.maxAgeNanos = maxAgeSeconds > 0 ? maxAgeSeconds * 1_000_000_000L : Long.MAX_VALUE;
+    }
+
+    /** 当前计数快照（必要时先用聚合查询重建） */
+    public ProgressCounts snapshot() {
+        long loadGeneration;
+        synchronized (this) {
+            if (tally != null && System.nanoTime() - loadedAtNanos < maxAgeNanos) {
+                return tally.toCounts();
+            }
+            loadGeneration = committing == 0 ? generation : -1;
+        }
+        Tally loaded = loadFromDatabase();
+        synchronized (this) {
+            if (loadGeneration == generation) {
+                tally = loaded;
+                loadedAtNanos = System.nanoTime();
+            }
+            return loaded.toCounts();
+        }
+    }
+
+    /** 丢弃计数，下次读取时重建；在事务中调用时推迟到提交之后 */
+    public void invalidate() {
+        AfterCommit.afterCompletion(this::discard);
+    }
+
+    // ==================== 增量（由实体监听器调用） ====================
+
+    public void shipmentInserted(Shipment.ShipmentStatus status) {
+        record(delta -> delta.shipments[slot(status)]++);
+    }
+
+    public void shipmentRemoved(Shipment.ShipmentStatus status) {
+        record(delta -> delta.shipments[slot(status)]--);
+    }
+
+    public void shipmentChanged(Shipment.ShipmentStatus from, Shipment.ShipmentStatus to) {
+        if (from != to) {
+            record(delta -> {
+                delta.shipments[slot(from)]--;
+                delta.shipments[slot(to)]++;
+            });
+        }
+    }
+
+    public void itemInserted(ShipmentItem.ShipmentItemStatus status, double weight, double volume) {
+        record(delta -> delta.addItem(status, 1, weight, volume));
+    }
+
+    public void itemRemoved(ShipmentItem.ShipmentItemStatus status, double weight, double volume) {
+        record(delta -> delta.addItem(status, -1, -weight, -volume));
+    }
+
+    public void itemChanged(ShipmentItem.ShipmentItemStatus fromStatus, double fromWeight, double fromVolume,
+                     ShipmentItem.ShipmentItemStatus toStatus, double toWeight, double toVolume) {
+        if (fromStatus != toStatus || fromWeight != toWeight || fromVolume != toVolume) {
+            record(delta -> {
+                delta.addItem(fromStatus, -1, -fromWeight, -fromVolume);
+                delta.addItem(toStatus, 1, toWeight, toVolume);
+            });
+        }
+    }
+
+    // ==================== 内部 ====================
+
+    private void record(Consumer<Tally> change) {
+        AfterCommit.record(deltas, change);
+    }
+
+    private synchronized void merge(Tally delta) {
+        generation++;
+        // 冷状态下不累加，下次读取时聚合查询自然包含这些变化
+        if (tally != null) {
+            tally.add(delta);
+        }
+    }
+
+    private synchronized void commitStarted() {
+        committing++;
+        generation++;
+    }
+
+    /** @param delta 已提交的增量，回滚时为 null */
+    private synchronized void commitFinished(Tally delta) {
+        committing--;
+        if (delta != null) {
+            merge(delta);
+        }
+    }
+
+    private synchronized void discard() {
+        generation++;
+        tally = null;
+    }
+
+    private Tally loadFromDatabase() {
+        Tally loaded = new Tally();
+        for (Object[] row : shipmentRepository.countGroupByStatus()) {
+            loaded.shipments[slot((Shipment.ShipmentStatus) row[0])] += ((Number) row[1]).longValue();
+        }
+        for (Object[] row : shipmentItemRepository.aggregateGroupByStatus()) {
+            loaded.addItem((ShipmentItem.ShipmentItemStatus) row[0], ((Number) row[1]).longValue(),
+                    ((Number) row[2]).doubleValue(), ((Number) row[3]).doubleValue());
+        }
+        logger.debug("运单进度计数器已从聚合查询重建");
+        return loaded;
+    }
+
+    private static int slot(Enum<?> status) {
+        return status == null ? 0 : status.ordinal() + 1;
+    }
+
+    /** 可变累加器，也用作事务内的增量 */
+    private static final class Tally {
+        final long[] shipments = new long[SHIPMENT_SLOTS];
+        final long[] items = new long[ITEM_SLOTS];
+        final double[] itemWeight = new double[ITEM_SLOTS];
+        final double[] itemVolume = new double[ITEM_SLOTS];
+
+        void addItem(ShipmentItem.ShipmentItemStatus status, long count, double weight, double volume) {
+            int slot = slot(status);
+            items[slot] += count;
+            itemWeight[slot] += weight;
+            itemVolume[slot] += volume;
+        }
+
+        void add(Tally other) {
+            for (int i = 0; i < SHIPMENT_SLOTS; i++) {
+                shipments[i] += other.shipments[i];
+            }
+            for (int i = 0; i < ITEM_SLOTS; i++) {
+                items[i] += other.items[i];
+                itemWeight[i] += other.itemWeight[i];
+                itemVolume[i] += other.itemVolume[i];
+            }
+        }
+
+        ProgressCounts toCounts() {
+            return new ProgressCounts(shipments.clone(), items.clone(), itemWeight.clone(), itemVolume.clone());
+        }
+    }
+
+    /**
+     * 不可变计数快照
+     */
+    public static final class ProgressCounts {
+        private final long[] shipments;
+        private final long[] items;
+        private final double[] itemWeight;
+        private final double[] itemVolume;
+
+        private ProgressCounts(long[] shipments, long[] items, double[] itemWeight, double[] itemVolume) {
+            this.shipments = shipments;
+            this.items = items;
+            this.itemWeight = itemWeight;
+            this.itemVolume = itemVolume;
+        }
+
+        public long shipments(Shipment.ShipmentStatus status) {
+            return shipments[slot(status)];
+        }
+
+        public long totalShipments() {
+            long total = 0;
+            for (long count : shipments) {
+                total += count;
+            }
+            return total;
+        }
+
+        public long items(ShipmentItem.ShipmentItemStatus status) {
+            return items[slot(status)];
+        }
+
+        public long totalItems() {
+            long total = 0;
+            for (long count : items) {
+                total += count;
+            }
+            return total;
+        }
+
+        public double itemWeight(ShipmentItem.ShipmentItemStatus status) {
+            return itemWeight[slot(status)];
+        }
+
+        public double totalItemWeight() {
+            double total = 0.0;
+            for (double weight : itemWeight) {
+                total += weight;
+            }
+            return total;
+        }
+
+        public double itemVolume(ShipmentItem.ShipmentItemStatus status) {
+            return itemVolume[slot(status)];
+        }
+
+        public double totalItemVolume() {
+            double total = 0.0;
+            for (double volume : itemVolume) {
+                total += volume;
+            }
+            return total;
+        }
+    }
+}
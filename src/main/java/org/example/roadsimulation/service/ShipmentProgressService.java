@@ -41,6 +41,17 @@ public class ShipmentProgressService {
     @Autowired
     private TransportLifecycleService transportLifecycleService;
 
+    @Autowired
+    private ShipmentProgressCounters progressCounters;
+
+    private static final List<Shipment.ShipmentStatus> ACTIVE_STATUSES = List.of(
+            Shipment.ShipmentStatus.PLANNED,
+            Shipment.ShipmentStatus.PICKED_UP,
+            Shipment.ShipmentStatus.IN_TRANSIT);
+
+    /** IN 子句分批大小 */
+    private static final int ID_BATCH_SIZE = 1000;
+
     /**
      * 获取活跃运单列表（包含进度概览）
      * 活跃运单：状态为PLANNED、PICKED_UP、IN_TRANSIT的运单
@@ -50,14 +61,16 @@ public class ShipmentProgressService {
         logger.info("获取活跃运单列表");
 
         try {
-            // 获取所有运单
-            List<Shipment> allShipments = shipmentRepository.findAll();
-
-            // 过滤活跃运单并转换为DTO
-            return allShipments.stream()
-                    .filter(shipment -> isActiveShipment(shipment))
-                    .map(this::convertToActiveShipmentSummaryDTO)
-                    .sorted(Comparator.comparing(ActiveShipmentSummaryDTO::getUpdatedAt).reversed())
+            // 按状态只取活跃运单（连同起终点POI），运单项进度用一条聚合查询按运单分组统计
+            List<Shipment> activeShipments = shipmentRepository.findByStatusInWithPois(ACTIVE_STATUSES);
+            Map<Long, long[]> itemCounts = countItemProgress(
+                    activeShipments.stream().map(Shipment::getId).toList());
+
+            return activeShipments.stream()
+                    .map(shipment -> convertToActiveShipmentSummaryDTO(
+                            shipment, itemCounts.getOrDefault(shipment.getId(), new long[2])))
+                    .sorted(Comparator.comparing(ActiveShipmentSummaryDTO::getUpdatedAt,
+                            Comparator.nullsFirst(Comparator.naturalOrder())).reversed())
                     .collect(Collectors.toList());
 
         } catch (Exception e) {
@@ -67,13 +80,18 @@ public class ShipmentProgressService {
     }
 
     /**
-     * 检查是否为活跃运单
+     * 按运单分组统计运单项：shipmentId → [有效项数, 已送达项数]
      */
-    private boolean isActiveShipment(Shipment shipment) {
-        Shipment.ShipmentStatus status = shipment.getStatus();
-        return status == Shipment.ShipmentStatus.PLANNED ||
-                status == Shipment.ShipmentStatus.PICKED_UP ||
-                status == Shipment.ShipmentStatus.IN_TRANSIT;
+    private Map<Long, long[]> countItemProgress(List<Long> shipmentIds) {
+        Map<Long, long[]> counts = new HashMap<>();
+        for (int from = 0; from < shipmentIds.size(); from += ID_BATCH_SIZE) {
+            List<Long> batch = shipmentIds.subList(from, Math.min(shipmentIds.size(), from + ID_BATCH_SIZE));
+            for (Object[] row : shipmentItemRepository.countProgressByShipmentIds(batch,
+                    ShipmentItem.ShipmentItemStatus.CANCELLED, ShipmentItem.ShipmentItemStatus.DELIVERED)) {
+                counts.put((Long) row[0], new long[]{((Number) row[1]).longValue(), ((Number) row[2]).longValue()});
+            }
+        }
+        return counts;
     }
 
     /**
@@ -92,7 +110,8 @@ public class ShipmentProgressService {
             List<ShipmentItem> shipmentItems = shipmentItemRepository.findByShipmentId(shipmentId);
 
             // 转换为进度DTO
-            ShipmentProgressDTO progressDTO = convertToShipmentProgressDTO(shipment, shipmentItems);
+            ShipmentProgressDTO progressDTO = convertToShipmentProgressDTO(
+                    shipment, shipmentItems, briefsById(assignmentIdsOf(shipmentItems)));
 
             logger.info("运单进度信息获取成功，运单ID: {}, 进度: {}%",
                     shipmentId, progressDTO.getProgressPercentage());
@@ -113,13 +132,32 @@ public class ShipmentProgressService {
         logger.info("批量获取运单进度信息，运单数量: {}", shipmentIds.size());
 
         List<ShipmentProgressDTO> result = new ArrayList<>();
-
-        for (Long shipmentId : shipmentIds) {
-            try {
-                ShipmentProgressDTO progress = getShipmentProgress(shipmentId);
-                result.add(progress);
-            } catch (Exception e) {
-                logger.warn("获取运单进度失败，运单ID: {}", shipmentId, e);
+        List<Long> distinctIds = shipmentIds.stream().filter(Objects::nonNull).distinct().toList();
+
+        for (int from = 0; from < distinctIds.size(); from += ID_BATCH_SIZE) {
+            List<Long> batch = distinctIds.subList(from, Math.min(distinctIds.size(), from + ID_BATCH_SIZE));
+
+            // 每批三条查询：运单（含POI）、运单项（含任务与车辆）、任务简要信息
+            Map<Long, Shipment> shipments = shipmentRepository.findByIdInWithPois(batch).stream()
+                    .collect(Collectors.toMap(Shipment::getId, shipment -> shipment));
+            Map<Long, List<ShipmentItem>> itemsByShipment = shipmentItemRepository
+                    .findByShipmentIdInWithAssignment(batch).stream()
+                    .collect(Collectors.groupingBy(item -> item.getShipment().getId()));
+            Map<Long, AssignmentBriefDTO> briefs = briefsById(assignmentIdsOf(
+                    itemsByShipment.values().stream().flatMap(List::stream).toList()));
+
+            for (Long shipmentId : batch) {
+                Shipment shipment = shipments.get(shipmentId);
+                if (shipment == null) {
+                    logger.warn("获取运单进度失败，运单不存在，ID: {}", shipmentId);
+                    continue;
+                }
+                try {
+                    result.add(convertToShipmentProgressDTO(
+                            shipment, itemsByShipment.getOrDefault(shipmentId, List.of()), briefs));
+                } catch (Exception e) {
+                    logger.warn("获取运单进度失败，运单ID: {}", shipmentId, e);
+                }
             }
         }
 
@@ -182,7 +220,7 @@ public class ShipmentProgressService {
     /**
      * 将Shipment转换为ActiveShipmentSummaryDTO
      */
-    private ActiveShipmentSummaryDTO convertToActiveShipmentSummaryDTO(Shipment shipment) {
+    private ActiveShipmentSummaryDTO convertToActiveShipmentSummaryDTO(Shipment shipment, long[] itemCounts) {
         ActiveShipmentSummaryDTO dto = new ActiveShipmentSummaryDTO();
 
         // 基本信息
@@ -205,16 +243,9 @@ public class ShipmentProgressService {
         dto.setUpdatedAt(shipment.getUpdatedAt());
         dto.setLatestActivityTime(shipment.getUpdatedAt());
 
-        // 计算进度
-        List<ShipmentItem> items = shipmentItemRepository.findByShipmentId(shipment.getId());
-        int totalItems = countEffectiveItems(items);
-        int completedItems = 0;
-
-        for (ShipmentItem item : items) {
-            if (isCompletedItem(item)) {
-                completedItems++;
-            }
-        }
+        // 计算进度（itemCounts = [有效项数, 已送达项数]）
+        int totalItems = (int) itemCounts[0];
+        int completedItems = (int) itemCounts[1];
 
         dto.setTotalItems(totalItems);
         dto.setCompletedItems(completedItems);
@@ -231,7 +262,8 @@ public class ShipmentProgressService {
     /**
      * 将Shipment转换为ShipmentProgressDTO
      */
-    private ShipmentProgressDTO convertToShipmentProgressDTO(Shipment shipment, List<ShipmentItem> shipmentItems) {
+    private ShipmentProgressDTO convertToShipmentProgressDTO(Shipment shipment, List<ShipmentItem> shipmentItems,
+                                                             Map<Long, AssignmentBriefDTO> briefsById) {
         ShipmentProgressDTO dto = new ShipmentProgressDTO();
 
         // 基本信息
@@ -295,34 +327,40 @@ public class ShipmentProgressService {
         // 计算百分比
         dto.calculateProgress();
 
-        // 获取关联的Assignments和Vehicles
-        Set<Long> assignmentIds = new HashSet<>();
-        Set<Long> vehicleIds = new HashSet<>();
+        // 关联的Assignment简要信息（由调用方批量查询后传入）
+        List<AssignmentBriefDTO> assignmentBriefs = assignmentIdsOf(shipmentItems).stream()
+                .map(briefsById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        if (!assignmentBriefs.isEmpty()) {
+            dto.setAssignments(assignmentBriefs);
+        }
 
+        return dto;
+    }
+
+    private Set<Long> assignmentIdsOf(List<ShipmentItem> shipmentItems) {
+        Set<Long> assignmentIds = new LinkedHashSet<>();
         for (ShipmentItem item : shipmentItems) {
             if (item.getAssignment() != null) {
                 assignmentIds.add(item.getAssignment().getId());
-
-                Assignment assignment = item.getAssignment();
-                if (assignment.getAssignedVehicle() != null) {
-                    vehicleIds.add(assignment.getAssignedVehicle().getId());
-                }
             }
         }
+        return assignmentIds;
+    }
 
-        // 获取Assignment简要信息
-        if (!assignmentIds.isEmpty()) {
-            try {
-                List<AssignmentBriefDTO> assignmentBriefs = assignmentService.getAssignmentBriefsByIds(
-                        new ArrayList<>(assignmentIds)
-                );
-                dto.setAssignments(assignmentBriefs);
-            } catch (Exception e) {
-                logger.warn("获取Assignment简要信息失败", e);
-            }
+    /** 一次查询取回全部任务简要信息，按任务 id 索引 */
+    private Map<Long, AssignmentBriefDTO> briefsById(Set<Long> assignmentIds) {
+        if (assignmentIds.isEmpty()) {
+            return Map.of();
+        }
+        try {
+            return assignmentService.getAssignmentBriefsByIds(new ArrayList<>(assignmentIds)).stream()
+                    .collect(Collectors.toMap(AssignmentBriefDTO::getAssignmentId, brief -> brief, (a, b) -> a));
+        } catch (Exception e) {
+            logger.warn("获取Assignment简要信息失败", e);
+            return Map.of();
         }
-
-        return dto;
     }
 
     /**
@@ -390,61 +428,33 @@ public class ShipmentProgressService {
         Map<String, Object> summary = new HashMap<>();
 
         try {
-            // 获取所有运单
-            List<Shipment> allShipments = shipmentRepository.findAll();
-            List<ShipmentItem> allItems = shipmentItemRepository.findAll();
+            // 常驻计数器（状态流转时维护，冷启动用 GROUP BY 聚合查询重建），不加载实体
+            ShipmentProgressCounters.ProgressCounts counts = progressCounters.snapshot();
 
             // 统计运单状态
-            long totalShipments = allShipments.size();
-            long createdShipments = allShipments.stream()
-                    .filter(s -> s.getStatus() == Shipment.ShipmentStatus.CREATED)
-                    .count();
-            long plannedShipments = allShipments.stream()
-                    .filter(s -> s.getStatus() == Shipment.ShipmentStatus.PLANNED)
-                    .count();
-            long inTransitShipments = allShipments.stream()
-                    .filter(s -> s.getStatus() == Shipment.ShipmentStatus.IN_TRANSIT)
-                    .count();
-            long deliveredShipments = allShipments.stream()
-                    .filter(s -> s.getStatus() == Shipment.ShipmentStatus.DELIVERED)
-                    .count();
+            long totalShipments = counts.totalShipments();
+            long createdShipments = counts.shipments(Shipment.ShipmentStatus.CREATED);
+            long plannedShipments = counts.shipments(Shipment.ShipmentStatus.PLANNED);
+            long inTransitShipments = counts.shipments(Shipment.ShipmentStatus.IN_TRANSIT);
+            long deliveredShipments = counts.shipments(Shipment.ShipmentStatus.DELIVERED);
 
             // 统计运单项状态
-            long totalItems = allItems.size();
-            long notAssignedItems = allItems.stream()
-                    .filter(item -> item.getStatus() == ShipmentItem.ShipmentItemStatus.NOT_ASSIGNED)
-                    .count();
-            long assignedItems = allItems.stream()
-                    .filter(item -> item.getStatus() == ShipmentItem.ShipmentItemStatus.ASSIGNED
-                            || item.getStatus() == ShipmentItem.ShipmentItemStatus.LOADED)
-                    .count();
-            long inProgressItems = allItems.stream()
-                    .filter(item -> item.getStatus() == ShipmentItem.ShipmentItemStatus.IN_TRANSIT)
-                    .count();
-            long completedItems = allItems.stream()
-                    .filter(item -> item.getStatus() == ShipmentItem.ShipmentItemStatus.DELIVERED)
-                    .count();
+            long totalItems = counts.totalItems();
+            long notAssignedItems = counts.items(ShipmentItem.ShipmentItemStatus.NOT_ASSIGNED);
+            long assignedItems = counts.items(ShipmentItem.ShipmentItemStatus.ASSIGNED)
+                    + counts.items(ShipmentItem.ShipmentItemStatus.LOADED);
+            long inProgressItems = counts.items(ShipmentItem.ShipmentItemStatus.IN_TRANSIT);
+            long completedItems = counts.items(ShipmentItem.ShipmentItemStatus.DELIVERED);
 
             // 计算总进度
             double overallProgress = totalItems > 0 ?
                     (double) completedItems / totalItems * 100 : 0;
 
             // 统计总重量和体积
-            double totalWeight = allItems.stream()
-                    .mapToDouble(item -> item.getWeight() != null ? item.getWeight() : 0)
-                    .sum();
-            double totalVolume = allItems.stream()
-                    .mapToDouble(item -> item.getVolume() != null ? item.getVolume() : 0)
-                    .sum();
-
-            double completedWeight = allItems.stream()
-                    .filter(this::isCompletedItem)
-                    .mapToDouble(item -> item.getWeight() != null ? item.getWeight() : 0)
-                    .sum();
-            double completedVolume = allItems.stream()
-                    .filter(this::isCompletedItem)
-                    .mapToDouble(item -> item.getVolume() != null ? item.getVolume() : 0)
-                    .sum();
+            double totalWeight = counts.totalItemWeight();
+            double totalVolume = counts.totalItemVolume();
+            double completedWeight = counts.itemWeight(ShipmentItem.ShipmentItemStatus.DELIVERED);
+            double completedVolume = counts.itemVolume(ShipmentItem.ShipmentItemStatus.DELIVERED);
 
             // 填充摘要信息
             summary.put("totalShipments", totalShipments);
@@ -1,5 +1,7 @@
 package org.example.roadsimulation.service;
 
+import org.example.roadsimulation.config.SimulationRuntimeConfig;
+import org.example.roadsimulation.core.eventlog.SimulationEventLog;
 import org.example.roadsimulation.entity.Assignment;
 import org.example.roadsimulation.entity.AssignmentNode;
 import org.example.roadsimulation.entity.POI;
@@ -32,17 +34,26 @@ public class TransportLifecycleService {
     private final ShipmentItemRepository shipmentItemRepository;
     private final AssignmentRepository assignmentRepository;
     private final VehicleRepository vehicleRepository;
+    private final SimulationEventLog simulationEventLog;
+    private final VehicleStatusTransitions vehicleStatusTransitions;
+    private final SimulationRuntimeConfig simulationRuntimeConfig;
 
     public TransportLifecycleService(
             ShipmentRepository shipmentRepository,
             ShipmentItemRepository shipmentItemRepository,
             AssignmentRepository assignmentRepository,
-            VehicleRepository vehicleRepository
+            VehicleRepository vehicleRepository,
+            SimulationEventLog simulationEventLog,
+            VehicleStatusTransitions vehicleStatusTransitions,
+            SimulationRuntimeConfig simulationRuntimeConfig
     ) {
         this.shipmentRepository = shipmentRepository;
         this.shipmentItemRepository = shipmentItemRepository;
         this.assignmentRepository = assignmentRepository;
         this.vehicleRepository = vehicleRepository;
+        this.simulationEventLog = simulationEventLog;
+        this.vehicleStatusTransitions = vehicleStatusTransitions;
+        this.simulationRuntimeConfig = simulationRuntimeConfig;
     }
 
     public record LoadingCompletionResult(
@@ -77,6 +88,9 @@ public class TransportLifecycleService {
         assignment.setUpdatedTime(LocalDateTime.now());
 
         Set<Shipment> touchedShipments = new LinkedHashSet<>();
+        int assignedItems = 0;
+        double assignedWeight = 0.0;
+        double assignedVolume = 0.0;
         for (ShipmentItem item : getAssignmentItems(assignment)) {
             if (item == null || isTerminalItem(item)) {
                 continue;
@@ -86,11 +100,15 @@ public class TransportLifecycleService {
             item.setUpdatedBy(actor);
             item.setUpdatedTime(LocalDateTime.now());
             shipmentItemRepository.save(item);
+            assignedItems++;
+            assignedWeight += safe(item.getWeight());
+            assignedVolume += safe(item.getVolume());
             if (item.getShipment() != null) {
                 touchedShipments.add(item.getShipment());
             }
         }
 
+        Vehicle.VehicleStatus previousStatus = managedVehicle != null ? managedVehicle.getCurrentStatus() : null;
         if (managedVehicle != null) {
             managedVehicle.addAssignment(assignment);
             managedVehicle.transitionToStatus(
@@ -107,6 +125,14 @@ public class TransportLifecycleService {
 
         Assignment saved = assignmentRepository.save(assignment);
         refreshShipments(touchedShipments);
+
+        Long vehicleId = managedVehicle != null ? managedVehicle.getId() : null;
+        simulationEventLog.recordDispatchDecision(now, vehicleId, saved.getId(),
+                simulationRuntimeConfig.getDispatchStrategy(), assignedItems, assignedWeight, assignedVolume);
+        if (managedVehicle != null) {
+            simulationEventLog.recordVehicleTransition(now, vehicleId, saved.getId(), previousStatus,
+                    Vehicle.VehicleStatus.ORDER_DRIVING, FRONTEND_ORDER_DRIVING_WINDOW.toMinutes());
+        }
         return saved;
     }
 
@@ -194,7 +220,8 @@ public class TransportLifecycleService {
 
         managedVehicle = resolveVehicle(managedVehicle, assignment);
         if (managedVehicle != null && shouldMarkTransportDriving(managedVehicle)) {
-            managedVehicle.transitionToStatus(Vehicle.VehicleStatus.TRANSPORT_DRIVING, now, Duration.ofMinutes(30));
+            vehicleStatusTransitions.transition(managedVehicle, assignment.getId(),
+                    Vehicle.VehicleStatus.TRANSPORT_DRIVING, now, Duration.ofMinutes(30));
             managedVehicle.setUpdatedBy(effectiveActor);
             managedVehicle.setUpdatedTime(LocalDateTime.now());
             vehicleRepository.save(managedVehicle);
@@ -338,7 +365,8 @@ public class TransportLifecycleService {
 
         Vehicle managedVehicle = resolveVehicle(vehicle, assignment);
         if (managedVehicle != null) {
-            managedVehicle.transitionToStatus(Vehicle.VehicleStatus.IDLE, now, Duration.ZERO);
+            vehicleStatusTransitions.transition(managedVehicle, assignment.getId(),
+                    Vehicle.VehicleStatus.IDLE, now, Duration.ZERO);
             if (endPOI != null) {
                 managedVehicle.setCurrentPOI(endPOI);
                 managedVehicle.setCurrentLongitude(endPOI.getLongitude());
@@ -383,7 +411,8 @@ public class TransportLifecycleService {
             if (assignment != null) {
                 managedVehicle.removeAssignment(assignment);
             }
-            managedVehicle.transitionToStatus(Vehicle.VehicleStatus.IDLE, resolveTime(null), Duration.ZERO);
+            vehicleStatusTransitions.transition(managedVehicle, assignment != null ? assignment.getId() : null,
+                    Vehicle.VehicleStatus.IDLE, resolveTime(null), Duration.ZERO);
             managedVehicle.setCurrentLoad(0.0);
             managedVehicle.setCurrentVolumn(0.0);
             managedVehicle.setUpdatedBy("Route planning rollback");
@@ -432,7 +461,7 @@ public class TransportLifecycleService {
         Vehicle vehicle = resolveVehicle(null, assignment);
         if (vehicle != null) {
             vehicle.removeAssignment(assignment);
-            vehicle.transitionToStatus(Vehicle.VehicleStatus.IDLE, now, Duration.ZERO);
+            vehicleStatusTransitions.transition(vehicle, assignment.getId(), Vehicle.VehicleStatus.IDLE, now, Duration.ZERO);
             vehicle.setCurrentLoad(0.0);
             vehicle.setCurrentVolumn(0.0);
             vehicle.setUpdatedBy(actor);
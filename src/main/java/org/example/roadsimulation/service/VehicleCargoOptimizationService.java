@@ -1,5 +1,6 @@
 package org.example.roadsimulation.service;
 
+import org.example.roadsimulation.core.SimulationRandom;
 import org.example.roadsimulation.dto.OptimizationResultDTO;
 import org.example.roadsimulation.entity.ShipmentItem;
 import org.example.roadsimulation.entity.Vehicle;
@@ -45,11 +46,14 @@ public class VehicleCargoOptimizationService {
     @Autowired
     private SimulatedAnnealingOptimizer saOptimizer;
 
+    @Autowired
+    private SimulationRandom simulationRandom;
+
     /**
      * 执行优化主入口
      *
      * @param algorithm "GA" | "SA" | "BOTH"
-     * @param seed      随机种子（-1 表示使用当前时间戳）
+     * @param seed      随机种子（-1 表示从仿真运行种子派生）
      * @return 各算法的优化结果列表（BOTH模式返回2条）
      */
     public List<OptimizationResultDTO> runOptimization(String algorithm, long seed) {
@@ -72,7 +76,7 @@ public class VehicleCargoOptimizationService {
 
         log.info("[Optimizer] 数据加载完成：{}辆IDLE车辆, {}条待分配货物明细", vehicles.size(), items.size());
 
-        long actualSeed = seed < 0 ? System.currentTimeMillis() : seed;
+        long actualSeed = seed < 0 ? simulationRandom.nextSeed("cargo-optimization") : seed;
 
         // ── 2. 按算法分支执行 ─────────────────────────────────────────
         List<OptimizationResultDTO> results = new ArrayList<>();
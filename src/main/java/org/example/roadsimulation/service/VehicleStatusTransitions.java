@@ -0,0 +1,41 @@
+package org.example.roadsimulation.service;
+
+import org.example.roadsimulation.core.eventlog.SimulationEventLog;
+import org.example.roadsimulation.entity.Vehicle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * 车辆状态转移的统一入口：修改实体状态，并在状态变化时追加到仿真事件日志
+ *
+ * 已存在车辆的状态变化都应经过这里（而不是直接调用 {@link Vehicle#transitionToStatus}），
+ * 事件日志才能作为完整的审计 / 回放来源。状态不变时只刷新驻留窗口，不记事件。
+ */
+@Component
+public class VehicleStatusTransitions {
+
+    private final SimulationEventLog simulationEventLog;
+
+    public VehicleStatusTransitions(SimulationEventLog simulationEventLog) {
+        this.simulationEventLog = simulationEventLog;
+    }
+
+    /**
+     * @param assignmentId 触发本次转移的任务单，无则为 null
+     * @param startTime    状态起点（为 null 时取当前时间，与 transitionToStatus 一致）
+     */
+    public void transition(Vehicle vehicle, Long assignmentId, Vehicle.VehicleStatus next,
+                           LocalDateTime startTime, Duration stay) {
+        if (vehicle == null || next == null) {
+            return;
+        }
+        Vehicle.VehicleStatus previous = vehicle.getCurrentStatus();
+        vehicle.transitionToStatus(next, startTime, stay);
+        if (previous != next) {
+            simulationEventLog.recordVehicleTransition(vehicle.getStatusStartTime(), vehicle.getId(), assignmentId,
+                    previous, next, vehicle.getStatusDuration().toMinutes());
+        }
+    }
+}
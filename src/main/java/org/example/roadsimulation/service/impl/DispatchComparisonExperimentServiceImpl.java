@@ -8,6 +8,8 @@ import org.example.roadsimulation.config.DispatchStrategy;
 import org.example.roadsimulation.config.SimulationRuntimeConfig;
 import org.example.roadsimulation.core.SimulationContext;
 import org.example.roadsimulation.core.SimulationModeGuard;
+import org.example.roadsimulation.core.SimulationRandom;
+import org.example.roadsimulation.core.eventlog.SimulationEventLog;
 import org.example.roadsimulation.dto.DispatchComparisonOptionsDTO;
 import org.example.roadsimulation.dto.DispatchComparisonPrepareRequest;
 import org.example.roadsimulation.dto.DispatchComparisonScenarioDTO;
@@ -24,7 +26,6 @@ import org.example.roadsimulation.entity.DispatchComparisonExperimentRun;
 import org.example.roadsimulation.entity.DispatchComparisonExperimentRun.RunStatus;
 import org.example.roadsimulation.entity.DispatchComparisonStrategyRun;
 import org.example.roadsimulation.entity.DispatchComparisonStrategyRun.StrategyRunStatus;
-import org.example.roadsimulation.entity.Enrollment;
 import org.example.roadsimulation.entity.Goods;
 import org.example.roadsimulation.entity.POI;
 import org.example.roadsimulation.entity.Route;
@@ -37,18 +38,19 @@ import org.example.roadsimulation.repository.AssignmentRepository;
 import org.example.roadsimulation.repository.DispatchComparisonCostSnapshotRepository;
 import org.example.roadsimulation.repository.DispatchComparisonExperimentRunRepository;
 import org.example.roadsimulation.repository.DispatchComparisonStrategyRunRepository;
-import org.example.roadsimulation.repository.EnrollmentRepository;
 import org.example.roadsimulation.repository.GoodsRepository;
 import org.example.roadsimulation.repository.POIRepository;
 import org.example.roadsimulation.repository.ShipmentItemRepository;
 import org.example.roadsimulation.repository.ShipmentRepository;
 import org.example.roadsimulation.repository.VehicleRepository;
 import org.example.roadsimulation.service.CostBaselineNormalizationService;
-import org.example.roadsimulation.service.CostBaselineNormalizationService.ExperimentRunNormalizationResult;
 import org.example.roadsimulation.service.DispatchComparisonExperimentService;
+import org.example.roadsimulation.service.DispatchComparisonScenarioSupport;
+import org.example.roadsimulation.service.DispatchComparisonScenarioSupport.ShipmentTemplate;
 import org.example.roadsimulation.service.GaodeRoutePlanningQueueService;
 import org.example.roadsimulation.service.GetCostService;
 import org.example.roadsimulation.service.POIShipmentManager;
+import org.example.roadsimulation.service.ShipmentItemStatusTracker;
 import org.example.roadsimulation.service.VehicleInitializationService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -58,16 +60,13 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
-import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Objects;
+import java.util.Random;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
@@ -78,7 +77,6 @@ public class DispatchComparisonExperimentServiceImpl implements DispatchComparis
 
     private static final Logger log = LoggerFactory.getLogger(DispatchComparisonExperimentServiceImpl.class);
 
-    private static final int MAX_EXPERIMENT_SHIPMENTS = 20;
     private static final int MAX_VISUAL_RUN_LOOPS = 360;
     private static final String FIXED_PLACEMENT_POLICY = "VEHICLE_ID_AND_INITIAL_POI_ID_ROUND_ROBIN";
 
@@ -96,7 +94,6 @@ public class DispatchComparisonExperimentServiceImpl implements DispatchComparis
     private final AssignmentRepository assignmentRepository;
     private final AssignmentNodeRepository assignmentNodeRepository;
     private final AssignmentLegRepository assignmentLegRepository;
-    private final EnrollmentRepository enrollmentRepository;
     private final DispatchComparisonExperimentRunRepository experimentRunRepository;
     private final DispatchComparisonStrategyRunRepository strategyRunRepository;
     private final DispatchComparisonCostSnapshotRepository costSnapshotRepository;
@@ -110,11 +107,18 @@ public class DispatchComparisonExperimentServiceImpl implements DispatchComparis
     private final CostBaselineNormalizationService costBaselineNormalizationService;
     private final GaodeRoutePlanningQueueService routePlanningQueueService;
     private final TransactionTemplate transactionTemplate;
+    private final SimulationEventLog simulationEventLog;
+    private final DispatchComparisonScenarioSupport scenarioSupport;
+    private final DispatchComparisonSnapshotWriter snapshotWriter;
+    private final ShipmentItemStatusTracker itemStatusTracker;
+    private final SimulationRandom simulationRandom;
 
     private volatile DispatchComparisonScenarioDTO currentScenario;
     private volatile Long activeRunId;
     private volatile Long activeStrategyRunId;
     private volatile List<Long> activeStrategyShipmentItemIds = List.of();
+    /** 本次实验的运行种子：两个策略都从同一种子开始，随机序列一致 */
+    private volatile long activeRunSeed;
     private final Set<Long> visualArrivedAssignmentIds = ConcurrentHashMap.newKeySet();
 
     public DispatchComparisonExperimentServiceImpl(
@@ -129,7 +133,6 @@ public class DispatchComparisonExperimentServiceImpl implements DispatchComparis
             AssignmentRepository assignmentRepository,
             AssignmentNodeRepository assignmentNodeRepository,
             AssignmentLegRepository assignmentLegRepository,
-            EnrollmentRepository enrollmentRepository,
             DispatchComparisonExperimentRunRepository experimentRunRepository,
             DispatchComparisonStrategyRunRepository strategyRunRepository,
             DispatchComparisonCostSnapshotRepository costSnapshotRepository,
@@ -142,7 +145,12 @@ public class DispatchComparisonExperimentServiceImpl implements DispatchComparis
             GetCostService getCostService,
             CostBaselineNormalizationService costBaselineNormalizationService,
             GaodeRoutePlanningQueueService routePlanningQueueService,
-            TransactionTemplate transactionTemplate
+            TransactionTemplate transactionTemplate,
+            SimulationEventLog simulationEventLog,
+            DispatchComparisonScenarioSupport scenarioSupport,
+            DispatchComparisonSnapshotWriter snapshotWriter,
+            ShipmentItemStatusTracker itemStatusTracker,
+            SimulationRandom simulationRandom
     ) {
         this.simulationContext = simulationContext;
         this.simulationModeGuard = simulationModeGuard;
@@ -155,7 +163,6 @@ public class DispatchComparisonExperimentServiceImpl implements DispatchComparis
         this.assignmentRepository = assignmentRepository;
         this.assignmentNodeRepository = assignmentNodeRepository;
         this.assignmentLegRepository = assignmentLegRepository;
-        this.enrollmentRepository = enrollmentRepository;
         this.experimentRunRepository = experimentRunRepository;
         this.strategyRunRepository = strategyRunRepository;
         this.costSnapshotRepository = costSnapshotRepository;
@@ -169,6 +176,11 @@ public class DispatchComparisonExperimentServiceImpl implements DispatchComparis
         this.costBaselineNormalizationService = costBaselineNormalizationService;
         this.routePlanningQueueService = routePlanningQueueService;
         this.transactionTemplate = transactionTemplate;
+        this.simulationEventLog = simulationEventLog;
+        this.scenarioSupport = scenarioSupport;
+        this.snapshotWriter = snapshotWriter;
+        this.itemStatusTracker = itemStatusTracker;
+        this.simulationRandom = simulationRandom;
     }
 
     @Override
@@ -192,7 +204,7 @@ public class DispatchComparisonExperimentServiceImpl implements DispatchComparis
             options.getVehicles().add(option);
         }
 
-        options.setCandidateInitialPoiCount(getFixedInitialPoiCandidates().size());
+        options.setCandidateInitialPoiCount(scenarioSupport.fixedInitialPoiCandidates().size());
         options.setPlacementPolicy(FIXED_PLACEMENT_POLICY);
         return options;
     }
@@ -205,7 +217,7 @@ public class DispatchComparisonExperimentServiceImpl implements DispatchComparis
         List<Vehicle> allVehicles = vehicleRepository.findAll().stream()
                 .sorted(Comparator.comparing(Vehicle::getId))
                 .toList();
-        List<POI> initialPoiCandidates = getFixedInitialPoiCandidates();
+        List<POI> initialPoiCandidates = scenarioSupport.fixedInitialPoiCandidates();
 
         DispatchComparisonScenarioDTO scenario = new DispatchComparisonScenarioDTO();
         scenario.setExperimentId(buildExperimentId());
@@ -220,12 +232,14 @@ public class DispatchComparisonExperimentServiceImpl implements DispatchComparis
             Vehicle resetVehicle = vehicleInitializationService.resetVehicleToPOI(vehicle.getId(), poi.getId());
             resetVehicle.setCurrentVolumn(0.0);
             vehicleRepository.save(resetVehicle);
-            scenario.getVehicleInitialPositions().add(toVehicleSummary(resetVehicle, poi));
+            scenario.getVehicleInitialPositions().add(scenarioSupport.vehicleSummary(resetVehicle, poi));
         }
 
-        List<ExperimentShipmentTemplate> selectedTemplates = selectTemplates(request.getShipmentCount());
+        List<ShipmentTemplate> selectedTemplates =
+                scenarioSupport.selectTemplates(
+                        request.getShipmentCount(), new Random(simulationRandom.nextSeed("experiment-scenario")));
         int index = 0;
-        for (ExperimentShipmentTemplate template : selectedTemplates) {
+        for (ShipmentTemplate template : selectedTemplates) {
             scenario.getShipments().add(createShipmentFromTemplate(scenario.getExperimentId(), index++, template));
         }
 
@@ -274,6 +288,7 @@ public class DispatchComparisonExperimentServiceImpl implements DispatchComparis
             });
 
             activeRunId = run.getId();
+            activeRunSeed = simulationRandom.startRun();
             simulationModeGuard.markDispatchComparisonExperimentActive();
             prepareStrategyRun(run, DispatchStrategy.ORIGINAL);
             return getVisualRunStatus();
@@ -286,6 +301,7 @@ public class DispatchComparisonExperimentServiceImpl implements DispatchComparis
     public DispatchComparisonVisualRunStatusDTO pauseVisualRun() {
         visualRunLock.lock();
         try {
+            snapshotWriter.flush();
             DispatchComparisonExperimentRun run = activeRunOrThrow();
             if (run.getStatus() == RunStatus.RUNNING_ORIGINAL) {
                 run.setStatus(RunStatus.PAUSED_ORIGINAL);
@@ -335,6 +351,7 @@ public class DispatchComparisonExperimentServiceImpl implements DispatchComparis
     public DispatchComparisonVisualRunStatusDTO abortVisualRun() {
         visualRunLock.lock();
         try {
+            snapshotWriter.flush();
             DispatchComparisonExperimentRun run = activeRunOrThrow();
             transactionTemplate.executeWithoutResult(status -> {
                 failOrCloseRun(run, RunStatus.ABORTED, "aborted by user");
@@ -473,6 +490,7 @@ public class DispatchComparisonExperimentServiceImpl implements DispatchComparis
             }
             runOneExperimentLoop(run);
         } catch (Exception ex) {
+            flushSnapshotsQuietly();
             DispatchComparisonExperimentRun run = activeRunOrLatest();
             if (run != null) {
                 log.error(
@@ -522,19 +540,12 @@ public class DispatchComparisonExperimentServiceImpl implements DispatchComparis
         int total = activeStrategyShipmentItemIds.size();
         RuntimeCostDTO costs = currentRuntimeCosts();
         costBaselineNormalizationService.applyLatest(costs);
-        saveCostSnapshot(strategyRun, loop, simNow, completed, total, costs);
 
+        // 进度只改内存中的实体，随快照缓冲合并写入；后续若整行保存 run，也带着最新进度
         run.setCurrentLoop(loop);
         run.setCompletedItems(completed);
         run.setTotalItems(total);
-
-        strategyRun.setLoopCount(loop);
-        strategyRun.setCompletedItems(completed);
-        strategyRun.setTotalItems(total);
-        transactionTemplate.executeWithoutResult(status -> {
-            experimentRunRepository.save(run);
-            strategyRunRepository.save(strategyRun);
-        });
+        saveCostSnapshot(run, strategyRun, loop, simNow, completed, total, costs);
 
         if (isCurrentStrategyComplete(completed, total)) {
             finalizeStrategy(strategyRun, StrategyRunStatus.COMPLETED);
@@ -558,12 +569,16 @@ public class DispatchComparisonExperimentServiceImpl implements DispatchComparis
         DispatchComparisonScenarioDTO scenario = readScenario(run.getScenarioJson());
         cleanupRuntimeDataForExperiment();
         restoreVehiclesToScenario(scenario);
-        List<Long> itemIds = rebuildShipmentsForStrategy(scenario, strategy, run.getId());
+        List<Long> itemIds = scenarioSupport.rebuildShipments(
+                scenario, "VIS_" + run.getId() + "_" + strategy.name(), simulationContext.getCurrentSimTime());
+        snapshotWriter.discard();
+        itemStatusTracker.track(itemIds);
 
         simulationContext.finishReset();
         simulationContext.reset();
         CostEntity.reset();
         costBaselineNormalizationService.reset();
+        simulationRandom.startRun(activeRunSeed);
         simulationRuntimeConfig.setDispatchStrategy(strategy);
         routePlanningQueueService.resume();
         simulationContext.setRunning(true);
@@ -590,6 +605,7 @@ public class DispatchComparisonExperimentServiceImpl implements DispatchComparis
     }
 
     private void finalizeStrategy(DispatchComparisonStrategyRun strategyRun, StrategyRunStatus status) {
+        snapshotWriter.flush();
         RuntimeCostDTO costs = currentRuntimeCosts();
         costBaselineNormalizationService.applyLatest(costs);
         strategyRun.setStatus(status);
@@ -597,10 +613,7 @@ public class DispatchComparisonExperimentServiceImpl implements DispatchComparis
         strategyRun.setLoopCount(simulationContext.getLoopCount());
         strategyRun.setCompletedItems(countCompletedActiveItems());
         strategyRun.setTotalItems(activeStrategyShipmentItemIds.size());
-        strategyRun.setAssignmentCount((int) assignmentRepository.count());
-        strategyRun.setVehicleUsedCount(countUsedVehicles());
-        copyCosts(strategyRun, costs);
-        copyExperimentNormalizedCosts(strategyRun, costs);
+        scenarioSupport.fillStrategyResult(strategyRun, costs);
         strategyRunRepository.save(strategyRun);
     }
 
@@ -616,6 +629,8 @@ public class DispatchComparisonExperimentServiceImpl implements DispatchComparis
         activeStrategyRunId = null;
         activeStrategyShipmentItemIds = List.of();
         visualArrivedAssignmentIds.clear();
+        snapshotWriter.discard();
+        itemStatusTracker.clear();
         simulationModeGuard.clearDispatchComparisonExperimentActive();
     }
 
@@ -629,79 +644,7 @@ public class DispatchComparisonExperimentServiceImpl implements DispatchComparis
     }
 
     private void restoreVehiclesToScenario(DispatchComparisonScenarioDTO scenario) {
-        transactionTemplate.executeWithoutResult(status -> restoreVehiclesToScenarioInTransaction(scenario));
-    }
-
-    private void restoreVehiclesToScenarioInTransaction(DispatchComparisonScenarioDTO scenario) {
-        LocalDateTime now = LocalDateTime.now();
-        for (DispatchComparisonScenarioDTO.VehiclePositionSummary position : scenario.getVehicleInitialPositions()) {
-            Vehicle vehicle = vehicleRepository.findById(position.getVehicleId())
-                    .orElseThrow(() -> new IllegalStateException("vehicle not found: " + position.getVehicleId()));
-            POI poi = poiRepository.findById(position.getPoiId())
-                    .orElseThrow(() -> new IllegalStateException("poi not found: " + position.getPoiId()));
-            vehicle.transitionToStatus(Vehicle.VehicleStatus.IDLE, now, Duration.ZERO);
-            vehicle.setPreviousStatus(null);
-            vehicle.setCurrentPOI(poi);
-            if (poi.getLongitude() != null && poi.getLatitude() != null) {
-                vehicle.setCurrentLongitude(poi.getLongitude());
-                vehicle.setCurrentLatitude(poi.getLatitude());
-            }
-            vehicle.setCurrentLoad(0.0);
-            vehicle.setCurrentVolumn(0.0);
-            vehicle.setUpdatedBy("DispatchComparisonExperiment");
-            vehicle.setUpdatedTime(now);
-            vehicleRepository.save(vehicle);
-        }
-    }
-
-    private List<Long> rebuildShipmentsForStrategy(
-            DispatchComparisonScenarioDTO scenario,
-            DispatchStrategy strategy,
-            Long runId
-    ) {
-        List<Long> itemIds = new ArrayList<>();
-        int index = 0;
-        for (DispatchComparisonScenarioDTO.ExperimentShipmentSummary source : scenario.getShipments()) {
-            POI origin = poiRepository.findById(source.getOriginPoiId())
-                    .orElseThrow(() -> new IllegalStateException("origin poi not found: " + source.getOriginPoiId()));
-            POI destination = poiRepository.findById(source.getDestinationPoiId())
-                    .orElseThrow(() -> new IllegalStateException("destination poi not found: " + source.getDestinationPoiId()));
-            Goods goods = resolveGoods(source);
-            String refNo = "VIS_" + runId + "_" + strategy.name() + "_" + String.format("%02d", ++index)
-                    + "_" + source.getTemplateCode();
-
-            Shipment shipment = new Shipment(refNo, origin, destination, source.getTotalWeight(), source.getTotalVolume());
-            shipment.setStatus(Shipment.ShipmentStatus.CREATED);
-            shipment.setUpdatedBy("DispatchComparisonExperiment");
-            Shipment savedShipment = shipmentRepository.save(shipment);
-
-            ShipmentItem item = new ShipmentItem(
-                    savedShipment,
-                    source.getGoodsName() == null ? goods.getName() : source.getGoodsName(),
-                    source.getQuantity(),
-                    source.getGoodsSku(),
-                    source.getTotalWeight(),
-                    source.getTotalVolume()
-            );
-            item.setCreatedTime(simulationContext.getCurrentSimTime());
-            item.setGoods(goods);
-            item.setStatus(ShipmentItem.ShipmentItemStatus.NOT_ASSIGNED);
-            item.setUpdatedBy("DispatchComparisonExperiment");
-            ShipmentItem savedItem = shipmentItemRepository.save(item);
-            ensureOriginEnrollment(origin, goods, source.getQuantity());
-            poiShipmentManager.registerShipment(origin, destination, savedShipment);
-            itemIds.add(savedItem.getId());
-        }
-        return itemIds;
-    }
-
-    private Goods resolveGoods(DispatchComparisonScenarioDTO.ExperimentShipmentSummary source) {
-        if (source.getGoodsId() != null) {
-            return goodsRepository.findById(source.getGoodsId())
-                    .orElseThrow(() -> new IllegalStateException("goods not found: " + source.getGoodsId()));
-        }
-        return goodsRepository.findBySku(source.getGoodsSku())
-                .orElseThrow(() -> new IllegalStateException("goods sku not found: " + source.getGoodsSku()));
+        transactionTemplate.executeWithoutResult(status -> scenarioSupport.restoreVehicles(scenario));
     }
 
     private void validateScenarioCanBePrepared(DispatchComparisonPrepareRequest request) {
@@ -718,7 +661,7 @@ public class DispatchComparisonExperimentServiceImpl implements DispatchComparis
             throw new IllegalArgumentException("request body is required");
         }
         Integer shipmentCount = request.getShipmentCount();
-        if (shipmentCount == null || shipmentCount < 1 || shipmentCount > MAX_EXPERIMENT_SHIPMENTS) {
+        if (shipmentCount == null || shipmentCount < 1 || shipmentCount > DispatchComparisonScenarioSupport.MAX_EXPERIMENT_SHIPMENTS) {
             throw new IllegalArgumentException("shipmentCount must be between 1 and 20");
         }
         rejectIfRuntimeDataExists();
@@ -739,114 +682,46 @@ public class DispatchComparisonExperimentServiceImpl implements DispatchComparis
         if (vehicleRepository.count() == 0) {
             throw new IllegalStateException("no vehicles available for experiment");
         }
-        if (getFixedInitialPoiCandidates().isEmpty()) {
+        if (scenarioSupport.fixedInitialPoiCandidates().isEmpty()) {
             throw new IllegalStateException("no warehouse or distribution center poi with coordinates");
         }
     }
 
-    private List<POI> getFixedInitialPoiCandidates() {
-        List<POI> candidates = new ArrayList<>();
-        candidates.addAll(poiRepository.findByPoiType(POI.POIType.WAREHOUSE));
-        candidates.addAll(poiRepository.findByPoiType(POI.POIType.DISTRIBUTION_CENTER));
-        return candidates.stream()
-                .filter(Objects::nonNull)
-                .filter(poi -> poi.getLongitude() != null && poi.getLatitude() != null)
-                .sorted(Comparator.comparing(POI::getId))
-                .toList();
-    }
-
-    private DispatchComparisonScenarioDTO.VehiclePositionSummary toVehicleSummary(Vehicle vehicle, POI poi) {
-        DispatchComparisonScenarioDTO.VehiclePositionSummary summary =
-                new DispatchComparisonScenarioDTO.VehiclePositionSummary();
-        summary.setVehicleId(vehicle.getId());
-        summary.setLicensePlate(vehicle.getLicensePlate());
-        summary.setPoiId(poi.getId());
-        summary.setPoiName(poi.getName());
-        summary.setPoiType(poi.getPoiType() == null ? "" : poi.getPoiType().name());
-        return summary;
-    }
-
-    private List<ExperimentShipmentTemplate> selectTemplates(int count) {
-        List<ExperimentShipmentTemplate> templates = new ArrayList<>(templates());
-        Collections.shuffle(templates);
-        return templates.subList(0, count);
-    }
-
     private DispatchComparisonScenarioDTO.ExperimentShipmentSummary createShipmentFromTemplate(
             String experimentId,
             int index,
-            ExperimentShipmentTemplate template
+            ShipmentTemplate template
     ) {
-        POI origin = resolvePoi(template.originType(), template.originOffset(), template.code(), "origin");
-        POI destination = resolvePoi(template.destinationType(), template.destinationOffset(), template.code(), "destination");
-        Goods goods = goodsRepository.findBySku(template.goodsSku())
-                .orElseThrow(() -> new IllegalStateException("missing goods sku: " + template.goodsSku()));
-        if (goods.getWeightPerUnit() == null || goods.getVolumePerUnit() == null) {
-            throw new IllegalStateException("goods missing weight or volume: " + goods.getSku());
-        }
-
-        Integer quantity = template.quantity();
-        double totalWeight = quantity * goods.getWeightPerUnit();
-        double totalVolume = quantity * goods.getVolumePerUnit();
+        DispatchComparisonScenarioDTO.ExperimentShipmentSummary summary = scenarioSupport.describeShipment(template);
+        POI origin = poiRepository.findById(summary.getOriginPoiId()).orElseThrow();
+        POI destination = poiRepository.findById(summary.getDestinationPoiId()).orElseThrow();
+        Goods goods = goodsRepository.findById(summary.getGoodsId()).orElseThrow();
         String refNo = "EXP_" + experimentId + "_" + String.format("%02d", index + 1) + "_" + template.code();
 
-        Shipment shipment = new Shipment(refNo, origin, destination, totalWeight, totalVolume);
+        Shipment shipment = new Shipment(refNo, origin, destination, summary.getTotalWeight(), summary.getTotalVolume());
         shipment.setStatus(Shipment.ShipmentStatus.CREATED);
         Shipment savedShipment = shipmentRepository.save(shipment);
 
-        ShipmentItem item = new ShipmentItem(savedShipment, goods.getName(), quantity, goods.getSku(), totalWeight, totalVolume);
+        ShipmentItem item = new ShipmentItem(savedShipment, goods.getName(), summary.getQuantity(), goods.getSku(),
+                summary.getTotalWeight(), summary.getTotalVolume());
         item.setGoods(goods);
         item.setStatus(ShipmentItem.ShipmentItemStatus.NOT_ASSIGNED);
         ShipmentItem savedItem = shipmentItemRepository.save(item);
 
-        ensureOriginEnrollment(origin, goods, quantity);
+        scenarioSupport.ensureOriginEnrollment(origin, goods, summary.getQuantity());
         poiShipmentManager.registerShipment(origin, destination, savedShipment);
 
-        DispatchComparisonScenarioDTO.ExperimentShipmentSummary summary =
-                new DispatchComparisonScenarioDTO.ExperimentShipmentSummary();
-        summary.setTemplateCode(template.code());
         summary.setShipmentId(savedShipment.getId());
         summary.setShipmentItemId(savedItem.getId());
-        summary.setOriginPoiId(origin.getId());
-        summary.setOriginPoiName(origin.getName());
-        summary.setDestinationPoiId(destination.getId());
-        summary.setDestinationPoiName(destination.getName());
-        summary.setGoodsId(goods.getId());
-        summary.setGoodsSku(goods.getSku());
-        summary.setGoodsName(goods.getName());
-        summary.setQuantity(quantity);
-        summary.setTotalWeight(totalWeight);
-        summary.setTotalVolume(totalVolume);
         return summary;
     }
 
-    private POI resolvePoi(POI.POIType type, int offset, String templateCode, String role) {
-        List<POI> pois = poiRepository.findByPoiType(type).stream()
-                .filter(Objects::nonNull)
-                .filter(poi -> poi.getLongitude() != null && poi.getLatitude() != null)
-                .sorted(Comparator.comparing(POI::getId))
-                .toList();
-        if (pois.isEmpty()) {
-            throw new IllegalStateException("missing " + role + " poi type: " + type + ", template=" + templateCode);
-        }
-        return pois.get(Math.floorMod(offset, pois.size()));
-    }
-
-    private void ensureOriginEnrollment(POI origin, Goods goods, Integer quantity) {
-        Enrollment enrollment = enrollmentRepository.findByPoiAndGoods(origin, goods)
-                .orElseGet(() -> new Enrollment(origin, goods, 0));
-        enrollment.setQuantity((enrollment.getQuantity() == null ? 0 : enrollment.getQuantity()) + quantity);
-        enrollment.setUpdatedBy("DispatchComparisonExperiment");
-        enrollment.setUpdatedTime(LocalDateTime.now());
-        enrollmentRepository.save(enrollment);
-    }
-
     private void recordCostNormalizationDispatchSnapshot() {
         RuntimeCostDTO costs = currentRuntimeCosts();
         costBaselineNormalizationService.recordDispatchSnapshot(
                 costs,
                 activeStrategyShipmentItemIds.size(),
-                shipmentItemRepository.findByStatus(ShipmentItem.ShipmentItemStatus.NOT_ASSIGNED).size()
+                itemStatusTracker.count(ShipmentItem.ShipmentItemStatus.NOT_ASSIGNED)
         );
     }
 
@@ -858,6 +733,7 @@ public class DispatchComparisonExperimentServiceImpl implements DispatchComparis
     }
 
     private void saveCostSnapshot(
+            DispatchComparisonExperimentRun run,
             DispatchComparisonStrategyRun strategyRun,
             int loop,
             LocalDateTime simNow,
@@ -878,16 +754,35 @@ public class DispatchComparisonExperimentServiceImpl implements DispatchComparis
         snapshot.setCostE(costs.getCostE());
         snapshot.setAllCost(costs.getAllCost());
         snapshot.setNormalizedAllCost(costs.getNormalizedAllCost());
-        costSnapshotRepository.save(snapshot);
+        snapshotWriter.append(snapshot, new DispatchComparisonSnapshotWriter.Progress(
+                run.getId(), strategyRun.getId(), loop, completed, total));
+
+        simulationEventLog.recordCostSnapshot(simNow, strategyRun.getId(), loop,
+                simulationRuntimeConfig.getDispatchStrategy(), completed,
+                safeCost(costs.getCostA()), safeCost(costs.getCostB()), safeCost(costs.getCostC()),
+                safeCost(costs.getCostD()), safeCost(costs.getCostE()), safeCost(costs.getAllCost()),
+                safeCost(costs.getNormalizedAllCost()));
+    }
+
+    private void flushSnapshotsQuietly() {
+        try {
+            snapshotWriter.flush();
+        } catch (Exception flushEx) {
+            log.warn("[DispatchComparisonExperiment] failed to flush buffered cost snapshots, dropping them", flushEx);
+            snapshotWriter.discard();
+        }
+    }
+
+    private double safeCost(Double value) {
+        return value != null ? value : 0.0;
     }
 
+    /** 当前策略已送达的运单项数（来自状态跟踪器，不查库） */
     private int countCompletedActiveItems() {
         if (activeStrategyShipmentItemIds.isEmpty()) {
             return 0;
         }
-        return (int) shipmentItemRepository.findAllById(activeStrategyShipmentItemIds).stream()
-                .filter(item -> item.getStatus() == ShipmentItem.ShipmentItemStatus.DELIVERED)
-                .count();
+        return itemStatusTracker.count(ShipmentItem.ShipmentItemStatus.DELIVERED);
     }
 
     private boolean isCurrentStrategyComplete(int completed, int total) {
@@ -932,53 +827,13 @@ public class DispatchComparisonExperimentServiceImpl implements DispatchComparis
         }
     }
 
-    private int countUsedVehicles() {
-        Set<Long> vehicleIds = new HashSet<>();
-        for (Assignment assignment : assignmentRepository.findAll()) {
-            if (assignment.getAssignedVehicle() != null && assignment.getAssignedVehicle().getId() != null) {
-                vehicleIds.add(assignment.getAssignedVehicle().getId());
-            }
-        }
-        return vehicleIds.size();
-    }
-
-    private void copyCosts(DispatchComparisonStrategyRun strategyRun, RuntimeCostDTO costs) {
-        strategyRun.setCostA(costs.getCostA());
-        strategyRun.setCostB(costs.getCostB());
-        strategyRun.setCostC(costs.getCostC());
-        strategyRun.setCostD(costs.getCostD());
-        strategyRun.setCostE(costs.getCostE());
-        strategyRun.setAllCost(costs.getAllCost());
-        strategyRun.setNormalizedCostA(costs.getNormalizedCostA());
-        strategyRun.setNormalizedCostB(costs.getNormalizedCostB());
-        strategyRun.setNormalizedCostC(costs.getNormalizedCostC());
-        strategyRun.setNormalizedCostD(costs.getNormalizedCostD());
-        strategyRun.setNormalizedCostE(costs.getNormalizedCostE());
-        strategyRun.setNormalizedAllCost(costs.getNormalizedAllCost());
-    }
-
-    private void copyExperimentNormalizedCosts(DispatchComparisonStrategyRun strategyRun, RuntimeCostDTO costs) {
-        ExperimentRunNormalizationResult result =
-                costBaselineNormalizationService.normalizeExperimentTotalAgainstOriginalP95(
-                        costs,
-                        strategyRun.getTotalItems()
-                );
-        if (result == null) {
-            return;
-        }
-
-        strategyRun.setExperimentNormalizedCostA(result.normalizedCostA());
-        strategyRun.setExperimentNormalizedCostB(result.normalizedCostB());
-        strategyRun.setExperimentNormalizedCostC(result.normalizedCostC());
-        strategyRun.setExperimentNormalizedCostD(result.normalizedCostD());
-        strategyRun.setExperimentNormalizedCostE(result.normalizedCostE());
-        strategyRun.setExperimentNormalizedAllCost(result.normalizedAllCost());
-        strategyRun.setExperimentNormalizationBaselineStrategy(result.baselineStrategy());
-        strategyRun.setExperimentNormalizationBaselinePercentile(result.baselinePercentile());
-        strategyRun.setExperimentNormalizationScope(result.scope());
-    }
-
     private void failOrCloseRun(DispatchComparisonExperimentRun run, RunStatus status, String reason) {
+        DispatchComparisonSnapshotWriter.Progress progress = snapshotWriter.latestProgress();
+        if (progress != null && progress.runId().equals(run.getId())) {
+            run.setCurrentLoop(progress.loop());
+            run.setCompletedItems(progress.completedItems());
+            run.setTotalItems(progress.totalItems());
+        }
         run.setStatus(status);
         run.setEndedAt(LocalDateTime.now());
         run.setFailureReason(reason);
@@ -1211,6 +1066,12 @@ public class DispatchComparisonExperimentServiceImpl implements DispatchComparis
         dto.setMaxLoops(run.getMaxLoops());
         dto.setCompletedItems(run.getCompletedItems());
         dto.setTotalItems(run.getTotalItems());
+        DispatchComparisonSnapshotWriter.Progress progress = snapshotWriter.latestProgress();
+        if (progress != null && progress.runId().equals(run.getId())) {
+            dto.setCurrentLoop(progress.loop());
+            dto.setCompletedItems(progress.completedItems());
+            dto.setTotalItems(progress.totalItems());
+        }
         dto.setMessage(run.getFailureReason());
         dto.setStartedAt(run.getStartedAt());
         dto.setEndedAt(run.getEndedAt());
@@ -1306,41 +1167,4 @@ public class DispatchComparisonExperimentServiceImpl implements DispatchComparis
                 + "-"
                 + UUID.randomUUID().toString().substring(0, 8);
     }
-
-    private List<ExperimentShipmentTemplate> templates() {
-        return List.of(
-                new ExperimentShipmentTemplate("EXP-LOG-01", POI.POIType.TIMBER_YARD, 23, POI.POIType.SAWMILL, 3, "LOG", 8),
-                new ExperimentShipmentTemplate("EXP-LOG-02", POI.POIType.TIMBER_YARD, 19, POI.POIType.SAWMILL, 1, "LOG", 10),
-                new ExperimentShipmentTemplate("EXP-LOG-02", POI.POIType.TIMBER_YARD, 21, POI.POIType.SAWMILL, 2, "LOG", 12),
-                new ExperimentShipmentTemplate("EXP-PLANK-01", POI.POIType.SAWMILL, 3, POI.POIType.BOARD_FACTORY, 0, "PLANK", 10),
-                new ExperimentShipmentTemplate("EXP-PLANK-02", POI.POIType.SAWMILL, 1, POI.POIType.BOARD_FACTORY, 1, "PLANK", 12),
-                new ExperimentShipmentTemplate("EXP-PLANK-02", POI.POIType.SAWMILL, 2, POI.POIType.BOARD_FACTORY, 2, "PLANK", 18),
-                new ExperimentShipmentTemplate("EXP-PANEL-01", POI.POIType.BOARD_FACTORY, 0, POI.POIType.FURNITURE_FACTORY, 0, "PANEL", 12),
-                new ExperimentShipmentTemplate("EXP-PANEL-02", POI.POIType.BOARD_FACTORY, 1, POI.POIType.FURNITURE_FACTORY, 8, "PANEL", 14),
-                new ExperimentShipmentTemplate("EXP-PANEL-02", POI.POIType.BOARD_FACTORY, 2, POI.POIType.FURNITURE_FACTORY, 2, "PANEL", 13),
-                new ExperimentShipmentTemplate("EXP-STEEL-PRODUCT-01", POI.POIType.STEEL_PROCESSING_PLANT, 0, POI.POIType.AUTO_ASSEMBLY_PLANT, 0, "STEEL_PRODUCT", 10),
-                new ExperimentShipmentTemplate("EXP-STEEL-PRODUCT-02", POI.POIType.STEEL_PROCESSING_PLANT, 1, POI.POIType.AUTO_ASSEMBLY_PLANT, 1, "STEEL_PRODUCT", 12),
-                new ExperimentShipmentTemplate("EXP-STEEL-PRODUCT-02", POI.POIType.STEEL_PROCESSING_PLANT, 2, POI.POIType.AUTO_ASSEMBLY_PLANT, 2, "STEEL_PRODUCT", 12),
-                new ExperimentShipmentTemplate("EXP-STEEL-PRODUCT-03", POI.POIType.STEEL_PROCESSING_PLANT, 4, POI.POIType.FURNITURE_FACTORY, 4, "STEEL_PRODUCT", 10),
-                new ExperimentShipmentTemplate("EXP-STEEL-PRODUCT-03", POI.POIType.STEEL_PROCESSING_PLANT, 2, POI.POIType.FURNITURE_FACTORY, 7, "STEEL_PRODUCT", 10),
-                new ExperimentShipmentTemplate("EXP-STEEL-PRODUCT-04", POI.POIType.STEEL_PROCESSING_PLANT, 3, POI.POIType.FURNITURE_FACTORY, 3, "STEEL_PRODUCT", 12),
-                new ExperimentShipmentTemplate("EXP-RUBBER-RAW-01", POI.POIType.WAREHOUSE, 2, POI.POIType.RUBBER_PROCESSING_PLANT, 0, "RUBBER_RAW", 10),
-                new ExperimentShipmentTemplate("EXP-RUBBER-RAW-02", POI.POIType.WAREHOUSE, 3, POI.POIType.RUBBER_PROCESSING_PLANT, 1, "RUBBER_RAW", 12),
-                new ExperimentShipmentTemplate("EXP-RUBBER-SEMI-01", POI.POIType.RUBBER_PROCESSING_PLANT, 0, POI.POIType.TIRE_MANUFACTURING_PLANT, 0, "RUBBER_SEMI", 10),
-                new ExperimentShipmentTemplate("EXP-RUBBER-SEMI-02", POI.POIType.RUBBER_PROCESSING_PLANT, 1, POI.POIType.TIRE_MANUFACTURING_PLANT, 1, "RUBBER_SEMI", 12),
-                new ExperimentShipmentTemplate("EXP-TIRE-01", POI.POIType.TIRE_MANUFACTURING_PLANT, 0, POI.POIType.AUTO_ASSEMBLY_PLANT, 2, "TIRE", 10),
-                new ExperimentShipmentTemplate("EXP-TIRE-02", POI.POIType.TIRE_MANUFACTURING_PLANT, 1, POI.POIType.AUTO_ASSEMBLY_PLANT, 3, "TIRE", 12)
-        );
-    }
-
-    private record ExperimentShipmentTemplate(
-            String code,
-            POI.POIType originType,
-            int originOffset,
-            POI.POIType destinationType,
-            int destinationOffset,
-            String goodsSku,
-            Integer quantity
-    ) {
-    }
 }
@@ -0,0 +1,101 @@
+package org.example.roadsimulation.service.impl;
+
+import org.example.roadsimulation.entity.DispatchComparisonCostSnapshot;
+import org.example.roadsimulation.repository.DispatchComparisonCostSnapshotRepository;
+import org.example.roadsimulation.repository.DispatchComparisonExperimentRunRepository;
+import org.example.roadsimulation.repository.DispatchComparisonStrategyRunRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 对比实验逐轮数据的缓冲写入
+ *
+ * 成本快照先攒在内存里，每 flush-loops 轮（或策略结束、暂停、失败时）在一个事务里 saveAll，
+ * 借助 pooled 序列与 hibernate.jdbc.batch_size 走 JDBC 批量插入；实验 / 策略记录的进度列
+ * （currentLoop / completedItems / totalItems）只保留最新值，随同一事务以一条 UPDATE 写入，
+ * 不会覆盖期间由暂停 / 中止写入的状态列。
+ *
+ * 只由持有 visualRunLock 的线程调用；latestProgress 供状态查询读取未落库的最新进度。
+ */
+@Component
+public class DispatchComparisonSnapshotWriter {
+
+    private final DispatchComparisonCostSnapshotRepository costSnapshotRepository;
+    private final DispatchComparisonExperimentRunRepository experimentRunRepository;
+    private final DispatchComparisonStrategyRunRepository strategyRunRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int flushEveryLoops;
+
+    private final List<DispatchComparisonCostSnapshot> pendingSnapshots = new ArrayList<>();
+    private volatile Progress latestProgress;
+    private boolean progressDirty;
+
+    public DispatchComparisonSnapshotWriter(
+            DispatchComparisonCostSnapshotRepository costSnapshotRepository,
+            DispatchComparisonExperimentRunRepository experimentRunRepository,
+            DispatchComparisonStrategyRunRepository strategyRunRepository,
+            TransactionTemplate transactionTemplate,
+            @Value("${simulation.experiment.snapshot-flush-loops:10}") int flushEveryLoops
+    ) {
+        this.costSnapshotRepository = costSnapshotRepository;
+        this.experimentRunRepository = experimentRunRepository;
+        this.strategyRunRepository = strategyRunRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.flushEveryLoops = Math.max(1, flushEveryLoops);
+    }
+
+    /** 记录一轮的快照与进度；攒够 flush-loops 轮时写库 */
+    public void append(DispatchComparisonCostSnapshot snapshot, Progress progress) {
+        pendingSnapshots.add(snapshot);
+        latestProgress = progress;
+        progressDirty = true;
+        if (pendingSnapshots.size() >= flushEveryLoops) {
+            flush();
+        }
+    }
+
+    /** 立即写出缓冲中的快照与最新进度（无待写内容时不开事务） */
+    public void flush() {
+        if (pendingSnapshots.isEmpty() && !progressDirty) {
+            return;
+        }
+        List<DispatchComparisonCostSnapshot> snapshots = List.copyOf(pendingSnapshots);
+        Progress progress = progressDirty ? latestProgress : null;
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!snapshots.isEmpty()) {
+                costSnapshotRepository.saveAll(snapshots);
+            }
+            if (progress != null) {
+                experimentRunRepository.updateProgress(progress.runId(), progress.loop(),
+                        progress.completedItems(), progress.totalItems());
+                strategyRunRepository.updateProgress(progress.strategyRunId(), progress.loop(),
+                        progress.completedItems(), progress.totalItems());
+            }
+        });
+        pendingSnapshots.clear();
+        progressDirty = false;
+    }
+
+    /** 丢弃缓冲（实验运行已清理、快照所属记录不再需要时） */
+    public void discard() {
+        pendingSnapshots.clear();
+        progressDirty = false;
+        latestProgress = null;
+    }
+
+    /** 尚未落库也算在内的最新进度，没有进行中的策略时为 null */
+    public Progress latestProgress() {
+        return latestProgress;
+    }
+
+    int pendingSnapshotCount() {
+        return pendingSnapshots.size();
+    }
+
+    public record Progress(Long runId, Long strategyRunId, int loop, int completedItems, int totalItems) {
+    }
+}
@@ -1,15 +1,15 @@
 package org.example.roadsimulation.service.impl;
 
 import org.example.roadsimulation.DataInitializer;
+import org.example.roadsimulation.core.SimulationRandom;
 import org.example.roadsimulation.entity.Assignment;
 import org.example.roadsimulation.entity.ShipmentItem;
 import org.example.roadsimulation.entity.Vehicle;
 import org.example.roadsimulation.optimizer.multi.MultiOrderSolution;
 import org.example.roadsimulation.optimizer.multi.cost.CostNormalizationConfig;
-import org.example.roadsimulation.optimizer.multi.ga.MultiOrderGA;
+import org.example.roadsimulation.optimizer.multi.decompose.DecomposedMultiOrderSolver;
 import org.example.roadsimulation.optimizer.multi.ga.MultiOrderGAConfig;
 import org.example.roadsimulation.optimizer.multi.ga.MutationConfig;
-import org.example.roadsimulation.optimizer.multi.init.InitialPopulationConfig;
 import org.example.roadsimulation.optimizer.multi.persist.MultiOrderAssignmentMaterializer;
 import org.example.roadsimulation.repository.ShipmentItemRepository;
 import org.example.roadsimulation.repository.VehicleRepository;
@@ -28,22 +28,25 @@ public class HeuristicSimulationDispatchService implements SimulationDispatchSer
 
     private final ShipmentItemRepository shipmentItemRepository;
     private final VehicleRepository vehicleRepository;
-    private final MultiOrderGA multiOrderGA;
+    private final DecomposedMultiOrderSolver multiOrderSolver;
     private final MultiOrderAssignmentMaterializer assignmentMaterializer;
     private final DataInitializer dataInitializer;
+    private final SimulationRandom simulationRandom;
 
     public HeuristicSimulationDispatchService(
             ShipmentItemRepository shipmentItemRepository,
             VehicleRepository vehicleRepository,
-            MultiOrderGA multiOrderGA,
+            DecomposedMultiOrderSolver multiOrderSolver,
             MultiOrderAssignmentMaterializer assignmentMaterializer,
-            DataInitializer dataInitializer
+            DataInitializer dataInitializer,
+            SimulationRandom simulationRandom
     ) {
         this.shipmentItemRepository = shipmentItemRepository;
         this.vehicleRepository = vehicleRepository;
-        this.multiOrderGA = multiOrderGA;
+        this.multiOrderSolver = multiOrderSolver;
         this.assignmentMaterializer = assignmentMaterializer;
         this.dataInitializer = dataInitializer;
+        this.simulationRandom = simulationRandom;
     }
 
     @Override
@@ -74,13 +77,13 @@ public class HeuristicSimulationDispatchService implements SimulationDispatchSer
             return;
         }
 
-        long seed = System.currentTimeMillis();
+        // 第 n 次调度取运行种子派生的第 n 个种子；分区求解再按分区序号派生
+        long seed = simulationRandom.nextSeed("heuristic-dispatch");
         long optimizeStart = System.currentTimeMillis();
-        MultiOrderSolution solution = multiOrderGA.optimize(
+        MultiOrderSolution solution = multiOrderSolver.solve(
                 pendingItems,
                 idleVehicles,
                 new MultiOrderGAConfig(),
-                new InitialPopulationConfig(),
                 new CostNormalizationConfig(),
                 new MutationConfig(),
                 seed
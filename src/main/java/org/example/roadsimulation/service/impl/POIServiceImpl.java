@@ -279,6 +279,11 @@ public class POIServiceImpl implements POIService {
     public void resetAutoIncrement() {
         // 对于MySQL
         entityManager.createNativeQuery("ALTER TABLE poi AUTO_INCREMENT = 1").executeUpdate();
+        // POI 主键改由 poi_seq 序列表分配（pooled-lo），需同步重置。序列表没有 AUTO_INCREMENT 的
+        // 自动钳制，这里显式钳到 max(id)+1，表非空时也不会分出与现有行冲突的 id。
+        // 注意：Hibernate 优化器在本进程内缓存的 id 段不会被重置，用完该段后才从新的 next_val 继续分配
+        entityManager.createNativeQuery(
+                "UPDATE poi_seq SET next_val = (SELECT COALESCE(MAX(id), 0) + 1 FROM poi)").executeUpdate();
     }
 
     @Override
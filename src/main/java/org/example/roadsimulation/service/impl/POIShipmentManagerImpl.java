@@ -1,5 +1,12 @@
 package org.example.roadsimulation.service.impl;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.roadsimulation.core.SimulationContext;
+import org.example.roadsimulation.core.registry.AtomicIdBitSet;
+import org.example.roadsimulation.core.registry.AtomicIdLongTable;
+import org.example.roadsimulation.core.registry.PoiPairKey;
 import org.example.roadsimulation.dto.POIShipmentRecord;
 import org.example.roadsimulation.entity.POI;
 import org.example.roadsimulation.entity.Shipment;
@@ -8,16 +15,28 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * POI运单管理器实现 —— 线程安全的集中式POI-运单状态管理。
  *
- * <p>使用 ConcurrentHashMap 保证并发安全，所有写操作都是原子性的。
+ * <p>按 POI 计的状态直接按 id 下标存放（{@link AtomicIdBitSet} / {@link AtomicIdLongTable}），读写无锁、无装箱：
+ * <ul>
+ *   <li>阻塞状态：位集合 + 原子计数，{@link #canBlockMore()} 为 O(1)</li>
+ *   <li>配对运单：按打包成 long 的 (起点, 终点) 配对键存记录（只含 id）与其超时队列键</li>
+ *   <li>起点 → 终点（最近一次注册）、选中次数：long 表</li>
+ * </ul>
+ * 同一起点可以同时有多个终点不同的配对（手动生成运单不看阻塞状态）；只有同一配对重新注册才替换旧记录。
+ *
+ * <p>超时管理：运单按仿真创建时间进入有序的超时队列（ConcurrentSkipListMap），起点槽位中保存的队列键
+ * 作为反向索引，注销时 O(log n) 删除。扫掠只从队首弹出早于截止时间的记录，代价 O(过期数 · log n)；
+ * 截止时间取自 {@link SimulationContext}，与仿真倍速 / 单步模式无关。
  */
 @Component
 public class POIShipmentManagerImpl implements POIShipmentManager {
@@ -33,47 +52,65 @@ public class POIShipmentManagerImpl implements POIShipmentManager {
     /** 最大同时阻塞的POI数量 */
     private static final int MAX_BLOCKED_COUNT = 45;
 
-    /** POI id → 是否被阻塞（有活跃运单） */
-    private final Map<Long, Boolean> poiBlockedStatus = new ConcurrentHashMap<>();
-
-    /** 配对Key → 运单记录 */
-    private final Map<String, POIShipmentRecord> activeRecords = new ConcurrentHashMap<>();
+    /** 被阻塞（有活跃运单）的 POI id */
+    private final AtomicIdBitSet blockedPois = new AtomicIdBitSet();
 
-    /** 起点POI id → 终点POI id */
-    private final Map<Long, Long> sourceToDestMap = new ConcurrentHashMap<>();
+    /** 配对Key → 活跃配对 */
+    private final Map<Long, ActivePair> activePairs = new ConcurrentHashMap<>();
 
-    /** 配对Key → Shipment */
-    private final Map<String, Shipment> pairShipmentMap = new ConcurrentHashMap<>();
+    /** 起点POI id → 终点POI id + 1（0 表示无） */
+    private final AtomicIdLongTable destBySource = new AtomicIdLongTable();
 
     /** POI id → 被选中次数 */
-    private final Map<Long, Integer> poiSelectionCount = new ConcurrentHashMap<>();
+    private final AtomicIdLongTable selectionCounts = new AtomicIdLongTable();
+
+    /** 超时队列：按 (仿真创建时间, 注册序号) 排序 */
+    private final ConcurrentSkipListMap<ExpiryKey, ActivePair> expiryQueue = new ConcurrentSkipListMap<>();
+
+    private final AtomicLong registrationSequence = new AtomicLong();
+    private final AtomicLong expiredTotal = new AtomicLong();
 
     /** 当前判断概率 */
     private volatile double currentProbability = INITIAL_PROBABILITY;
 
+    private final SimulationContext simulationContext;
+
+    public POIShipmentManagerImpl(SimulationContext simulationContext, MeterRegistry meterRegistry) {
+        this.simulationContext = simulationContext;
+        FunctionCounter.builder("simulation.poi.shipment.expired", expiredTotal, AtomicLong::get)
+                .description("超时清理的POI配对运单数")
+                .register(meterRegistry);
+        Gauge.builder("simulation.poi.shipment.expiry.pending", expiryQueue, Map::size)
+                .description("超时队列中等待的POI配对运单数")
+                .register(meterRegistry);
+        Gauge.builder("simulation.poi.blocked", blockedPois, AtomicIdBitSet::cardinality)
+                .description("当前被阻塞（有货）的POI数")
+                .register(meterRegistry);
+    }
+
     // ========== 阻塞状态管理 ==========
 
     @Override
     public void blockPOI(POI poi) {
-        poiBlockedStatus.put(poi.getId(), true);
+        blockedPois.set(poi.getId());
         logger.debug("POI [{}] 已标记为阻塞（有货）", poi.getName());
     }
 
     @Override
     public void releasePOI(POI poi) {
-        poiBlockedStatus.remove(poi.getId());
-        sourceToDestMap.remove(poi.getId());
+        blockedPois.clear(poi.getId());
+        destBySource.getAndSet(poi.getId(), 0L);
         logger.debug("POI [{}] 已释放阻塞状态", poi.getName());
     }
 
     @Override
     public boolean isPOIBlocked(POI poi) {
-        return Boolean.TRUE.equals(poiBlockedStatus.getOrDefault(poi.getId(), false));
+        return blockedPois.get(poi.getId());
     }
 
     @Override
     public int getBlockedPOICount() {
-        return (int) poiBlockedStatus.values().stream().filter(Boolean::booleanValue).count();
+        return blockedPois.cardinality();
     }
 
     @Override
@@ -97,96 +134,110 @@ public class POIShipmentManagerImpl implements POIShipmentManager {
 
     @Override
     public void registerShipment(POI source, POI dest, Shipment shipment) {
-        String key = buildKey(source, dest);
-        POIShipmentRecord record = new POIShipmentRecord(source, dest, shipment);
-        activeRecords.put(key, record);
-        pairShipmentMap.put(key, shipment);
-        sourceToDestMap.put(source.getId(), dest.getId());
+        POIShipmentRecord record = new POIShipmentRecord(source, dest, shipment, simulationContext.getCurrentSimTime());
+        ActivePair pair = new ActivePair(record,
+                new ExpiryKey(record.getCreatedAt(), registrationSequence.incrementAndGet()));
+        expiryQueue.put(pair.expiryKey(), pair);
+
+        ActivePair replaced = activePairs.put(record.getPairKey(), pair);
+        if (replaced != null) {
+            retire(replaced, record.getCreatedAt());
+        }
+        destBySource.getAndSet(source.getId(), dest.getId() + 1);
         logger.debug("注册POI配对运单: {} → {}", source.getName(), dest.getName());
     }
 
     @Override
     public void unregisterShipment(POI source, POI dest) {
-        String key = buildKey(source, dest);
-        POIShipmentRecord record = activeRecords.remove(key);
-        if (record != null) {
-            record.setActive(false);
-            record.setLastUpdated(java.time.LocalDateTime.now());
+        ActivePair pair = activePairs.remove(buildKey(source, dest));
+        if (pair != null) {
+            retire(pair, simulationContext.getCurrentSimTime());
         }
-        pairShipmentMap.remove(key);
-        sourceToDestMap.remove(source.getId());
+        destBySource.getAndSet(source.getId(), 0L);
         logger.debug("注销POI配对运单: {} → {}", source.getName(), dest.getName());
     }
 
     @Override
     public POI getDestination(POI source) {
-        Long destId = sourceToDestMap.get(source.getId());
         // 调用方需要通过repository加载POI实体
         return null; // 只提供id查询，实体由调用方加载
     }
 
     @Override
-    public Shipment getShipment(POI source, POI dest) {
-        return pairShipmentMap.get(buildKey(source, dest));
+    public Long getShipmentId(POI source, POI dest) {
+        POIShipmentRecord record = getRecord(source, dest);
+        return record != null ? record.getShipmentId() : null;
     }
 
     @Override
-    public String getPairKey(POI source, POI dest) {
+    public long getPairKey(POI source, POI dest) {
         return buildKey(source, dest);
     }
 
     @Override
     public POIShipmentRecord getRecord(POI source, POI dest) {
-        return activeRecords.get(buildKey(source, dest));
+        ActivePair pair = activePairs.get(buildKey(source, dest));
+        return pair != null ? pair.record() : null;
     }
 
     // ========== POI选择计数 ==========
 
     @Override
     public void incrementSelectionCount(POI poi) {
-        poiSelectionCount.merge(poi.getId(), 1, Integer::sum);
+        selectionCounts.addAndGet(poi.getId(), 1);
     }
 
     @Override
     public int getSelectionCount(POI poi) {
-        return poiSelectionCount.getOrDefault(poi.getId(), 0);
+        return (int) selectionCounts.get(poi.getId());
     }
 
     // ========== 超时管理 ==========
 
     @Override
     public List<POIShipmentRecord> sweepExpiredShipments(int timeoutMinutes) {
-        java.time.LocalDateTime cutoff = java.time.LocalDateTime.now().minusMinutes(timeoutMinutes);
-
-        List<POIShipmentRecord> expired = activeRecords.values().stream()
-                .filter(record -> record.isActive() && record.getCreatedAt().isBefore(cutoff))
-                .collect(Collectors.toList());
-
-        for (POIShipmentRecord record : expired) {
+        LocalDateTime simNow = simulationContext.getCurrentSimTime();
+        LocalDateTime cutoff = simNow.minusMinutes(timeoutMinutes);
+
+        List<POIShipmentRecord> expired = new ArrayList<>();
+        Map.Entry<ExpiryKey, ActivePair> head;
+        while ((head = expiryQueue.firstEntry()) != null && head.getKey().createdAt().isBefore(cutoff)) {
+            ActivePair pair = head.getValue();
+            POIShipmentRecord record = pair.record();
+            if (!expiryQueue.remove(head.getKey(), pair)
+                    || !activePairs.remove(record.getPairKey(), pair)) {
+                continue; // 已被并发注销或替换
+            }
             record.setActive(false);
-            record.setLastUpdated(java.time.LocalDateTime.now());
-            activeRecords.remove(record.getPairKey());
-            pairShipmentMap.remove(record.getPairKey());
-
-            // 清理 sourceToDestMap 中对应的起点POI
-            sourceToDestMap.entrySet().removeIf(e ->
-                    (record.getSourcePoiId() + "_" + e.getValue()).equals(record.getPairKey())
-                            || record.getSourcePoiId().equals(e.getKey()));
+            record.setLastUpdated(simNow);
 
-            // 释放POI阻塞状态
-            poiBlockedStatus.remove(record.getSourcePoiId());
+            // 清理起点POI的配对映射并释放阻塞状态
+            destBySource.getAndSet(record.getSourcePoiId(), 0L);
+            blockedPois.clear(record.getSourcePoiId());
 
+            expired.add(record);
             logger.info("超时清理运单: pairKey={}, 创建时间={}, 超时阈值={}分钟",
-                    record.getPairKey(), record.getCreatedAt(), timeoutMinutes);
+                    PoiPairKey.format(record.getPairKey()), record.getCreatedAt(), timeoutMinutes);
         }
 
         if (!expired.isEmpty()) {
-            logger.info("本轮超时清理完成: 共清理 {} 条过期运单记录", expired.size());
+            expiredTotal.addAndGet(expired.size());
+            logger.info("本轮超时清理完成: 共清理 {} 条过期运单记录，队列剩余 {} 条", expired.size(), expiryQueue.size());
         }
 
         return expired;
     }
 
+    @Override
+    public long getExpiredShipmentTotal() {
+        return expiredTotal.get();
+    }
+
+    @Override
+    public int getPendingExpiryCount() {
+        return expiryQueue.size();
+    }
+
     // ========== 概率管理 ==========
 
     @Override
@@ -204,32 +255,49 @@ public class POIShipmentManagerImpl implements POIShipmentManager {
 
     @Override
     public void reset() {
-        poiBlockedStatus.clear();
-        activeRecords.clear();
-        sourceToDestMap.clear();
-        pairShipmentMap.clear();
-        poiSelectionCount.clear();
+        blockedPois.clearAll();
+        activePairs.clear();
+        destBySource.clearAll();
+        selectionCounts.clearAll();
+        expiryQueue.clear();
         currentProbability = INITIAL_PROBABILITY;
         logger.info("POIShipmentManager 状态已全部重置");
     }
 
     @Override
     public int getActiveShipmentCount() {
-        return (int) activeRecords.values().stream().filter(POIShipmentRecord::isActive).count();
+        return activePairs.size();
     }
 
     // ========== 内部辅助 ==========
 
-    private String buildKey(POI source, POI dest) {
-        return source.getId() + "_" + dest.getId();
+    private long buildKey(POI source, POI dest) {
+        return PoiPairKey.of(source.getId(), dest.getId());
+    }
+
+    /** 配对失效：标记记录并移出超时队列 */
+    private void retire(ActivePair pair, LocalDateTime at) {
+        pair.record().setActive(false);
+        pair.record().setLastUpdated(at);
+        expiryQueue.remove(pair.expiryKey(), pair);
+    }
+
+    /** 根据起点POI id获取该POI当前对应的配对Key（无配对时返回 null） */
+    public Long getActiveKeyForSource(Long sourcePoiId) {
+        long destPlusOne = destBySource.get(sourcePoiId);
+        return destPlusOne != 0L ? PoiPairKey.of(sourcePoiId, destPlusOne - 1) : null;
+    }
+
+    /** 活跃配对：记录 + 其在超时队列中的键 */
+    private record ActivePair(POIShipmentRecord record, ExpiryKey expiryKey) {
     }
 
-    /** 根据起点POI id获取该POI当前对应的配对Key（用于超时清理时查找） */
-    public String getActiveKeyForSource(Long sourcePoiId) {
-        Long destId = sourceToDestMap.get(sourcePoiId);
-        if (destId != null) {
-            return sourcePoiId + "_" + destId;
+    /** 超时队列键：仿真创建时间相同时按注册顺序 */
+    private record ExpiryKey(LocalDateTime createdAt, long sequence) implements Comparable<ExpiryKey> {
+        @Override
+        public int compareTo(ExpiryKey other) {
+            int byTime = createdAt.compareTo(other.createdAt);
+            return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
         }
-        return null;
     }
 }
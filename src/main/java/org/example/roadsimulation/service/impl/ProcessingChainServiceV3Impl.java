@@ -1,11 +1,14 @@
 package org.example.roadsimulation.service.impl;
 
+import org.example.roadsimulation.core.AfterCommit;
+import org.example.roadsimulation.core.SimTimeDueQueue;
 import org.example.roadsimulation.core.SimulationContext;
 import org.example.roadsimulation.dto.ProcessingChainStatsDTO;
 import org.example.roadsimulation.dto.ProcessingItemStatusDTO;
 import org.example.roadsimulation.dto.ProcessingOrderStatusDTO;
 import org.example.roadsimulation.entity.*;
 import org.example.roadsimulation.repository.*;
+import org.example.roadsimulation.service.ProcessingChainDag;
 import org.example.roadsimulation.service.ProcessingChainServiceV2;
 import org.example.roadsimulation.service.TransportMetricsService;
 import org.slf4j.Logger;
@@ -22,7 +25,6 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 
 /**
  * 加工链服务实现 V3（简化版：直接使用 Shipment）
@@ -63,6 +65,18 @@ public class ProcessingChainServiceV3Impl implements ProcessingChainServiceV2 {
     @Autowired
     private TransportMetricsService transportMetricsService;
 
+    @Autowired
+    private ProcessingChainDag processingChainDag;
+
+    /**
+     * 工序完成事件队列：加工中物料项 id → 计划完成的仿真时刻。
+     * 主循环只处理到期的工序，进度百分比在读取时按仿真时间计算。
+     */
+    private final SimTimeDueQueue stageCompletionQueue = new SimTimeDueQueue();
+
+    /** 启动后首次推进时，从数据库补登已在加工中的物料项（只查一次） */
+    private volatile boolean stageCompletionQueueHydrated;
+
     // ================= 加工链管理 =================
 
     @Override
@@ -79,6 +93,7 @@ public class ProcessingChainServiceV3Impl implements ProcessingChainServiceV2 {
         }
 
         ProcessingChain saved = processingChainRepository.save(chain);
+        processingChainDag.invalidate();
         logger.info("创建加工链：chainCode={}, chainName={}, stages={}",
                 chain.getChainCode(), chain.getChainName(),
                 chain.getStages() != null ? chain.getStages().size() : 0);
@@ -117,6 +132,7 @@ public class ProcessingChainServiceV3Impl implements ProcessingChainServiceV2 {
         }
 
         processingChainRepository.delete(chain);
+        processingChainDag.invalidate();
         logger.info("删除加工链：id={}, chainCode={}", id, chain.getChainCode());
     }
 
@@ -192,6 +208,7 @@ public class ProcessingChainServiceV3Impl implements ProcessingChainServiceV2 {
         );
         
         Shipment savedShipment = shipmentRepository.save(mergeShipment);
+        processingChainDag.recordMerge(downstreamChainId, upstreamShipmentIds);
         
         // 5. 为下游链的每个工序创建物料项
         for (ProcessingStage stage : downstreamChain.getStages()) {
@@ -204,62 +221,21 @@ public class ProcessingChainServiceV3Impl implements ProcessingChainServiceV2 {
         return savedShipment;
     }
 
+    /**
+     * 上游运单完成后，由加工链 DAG 判断哪些下游合并链已就绪，只遍历该链的出边
+     */
     @Override
     public void checkAndAutoCreateMergeShipment(Long completedShipmentId) {
         Shipment completedShipment = shipmentRepository.findById(completedShipmentId)
                 .orElseThrow(() -> new RuntimeException("运单不存在：" + completedShipmentId));
-        
-        // 查找所有以当前运单所在加工链为前驱的下游加工链
-        List<ProcessingChain> downstreamChains = processingChainRepository
-                .findByPredecessorChainId(completedShipment.getProcessingChain().getId());
-        
-        for (ProcessingChain downstreamChain : downstreamChains) {
-            // 检查下游链的所有前驱链是否都有完成的运单
-            Set<Long> predecessorChainIds = downstreamChain.getPredecessorChainIds();
-            
-            // 查询所有前驱链的已完成运单
-            List<Shipment> allUpstreamShipments = shipmentRepository
-                    .findByProcessingChainIdInAndProcessingStatus(
-                        new ArrayList<>(predecessorChainIds),
-                        Shipment.ProcessingStatus.COMPLETED
-                    );
-            
-            // 按加工链 ID 分组，确保每个前驱链至少有一个完成的运单
-            Set<Long> completedChainIds = allUpstreamShipments.stream()
-                    .map(s -> s.getProcessingChain().getId())
-                    .collect(java.util.stream.Collectors.toSet());
-            
-            // 如果所有前驱链都有完成的运单，创建合并运单
-            if (completedChainIds.containsAll(predecessorChainIds)) {
-                // 每个前驱链取一个最新的完成运单
-                List<Long> upstreamShipmentIds = allUpstreamShipments.stream()
-                        .collect(java.util.stream.Collectors.groupingBy(
-                            s -> s.getProcessingChain().getId()
-                        ))
-                        .values()
-                        .stream()
-                        .map(list -> list.stream()
-                            .max(java.util.Comparator.comparing(Shipment::getProcessingActualFinishTime))
-                            .map(Shipment::getId)
-                            .orElse(null)
-                        )
-                        .filter(id -> id != null)
-                        .toList();
-                
-                if (!upstreamShipmentIds.isEmpty()) {
-                    // 检查是否已经创建过合并运单
-                    List<Shipment> existingMergeShipments = shipmentRepository
-                            .findByProcessingChainId(downstreamChain.getId());
-                    
-                    boolean alreadyExists = existingMergeShipments.stream()
-                            .anyMatch(s -> s.isMergeShipment() && 
-                                   new HashSet<>(s.getUpstreamShipmentIds()).containsAll(upstreamShipmentIds));
-                    
-                    if (!alreadyExists) {
-                        createMergeShipment(upstreamShipmentIds, downstreamChain.getId(), "system");
-                    }
-                }
-            }
+
+        List<ProcessingChainDag.MergeReady> readyMerges = processingChainDag.onShipmentCompleted(
+                completedShipment.getProcessingChain().getId(),
+                completedShipment.getId(),
+                completedShipment.getProcessingActualFinishTime());
+
+        for (ProcessingChainDag.MergeReady ready : readyMerges) {
+            createMergeShipment(ready.upstreamShipmentIds(), ready.downstreamChainId(), "system");
         }
     }
 
@@ -457,9 +433,14 @@ public class ProcessingChainServiceV3Impl implements ProcessingChainServiceV2 {
             firstItem.setInboundAssignment(assignment);
             firstItem.setStatus(ShipmentItem.ShipmentItemStatus.ASSIGNED);
             shipmentItemRepository.save(firstItem);
+            stageCompletionQueue.schedule(firstItem.getId(), stageDueAt(firstItem));
         }
 
         shipmentRepository.save(shipment);
+        if (items.isEmpty()) {
+            // 没有工序的运单没有完成事件可等，直接收尾
+            checkAndCompleteShipment(shipment, simNow);
+        }
         logger.info("开始加工运单：refNo={}, firstStage={}, poi={}",
                 shipment.getRefNo(),
                 items.isEmpty() ? "N/A" : items.get(0).getStageName(),
@@ -487,6 +468,7 @@ public class ProcessingChainServiceV3Impl implements ProcessingChainServiceV2 {
         for (ShipmentItem item : items) {
             if (item.getProcessingStatus() != ShipmentItem.ProcessingItemStatus.COMPLETED) {
                 item.setProcessingStatus(ShipmentItem.ProcessingItemStatus.CANCELLED);
+                stageCompletionQueue.cancel(item.getId());
             }
         }
         shipmentItemRepository.saveAll(items);
@@ -494,44 +476,85 @@ public class ProcessingChainServiceV3Impl implements ProcessingChainServiceV2 {
         logger.info("取消加工运单：refNo={}", shipment.getRefNo());
     }
 
+    /**
+     * 只处理本轮到期的工序完成事件，代价与完成数成正比，与加工中运单数无关
+     */
     @Override
     public void updateProcessingProgress(LocalDateTime simNow, int minutesPerLoop) {
-        List<Shipment> shipments = shipmentRepository.findByProcessingStatus(Shipment.ProcessingStatus.IN_PROCESS);
+        hydrateStageCompletionQueue();
 
-        for (Shipment shipment : shipments) {
-            processShipment(shipment, simNow, minutesPerLoop);
+        List<Long> dueItemIds = stageCompletionQueue.pollDue(simNow);
+        if (dueItemIds.isEmpty()) {
+            return;
+        }
+        // 事务回滚（包括提交时才失败）后，本轮弹出的事件放回队列，下一轮重试
+        AfterCommit.onRollback(() -> dueItemIds.forEach(itemId -> stageCompletionQueue.schedule(itemId, simNow)));
+        for (Long itemId : dueItemIds) {
+            completeDueStage(itemId, simNow);
         }
     }
 
+    @Override
+    public void resetStageCompletionQueue() {
+        // 事务结束后再清，之后的补登才能读到清理后的数据
+        AfterCommit.afterCompletion(() -> {
+            stageCompletionQueue.clear();
+            stageCompletionQueueHydrated = false;
+        });
+    }
+
     /**
-     * 处理单个运单的加工进度
+     * 处理一个到期的工序完成事件（事件可能已因取消 / 重置而失效）
      */
-    private void processShipment(Shipment shipment, LocalDateTime simNow, int minutesPerLoop) {
-        List<ShipmentItem> items = shipmentItemRepository.findByShipmentIdOrderByStageOrder(shipment.getId());
+    private void completeDueStage(Long itemId, LocalDateTime simNow) {
+        ShipmentItem item = shipmentItemRepository.findById(itemId).orElse(null);
+        if (item == null
+                || item.getProcessingStatus() != ShipmentItem.ProcessingItemStatus.PROCESSING
+                || item.getProcessingStartTime() == null) {
+            return;
+        }
+        LocalDateTime dueAt = stageDueAt(item);
+        if (dueAt.isAfter(simNow)) {
+            stageCompletionQueue.schedule(itemId, dueAt);
+            return;
+        }
+        completeStage(item, simNow);
+    }
 
-        for (ShipmentItem item : items) {
-            if (item.getProcessingStatus() == ShipmentItem.ProcessingItemStatus.PROCESSING) {
-                if (item.getProcessingStartTime() != null) {
-                    Duration elapsed = Duration.between(item.getProcessingStartTime(), simNow);
-                    int totalMinutes = item.getStage().getProcessingTimeMinutes();
-
-                    if (totalMinutes > 0) {
-                        int progress = Math.min(100, (int) (elapsed.toMinutes() * 100 / totalMinutes));
-                        item.setProgressPercent(progress);
-
-                        if (progress >= 100) {
-                            completeStage(item, simNow);
-                        }
-                    } else {
-                        item.setProgressPercent(100);
-                        completeStage(item, simNow);
-                    }
-                }
-                break;
+    private void hydrateStageCompletionQueue() {
+        if (stageCompletionQueueHydrated) {
+            return;
+        }
+        for (ShipmentItem item : shipmentItemRepository.findByProcessingStatus(ShipmentItem.ProcessingItemStatus.PROCESSING)) {
+            if (item.getProcessingStartTime() != null) {
+                stageCompletionQueue.schedule(item.getId(), stageDueAt(item));
             }
         }
+        stageCompletionQueueHydrated = true;
+    }
+
+    /** 工序计划完成时刻：开始时间 + 工序时长（时长缺省或 ≤ 0 视为立即完成） */
+    private LocalDateTime stageDueAt(ShipmentItem item) {
+        return item.getProcessingStartTime().plusMinutes(stageMinutes(item));
+    }
 
-        checkAndCompleteShipment(shipment, simNow);
+    private int stageMinutes(ShipmentItem item) {
+        Integer minutes = item.getStage() != null ? item.getStage().getProcessingTimeMinutes() : null;
+        return minutes != null && minutes > 0 ? minutes : 0;
+    }
+
+    /** 读取时按仿真时间计算的工序进度（加工中以外的状态返回已保存的值） */
+    private int progressOf(ShipmentItem item, LocalDateTime simNow) {
+        if (item.getProcessingStatus() != ShipmentItem.ProcessingItemStatus.PROCESSING
+                || item.getProcessingStartTime() == null) {
+            return item.getProgressPercent() != null ? item.getProgressPercent() : 0;
+        }
+        int totalMinutes = stageMinutes(item);
+        if (totalMinutes == 0) {
+            return 100;
+        }
+        long elapsed = Duration.between(item.getProcessingStartTime(), simNow).toMinutes();
+        return (int) Math.max(0, Math.min(100, elapsed * 100 / totalMinutes));
     }
 
     /**
@@ -597,6 +620,7 @@ public class ProcessingChainServiceV3Impl implements ProcessingChainServiceV2 {
             nextStageItem.setStatus(ShipmentItem.ShipmentItemStatus.IN_TRANSIT);
             nextStageItem.setAssignment(transportAssignment);
             shipmentItemRepository.save(nextStageItem);
+            stageCompletionQueue.schedule(nextStageItem.getId(), stageDueAt(nextStageItem));
 
             logger.info("启动下道工序：shipmentId={}, nextStage={}, nextPOI={}",
                     currentStageItem.getShipment().getId(),
@@ -711,7 +735,7 @@ public class ProcessingChainServiceV3Impl implements ProcessingChainServiceV2 {
         if (currentItem != null) {
             dto.setCurrentStageName(currentItem.getStageName());
             dto.setCurrentStageIndex(currentItem.getStageOrder() - 1);
-            dto.setOverallProgress(currentItem.getProgressPercent());
+            dto.setOverallProgress(progressOf(currentItem, simulationContext.getCurrentSimTime()));
         } else if (shipment.getProcessingStatus() == Shipment.ProcessingStatus.COMPLETED) {
             dto.setOverallProgress(100);
         } else {
@@ -768,7 +792,7 @@ public class ProcessingChainServiceV3Impl implements ProcessingChainServiceV2 {
         dto.setStageName(item.getStageName());
         dto.setStageOrder(item.getStageOrder());
         dto.setProcessingStatus(item.getProcessingStatus().name());
-        dto.setProgressPercent(item.getProgressPercent());
+        dto.setProgressPercent(progressOf(item, simulationContext.getCurrentSimTime()));
         dto.setProcessedWeight(item.getProcessedWeight());
         dto.setProcessingStartTime(item.getProcessingStartTime());
         dto.setProcessingEndTime(item.getProcessingEndTime());
@@ -1,6 +1,7 @@
 package org.example.roadsimulation.service.impl;
 
 import org.example.roadsimulation.DataInitializer;
+import org.example.roadsimulation.core.SimulationRandom;
 import org.example.roadsimulation.entity.*;
 import org.example.roadsimulation.repository.EnrollmentRepository;
 import org.example.roadsimulation.repository.GoodsRepository;
@@ -38,6 +39,7 @@ public class ShipmentServiceImpl implements ShipmentService {
     private final VehicleRepository vehicleRepository;
     private final GaodeMapService gaodeMapService;
     private final TransportLifecycleService transportLifecycleService;
+    private final SimulationRandom simulationRandom;
 
     @Autowired
     public ShipmentServiceImpl(ShipmentRepository shipmentRepository,
@@ -47,7 +49,8 @@ public class ShipmentServiceImpl implements ShipmentService {
                                EnrollmentRepository enrollmentRepository,
                                GoodsRepository goodsRepository,
                                DataInitializer dataInitializer,
-                               TransportLifecycleService transportLifecycleService) {
+                               TransportLifecycleService transportLifecycleService,
+                               SimulationRandom simulationRandom) {
         this.shipmentRepository = shipmentRepository;
         this.poiRepository = poiRepository;
         this.enrollmentRepository = enrollmentRepository;
@@ -56,6 +59,7 @@ public class ShipmentServiceImpl implements ShipmentService {
         this.vehicleRepository = vehicleRepository;
         this.gaodeMapService = gaodeMapService;
         this.transportLifecycleService = transportLifecycleService;
+        this.simulationRandom = simulationRandom;
     }
 
     @Override
@@ -309,7 +313,8 @@ public class ShipmentServiceImpl implements ShipmentService {
     public List<Shipment> batchGenerateShipments(int count) {
         if (count <= 0) return Collections.emptyList();
 
-        Random random = new Random();
+        // 每次批量生成取一个派生种子：同一运行种子下第 n 次调用的结果可复现，并发调用之间也不共享随机状态
+        SplittableRandom random = new SplittableRandom(simulationRandom.nextSeed("shipment-batch"));
         List<Shipment> shipmentsToSave = new ArrayList<>(count);
         Map<String, Enrollment> enrollmentMap = new HashMap<>();
 
@@ -363,7 +368,7 @@ public class ShipmentServiceImpl implements ShipmentService {
             goods.addPOIEnrollment(enrollment);
 
             // 6. 生成运单
-            String refNo = generateUniqueRefNo(goods.getSku(), generated);
+            String refNo = generateUniqueRefNo(goods.getSku(), generated, random);
             Shipment shipment = new Shipment(refNo, startPOI, endPOI, totalWeight, totalVolume);
             shipment.setStatus(Shipment.ShipmentStatus.CREATED);
 
@@ -382,14 +387,14 @@ public class ShipmentServiceImpl implements ShipmentService {
         return shipmentsToSave;
     }
 
-    private String generateUniqueRefNo(String sku, int index) {
+    private String generateUniqueRefNo(String sku, int index, SplittableRandom random) {
         // 内部消化单号生成逻辑，格式：SKU_时间戳_6位随机数
         String timestamp = new java.text.SimpleDateFormat("yyyyMMddHHmmss").format(new java.util.Date());
-        String randomStr = String.format("%03d", new java.util.Random().nextInt(1000));
+        String randomStr = String.format("%03d", random.nextInt(1000));
         return sku + "_" + timestamp + "_" + String.format("%04d", index) + randomStr;
     }
 
-    private Integer generateRandomQuantity(Random random) {
+    private Integer generateRandomQuantity(SplittableRandom random) {
         return random.nextInt(10) + 5;
     }
 
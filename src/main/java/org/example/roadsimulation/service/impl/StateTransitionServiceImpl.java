@@ -2,6 +2,8 @@ package org.example.roadsimulation.service.impl;
 
 import jakarta.annotation.PostConstruct;
 import jakarta.transaction.Transactional;
+import org.example.roadsimulation.core.SimulationRandom;
+import org.example.roadsimulation.core.logging.HotPathLogAggregator;
 import org.example.roadsimulation.entity.Assignment;
 import org.example.roadsimulation.entity.Assignment.AssignmentStatus;
 import org.example.roadsimulation.entity.AssignmentNode;
@@ -13,6 +15,7 @@ import org.example.roadsimulation.repository.AssignmentRepository;
 import org.example.roadsimulation.repository.VehicleRepository;
 import org.example.roadsimulation.service.StateTransitionService;
 import org.example.roadsimulation.service.TransportLifecycleService;
+import org.example.roadsimulation.service.VehicleStatusTransitions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -29,14 +32,20 @@ import java.util.*;
 public class StateTransitionServiceImpl implements StateTransitionService {
 
     private static final Logger logger = LoggerFactory.getLogger(StateTransitionServiceImpl.class);
-    private final Random random = new Random();
+    private static final String RANDOM_SUBSYSTEM = "state-transition";
 
+    @Autowired
+    private SimulationRandom simulationRandom;
     @Autowired
     private VehicleRepository vehicleRepository;
     @Autowired
     private AssignmentRepository assignmentRepository;
     @Autowired
     private TransportLifecycleService transportLifecycleService;
+    @Autowired
+    private VehicleStatusTransitions vehicleStatusTransitions;
+    @Autowired
+    private HotPathLogAggregator hotPathLog;
 
     // 状态顺序（必须与矩阵行/列严格对应）
     private static final List<VehicleStatus> STATES = List.of(
@@ -197,7 +206,7 @@ public class StateTransitionServiceImpl implements StateTransitionService {
     /**
      * 纯马尔科夫链转移（无任务时使用）
      */
-    private VehicleStatus selectNextStateWithMarkovOnly(VehicleStatus currentStatus) {
+    private VehicleStatus selectNextStateWithMarkovOnly(VehicleStatus currentStatus, SplittableRandom random) {
         int idx = STATES.indexOf(currentStatus);
         if (idx == -1) return VehicleStatus.IDLE;
 
@@ -213,16 +222,23 @@ public class StateTransitionServiceImpl implements StateTransitionService {
         return STATES.get(probs.length - 1);
     }
 
+    private SplittableRandom nextRandom() {
+        return new SplittableRandom(simulationRandom.nextSeed(RANDOM_SUBSYSTEM));
+    }
+
     @Override
     public VehicleStatus selectNextState(VehicleStatus currentStatus) {
-        return selectNextStateWithMarkovOnly(currentStatus);
+        return selectNextStateWithMarkovOnly(currentStatus, nextRandom());
     }
 
     @Override
     public Map<Long, VehicleStatus> batchSelectNextState(Map<Long, VehicleStatus> currentStates) {
+        // 每辆车按 (本批次, 车辆 ID) 取独立随机流，结果与 Map 遍历顺序无关
+        long batch = simulationRandom.nextSeed(RANDOM_SUBSYSTEM);
         Map<Long, VehicleStatus> result = new HashMap<>();
         for (Map.Entry<Long, VehicleStatus> entry : currentStates.entrySet()) {
-            result.put(entry.getKey(), selectNextState(entry.getValue()));
+            SplittableRandom random = simulationRandom.forEntity(RANDOM_SUBSYSTEM, entry.getKey(), batch);
+            result.put(entry.getKey(), selectNextStateWithMarkovOnly(entry.getValue(), random));
         }
         return result;
     }
@@ -232,7 +248,7 @@ public class StateTransitionServiceImpl implements StateTransitionService {
             VehicleStatus currentStatus,
             Map<VehicleStatus, Map<VehicleStatus, Double>> markovMatrix) {
         // 你现在用的是 transitionMatrix，因此忽略参数 markovMatrix
-        return selectNextStateWithMarkovOnly(currentStatus);
+        return selectNextStateWithMarkovOnly(currentStatus, nextRandom());
     }
 
     /**
@@ -240,19 +256,23 @@ public class StateTransitionServiceImpl implements StateTransitionService {
      */
     private void onStateFinished(Vehicle vehicle, Assignment assignment, LocalDateTime simNow) {
         if (assignment == null) {
-            logger.info("[任务推进] vehicle={} 无任务，跳过", vehicle.getLicensePlate());
+            if (hotPathLog.record(HotPathLogAggregator.STATE_FINISHED, "NO_ASSIGNMENT")) {
+                logger.info("[任务推进] vehicle={} 无任务，跳过", vehicle.getLicensePlate());
+            }
             return;
         }
 
-        logger.info("[任务推进-进入] vehicle={} vStatus={} aId={} aStatus={} actionIdx={} lineSize={} simNow={}",
-                vehicle.getLicensePlate(),
-                vehicle.getCurrentStatus(),
-                assignment.getId(),
-                assignment.getStatus(),
-                assignment.getCurrentActionIndex(),
-                (assignment.getActionLine() == null ? 0 : assignment.getActionLine().size()),
-                simNow
-        );
+        if (hotPathLog.record(HotPathLogAggregator.STATE_FINISHED, "ENTER")) {
+            logger.info("[任务推进-进入] vehicle={} vStatus={} aId={} aStatus={} actionIdx={} lineSize={} simNow={}",
+                    vehicle.getLicensePlate(),
+                    vehicle.getCurrentStatus(),
+                    assignment.getId(),
+                    assignment.getStatus(),
+                    assignment.getCurrentActionIndex(),
+                    (assignment.getActionLine() == null ? 0 : assignment.getActionLine().size()),
+                    simNow
+            );
+        }
 
         if (assignment.getStatus() == AssignmentStatus.ASSIGNED) {
             transportLifecycleService.startAssignmentExecution(
@@ -297,14 +317,18 @@ public class StateTransitionServiceImpl implements StateTransitionService {
                 return;
             }
             if (s == VehicleStatus.UNLOADING) {
-                logger.info("[任务推进-等待前端到达] assignmentId={} vehicleStatus={} simNow={}",
-                        assignment.getId(), s, simNow);
+                if (hotPathLog.record(HotPathLogAggregator.STATE_FINISHED, "AWAIT_FRONTEND_ARRIVAL")) {
+                    logger.info("[任务推进-等待前端到达] assignmentId={} vehicleStatus={} simNow={}",
+                            assignment.getId(), s, simNow);
+                }
                 return;
             }
 
             List<Long> line = assignment.getActionLine();
             if (line == null || line.isEmpty()) {
-                logger.info("[任务推进-跳过] assignmentId={} actionLine empty, do nothing", assignment.getId());
+                if (hotPathLog.record(HotPathLogAggregator.STATE_FINISHED, "EMPTY_ACTION_LINE")) {
+                    logger.info("[任务推进-跳过] assignmentId={} actionLine empty, do nothing", assignment.getId());
+                }
                 return;
             }
 
@@ -333,8 +357,11 @@ public class StateTransitionServiceImpl implements StateTransitionService {
                 );
                 logger.info("[任务推进-运输中] assignmentId={} item status marked IN_TRANSIT", assignment.getId());
             } else if (s == VehicleStatus.WAITING || s == VehicleStatus.BREAKDOWN) {
-                logger.info("[任务推进-等待/异常] assignmentId={} vehicleStatus={} 保持任务状态", assignment.getId(), s);
-            } else {
+                if (hotPathLog.record(HotPathLogAggregator.STATE_FINISHED,
+                        s == VehicleStatus.WAITING ? "HOLD_WAITING" : "HOLD_BREAKDOWN")) {
+                    logger.info("[任务推进-等待/异常] assignmentId={} vehicleStatus={} 保持任务状态", assignment.getId(), s);
+                }
+            } else if (hotPathLog.record(HotPathLogAggregator.STATE_FINISHED, "NOT_ACTION_LIKE")) {
                 logger.info("[任务推进-不推进] assignmentId={} vehicleStatus={} not action-like", assignment.getId(), s);
             }
         }
@@ -410,7 +437,7 @@ public class StateTransitionServiceImpl implements StateTransitionService {
 
             // 1) 状态为空就初始化
             if (v.getCurrentStatus() == null) {
-                v.transitionToStatus(Vehicle.VehicleStatus.IDLE, simNow, Duration.ZERO);
+                vehicleStatusTransitions.transition(v, null, Vehicle.VehicleStatus.IDLE, simNow, Duration.ZERO);
             }
 
             // 2) 强制把窗口起点挪到现在
@@ -496,7 +523,9 @@ public class StateTransitionServiceImpl implements StateTransitionService {
 
         // 0) 初始化状态
         if (vehicle.getCurrentStatus() == null) {
-            vehicle.transitionToStatus(
+            vehicleStatusTransitions.transition(
+                    vehicle,
+                    null,
                     VehicleStatus.IDLE,
                     simNow,
                     calcStayDuration(VehicleStatus.IDLE, null, vehicle, minutesPerLoop)
@@ -532,23 +561,23 @@ public class StateTransitionServiceImpl implements StateTransitionService {
         // 2) 时间门槛：没到 endTime 不允许转移
         LocalDateTime endTime = vehicle.getStatusEndTime();
         if (endTime != null && simNow.isBefore(endTime)) {
-            logger.info("车辆[{}] 未到转移时间：current={} simNow={} endTime={}",
-                    vehicle.getLicensePlate(),
-                    vehicle.getCurrentStatus(),
-                    simNow,
-                    endTime);
+            if (hotPathLog.record(HotPathLogAggregator.VEHICLE_STATE, "NOT_DUE")) {
+                logger.info("车辆[{}] 未到转移时间：current={} simNow={} endTime={}",
+                        vehicle.getLicensePlate(),
+                        vehicle.getCurrentStatus(),
+                        simNow,
+                        endTime);
+            }
             return;
         }
 
         // 3) 获取任务上下文
         Assignment assignment = vehicle.getCurrentAssignment();
         if (assignment == null) {
-            if (vehicle.getCurrentStatus() != VehicleStatus.IDLE) {
-                vehicle.transitionToStatus(
-                        VehicleStatus.IDLE,
-                        simNow,
-                        calcStayDuration(VehicleStatus.IDLE, null, vehicle, minutesPerLoop)
-                );
+            VehicleStatus current = vehicle.getCurrentStatus();
+            if (current != VehicleStatus.IDLE) {
+                Duration idleStay = calcStayDuration(VehicleStatus.IDLE, null, vehicle, minutesPerLoop);
+                vehicleStatusTransitions.transition(vehicle, null, VehicleStatus.IDLE, simNow, idleStay);
                 vehicleRepository.save(vehicle);
             }
             return;
@@ -575,8 +604,8 @@ public class StateTransitionServiceImpl implements StateTransitionService {
                     simNow.plus(stay));
         }
 
-        // 即使状态没变，也刷新驻留窗口
-        vehicle.transitionToStatus(next, simNow, stay);
+        // 即使状态没变，也刷新驻留窗口（状态变化时同时记入事件日志）
+        vehicleStatusTransitions.transition(vehicle, assignment.getId(), next, simNow, stay);
 
         vehicleRepository.save(vehicle);
     }
@@ -1,15 +1,15 @@
 package org.example.roadsimulation.service.impl;
 
-import org.example.roadsimulation.entity.Vehicle;
+import org.example.roadsimulation.core.logging.HotPathLogAggregator;
 import org.example.roadsimulation.entity.Vehicle.VehicleStatus;
 import org.example.roadsimulation.repository.VehicleRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * 状态更新服务（主循环版）
@@ -24,6 +24,7 @@ public class StateUpdateService {
     // ✅ 改成注入具体实现：这样可以稳定调用 resetVehicleStateWindows
     private final StateTransitionServiceImpl stateTransitionService;
     private final VehicleRepository vehicleRepository;
+    private final HotPathLogAggregator hotPathLog;
 
     /**
      * 统计打印频率：每隔多少个 loop 打印一次
@@ -37,9 +38,11 @@ public class StateUpdateService {
 
     @Autowired
     public StateUpdateService(StateTransitionServiceImpl stateTransitionService,
-                              VehicleRepository vehicleRepository) {
+                              VehicleRepository vehicleRepository,
+                              HotPathLogAggregator hotPathLog) {
         this.stateTransitionService = stateTransitionService;
         this.vehicleRepository = vehicleRepository;
+        this.hotPathLog = hotPathLog;
     }
 
     /**
@@ -70,6 +73,9 @@ public class StateUpdateService {
         } catch (Exception e) {
             System.err.println("[StateUpdateService] tick 执行失败: " + e.getMessage());
             e.printStackTrace();
+        } finally {
+            // ✅ 热路径日志：本 tick 的逐车/逐货物计数汇总成一行
+            hotPathLog.flushTick(loopCount, simNow);
         }
     }
 
@@ -85,13 +91,21 @@ public class StateUpdateService {
      * 打印所有车辆当前状态分布统计（由主循环控制频率）
      */
     private void printStateStatistics(LocalDateTime simNow) {
-        List<Vehicle> vehicles = vehicleRepository.findAll();
-        Map<VehicleStatus, Long> stats = vehicles.stream()
-                .collect(Collectors.groupingBy(Vehicle::getCurrentStatus, Collectors.counting()));
+        // 只做 GROUP BY 聚合查询，不加载车辆实体
+        List<VehicleRepository.StatusCount> counts = vehicleRepository.countGroupByCurrentStatus();
+        Map<VehicleStatus, Long> stats = new EnumMap<>(VehicleStatus.class);
+        long total = 0;
+        for (VehicleRepository.StatusCount count : counts) {
+            long value = count.getCount() == null ? 0L : count.getCount();
+            total += value;
+            if (count.getStatus() != null) {
+                stats.put(count.getStatus(), value);
+            }
+        }
 
         System.out.printf("[状态统计] 仿真时间: %s | 车辆总数: %d | 分布: %s%n",
                 simNow,
-                vehicles.size(),
+                total,
                 stats);
     }
 
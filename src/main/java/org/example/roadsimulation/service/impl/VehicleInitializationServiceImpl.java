@@ -1,9 +1,11 @@
 package org.example.roadsimulation.service.impl;
 
+import org.example.roadsimulation.core.SimulationRandom;
 import org.example.roadsimulation.entity.*;
 import org.example.roadsimulation.repository.VehicleRepository;
 import org.example.roadsimulation.repository.POIRepository;
 import org.example.roadsimulation.service.VehicleInitializationService;
+import org.example.roadsimulation.service.VehicleStatusTransitions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,7 +16,6 @@ import java.math.BigDecimal;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,6 +26,8 @@ public class VehicleInitializationServiceImpl implements VehicleInitializationSe
 
     private final VehicleRepository vehicleRepository;
     private final POIRepository poiRepository;
+    private final VehicleStatusTransitions vehicleStatusTransitions;
+    private final SimulationRandom simulationRandom;
 
     // 默认POI ID（可以配置化）
     private Long defaultPoiId = null;
@@ -32,9 +35,13 @@ public class VehicleInitializationServiceImpl implements VehicleInitializationSe
     @Autowired
     public VehicleInitializationServiceImpl(
             VehicleRepository vehicleRepository,
-            POIRepository poiRepository) {
+            POIRepository poiRepository,
+            VehicleStatusTransitions vehicleStatusTransitions,
+            SimulationRandom simulationRandom) {
         this.vehicleRepository = vehicleRepository;
         this.poiRepository = poiRepository;
+        this.vehicleStatusTransitions = vehicleStatusTransitions;
+        this.simulationRandom = simulationRandom;
     }
 
     @Override
@@ -70,7 +77,7 @@ public class VehicleInitializationServiceImpl implements VehicleInitializationSe
                 }
 
                 // 执行初始化
-                POI targetPOI = selectRandomPOI(initializationPOIs);
+                POI targetPOI = selectRandomPOI(initializationPOIs, vehicle);
                 initializeSingleVehicle(vehicle, targetPOI);
                 successCount++;
 
@@ -231,7 +238,7 @@ public class VehicleInitializationServiceImpl implements VehicleInitializationSe
         }
 
         // 设置为空闲状态
-        vehicle.transitionToStatus(Vehicle.VehicleStatus.IDLE, LocalDateTime.now(), Duration.ZERO);
+        vehicleStatusTransitions.transition(vehicle, null, Vehicle.VehicleStatus.IDLE, LocalDateTime.now(), Duration.ZERO);
 
         // 如果有进行中的任务，记录日志
         if (vehicle.getCurrentAssignment() != null) {
@@ -252,7 +259,7 @@ public class VehicleInitializationServiceImpl implements VehicleInitializationSe
         for (Vehicle vehicle : vehicles) {
             try {
                 if (canSetToIdle(vehicle)) {
-                    vehicle.transitionToStatus(Vehicle.VehicleStatus.IDLE, LocalDateTime.now(), Duration.ZERO);
+                    vehicleStatusTransitions.transition(vehicle, null, Vehicle.VehicleStatus.IDLE, LocalDateTime.now(), Duration.ZERO);
                     successCount++;
                     logger.debug("车辆 {} 已设置为空闲状态", vehicle.getId());
                 } else {
@@ -463,14 +470,17 @@ public class VehicleInitializationServiceImpl implements VehicleInitializationSe
         return candidates.stream()
                 .filter(Objects::nonNull)
                 .filter(poi -> poi.getLongitude() != null && poi.getLatitude() != null)
+                .sorted(Comparator.comparing(POI::getId))
                 .collect(Collectors.toList());
     }
 
-    private POI selectRandomPOI(List<POI> candidates) {
+    /** 与 SimulationDataCleanupService 相同：按车辆 ID 取独立随机流，同一运行种子下摆放结果可复现 */
+    private POI selectRandomPOI(List<POI> candidates, Vehicle vehicle) {
         if (candidates == null || candidates.isEmpty()) {
             throw new IllegalStateException("没有可用的仓库或配送中心POI");
         }
-        return candidates.get(ThreadLocalRandom.current().nextInt(candidates.size()));
+        long vehicleKey = vehicle.getId() != null ? vehicle.getId() : 0L;
+        return candidates.get(simulationRandom.forEntity("vehicle-placement", vehicleKey, 0).nextInt(candidates.size()));
     }
 
     /**
@@ -480,7 +490,7 @@ public class VehicleInitializationServiceImpl implements VehicleInitializationSe
         logger.debug("初始化车辆 {} (车牌: {})", vehicle.getId(), vehicle.getLicensePlate());
 
         // 1. 设置车辆状态为空闲
-        vehicle.transitionToStatus(Vehicle.VehicleStatus.IDLE, LocalDateTime.now(), Duration.ZERO);
+        vehicleStatusTransitions.transition(vehicle, null, Vehicle.VehicleStatus.IDLE, LocalDateTime.now(), Duration.ZERO);
 
         // 2. 设置车辆位置到目标POI
         vehicle.setCurrentPOI(targetPOI);
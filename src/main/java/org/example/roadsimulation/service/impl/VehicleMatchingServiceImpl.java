@@ -1,5 +1,6 @@
 package org.example.roadsimulation.service.impl;
 
+import org.example.roadsimulation.core.geo.HaversineBatch;
 import org.example.roadsimulation.dto.VehicleMatchResult;
 import org.example.roadsimulation.dto.VehicleMatchingCriteria;
 import org.example.roadsimulation.entity.Goods;
@@ -9,6 +10,9 @@ import org.example.roadsimulation.entity.VehicleGoodsMatch;
 import org.example.roadsimulation.repository.POIRepository;
 import org.example.roadsimulation.repository.VehicleGoodsMatchRepository;
 import org.example.roadsimulation.repository.VehicleRepository;
+import org.example.roadsimulation.rule.GoodsRequirement;
+import org.example.roadsimulation.rule.VehicleGoodsCompatibilityIndex;
+import org.example.roadsimulation.rule.VehicleSuitabilityRule;
 import org.example.roadsimulation.service.VehicleMatchingService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,6 +33,7 @@ public class VehicleMatchingServiceImpl implements VehicleMatchingService {
     private final VehicleRepository vehicleRepository;
     private final POIRepository poiRepository;
     private final VehicleGoodsMatchRepository matchRepository;
+    private final VehicleGoodsCompatibilityIndex compatibilityIndex;
 
     // 匹配权重配置
     private static final double WEIGHT_CAPACITY_WEIGHT = 0.4;
@@ -42,10 +47,12 @@ public class VehicleMatchingServiceImpl implements VehicleMatchingService {
 
     public VehicleMatchingServiceImpl(VehicleRepository vehicleRepository,
                                       POIRepository poiRepository,
-                                      VehicleGoodsMatchRepository matchRepository) {
+                                      VehicleGoodsMatchRepository matchRepository,
+                                      VehicleGoodsCompatibilityIndex compatibilityIndex) {
         this.vehicleRepository = vehicleRepository;
         this.poiRepository = poiRepository;
         this.matchRepository = matchRepository;
+        this.compatibilityIndex = compatibilityIndex;
     }
 
     @Override
@@ -106,20 +113,20 @@ public class VehicleMatchingServiceImpl implements VehicleMatchingService {
         // 先进行基本匹配
         List<VehicleMatchResult> baseMatches = matchVehiclesByCriteria(criteria);
 
-        // 计算距离并过滤
-        List<VehicleMatchResult> proximityMatches = baseMatches.stream()
-                .map(result -> {
-                    Vehicle vehicle = result.getVehicle();
-                    double distance = calculateDistance(vehicle, originPOI);
-
-                    // 设置距离信息
-                    result.setDistanceKm(distance);
-                    result.setDistanceScore(calculateDistanceScore(distance, criteria.getMaxDistanceKm()));
-                    result.setOriginPoiName(originPOI.getName());
-                    result.setEstimatedTimeHours(calculateEstimatedTime(distance));
+        // 批量计算距离并设置距离信息
+        double[] distances = calculateDistances(
+                baseMatches.stream().map(VehicleMatchResult::getVehicle).toList(), originPOI);
+        for (int i = 0; i < baseMatches.size(); i++) {
+            VehicleMatchResult result = baseMatches.get(i);
+            double distance = distances[i];
+            result.setDistanceKm(distance);
+            result.setDistanceScore(calculateDistanceScore(distance, criteria.getMaxDistanceKm()));
+            result.setOriginPoiName(originPOI.getName());
+            result.setEstimatedTimeHours(calculateEstimatedTime(distance));
+        }
 
-                    return result;
-                })
+        // 过滤并排序
+        List<VehicleMatchResult> proximityMatches = baseMatches.stream()
                 .filter(result -> {
                     // 根据最大距离过滤
                     if (criteria.getMaxDistanceKm() != null && result.getDistanceKm() > criteria.getMaxDistanceKm()) {
@@ -214,14 +221,11 @@ public class VehicleMatchingServiceImpl implements VehicleMatchingService {
                 criteria.getMinLoadCapacity()
         );
 
-        // 按距离排序
-        return candidates.stream()
-                .sorted((v1, v2) -> {
-                    double d1 = calculateDistance(v1, originPOI);
-                    double d2 = calculateDistance(v2, originPOI);
-                    return Double.compare(d1, d2);
-                })
+        // 按距离排序（距离只算一遍，不在比较器里重复计算）
+        double[] distances = calculateDistances(candidates, originPOI);
+        return sortedIndicesByDistance(distances).stream()
                 .limit(10) // 限制返回数量
+                .map(candidates::get)
                 .collect(Collectors.toList());
     }
 
@@ -459,10 +463,12 @@ public class VehicleMatchingServiceImpl implements VehicleMatchingService {
      */
     private double evaluateSpecialRequirements(Vehicle vehicle, VehicleMatchingCriteria criteria, List<String> descriptions) {
         double score = 1.0;
+        long requirements = GoodsRequirement.maskOf(criteria.getRequireTempControl(), criteria.getHazmatLevel());
+        long capabilities = compatibilityIndex.vehicleCapabilities(vehicle);
 
-        // 温控要求匹配 - 使用扩展后的车辆字段
-        if (Boolean.TRUE.equals(criteria.getRequireTempControl())) {
-            if (Boolean.TRUE.equals(vehicle.getHasTempControl())) {
+        // 温控要求匹配 - 按车辆能力位判断
+        if (GoodsRequirement.TEMP_CONTROL.isSetIn(requirements)) {
+            if (VehicleSuitabilityRule.TEMP_CONTROL.isSatisfiedBy(requirements, capabilities)) {
                 descriptions.add("车辆支持温控，满足要求");
                 score *= 1.0;
             } else {
@@ -471,9 +477,9 @@ public class VehicleMatchingServiceImpl implements VehicleMatchingService {
             }
         }
 
-        // 危险品要求匹配 - 使用扩展后的车辆字段
-        if (criteria.getHazmatLevel() != null && !criteria.getHazmatLevel().isEmpty()) {
-            if (vehicle.getHazmatQualification() != null && !vehicle.getHazmatQualification().isEmpty()) {
+        // 危险品要求匹配 - 按车辆能力位判断
+        if (GoodsRequirement.HAZMAT.isSetIn(requirements)) {
+            if (VehicleSuitabilityRule.HAZMAT_QUALIFICATION.isSatisfiedBy(requirements, capabilities)) {
                 descriptions.add("车辆具有危险品运输资质：" + vehicle.getHazmatQualification());
                 score *= 1.0;
             } else {
@@ -648,6 +654,47 @@ public class VehicleMatchingServiceImpl implements VehicleMatchingService {
         return MAX_DISTANCE_KM / 2; // 返回中间值
     }
 
+    /**
+     * 批量计算多辆车到同一 POI 的距离（公里），车辆定位规则与 calculateDistance 相同
+     */
+    private double[] calculateDistances(List<Vehicle> vehicles, POI poi) {
+        double[] lat = new double[vehicles.size()];
+        double[] lon = new double[vehicles.size()];
+        for (int i = 0; i < vehicles.size(); i++) {
+            Vehicle vehicle = vehicles.get(i);
+            lat[i] = Double.NaN;
+            lon[i] = Double.NaN;
+            if (vehicle.getCurrentLongitude() != null && vehicle.getCurrentLatitude() != null) {
+                lat[i] = vehicle.getCurrentLatitude().doubleValue();
+                lon[i] = vehicle.getCurrentLongitude().doubleValue();
+            } else if (vehicle.getCurrentPOI() != null) {
+                lat[i] = vehicle.getCurrentPOI().getLatitude().doubleValue();
+                lon[i] = vehicle.getCurrentPOI().getLongitude().doubleValue();
+            }
+        }
+
+        double[] distances = HaversineBatch.oneToMany(
+                poi.getLatitude().doubleValue(), poi.getLongitude().doubleValue(),
+                HaversineBatch.Points.of(lat, lon));
+        for (int i = 0; i < distances.length; i++) {
+            if (Double.isNaN(distances[i])) {
+                logger.warn("车辆 {} 无位置信息，使用默认距离", vehicles.get(i).getLicensePlate());
+                distances[i] = MAX_DISTANCE_KM / 2;
+            }
+        }
+        return distances;
+    }
+
+    /** 按距离升序的下标（稳定排序，距离相同保持原顺序） */
+    private List<Integer> sortedIndicesByDistance(double[] distances) {
+        List<Integer> indices = new ArrayList<>(distances.length);
+        for (int i = 0; i < distances.length; i++) {
+            indices.add(i);
+        }
+        indices.sort(Comparator.comparingDouble(i -> distances[i]));
+        return indices;
+    }
+
     /**
      * 使用 Haversine 公式计算两点间距离（单位：公里）
      */
@@ -753,16 +800,10 @@ public class VehicleMatchingServiceImpl implements VehicleMatchingService {
 
         List<Vehicle> allAvailable = vehicleRepository.findByCurrentStatus(Vehicle.VehicleStatus.IDLE);
 
-        return allAvailable.stream()
-                .filter(vehicle -> {
-                    double distance = calculateDistance(vehicle, centerPOI);
-                    return distance <= radiusKm;
-                })
-                .sorted((v1, v2) -> {
-                    double d1 = calculateDistance(v1, centerPOI);
-                    double d2 = calculateDistance(v2, centerPOI);
-                    return Double.compare(d1, d2);
-                })
+        double[] distances = calculateDistances(allAvailable, centerPOI);
+        return sortedIndicesByDistance(distances).stream()
+                .filter(i -> distances[i] <= radiusKm)
+                .map(allAvailable::get)
                 .collect(Collectors.toList());
     }
 }
@@ -7,6 +7,7 @@ import org.example.roadsimulation.repository.GoodsRepository;
 import org.example.roadsimulation.repository.POIRepository;
 import org.example.roadsimulation.repository.VehicleRepository;
 import org.example.roadsimulation.service.VehicleService;
+import org.example.roadsimulation.service.VehicleStatusTransitions;
 import org.example.roadsimulation.service.POIService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -37,14 +38,17 @@ public class VehicleServiceImpl implements VehicleService {
     private final VehicleRepository vehicleRepository;
     private final POIService poiService;
     private final GoodsRepository goodsRepository;
+    private final VehicleStatusTransitions vehicleStatusTransitions;
 
     @Autowired
     public VehicleServiceImpl(VehicleRepository vehicleRepository,
                               POIService poiService,
-                              GoodsRepository goodsRepository) {
+                              GoodsRepository goodsRepository,
+                              VehicleStatusTransitions vehicleStatusTransitions) {
         this.vehicleRepository = vehicleRepository;
         this.poiService = poiService;
         this.goodsRepository = goodsRepository;
+        this.vehicleStatusTransitions = vehicleStatusTransitions;
     }
 
     @Override
@@ -68,7 +72,7 @@ public class VehicleServiceImpl implements VehicleService {
                     vehicle.setModelType(vehicleDetails.getModelType());
                     vehicle.setMaxLoadCapacity(vehicleDetails.getMaxLoadCapacity());
                     vehicle.setCargoVolume(vehicleDetails.getCargoVolume());
-                    vehicle.transitionToStatus(vehicleDetails.getCurrentStatus(), LocalDateTime.now(), Duration.ZERO);
+                    vehicleStatusTransitions.transition(vehicle, null, vehicleDetails.getCurrentStatus(), LocalDateTime.now(), Duration.ZERO);
                     vehicle.setLength(vehicleDetails.getLength());
                     vehicle.setWidth(vehicleDetails.getWidth());
                     vehicle.setHeight(vehicleDetails.getHeight());
@@ -172,7 +176,7 @@ public class VehicleServiceImpl implements VehicleService {
     public Vehicle updateVehicleStatus(Long vehicleId, Vehicle.VehicleStatus status) {
         return vehicleRepository.findById(vehicleId)
                 .map(vehicle -> {
-                    vehicle.transitionToStatus(status, LocalDateTime.now(), Duration.ZERO);
+                    vehicleStatusTransitions.transition(vehicle, null, status, LocalDateTime.now(), Duration.ZERO);
                     return vehicleRepository.save(vehicle);
                 })
                 .orElseThrow(() -> new RuntimeException("车辆不存在，ID: " + vehicleId));
@@ -2,14 +2,14 @@ package org.example.roadsimulation;
 
 import jakarta.persistence.EntityManager;
 import org.example.roadsimulation.config.DispatchStrategy;
-import org.example.roadsimulation.config.SimulationRuntimeConfig;
 import org.example.roadsimulation.config.TimeModuleConfig;
 import org.example.roadsimulation.core.SimulationContext;
-import org.example.roadsimulation.dto.RuntimeCostDTO;
+import org.example.roadsimulation.core.stats.CostWindowSample;
 import org.example.roadsimulation.entity.CostEntity;
 import org.example.roadsimulation.entity.POI;
-import org.example.roadsimulation.entity.ShipmentItem;
 import org.example.roadsimulation.entity.Vehicle;
+import org.example.roadsimulation.experiment.CostBaselineCalibrationRunner;
+import org.example.roadsimulation.experiment.CostWindowSampleCsv;
 import org.example.roadsimulation.repository.AssignmentRepository;
 import org.example.roadsimulation.repository.GoodsRepository;
 import org.example.roadsimulation.repository.POIRepository;
@@ -17,7 +17,6 @@ import org.example.roadsimulation.repository.ProcessingChainRepository;
 import org.example.roadsimulation.repository.ProcessingStageRepository;
 import org.example.roadsimulation.repository.ShipmentItemRepository;
 import org.example.roadsimulation.repository.VehicleRepository;
-import org.example.roadsimulation.service.GetCostService;
 import org.example.roadsimulation.service.impl.VehicleDataImportServiceImpl;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
@@ -42,7 +41,6 @@ import java.util.Comparator;
 import java.util.EnumMap;
 import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 import java.util.StringJoiner;
 
@@ -75,10 +73,7 @@ class CostBaselineCalibrationIT {
     private SimulationContext simulationContext;
 
     @Autowired
-    private SimulationRuntimeConfig simulationRuntimeConfig;
-
-    @Autowired
-    private GetCostService getCostService;
+    private CostBaselineCalibrationRunner calibrationRunner;
 
     @Autowired
     private VehicleRepository vehicleRepository;
@@ -117,7 +112,7 @@ class CostBaselineCalibrationIT {
         Map<Long, VehicleSnapshot> originalVehicles = snapshotVehicles();
         assertFalse(originalVehicles.isEmpty(), "baseline calibration requires existing vehicle base data");
 
-        List<WindowSample> samples = new ArrayList<>();
+        List<CostWindowSample> samples = new ArrayList<>();
         Map<DispatchStrategy, List<Long>> runStartEpochs = new EnumMap<>(DispatchStrategy.class);
 
         try {
@@ -154,72 +149,9 @@ class CostBaselineCalibrationIT {
             int runIndex,
             long runStartEpochMillis,
             int totalLoopIndex,
-            List<WindowSample> samples
+            List<CostWindowSample> samples
     ) {
-        prepareRun(strategy);
-
-        CostSnapshot previousDispatchSnapshot = null;
-        int previousDispatchLoop = -1;
-        int windowIndex = 0;
-
-        while (simulationContext.getLoopCount() <= totalLoopIndex) {
-            int loopBeforeExecute = simulationContext.getLoopCount();
-            simulationMainLoop.executeMainLoop();
-
-            if (isDispatchLoop(loopBeforeExecute)) {
-                CostSnapshot currentSnapshot = currentCostSnapshot();
-                if (previousDispatchSnapshot != null) {
-                    windowIndex++;
-                    samples.add(WindowSample.from(
-                            strategy,
-                            runIndex,
-                            runStartEpochMillis,
-                            windowIndex,
-                            previousDispatchLoop,
-                            loopBeforeExecute,
-                            previousDispatchSnapshot,
-                            currentSnapshot
-                    ));
-                }
-                previousDispatchSnapshot = currentSnapshot;
-                previousDispatchLoop = loopBeforeExecute;
-            }
-        }
-
-        simulationContext.setRunning(false);
-    }
-
-    private void prepareRun(DispatchStrategy strategy) {
-        simulationMainLoop.awaitLoopIdleAndResetContext();
-        dataInitializer.resetSimulationRuntimeData();
-        try {
-            dataInitializer.run();
-        } catch (Exception e) {
-            throw new IllegalStateException("Failed to initialize baseline run data", e);
-        }
-        simulationRuntimeConfig.setDispatchStrategy(strategy);
-        simulationContext.finishReset();
-        simulationContext.setRunning(true);
-    }
-
-    private boolean isDispatchLoop(int loop) {
-        return loop != 0 && loop % 3 == 0;
-    }
-
-    private CostSnapshot currentCostSnapshot() {
-        RuntimeCostDTO costs = getCostService.calculateRuntimeCosts(
-                vehicleRepository.findAll(),
-                assignmentRepository.findRuntimeActiveAssignments()
-        );
-        return new CostSnapshot(
-                safe(costs.getCostA()),
-                safe(costs.getCostB()),
-                safe(costs.getCostC()),
-                safe(costs.getCostD()),
-                safe(costs.getCostE()),
-                shipmentItemRepository.count(),
-                shipmentItemRepository.findByStatus(ShipmentItem.ShipmentItemStatus.NOT_ASSIGNED).size()
-        );
+        calibrationRunner.run(strategy, runIndex, runIndex, runStartEpochMillis, totalLoopIndex, samples::add);
     }
 
     private Map<Long, VehicleSnapshot> snapshotVehicles() {
@@ -278,10 +210,10 @@ class CostBaselineCalibrationIT {
         );
     }
 
-    private Map<DispatchStrategy, StrategyBaseline> computeBaselines(List<WindowSample> samples) {
+    private Map<DispatchStrategy, StrategyBaseline> computeBaselines(List<CostWindowSample> samples) {
         Map<DispatchStrategy, StrategyBaseline> baselines = new EnumMap<>(DispatchStrategy.class);
         for (DispatchStrategy strategy : List.of(DispatchStrategy.ORIGINAL, DispatchStrategy.HEURISTIC)) {
-            List<WindowSample> strategySamples = samples.stream()
+            List<CostWindowSample> strategySamples = samples.stream()
                     .filter(sample -> sample.strategy() == strategy)
                     .toList();
             baselines.put(strategy, new StrategyBaseline(
@@ -293,13 +225,13 @@ class CostBaselineCalibrationIT {
         return baselines;
     }
 
-    private PercentileSet percentileSet(List<WindowSample> samples, double percentile) {
+    private PercentileSet percentileSet(List<CostWindowSample> samples, double percentile) {
         return new PercentileSet(
-                nearestRank(samples.stream().map(WindowSample::unitA).toList(), percentile),
-                nearestRank(samples.stream().map(WindowSample::unitB).toList(), percentile),
-                nearestRank(samples.stream().map(WindowSample::unitC).toList(), percentile),
-                nearestRank(samples.stream().map(WindowSample::unitD).toList(), percentile),
-                nearestRank(samples.stream().map(WindowSample::unitE).toList(), percentile)
+                nearestRank(samples.stream().map(CostWindowSample::unitA).toList(), percentile),
+                nearestRank(samples.stream().map(CostWindowSample::unitB).toList(), percentile),
+                nearestRank(samples.stream().map(CostWindowSample::unitC).toList(), percentile),
+                nearestRank(samples.stream().map(CostWindowSample::unitD).toList(), percentile),
+                nearestRank(samples.stream().map(CostWindowSample::unitE).toList(), percentile)
         );
     }
 
@@ -320,7 +252,7 @@ class CostBaselineCalibrationIT {
             Path outputDir,
             int runs,
             int totalLoopIndex,
-            List<WindowSample> samples,
+            List<CostWindowSample> samples,
             Map<DispatchStrategy, StrategyBaseline> baselines,
             Map<DispatchStrategy, List<Long>> runStartEpochs
     ) throws IOException {
@@ -337,39 +269,16 @@ class CostBaselineCalibrationIT {
         );
     }
 
-    private String csv(List<WindowSample> samples) {
+    private String csv(List<CostWindowSample> samples) {
         StringBuilder builder = new StringBuilder();
-        builder.append(String.join(",",
-                "strategy",
-                "runIndex",
-                "runStartEpochMillis",
-                "windowIndex",
-                "startLoop",
-                "endLoop",
-                "taskScale",
-                "costAStart",
-                "costAEnd",
-                "unitA",
-                "costBStart",
-                "costBEnd",
-                "unitB",
-                "costCStart",
-                "costCEnd",
-                "unitC",
-                "costDStart",
-                "costDEnd",
-                "unitD",
-                "costEStart",
-                "costEEnd",
-                "unitE"
-        )).append(System.lineSeparator());
+        builder.append(CostWindowSampleCsv.HEADER).append(System.lineSeparator());
 
         samples.stream()
                 .sorted(Comparator
-                        .comparing(WindowSample::strategy)
-                        .thenComparingInt(WindowSample::runIndex)
-                        .thenComparingInt(WindowSample::windowIndex))
-                .forEach(sample -> builder.append(sample.toCsv()).append(System.lineSeparator()));
+                        .comparing(CostWindowSample::strategy)
+                        .thenComparingInt(CostWindowSample::runIndex)
+                        .thenComparingInt(CostWindowSample::windowIndex))
+                .forEach(sample -> builder.append(CostWindowSampleCsv.row(sample)).append(System.lineSeparator()));
         return builder.toString();
     }
 
@@ -453,15 +362,8 @@ class CostBaselineCalibrationIT {
         return Paths.get(value.trim());
     }
 
-    private double safe(Double value) {
-        if (value == null || Double.isNaN(value) || Double.isInfinite(value)) {
-            return 0.0;
-        }
-        return value;
-    }
-
     private static String format(double value) {
-        return String.format(Locale.US, "%.10f", value);
+        return CostWindowSampleCsv.format(value);
     }
 
     @SpringBootConfiguration
@@ -480,116 +382,8 @@ class CostBaselineCalibrationIT {
     static class BaselineCalibrationApplication {
     }
 
-    private record CostSnapshot(
-            double costA,
-            double costB,
-            double costC,
-            double costD,
-            double costE,
-            long totalShipmentItems,
-            long notAssignedItems
-    ) {
-    }
-
-    private record WindowSample(
-            DispatchStrategy strategy,
-            int runIndex,
-            long runStartEpochMillis,
-            int windowIndex,
-            int startLoop,
-            int endLoop,
-            long taskScale,
-            double costAStart,
-            double costAEnd,
-            double unitA,
-            double costBStart,
-            double costBEnd,
-            double unitB,
-            double costCStart,
-            double costCEnd,
-            double unitC,
-            double costDStart,
-            double costDEnd,
-            double unitD,
-            double costEStart,
-            double costEEnd,
-            double unitE
-    ) {
-        static WindowSample from(
-                DispatchStrategy strategy,
-                int runIndex,
-                long runStartEpochMillis,
-                int windowIndex,
-                int startLoop,
-                int endLoop,
-                CostSnapshot start,
-                CostSnapshot end
-        ) {
-            long taskScale = Math.max(
-                    1L,
-                    start.notAssignedItems() + Math.max(0L, end.totalShipmentItems() - start.totalShipmentItems())
-            );
-            double costAEnd = end.costA();
-            double costBEnd = end.costB();
-            double costCEnd = end.costC();
-            double costDEnd = end.costD();
-            double costEEnd = end.costE();
-            return new WindowSample(
-                    strategy,
-                    runIndex,
-                    runStartEpochMillis,
-                    windowIndex,
-                    startLoop,
-                    endLoop,
-                    taskScale,
-                    start.costA(),
-                    costAEnd,
-                    Math.max(0.0, costAEnd - start.costA()) / taskScale,
-                    start.costB(),
-                    costBEnd,
-                    (start.costB() + costBEnd) / 2.0,
-                    start.costC(),
-                    costCEnd,
-                    Math.max(0.0, costCEnd - start.costC()) / taskScale,
-                    start.costD(),
-                    costDEnd,
-                    Math.max(0.0, costDEnd - start.costD()) / taskScale,
-                    start.costE(),
-                    costEEnd,
-                    (start.costE() + costEEnd) / 2.0
-            );
-        }
-
-        String toCsv() {
-            return String.join(",",
-                    strategy.name(),
-                    String.valueOf(runIndex),
-                    String.valueOf(runStartEpochMillis),
-                    String.valueOf(windowIndex),
-                    String.valueOf(startLoop),
-                    String.valueOf(endLoop),
-                    String.valueOf(taskScale),
-                    format(costAStart),
-                    format(costAEnd),
-                    format(unitA),
-                    format(costBStart),
-                    format(costBEnd),
-                    format(unitB),
-                    format(costCStart),
-                    format(costCEnd),
-                    format(unitC),
-                    format(costDStart),
-                    format(costDEnd),
-                    format(unitD),
-                    format(costEStart),
-                    format(costEEnd),
-                    format(unitE)
-            );
-        }
-    }
-
     private record StrategyBaseline(
-            List<WindowSample> samples,
+            List<CostWindowSample> samples,
             PercentileSet p90,
             PercentileSet p95
     ) {
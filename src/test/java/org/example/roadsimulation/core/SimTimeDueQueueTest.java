@@ -0,0 +1,42 @@
+package org.example.roadsimulation.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SimTimeDueQueueTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    @Test
+    void pollsOnlyDueIdsInDueOrder() {
+        SimTimeDueQueue queue = new SimTimeDueQueue();
+        queue.schedule(1L, T0.plusMinutes(90));
+        queue.schedule(2L, T0.plusMinutes(30));
+        queue.schedule(3L, T0.plusMinutes(60));
+        queue.schedule(4L, T0.plusMinutes(60));
+
+        assertTrue(queue.pollDue(T0.plusMinutes(29)).isEmpty());
+        assertEquals(List.of(2L, 3L, 4L), queue.pollDue(T0.plusMinutes(60)));
+        assertEquals(1, queue.size());
+        assertEquals(List.of(1L), queue.pollDue(T0.plusMinutes(120)));
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    void rescheduleReplacesAndCancelRemoves() {
+        SimTimeDueQueue queue = new SimTimeDueQueue();
+        queue.schedule(1L, T0.plusMinutes(30));
+        queue.schedule(1L, T0.plusMinutes(120));   // 工序重新开始
+        queue.schedule(2L, T0.plusMinutes(30));
+        queue.cancel(2L);                          // 运单取消
+
+        assertEquals(1, queue.size());
+        assertTrue(queue.pollDue(T0.plusMinutes(90)).isEmpty());
+        assertEquals(List.of(1L), queue.pollDue(T0.plusMinutes(120)));
+    }
+}
@@ -0,0 +1,75 @@
+package org.example.roadsimulation.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class SimulationRandomTest {
+
+    /** 同一运行种子下，子系统流与调度种子序列完全一致；重新开始运行后从头再来 */
+    @Test
+    void sameRunSeedReproducesEveryStream() {
+        SimulationRandom first = new SimulationRandom(42L);
+        SimulationRandom second = new SimulationRandom(42L);
+
+        assertEquals(draw(first.subsystem("shipment-generation")), draw(second.subsystem("shipment-generation")));
+        assertEquals(first.nextSeed("heuristic-dispatch"), second.nextSeed("heuristic-dispatch"));
+        assertEquals(first.nextSeed("heuristic-dispatch"), second.nextSeed("heuristic-dispatch"));
+
+        List<Integer> generation = draw(first.subsystem("shipment-generation"));
+        long firstDispatchSeed = new SimulationRandom(42L).nextSeed("heuristic-dispatch");
+        first.startRun(42L);
+        assertEquals(firstDispatchSeed, first.nextSeed("heuristic-dispatch"));
+        assertNotEquals(generation, draw(first.subsystem("shipment-generation")));   // 回到序列开头
+
+        assertNotEquals(new SimulationRandom(43L).nextSeed("heuristic-dispatch"), firstDispatchSeed);
+    }
+
+    /** 子系统之间互不影响：多取一个子系统的数，不改变另一个子系统的序列 */
+    @Test
+    void subsystemsAreIndependent() {
+        SimulationRandom quiet = new SimulationRandom(7L);
+        SimulationRandom noisy = new SimulationRandom(7L);
+        noisy.subsystem("state-transition").nextLong();
+        noisy.nextSeed("quantity-split");
+
+        assertEquals(draw(quiet.subsystem("shipment-generation")), draw(noisy.subsystem("shipment-generation")));
+        assertEquals(quiet.nextSeed("heuristic-dispatch"), noisy.nextSeed("heuristic-dispatch"));
+    }
+
+    /** 按实体派生的流与调用顺序无关 */
+    @Test
+    void entityStreamsDoNotDependOnCallOrder() {
+        SimulationRandom random = new SimulationRandom(99L);
+        List<Integer> forward = IntStream.range(0, 20)
+                .map(id -> random.forEntity("vehicle-placement", id, 0).nextInt(1000)).boxed().toList();
+        List<Integer> backward = new ArrayList<>();
+        for (int id = 19; id >= 0; id--) {
+            backward.add(0, random.forEntity("vehicle-placement", id, 0).nextInt(1000));
+        }
+        assertEquals(forward, backward);
+        assertNotEquals(random.forEntity("vehicle-placement", 1, 0).nextLong(),
+                random.forEntity("vehicle-placement", 1, 1).nextLong());
+    }
+
+    @Test
+    void shuffleIsDeterministicPermutation() {
+        List<Integer> a = new ArrayList<>(IntStream.range(0, 50).boxed().toList());
+        List<Integer> b = new ArrayList<>(a);
+        SimulationRandom.shuffle(a, new SplittableRandom(5L));
+        SimulationRandom.shuffle(b, new SplittableRandom(5L));
+
+        assertEquals(a, b);
+        assertEquals(IntStream.range(0, 50).boxed().toList(), a.stream().sorted().toList());
+    }
+
+    private static List<Integer> draw(SplittableRandom random) {
+        return IntStream.range(0, 8).map(i -> random.nextInt(1_000_000)).boxed().toList();
+    }
+}
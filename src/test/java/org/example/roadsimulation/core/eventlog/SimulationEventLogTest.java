@@ -0,0 +1,140 @@
+package org.example.roadsimulation.core.eventlog;
+
+import org.example.roadsimulation.config.DispatchStrategy;
+import org.example.roadsimulation.entity.Vehicle;
+import org.example.roadsimulation.service.VehicleStatusTransitions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class SimulationEventLogTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void writesColumnarSegmentsAndReplaysTimelinesAndCostCurve() throws Exception {
+        // 小块 + 小段，强制跨块、跨段滚动
+        SimulationEventLog eventLog = new SimulationEventLog(true, tempDir.toString(), 16, 64, 2048, 60_000);
+        LocalDateTime start = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+        for (int loop = 0; loop < 30; loop++) {
+            LocalDateTime simNow = start.plusMinutes(30L * loop);
+            eventLog.recordVehicleTransition(simNow, 1L, 100L,
+                    Vehicle.VehicleStatus.IDLE, Vehicle.VehicleStatus.ORDER_DRIVING, 30);
+            eventLog.recordVehicleTransition(simNow, 2L, null,
+                    Vehicle.VehicleStatus.LOADING, Vehicle.VehicleStatus.IDLE, 60);
+            eventLog.recordDispatchDecision(simNow, 1L, 100L, DispatchStrategy.HEURISTIC, 3, 12.5, 4.0);
+            eventLog.recordCostSnapshot(simNow, 0L, loop, DispatchStrategy.HEURISTIC, loop,
+                    1, 2, 3, 4, 5, 15 + loop, 0.5);
+        }
+        eventLog.flush();
+        Path runDirectory = eventLog.getCurrentRunDirectory();
+        eventLog.shutdown();
+
+        assertNotNull(runDirectory);
+        assertEquals(0, eventLog.getDroppedEvents());
+
+        SimulationEventLogReader reader = new SimulationEventLogReader(runDirectory);
+        Map<SimulationEventType, Long> counts = reader.countByType();
+        assertEquals(60L, counts.get(SimulationEventType.VEHICLE_TRANSITION));
+        assertEquals(30L, counts.get(SimulationEventType.DISPATCH_DECISION));
+        assertEquals(30L, counts.get(SimulationEventType.COST_SNAPSHOT));
+
+        Map<Long, List<SimulationEventLogReader.VehicleTransition>> timelines = reader.vehicleTimelines();
+        assertEquals(30, timelines.get(1L).size());
+        SimulationEventLogReader.VehicleTransition last = timelines.get(2L).get(29);
+        assertEquals(start.plusMinutes(30L * 29), last.simTime());
+        assertEquals(0L, last.assignmentId());
+        assertEquals(Vehicle.VehicleStatus.LOADING.ordinal(), last.fromStatusOrdinal());
+        assertEquals(60L, last.stayMinutes());
+
+        List<SimulationEventLogReader.CostPoint> curve = reader.costCurve(0L);
+        assertEquals(30, curve.size());
+        assertEquals(44.0, curve.get(29).allCost(), 1e-9);
+        assertEquals(DispatchStrategy.HEURISTIC.ordinal(), curve.get(0).strategyOrdinal());
+    }
+
+    @Test
+    void dropsEventsInsteadOfBlockingWhenAllBlocksAreFull() {
+        SimulationEventLog eventLog = new SimulationEventLog(true, tempDir.toString(), 16, 2, 1 << 20, 60_000);
+        LocalDateTime simNow = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+        for (int i = 0; i < 40; i++) {
+            eventLog.recordVehicleTransition(simNow, (long) i, null,
+                    Vehicle.VehicleStatus.IDLE, Vehicle.VehicleStatus.ORDER_DRIVING, 30);
+        }
+        eventLog.shutdown();
+
+        assertEquals(32, eventLog.getAppendedEvents());
+        assertEquals(8, eventLog.getDroppedEvents());
+    }
+
+    /** 所有块都写满时切换运行：当前块也落到上一次运行的目录，新运行从空块开始 */
+    @Test
+    void startNewRunFlushesActiveBlockEvenWithoutFreeBlocks() throws Exception {
+        SimulationEventLog eventLog = new SimulationEventLog(true, tempDir.toString(), 16, 2, 1 << 20, 60_000);
+        LocalDateTime simNow = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+        for (int i = 0; i < 32; i++) {
+            eventLog.recordVehicleTransition(simNow, (long) i, null,
+                    Vehicle.VehicleStatus.IDLE, Vehicle.VehicleStatus.ORDER_DRIVING, 30);
+        }
+        eventLog.startNewRun();
+        Thread.sleep(5);                                    // 运行目录按毫秒命名
+        eventLog.recordVehicleTransition(simNow, 99L, null,
+                Vehicle.VehicleStatus.ORDER_DRIVING, Vehicle.VehicleStatus.IDLE, 0);
+        eventLog.flush();
+        Path secondRun = eventLog.getCurrentRunDirectory();
+        eventLog.shutdown();
+
+        assertEquals(0, eventLog.getDroppedEvents());
+        List<Path> runs;
+        try (var dirs = Files.list(tempDir)) {
+            runs = dirs.sorted().toList();
+        }
+        assertEquals(2, runs.size());
+        assertEquals(secondRun, runs.get(1));
+        assertEquals(32L, new SimulationEventLogReader(runs.get(0)).countByType()
+                .get(SimulationEventType.VEHICLE_TRANSITION));
+        assertEquals(1L, new SimulationEventLogReader(runs.get(1)).countByType()
+                .get(SimulationEventType.VEHICLE_TRANSITION));
+    }
+
+    /** 统一入口：状态变化时记事件，状态不变只刷新驻留窗口 */
+    @Test
+    void vehicleStatusTransitionsRecordOnlyStatusChanges() throws Exception {
+        SimulationEventLog eventLog = new SimulationEventLog(true, tempDir.toString(), 16, 4, 1 << 20, 60_000);
+        VehicleStatusTransitions transitions = new VehicleStatusTransitions(eventLog);
+        LocalDateTime simNow = LocalDateTime.of(2026, 1, 1, 0, 0);
+        Vehicle vehicle = new Vehicle();
+        vehicle.setId(7L);
+        vehicle.setCurrentStatus(Vehicle.VehicleStatus.IDLE);
+
+        transitions.transition(vehicle, 3L, Vehicle.VehicleStatus.ORDER_DRIVING, simNow, Duration.ofMinutes(30));
+        transitions.transition(vehicle, 3L, Vehicle.VehicleStatus.ORDER_DRIVING, simNow.plusMinutes(30),
+                Duration.ofMinutes(30));
+        transitions.transition(vehicle, 3L, Vehicle.VehicleStatus.LOADING, simNow.plusMinutes(60), Duration.ZERO);
+        eventLog.flush();
+        Path runDirectory = eventLog.getCurrentRunDirectory();
+        eventLog.shutdown();
+
+        assertEquals(Vehicle.VehicleStatus.LOADING, vehicle.getCurrentStatus());
+        List<SimulationEventLogReader.VehicleTransition> timeline =
+                new SimulationEventLogReader(runDirectory).vehicleTimelines().get(7L);
+        assertEquals(2, timeline.size());
+        assertEquals(3L, timeline.get(0).assignmentId());
+        assertEquals(30L, timeline.get(0).stayMinutes());
+        assertEquals(Vehicle.VehicleStatus.ORDER_DRIVING.ordinal(), timeline.get(1).fromStatusOrdinal());
+        assertEquals(simNow.plusMinutes(60), timeline.get(1).simTime());
+    }
+}
@@ -0,0 +1,65 @@
+package org.example.roadsimulation.core.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HaversineBatchTest {
+
+    /** 批量路径（SIMD 或标量）与各服务原先的 atan2 写法一致，长度覆盖向量尾部 */
+    @Test
+    void batchMatchesPerPairFormula() {
+        Random random = new Random(11);
+        for (int n : new int[]{0, 1, 3, 7, 8, 9, 33, 257}) {
+            double[] lat = new double[n];
+            double[] lon = new double[n];
+            for (int i = 0; i < n; i++) {
+                lat[i] = -60.0 + random.nextDouble() * 120.0;
+                lon[i] = -180.0 + random.nextDouble() * 360.0;
+            }
+            HaversineBatch.Points points = HaversineBatch.Points.of(lat, lon);
+            double srcLat = 31.23;
+            double srcLon = 121.47;
+
+            double[] dispatched = HaversineBatch.oneToMany(srcLat, srcLon, points);
+            double[] scalar = new double[n];
+            HaversineBatch.oneToManyScalar(srcLat, srcLon, points, scalar);
+
+            for (int i = 0; i < n; i++) {
+                double expected = legacyHaversine(srcLat, srcLon, lat[i], lon[i]);
+                assertEquals(expected, dispatched[i], 1e-6);
+                assertEquals(expected, scalar[i], 1e-6);
+            }
+        }
+    }
+
+    @Test
+    void manyToManyIsRowMajorAndPropagatesMissingCoordinates() {
+        HaversineBatch.Points from = HaversineBatch.Points.of(
+                new double[]{39.9, Double.NaN}, new double[]{116.4, Double.NaN});
+        HaversineBatch.Points to = HaversineBatch.Points.of(
+                new double[]{23.1, 31.2, 39.9}, new double[]{113.3, 121.5, 116.4});
+
+        double[] matrix = HaversineBatch.manyToMany(from, to);
+
+        assertEquals(6, matrix.length);
+        assertEquals(legacyHaversine(39.9, 116.4, 23.1, 113.3), matrix[0], 1e-6);
+        assertEquals(legacyHaversine(39.9, 116.4, 31.2, 121.5), matrix[1], 1e-6);
+        assertEquals(0.0, matrix[2], 1e-9);
+        for (int j = 3; j < 6; j++) {
+            assertTrue(Double.isNaN(matrix[j]));
+        }
+    }
+
+    private static double legacyHaversine(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 6371.0 * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+}
@@ -0,0 +1,68 @@
+package org.example.roadsimulation.core.registry;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AtomicIdBitSetTest {
+
+    /** 多线程交错置位 / 清位（含新建段与目录扩容），计数与位状态保持一致 */
+    @Test
+    void concurrentUpdatesKeepCardinalityExact() throws Exception {
+        AtomicIdBitSet bits = new AtomicIdBitSet();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(pool.submit(() -> {
+                    for (long id = 0; id < 200_000; id++) {
+                        bits.set(id);
+                        if (id % 3 == 0) {
+                            bits.clear(id);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        // id % 3 == 0 的位可能被晚到的置位重新置上，其余位必然为 1；计数须与实际置位数一致
+        int setBits = 0;
+        for (long id = 0; id < 200_000; id++) {
+            if (id % 3 != 0) {
+                assertTrue(bits.get(id));
+            }
+            setBits += bits.get(id) ? 1 : 0;
+        }
+        assertEquals(setBits, bits.cardinality());
+    }
+
+    @Test
+    void readsOutsideWrittenSegmentsAndPairKeysRoundTrip() {
+        AtomicIdBitSet bits = new AtomicIdBitSet();
+        assertFalse(bits.get(5_000_000L));
+        assertFalse(bits.clear(5_000_000L));
+        assertTrue(bits.set(5_000_000L));
+        assertFalse(bits.set(5_000_000L));
+        assertEquals(1, bits.cardinality());
+        assertThrows(IllegalArgumentException.class, () -> bits.set(-1L));
+
+        long key = PoiPairKey.of(123_456L, 4_000_000_000L);
+        assertEquals(123_456L, PoiPairKey.sourceId(key));
+        assertEquals(4_000_000_000L, PoiPairKey.destId(key));
+        assertEquals("123456_4000000000", PoiPairKey.format(key));
+    }
+}
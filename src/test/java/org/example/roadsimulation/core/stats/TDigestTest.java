@@ -0,0 +1,99 @@
+package org.example.roadsimulation.core.stats;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.roadsimulation.config.DispatchStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TDigestTest {
+
+    /** 长尾分布上 P50 / P90 / P95 / P99 的秩误差在 0.5% 以内，质心数与样本量无关 */
+    @Test
+    void tailQuantilesTrackExactNearestRank() {
+        Random random = new Random(11);
+        double[] values = new double[200_000];
+        TDigest digest = new TDigest();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.exp(random.nextGaussian());
+            digest.add(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double q : new double[]{0.5, 0.9, 0.95, 0.99}) {
+            double estimate = digest.quantile(q);
+            double rank = (double) lowerBound(values, estimate) / values.length;
+            assertEquals(q, rank, 0.005, "q=" + q);
+        }
+        assertEquals(values.length, digest.count(), 0.0);
+        assertEquals(values[0], digest.min(), 0.0);
+        assertEquals(values[values.length - 1], digest.max(), 0.0);
+        assertTrue(digest.centroidCount() <= 2 * TDigest.DEFAULT_COMPRESSION);
+    }
+
+    /** 分片后合并与整体写入的结果相近（跨 worker 合并的前提） */
+    @Test
+    void mergedShardsMatchSingleDigest() {
+        Random random = new Random(7);
+        TDigest whole = new TDigest();
+        TDigest merged = new TDigest();
+        for (int shard = 0; shard < 16; shard++) {
+            TDigest part = new TDigest();
+            for (int i = 0; i < 5_000; i++) {
+                double value = random.nextDouble() * 100.0;
+                whole.add(value);
+                part.add(value);
+            }
+            merged.merge(part);
+        }
+
+        assertEquals(whole.count(), merged.count(), 0.0);
+        assertEquals(whole.quantile(0.90), merged.quantile(0.90), 0.5);
+        assertEquals(whole.quantile(0.95), merged.quantile(0.95), 0.5);
+    }
+
+    @Test
+    void emptyAndNonFiniteInputs() {
+        TDigest digest = new TDigest();
+        digest.add(Double.NaN);
+        digest.add(Double.POSITIVE_INFINITY);
+        assertTrue(Double.isNaN(digest.quantile(0.95)));
+
+        digest.add(3.0);
+        assertEquals(3.0, digest.quantile(0.0), 0.0);
+        assertEquals(3.0, digest.quantile(1.0), 0.0);
+    }
+
+    /** 按策略的草图集合经 JSON 往返后分位数不变 */
+    @Test
+    void costWindowDigestsRoundTripThroughJson() throws Exception {
+        CostWindowDigests digests = new CostWindowDigests();
+        Random random = new Random(3);
+        CostWindowSample.Snapshot zero = new CostWindowSample.Snapshot(0, 0, 0, 0, 0, 0, 0);
+        for (int i = 0; i < 1_000; i++) {
+            CostWindowSample.Snapshot end = new CostWindowSample.Snapshot(
+                    random.nextDouble() * 50, random.nextDouble(), random.nextDouble() * 20,
+                    random.nextDouble() * 5, random.nextDouble(), 10, 0);
+            digests.add(CostWindowSample.of(DispatchStrategy.HEURISTIC, 1, 0L, i + 1, 0, 3, zero, end));
+        }
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        CostWindowDigests restored = CostWindowDigests.fromJson(
+                objectMapper.readTree(objectMapper.writeValueAsString(digests.toJson())));
+
+        assertEquals(1_000, restored.sampleCount(DispatchStrategy.HEURISTIC));
+        assertEquals(0, restored.sampleCount(DispatchStrategy.ORIGINAL));
+        assertArrayEquals(digests.quantiles(DispatchStrategy.HEURISTIC, 0.95),
+                restored.quantiles(DispatchStrategy.HEURISTIC, 0.95), 1e-9);
+    }
+
+    private static int lowerBound(double[] sorted, double value) {
+        int index = Arrays.binarySearch(sorted, value);
+        return index >= 0 ? index : -index - 1;
+    }
+}
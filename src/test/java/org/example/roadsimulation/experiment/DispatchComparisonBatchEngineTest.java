@@ -0,0 +1,80 @@
+package org.example.roadsimulation.experiment;
+
+import org.example.roadsimulation.config.DispatchStrategy;
+import org.example.roadsimulation.service.DispatchComparisonScenarioSupport;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class DispatchComparisonBatchEngineTest {
+
+    /** 每个场景的两种策略共用场景种子、落在相邻的不同 worker 上；全部运行恰好分配一次 */
+    @Test
+    void planSpreadsStrategiesOfOneScenarioAcrossWorkers() {
+        List<List<DispatchComparisonBatchWorker.PlannedRun>> plans = DispatchComparisonBatchEngine.plan(options(5, 4));
+
+        assertEquals(4, plans.size());
+        List<DispatchComparisonBatchWorker.PlannedRun> all = plans.stream().flatMap(List::stream).toList();
+        assertEquals(10, all.size());
+        for (int scenarioIndex = 1; scenarioIndex <= 5; scenarioIndex++) {
+            int index = scenarioIndex;
+            List<DispatchComparisonBatchWorker.PlannedRun> runs = all.stream()
+                    .filter(run -> run.scenarioIndex() == index)
+                    .toList();
+            assertEquals(2, runs.size());
+            assertEquals(runs.get(0).seed(), runs.get(1).seed());
+            assertNotEquals(runs.get(0).strategy(), runs.get(1).strategy());
+            assertNotEquals(workerOf(plans, runs.get(0)), workerOf(plans, runs.get(1)));
+        }
+    }
+
+    @Test
+    void planNeverStartsMoreWorkersThanRuns() {
+        assertEquals(2, DispatchComparisonBatchEngine.plan(options(1, 8)).size());
+    }
+
+    /** 同一种子抽出同一组运单模板，场景可以在任意 worker 上重建 */
+    @Test
+    void sameSeedSelectsSameShipmentTemplates() {
+        DispatchComparisonScenarioSupport support =
+                new DispatchComparisonScenarioSupport(null, null, null, null, null, null, null, null, null, null);
+        long seed = 20260101L;
+
+        assertEquals(support.selectTemplates(10, new Random(seed)), support.selectTemplates(10, new Random(seed)));
+    }
+
+    @Test
+    void planLineRoundTrips() throws Exception {
+        DispatchComparisonBatchWorker.PlannedRun run =
+                new DispatchComparisonBatchWorker.PlannedRun(7, DispatchStrategy.HEURISTIC, -42L);
+        Path planFile = Files.createTempFile("comparison", ".plan");
+        try {
+            Files.writeString(planFile, DispatchComparisonBatchWorker.planLine(run) + "\n");
+            assertEquals(List.of(run), DispatchComparisonBatchWorker.readPlan(planFile));
+        } finally {
+            Files.deleteIfExists(planFile);
+        }
+    }
+
+    private static int workerOf(List<List<DispatchComparisonBatchWorker.PlannedRun>> plans,
+                                DispatchComparisonBatchWorker.PlannedRun run) {
+        for (int w = 0; w < plans.size(); w++) {
+            if (plans.get(w).contains(run)) {
+                return w;
+            }
+        }
+        return -1;
+    }
+
+    private static DispatchComparisonBatchEngine.Options options(int scenarios, int workers) {
+        return new DispatchComparisonBatchEngine.Options(scenarios, 10, 360, workers, 20260101L,
+                Path.of("target/dispatch-comparison"), "jdbc:mysql://localhost:3306/test", "root", "",
+                true, false, List.of());
+    }
+}
@@ -0,0 +1,78 @@
+package org.example.roadsimulation.optimizer;
+
+import org.example.roadsimulation.entity.Goods;
+import org.example.roadsimulation.entity.ShipmentItem;
+import org.example.roadsimulation.entity.Vehicle;
+import org.example.roadsimulation.rule.VehicleGoodsCompatibilityIndex;
+import org.example.roadsimulation.rule.VehicleGoodsCompatibilityIndex.ViolationMatrix;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class IncrementalMatchingStateTest {
+
+    private final SolutionEvaluator evaluator = new SolutionEvaluator(new VehicleGoodsCompatibilityIndex());
+
+    @Test
+    void incrementalCostMatchesFullEvaluationAcrossMovesAndUndos() {
+        Random random = new Random(2026);
+        List<Vehicle> vehicles = new ArrayList<>();
+        for (int v = 0; v < 8; v++) {
+            Vehicle vehicle = new Vehicle();
+            vehicle.setMaxLoadCapacity(random.nextInt(6) == 0 ? null : 5.0 + random.nextInt(20));
+            vehicle.setCargoVolume(random.nextInt(6) == 0 ? null : 10.0 + random.nextInt(30));
+            vehicle.setSuitableGoods(v % 3 == 0 ? "冷链 危险品" : "普通货物");
+            vehicles.add(vehicle);
+        }
+        List<ShipmentItem> items = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            ShipmentItem item = new ShipmentItem();
+            item.setWeight(random.nextInt(10) == 0 ? null : 0.5 + random.nextDouble() * 4);
+            item.setVolume(0.5 + random.nextDouble() * 6);
+            Goods goods = new Goods("g" + i, "SKU" + i);
+            goods.setRequireTemp(i % 7 == 0);
+            goods.setHazmatLevel(i % 11 == 0 ? "3" : null);
+            item.setGoods(goods);
+            items.add(item);
+        }
+
+        ViolationMatrix violations = evaluator.buildViolationMatrix(vehicles, items);
+        IncrementalMatchingState state = new IncrementalMatchingState(evaluator, vehicles, items, violations);
+        int[] initial = new int[items.size()];
+        for (int i = 0; i < initial.length; i++) initial[i] = i % vehicles.size();
+        state.load(initial);
+
+        for (int step = 0; step < 5000; step++) {
+            double before = state.cost();
+            double delta;
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    int item = random.nextInt(items.size());
+                    delta = state.moveSingle(item, random.nextInt(vehicles.size()));
+                }
+                case 1 -> delta = state.swap(random.nextInt(items.size()), random.nextInt(items.size()));
+                default -> {
+                    int src = random.nextInt(vehicles.size());
+                    delta = state.memberCount(src) == 0 ? state.noMove()
+                            : state.transferSegment(src, random.nextInt(vehicles.size()), 2 + random.nextInt(4), random);
+                }
+            }
+            assertEquals(before + delta, state.cost(), 1e-6);
+
+            if (random.nextBoolean()) {
+                state.undo();
+                assertEquals(before, state.cost(), 1e-9);
+            }
+
+            MatchingSolution check = new MatchingSolution(items.size());
+            state.copyAssignmentTo(check.getAssignmentArray());
+            double full = evaluator.evaluate(check, vehicles, items, violations);
+            assertEquals(full, state.cost(), 1e-6 * Math.max(1.0, full), "step " + step);
+            assertEquals(check.isFeasible(), state.feasible(), "step " + step);
+        }
+    }
+}
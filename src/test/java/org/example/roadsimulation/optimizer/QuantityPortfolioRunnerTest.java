@@ -0,0 +1,133 @@
+package org.example.roadsimulation.optimizer;
+
+import org.example.roadsimulation.entity.Goods;
+import org.example.roadsimulation.entity.Vehicle;
+import org.example.roadsimulation.rule.VehicleGoodsCompatibilityIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QuantityPortfolioRunnerTest {
+
+    private final QuantityEvaluator evaluator = new QuantityEvaluator(new VehicleGoodsCompatibilityIndex());
+    private QuantityPortfolioRunner runner;
+
+    @AfterEach
+    void tearDown() {
+        if (runner != null) {
+            runner.shutdown();
+        }
+    }
+
+    @Test
+    void returnsFeasibleSolutionAndRecordsWinner() {
+        runner = newRunner(5_000, 1);
+        List<Vehicle> vehicles = vehicles(12);
+        Goods goods = goods();
+
+        QuantityPortfolioRunner.PortfolioResult result = runner.run(vehicles, goods, 200, 42L);
+
+        assertNotNull(result);
+        assertTrue(result.best().isFeasible());
+        assertEquals(200, result.best().totalAssigned());
+        assertEquals(1L, runner.getWinHistogram().values().stream().mapToLong(Long::longValue).sum());
+        assertTrue(runner.getWinHistogram().containsKey(result.winner()));
+    }
+
+    @Test
+    void deadlineStopsSolversButStillReturnsBestSoFar() {
+        runner = newRunner(1, 0);
+
+        QuantityPortfolioRunner.PortfolioResult result = runner.run(vehicles(40), goods(), 600, 7L);
+
+        assertNotNull(result);
+        assertTrue(result.elapsedMs() < 2_000, "solvers should stop shortly after the deadline");
+    }
+
+    /** 足够好的解出现后仍收齐其余求解器交回的结果，胜者是其中最便宜的可行解 */
+    @Test
+    void goodEnoughStillComparesEveryFinishedSolver() {
+        runner = new QuantityPortfolioRunner(ga(), sa(), 4, 16, 5_000, 0, 100);
+
+        QuantityPortfolioRunner.PortfolioResult result = runner.run(vehicles(12), goods(), 200, 42L);
+
+        assertNotNull(result);
+        assertTrue(result.stoppedEarly());
+        assertEquals(2, result.outcomes().size());
+        for (QuantityPortfolioRunner.SolverOutcome outcome : result.outcomes()) {
+            assertTrue(result.best().getCost() <= outcome.solution().getCost());
+        }
+    }
+
+    /** 线程池满时多出的求解器被跳过，不在调用线程上运行 */
+    @Test
+    void solversBeyondPoolCapacityAreSkipped() {
+        runner = new QuantityPortfolioRunner(ga(), sa(), 1, 1, 5_000, 2, 0);
+
+        QuantityPortfolioRunner.PortfolioResult result = runner.run(vehicles(12), goods(), 200, 42L);
+
+        assertNotNull(result);
+        assertTrue(result.outcomes().size() <= 2);
+        assertTrue(runner.getStatsSummary().values().stream().anyMatch(s -> s.endsWith("rejected=1")));
+    }
+
+    @Test
+    void everySolverAndVariantGetsItsOwnSeed() {
+        Set<Long> seeds = new HashSet<>();
+        for (String solver : List.of("GA", "SA", "GA#1", "SA#1", "GA#2", "SA#2")) {
+            seeds.add(QuantityPortfolioRunner.solverSeed(42L, solver));
+        }
+        assertEquals(6, seeds.size());
+    }
+
+    @Test
+    void vehicleLowerBoundUsesLargestCapacitiesFirst() {
+        List<Vehicle> vehicles = vehicles(6);   // 容量 10,15,20,25,30,35 吨，单件 1 吨
+        assertEquals(1, QuantityPortfolioRunner.minVehiclesNeeded(vehicles, goods(), 35));
+        assertEquals(2, QuantityPortfolioRunner.minVehiclesNeeded(vehicles, goods(), 36));
+        assertEquals(6, QuantityPortfolioRunner.minVehiclesNeeded(vehicles, goods(), 500));
+    }
+
+    private QuantityPortfolioRunner newRunner(long deadlineMs, int extraSeeds) {
+        return new QuantityPortfolioRunner(ga(), sa(), 4, 16, deadlineMs, extraSeeds, 0);
+    }
+
+    private QuantityGA ga() {
+        QuantityGA ga = new QuantityGA();
+        ReflectionTestUtils.setField(ga, "evaluator", evaluator);
+        return ga;
+    }
+
+    private QuantitySA sa() {
+        QuantitySA sa = new QuantitySA();
+        ReflectionTestUtils.setField(sa, "evaluator", evaluator);
+        return sa;
+    }
+
+    private List<Vehicle> vehicles(int n) {
+        List<Vehicle> vehicles = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            Vehicle v = new Vehicle();
+            v.setVehicleType("厢式货车");
+            v.setMaxLoadCapacity(10.0 + 5.0 * (i % 6));
+            vehicles.add(v);
+        }
+        return vehicles;
+    }
+
+    private Goods goods() {
+        Goods goods = new Goods("测试货物", "SKU-T");
+        goods.setWeightPerUnit(1.0);
+        goods.setVehicleFit("厢式货车");
+        return goods;
+    }
+}
@@ -0,0 +1,117 @@
+package org.example.roadsimulation.optimizer.multi.decompose;
+
+import org.example.roadsimulation.entity.POI;
+import org.example.roadsimulation.entity.Shipment;
+import org.example.roadsimulation.entity.ShipmentItem;
+import org.example.roadsimulation.entity.Vehicle;
+import org.example.roadsimulation.optimizer.multi.insertion.RouteSequenceCostEstimator;
+import org.example.roadsimulation.service.OriginalVrpDispatchPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class GeographicDecomposerTest {
+
+    private final RouteSequenceCostEstimator distance = new RouteSequenceCostEstimator();
+    private final GeographicDecomposer decomposer = new GeographicDecomposer(new OriginalVrpDispatchPolicy(), distance);
+
+    @Test
+    void separatesDistantRegionsAndAssignsNearbyVehicles() {
+        List<ShipmentItem> items = new ArrayList<>();
+        for (long i = 0; i < 5; i++) items.add(item(i, 39.9 + i * 0.01, 116.4));   // 北京
+        for (long i = 5; i < 8; i++) items.add(item(i, 23.1 + i * 0.01, 113.3));   // 广州
+        Vehicle north = vehicle(1L, 40.0, 116.5);
+        Vehicle south = vehicle(2L, 23.0, 113.2);
+
+        List<DispatchCluster> clusters = decomposer.decompose(items, List.of(north, south), 400.0);
+
+        assertEquals(2, clusters.size());
+        assertEquals(5, clusters.get(0).items().size());
+        assertEquals(List.of(north), clusters.get(0).vehicles());
+        assertEquals(3, clusters.get(1).items().size());
+        assertEquals(List.of(south), clusters.get(1).vehicles());
+    }
+
+    @Test
+    void regionWithoutVehiclesIsMergedIntoNearestOne() {
+        List<ShipmentItem> items = List.of(item(1L, 39.9, 116.4), item(2L, 23.1, 113.3));
+
+        List<DispatchCluster> clusters = decomposer.decompose(items, List.of(vehicle(1L, 40.0, 116.5)), 400.0);
+
+        assertEquals(1, clusters.size());
+        assertEquals(2, clusters.get(0).items().size());
+    }
+
+    @Test
+    void itemsWithinLinkDistanceNeverEndUpInDifferentClusters() {
+        Random random = new Random(3);
+        for (int round = 0; round < 20; round++) {
+            List<ShipmentItem> items = new ArrayList<>();
+            List<Vehicle> vehicles = new ArrayList<>();
+            for (long i = 0; i < 60; i++) {
+                items.add(item(i, 20.0 + random.nextDouble() * 25.0, 100.0 + random.nextDouble() * 25.0));
+            }
+            for (long v = 0; v < 30; v++) {
+                vehicles.add(vehicle(v, 20.0 + random.nextDouble() * 25.0, 100.0 + random.nextDouble() * 25.0));
+            }
+
+            List<DispatchCluster> clusters = decomposer.decompose(items, vehicles, 300.0);
+
+            Map<ShipmentItem, DispatchCluster> owner = new IdentityHashMap<>();
+            int vehicleTotal = 0;
+            for (DispatchCluster cluster : clusters) {
+                assertFalse(cluster.vehicles().isEmpty());
+                vehicleTotal += cluster.vehicles().size();
+                for (ShipmentItem item : cluster.items()) owner.put(item, cluster);
+            }
+            assertEquals(items.size(), owner.size());
+            assertEquals(vehicles.size(), vehicleTotal);
+
+            for (ShipmentItem a : items) {
+                for (ShipmentItem b : items) {
+                    double km = distance.distanceBetweenPois(a.getShipment().getOriginPOI(), b.getShipment().getOriginPOI());
+                    if (km <= 300.0) {
+                        assertSame(owner.get(a), owner.get(b));
+                    }
+                }
+            }
+        }
+    }
+
+    private ShipmentItem item(Long id, double lat, double lon) {
+        Shipment shipment = new Shipment();
+        shipment.setOriginPOI(poi(lat, lon));
+        shipment.setDestPOI(poi(lat + 0.5, lon + 0.5));
+
+        ShipmentItem item = new ShipmentItem();
+        item.setId(id);
+        item.setWeight(1.0);
+        item.setVolume(1.0);
+        item.setShipment(shipment);
+        return item;
+    }
+
+    private Vehicle vehicle(Long id, double lat, double lon) {
+        Vehicle vehicle = new Vehicle();
+        vehicle.setId(id);
+        vehicle.setCurrentLatitude(BigDecimal.valueOf(lat));
+        vehicle.setCurrentLongitude(BigDecimal.valueOf(lon));
+        return vehicle;
+    }
+
+    private POI poi(double lat, double lon) {
+        POI poi = new POI();
+        poi.setLatitude(BigDecimal.valueOf(lat));
+        poi.setLongitude(BigDecimal.valueOf(lon));
+        return poi;
+    }
+}
@@ -0,0 +1,151 @@
+package org.example.roadsimulation.optimizer.multi.init;
+
+import org.example.roadsimulation.entity.AssignmentNode;
+import org.example.roadsimulation.entity.POI;
+import org.example.roadsimulation.entity.Shipment;
+import org.example.roadsimulation.entity.ShipmentItem;
+import org.example.roadsimulation.entity.Vehicle;
+import org.example.roadsimulation.optimizer.multi.MultiOrderSolution;
+import org.example.roadsimulation.optimizer.multi.NodeGene;
+import org.example.roadsimulation.optimizer.multi.VehicleRouteGene;
+import org.example.roadsimulation.optimizer.multi.ga.MutationConfig;
+import org.example.roadsimulation.optimizer.multi.insertion.FeasibleInsertionService;
+import org.example.roadsimulation.optimizer.multi.insertion.RouteSequenceCostEstimator;
+import org.example.roadsimulation.optimizer.node.AssignmentNodeFactory;
+import org.example.roadsimulation.optimizer.node.PrimitiveRouteValidator;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MultiOrderInitialPopulationBuilderTest {
+
+    private final MultiOrderInitialPopulationBuilder builder = new MultiOrderInitialPopulationBuilder(
+            new FeasibleInsertionService(
+                    new AssignmentNodeFactory(),
+                    new PrimitiveRouteValidator(),
+                    new RouteSequenceCostEstimator()
+            )
+    );
+
+    private final Random random = new Random(11);
+
+    @Test
+    void repairKeepsIdleRoutesDropsServedItemsAndInsertsNewOnes() {
+        Vehicle idle = vehicle(1L);
+        Vehicle busy = vehicle(2L);
+        ShipmentItem kept = item(10L);
+        ShipmentItem served = item(11L);
+        ShipmentItem orphan = item(12L);
+        ShipmentItem fresh = item(13L);
+
+        MultiOrderSolution previous = new MultiOrderSolution();
+        previous.getVehicleRoutes().add(route(idle.getId(), kept, served));
+        previous.getVehicleRoutes().add(route(busy.getId(), orphan));
+
+        // 车辆 2 不在范围内，运单 11 不再待分配，运单 13 为原解之外的运单
+        MultiOrderSolution repaired = builder.repair(
+                previous,
+                List.of(kept, orphan, fresh),
+                List.of(idle, vehicle(3L)),
+                unboundedInsertion()
+        );
+
+        assertNotNull(repaired);
+        Set<Long> covered = new HashSet<>(repaired.getUnassignedShipmentItemIds());
+        for (VehicleRouteGene route : repaired.getVehicleRoutes()) {
+            assertTrue(route.getVehicleId() == 1L || route.getVehicleId() == 3L);
+            for (NodeGene node : route.getNodes()) {
+                covered.add(node.getShipmentItemId());
+                assertTrue(node.getShipmentItemId() != 11L);
+            }
+        }
+        assertEquals(Set.of(10L, 12L, 13L), covered);
+
+        VehicleRouteGene first = repaired.getVehicleRoutes().get(0);
+        assertEquals(1L, first.getVehicleId());
+        assertEquals(2, first.getNodes().stream().filter(n -> n.getShipmentItemId() == 10L).count());
+    }
+
+    @Test
+    void repairReturnsNullWithoutOverlap() {
+        ShipmentItem served = item(20L);
+        MultiOrderSolution previous = new MultiOrderSolution();
+        previous.getVehicleRoutes().add(route(5L, served));
+
+        assertNull(builder.repair(previous, List.of(item(21L)), List.of(vehicle(5L)), unboundedInsertion()));
+        assertNull(builder.repair(null, List.of(item(21L)), List.of(vehicle(5L)), unboundedInsertion()));
+    }
+
+    /** 只有原解的未分配运单仍待分配、没有路线被保留时返回 null（修复等同一次新的贪心插入） */
+    @Test
+    void repairReturnsNullWhenOnlyUnassignedItemsRemain() {
+        ShipmentItem dispatched = item(30L);
+        ShipmentItem leftover = item(31L);
+        MultiOrderSolution previous = new MultiOrderSolution();
+        previous.getVehicleRoutes().add(route(6L, dispatched));
+        previous.getUnassignedShipmentItemIds().add(leftover.getId());
+
+        // 车辆 6 不在范围内，只有运单 31 仍待分配
+        assertNull(builder.repair(previous, List.of(leftover, item(32L)), List.of(vehicle(7L)), unboundedInsertion()));
+    }
+
+    private MutationConfig unboundedInsertion() {
+        MutationConfig config = new MutationConfig();
+        config.setMaxInsertionScore(0.0);
+        return config;
+    }
+
+    private VehicleRouteGene route(Long vehicleId, ShipmentItem... items) {
+        VehicleRouteGene route = new VehicleRouteGene(vehicleId);
+        for (ShipmentItem item : items) {
+            route.addNode(new NodeGene(item.getId(), AssignmentNode.NodeActionType.LOAD, null));
+        }
+        for (int i = items.length - 1; i >= 0; i--) {
+            route.addNode(new NodeGene(items[i].getId(), AssignmentNode.NodeActionType.UNLOAD, null));
+        }
+        return route;
+    }
+
+    private Vehicle vehicle(Long id) {
+        Vehicle vehicle = new Vehicle();
+        vehicle.setId(id);
+        vehicle.setMaxLoadCapacity(30.0);
+        vehicle.setCargoVolume(60.0);
+        vehicle.setCurrentLatitude(coordinate(30.0));
+        vehicle.setCurrentLongitude(coordinate(120.0));
+        return vehicle;
+    }
+
+    private ShipmentItem item(Long id) {
+        Shipment shipment = new Shipment();
+        shipment.setOriginPOI(poi());
+        shipment.setDestPOI(poi());
+
+        ShipmentItem item = new ShipmentItem();
+        item.setId(id);
+        item.setWeight(2.0);
+        item.setVolume(3.0);
+        item.setShipment(shipment);
+        return item;
+    }
+
+    private POI poi() {
+        POI poi = new POI();
+        poi.setLatitude(coordinate(30.0));
+        poi.setLongitude(coordinate(120.0));
+        return poi;
+    }
+
+    private BigDecimal coordinate(double center) {
+        return BigDecimal.valueOf(center + random.nextDouble() * 2.0 - 1.0);
+    }
+}
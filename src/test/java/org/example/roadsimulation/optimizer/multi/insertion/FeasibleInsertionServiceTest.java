@@ -0,0 +1,116 @@
+package org.example.roadsimulation.optimizer.multi.insertion;
+
+import org.example.roadsimulation.entity.AssignmentNode;
+import org.example.roadsimulation.entity.POI;
+import org.example.roadsimulation.entity.Shipment;
+import org.example.roadsimulation.entity.ShipmentItem;
+import org.example.roadsimulation.entity.Vehicle;
+import org.example.roadsimulation.optimizer.node.AssignmentNodeFactory;
+import org.example.roadsimulation.optimizer.node.AssignmentNodeSequenceValidator;
+import org.example.roadsimulation.optimizer.node.PrimitiveRouteValidator;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FeasibleInsertionServiceTest {
+
+    private final AssignmentNodeSequenceValidator validator = new AssignmentNodeSequenceValidator();
+    private final FeasibleInsertionService service = new FeasibleInsertionService(
+            new AssignmentNodeFactory(),
+            new PrimitiveRouteValidator(),
+            new RouteSequenceCostEstimator()
+    );
+
+    @Test
+    void fastEnumerationMatchesFullValidationOnRandomRoutes() {
+        Random random = new Random(42);
+
+        for (int round = 0; round < 40; round++) {
+            Vehicle vehicle = vehicle(20.0 + random.nextInt(20), 40.0 + random.nextInt(40), random);
+            List<AssignmentNode> route = new ArrayList<>();
+
+            for (int step = 0; step < 12; step++) {
+                ShipmentItem item = item(round * 100L + step, 1.0 + random.nextInt(8), 2.0 + random.nextInt(10), random);
+
+                List<InsertionCandidate> fast = service.findAllFeasibleInsertions(vehicle, route, item);
+                List<InsertionCandidate> full = service.enumerateWithFullValidation(vehicle, route, item);
+
+                assertEquals(full.size(), fast.size());
+                for (int c = 0; c < full.size(); c++) {
+                    InsertionCandidate expected = full.get(c);
+                    InsertionCandidate actual = fast.get(c);
+                    assertEquals(expected.getLoadInsertIndex(), actual.getLoadInsertIndex());
+                    assertEquals(expected.getUnloadInsertIndex(), actual.getUnloadInsertIndex());
+                    assertEquals(expected.getBeforeDistanceKm(), actual.getBeforeDistanceKm(), 1e-6);
+                    assertEquals(expected.getAfterDistanceKm(), actual.getAfterDistanceKm(), 1e-6);
+                    assertEquals(expected.getScore(), actual.getScore(), 1e-6);
+                }
+
+                if (fast.isEmpty()) {
+                    continue;
+                }
+                InsertionCandidate chosen = fast.get(random.nextInt(fast.size()));
+                List<AssignmentNode> materialized = chosen.getNodesAfterInsertion();
+                List<AssignmentNode> expectedNodes = full.get(fast.indexOf(chosen)).getNodesAfterInsertion();
+
+                assertTrue(validator.validate(materialized, vehicle).isValid());
+                assertEquals(expectedNodes.size(), materialized.size());
+                for (int n = 0; n < materialized.size(); n++) {
+                    assertEquals(expectedNodes.get(n).getActionType(), materialized.get(n).getActionType());
+                    assertEquals(expectedNodes.get(n).getShipmentItem().getId(), materialized.get(n).getShipmentItem().getId());
+                    assertEquals(n, materialized.get(n).getSequenceIndex());
+                }
+                route = materialized;
+            }
+        }
+    }
+
+    @Test
+    void rejectsItemThatExceedsVehicleCapacity() {
+        Random random = new Random(7);
+        Vehicle vehicle = vehicle(5.0, 10.0, random);
+
+        assertTrue(service.findAllFeasibleInsertions(vehicle, new ArrayList<>(), item(1L, 6.0, 1.0, random)).isEmpty());
+        assertEquals(1, service.findAllFeasibleInsertions(vehicle, new ArrayList<>(), item(2L, 5.0, 1.0, random)).size());
+    }
+
+    private Vehicle vehicle(double maxLoad, double maxVolume, Random random) {
+        Vehicle vehicle = new Vehicle();
+        vehicle.setId(1L);
+        vehicle.setMaxLoadCapacity(maxLoad);
+        vehicle.setCargoVolume(maxVolume);
+        vehicle.setCurrentLatitude(coordinate(30.0, random));
+        vehicle.setCurrentLongitude(coordinate(120.0, random));
+        return vehicle;
+    }
+
+    private ShipmentItem item(Long id, double weight, double volume, Random random) {
+        Shipment shipment = new Shipment();
+        shipment.setOriginPOI(poi(random));
+        shipment.setDestPOI(poi(random));
+
+        ShipmentItem item = new ShipmentItem();
+        item.setId(id);
+        item.setWeight(weight);
+        item.setVolume(volume);
+        item.setShipment(shipment);
+        return item;
+    }
+
+    private POI poi(Random random) {
+        POI poi = new POI();
+        poi.setLatitude(coordinate(30.0, random));
+        poi.setLongitude(coordinate(120.0, random));
+        return poi;
+    }
+
+    private BigDecimal coordinate(double center, Random random) {
+        return BigDecimal.valueOf(center + random.nextDouble() * 2.0 - 1.0);
+    }
+}
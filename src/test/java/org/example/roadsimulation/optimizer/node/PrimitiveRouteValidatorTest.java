@@ -0,0 +1,95 @@
+package org.example.roadsimulation.optimizer.node;
+
+import org.example.roadsimulation.entity.AssignmentNode;
+import org.example.roadsimulation.entity.ShipmentItem;
+import org.example.roadsimulation.entity.Vehicle;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PrimitiveRouteValidatorTest {
+
+    private final AssignmentNodeSequenceValidator entityValidator = new AssignmentNodeSequenceValidator();
+    private final PrimitiveRouteValidator primitiveValidator = new PrimitiveRouteValidator();
+
+    @Test
+    void agreesWithEntityValidatorOnRandomSequences() {
+        Random random = new Random(2026);
+
+        for (int round = 0; round < 5000; round++) {
+            Vehicle vehicle = new Vehicle();
+            vehicle.setMaxLoadCapacity(random.nextInt(10) == 0 ? null : 5.0 + random.nextInt(30));
+            vehicle.setCargoVolume(10.0 + random.nextInt(50));
+
+            List<AssignmentNode> nodes = randomSequence(random);
+
+            AssignmentNodeSequenceValidator.ValidationResult expected = entityValidator.validate(nodes, vehicle);
+            RouteViolation actual = primitiveValidator.validate(nodes, vehicle);
+
+            assertEquals(expected.isValid(), actual.isValid(), () -> "expected " + expected.getReason() + " but was " + actual);
+            if (!expected.isValid()) {
+                assertEquals(expected.getReason(), primitiveValidator.describeLastViolation(actual));
+            }
+        }
+    }
+
+    /**
+     * 先生成合法的嵌套装卸序列，再随机扰动（交换、删除、重复、清空序号）制造各类违规。
+     */
+    private List<AssignmentNode> randomSequence(Random random) {
+        List<AssignmentNode> nodes = new ArrayList<>();
+        List<ShipmentItem> open = new ArrayList<>();
+        int items = random.nextInt(6);
+        long nextId = 1;
+
+        while (items > 0 || !open.isEmpty()) {
+            if (items > 0 && (open.isEmpty() || random.nextBoolean())) {
+                ShipmentItem item = new ShipmentItem();
+                item.setId(nextId++);
+                item.setWeight(1.0 + random.nextInt(8));
+                item.setVolume(1.0 + random.nextInt(8));
+                nodes.add(node(AssignmentNode.NodeActionType.LOAD, item, item.getWeight(), item.getVolume()));
+                open.add(item);
+                items--;
+            } else {
+                ShipmentItem item = open.remove(open.size() - 1);
+                nodes.add(node(AssignmentNode.NodeActionType.UNLOAD, item, -item.getWeight(), -item.getVolume()));
+            }
+        }
+
+        if (!nodes.isEmpty()) {
+            switch (random.nextInt(6)) {
+                case 0 -> Collections.swap(nodes, random.nextInt(nodes.size()), random.nextInt(nodes.size()));
+                case 1 -> nodes.remove(random.nextInt(nodes.size()));
+                case 2 -> nodes.add(copy(nodes.get(random.nextInt(nodes.size()))));
+                case 3 -> nodes.get(random.nextInt(nodes.size())).setActionType(null);
+                default -> {
+                }
+            }
+        }
+
+        for (int i = 0; i < nodes.size(); i++) {
+            nodes.get(i).setSequenceIndex(random.nextInt(8) == 0 ? null : i);
+        }
+        Collections.shuffle(nodes, random);
+        return nodes;
+    }
+
+    private AssignmentNode node(AssignmentNode.NodeActionType action, ShipmentItem item, double weight, double volume) {
+        AssignmentNode node = new AssignmentNode();
+        node.setActionType(action);
+        node.setShipmentItem(item);
+        node.setWeightDelta(weight);
+        node.setVolumeDelta(volume);
+        return node;
+    }
+
+    private AssignmentNode copy(AssignmentNode source) {
+        return node(source.getActionType(), source.getShipmentItem(), source.getWeightDelta(), source.getVolumeDelta());
+    }
+}
@@ -0,0 +1,101 @@
+package org.example.roadsimulation.rule;
+
+import org.example.roadsimulation.entity.Goods;
+import org.example.roadsimulation.entity.ShipmentItem;
+import org.example.roadsimulation.entity.Vehicle;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VehicleGoodsCompatibilityIndexTest {
+
+    private final VehicleGoodsCompatibilityIndex index = new VehicleGoodsCompatibilityIndex();
+
+    @Test
+    void violationMatrixMatchesSuitableGoodsKeywords() {
+        Vehicle cold = vehicle(1L, "冷链食品", "厢式货车");
+        Vehicle hazmat = vehicle(2L, "Dangerous goods", "罐车");
+        Vehicle plain = vehicle(3L, "日用品", "厢式货车");
+        Goods frozen = goods(10L, true, null, "厢式货车");
+        Goods chemical = goods(11L, false, "3", "罐车");
+        Goods general = goods(12L, false, "  ", "厢式货车");
+
+        VehicleGoodsCompatibilityIndex.ViolationMatrix m = index.violationMatrix(
+                List.of(cold, hazmat, plain), List.of(item(frozen), item(chemical), item(general)));
+
+        assertEquals(0, m.violations(0, 0));
+        assertEquals(VehicleGoodsCompatibilityIndex.TEMP_VIOLATION, m.violations(0, 1));
+        assertEquals(VehicleGoodsCompatibilityIndex.HAZMAT_VIOLATION, m.violations(1, 0));
+        assertEquals(0, m.violations(1, 1));
+        assertEquals(0, m.violations(2, 2));
+    }
+
+    @Test
+    void vehicleTypeFitIsRecomputedAfterSetter() {
+        Vehicle v = vehicle(1L, null, " 厢式货车 ");
+        Goods g = goods(10L, false, null, "厢式货车");
+        assertTrue(index.fitsVehicleType(v, g));
+
+        v.setVehicleType("罐车");
+        assertFalse(index.fitsVehicleType(v, g));
+        long[] bits = index.compatibleVehicleBits(List.of(v, vehicle(2L, null, "厢式货车")), g);
+        assertFalse(VehicleGoodsCompatibilityIndex.isSet(bits, 0));
+        assertTrue(VehicleGoodsCompatibilityIndex.isSet(bits, 1));
+    }
+
+    /** 重新加载的实体字段值相同、但 String 实例不同，仍命中同一缓存条目 */
+    @Test
+    void reloadedEntityWithEqualValuesHitsCache() {
+        Vehicle loaded = vehicle(1L, "冷链", "厢式货车");
+        Vehicle reloaded = vehicle(1L, new String("冷链"), new String("厢式货车"));
+        Goods g = goods(10L, false, null, "厢式货车");
+
+        long caps = index.vehicleCapabilities(loaded);
+        Object cached = ((Map<?, ?>) ReflectionTestUtils.getField(index, "vehicleEntries")).get(1L);
+        assertEquals(caps, index.vehicleCapabilities(reloaded));
+        assertTrue(index.fitsVehicleType(reloaded, g));
+        assertSame(cached, ((Map<?, ?>) ReflectionTestUtils.getField(index, "vehicleEntries")).get(1L));
+    }
+
+    @Test
+    void suitabilityRulesUseStructuredCapabilities() {
+        Vehicle v = vehicle(1L, "冷链", "厢式货车");
+        long caps = index.vehicleCapabilities(v);
+        long needsTemp = GoodsRequirement.maskOf(true, null);
+
+        assertFalse(VehicleSuitabilityRule.TEMP_CONTROL.isSatisfiedBy(needsTemp, caps));
+        v.setHasTempControl(true);
+        assertTrue(VehicleSuitabilityRule.TEMP_CONTROL.isSatisfiedBy(needsTemp, index.vehicleCapabilities(v)));
+        assertTrue(VehicleSuitabilityRule.LOAD_CAPACITY.isSatisfiedBy(needsTemp, 0L));
+    }
+
+    private Vehicle vehicle(Long id, String suitableGoods, String type) {
+        Vehicle v = new Vehicle();
+        ReflectionTestUtils.setField(v, "id", id);
+        v.setSuitableGoods(suitableGoods);
+        v.setVehicleType(type);
+        return v;
+    }
+
+    private Goods goods(Long id, boolean requireTemp, String hazmatLevel, String vehicleFit) {
+        Goods g = new Goods("g" + id, "SKU" + id);
+        ReflectionTestUtils.setField(g, "id", id);
+        g.setRequireTemp(requireTemp);
+        g.setHazmatLevel(hazmatLevel);
+        g.setVehicleFit(vehicleFit);
+        return g;
+    }
+
+    private ShipmentItem item(Goods goods) {
+        ShipmentItem item = new ShipmentItem();
+        item.setGoods(goods);
+        return item;
+    }
+}
@@ -0,0 +1,103 @@
+package org.example.roadsimulation.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.roadsimulation.config.DispatchStrategy;
+import org.example.roadsimulation.config.SimulationRuntimeConfig;
+import org.example.roadsimulation.dto.RuntimeCostDTO;
+import org.example.roadsimulation.dto.RuntimeCostDetailDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CostBaselineNormalizationServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SimulationRuntimeConfig runtimeConfig = new SimulationRuntimeConfig();
+    private final CostBaselineNormalizationService service = new CostBaselineNormalizationService(runtimeConfig);
+
+    @TempDir
+    Path tempDir;
+
+    /** 窗口 i 的 A 类单位成本为 i：实时草图给出的分位数应落在对应位置附近 */
+    @Test
+    void livePercentilesTrackWindowUnitCosts() {
+        runtimeConfig.setDispatchStrategy(DispatchStrategy.ORIGINAL);
+        service.configureForTest(true, tempDir.resolve("baseline.json").toString(), "P95");
+        assertNull(service.exportLivePercentiles());
+
+        recordWindows(100);
+
+        RuntimeCostDetailDTO.LivePercentileDetail detail = service.exportLivePercentiles();
+        assertNotNull(detail);
+        assertEquals("ORIGINAL", detail.getStrategy());
+        assertEquals(100L, detail.getSampleCount());
+        assertEquals(50.0, detail.getP50().getUnitCostA(), 1.5);
+        assertEquals(90.0, detail.getP90().getUnitCostA(), 1.5);
+        assertEquals(95.0, detail.getP95().getUnitCostA(), 1.5);
+        assertEquals(5.0, detail.getP95().getUnitCostB(), 1e-9);
+
+        service.reset();
+        assertNull(service.exportLivePercentiles());
+    }
+
+    /** 两次运行先后合并进同一基线文件：样本数累加，P95 按合并后的草图重算 */
+    @Test
+    void mergesRunsIncrementallyIntoBaselineFile() throws Exception {
+        Path baseline = tempDir.resolve("baseline.json");
+        runtimeConfig.setDispatchStrategy(DispatchStrategy.ORIGINAL);
+        service.configureForTest(true, baseline.toString(), "P95");
+
+        recordWindows(50);
+        assertTrue(service.mergeLiveIntoBaseline());
+        service.reset();
+        recordWindows(50);
+        assertTrue(service.mergeLiveIntoBaseline());
+
+        JsonNode root = objectMapper.readTree(baseline.toFile());
+        JsonNode original = root.path("strategies").path("ORIGINAL");
+        assertEquals(2, root.path("incrementalRuns").asInt());
+        assertEquals(100L, original.path("sampleCount").asLong());
+        assertEquals(47.5, original.path("p95").path("a").asDouble(), 1.5);
+        assertTrue(original.path("digests").has("e"));
+    }
+
+    /** 旧格式基线（只有 p90 / p95，没有草图）无法增量合并，保持原文件不变 */
+    @Test
+    void leavesLegacyBaselineWithoutDigestsUntouched() throws Exception {
+        Path baseline = tempDir.resolve("baseline.json");
+        String legacy = "{\"baselineVersion\":\"dispatch-window-v1\",\"strategies\":{\"HEURISTIC\":"
+                + "{\"sampleCount\":10,\"p90\":{\"a\":1,\"b\":1,\"c\":1,\"d\":1,\"e\":1},"
+                + "\"p95\":{\"a\":2,\"b\":2,\"c\":2,\"d\":2,\"e\":2}}}}";
+        Files.writeString(baseline, legacy);
+        runtimeConfig.setDispatchStrategy(DispatchStrategy.HEURISTIC);
+        service.configureForTest(true, baseline.toString(), "P95");
+
+        recordWindows(10);
+
+        assertFalse(service.mergeLiveIntoBaseline());
+        assertEquals(legacy, Files.readString(baseline));
+    }
+
+    /** 待分配 10 件、不新增货物，A 类成本每个窗口增加 10 × 窗口序号，B / E 为存量成本 */
+    private void recordWindows(int windows) {
+        double costA = 0.0;
+        service.recordDispatchSnapshot(costs(costA), 0L, 10L);
+        for (int i = 1; i <= windows; i++) {
+            costA += 10.0 * i;
+            service.recordDispatchSnapshot(costs(costA), 0L, 10L);
+        }
+    }
+
+    private static RuntimeCostDTO costs(double costA) {
+        return new RuntimeCostDTO(costA, 5.0, 0.0, 0.0, 5.0, costA + 10.0);
+    }
+}
@@ -0,0 +1,135 @@
+package org.example.roadsimulation.service;
+
+import org.example.roadsimulation.entity.POI;
+import org.example.roadsimulation.entity.Shipment;
+import org.example.roadsimulation.entity.ShipmentItem;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class OriginalVrpCandidateIndexTest {
+
+    private static final double ANCHOR_KM = 200.0;
+
+    /**
+     * 用"全量扫描 + 容量 / 体积 / 锚点判断"的原始写法作为参照，后续关卡用按 id 的确定性规则模拟，
+     * 两种方式对每辆车拼出的运单序列必须完全一致。
+     */
+    @Test
+    void packsExactlyLikeFullScan() {
+        Random random = new Random(5);
+        for (int round = 0; round < 30; round++) {
+            List<ShipmentItem> items = new ArrayList<>();
+            for (long id = 1; id <= 300; id++) {
+                items.add(item(id, 0.5 + random.nextInt(20), 1.0 + random.nextInt(30),
+                        22.0 + random.nextDouble() * 18.0, 105.0 + random.nextDouble() * 18.0));
+            }
+            items.sort(Comparator.comparing(ShipmentItem::getWeight).reversed()
+                    .thenComparing(ShipmentItem::getId));
+
+            List<ShipmentItem> naivePool = new ArrayList<>(items);
+            OriginalVrpCandidateIndex index = OriginalVrpCandidateIndex.build(items, ANCHOR_KM);
+
+            for (int v = 0; v < 40; v++) {
+                double capacity = 10.0 + random.nextInt(40);
+                double volume = 20.0 + random.nextInt(60);
+
+                List<ShipmentItem> expected = naivePack(naivePool, capacity, volume);
+                naivePool.removeAll(expected);
+
+                List<OriginalVrpCandidateIndex.Candidate> packed = new ArrayList<>();
+                OriginalVrpCandidateIndex.Cursor cursor = index.cursor();
+                double remainingWeight = capacity;
+                double remainingVolume = volume;
+                OriginalVrpCandidateIndex.Candidate candidate;
+                while ((candidate = cursor.next(remainingWeight, remainingVolume)) != null) {
+                    if (!laterGatesAccept(candidate.item())) {
+                        continue;
+                    }
+                    if (packed.isEmpty()) {
+                        cursor.anchor(candidate);
+                    }
+                    packed.add(candidate);
+                    remainingWeight -= candidate.weight();
+                    remainingVolume -= candidate.volume();
+                }
+                index.removeAll(packed);
+
+                assertEquals(expected, packed.stream().map(OriginalVrpCandidateIndex.Candidate::item).toList());
+            }
+            assertEquals(naivePool.size(), index.size());
+        }
+    }
+
+    @Test
+    void itemsWithoutCoordinatesAreRejected() {
+        ShipmentItem missing = item(1L, 1.0, 1.0, 30.0, 120.0);
+        missing.getShipment().getOriginPOI().setLatitude(null);
+        ShipmentItem ok = item(2L, 1.0, 1.0, 30.0, 120.0);
+
+        OriginalVrpCandidateIndex index = OriginalVrpCandidateIndex.build(List.of(missing, ok), ANCHOR_KM);
+
+        assertEquals(List.of(missing), index.getRejectedItems());
+        assertEquals(1, index.size());
+        assertSame(ok, index.cursor().next(10.0, 10.0).item());
+    }
+
+    private List<ShipmentItem> naivePack(List<ShipmentItem> pool, double capacity, double volume) {
+        List<ShipmentItem> packed = new ArrayList<>();
+        double remainingWeight = capacity;
+        double remainingVolume = volume;
+        POI anchor = null;
+        for (ShipmentItem item : pool) {
+            if (item.getWeight() > remainingWeight || item.getVolume() > remainingVolume) {
+                continue;
+            }
+            POI origin = item.getShipment().getOriginPOI();
+            if (anchor != null && OriginalVrpCandidateIndex.haversine(
+                    anchor.getLatitude().doubleValue(), anchor.getLongitude().doubleValue(),
+                    origin.getLatitude().doubleValue(), origin.getLongitude().doubleValue()) > ANCHOR_KM) {
+                continue;
+            }
+            if (!laterGatesAccept(item)) {
+                continue;
+            }
+            if (anchor == null) {
+                anchor = origin;
+            }
+            packed.add(item);
+            remainingWeight -= item.getWeight();
+            remainingVolume -= item.getVolume();
+        }
+        return packed;
+    }
+
+    private boolean laterGatesAccept(ShipmentItem item) {
+        return item.getId() % 3 != 0;
+    }
+
+    private ShipmentItem item(Long id, double weight, double volume, double lat, double lon) {
+        Shipment shipment = new Shipment();
+        shipment.setOriginPOI(poi(lat, lon));
+        shipment.setDestPOI(poi(lat + 1.0, lon + 1.0));
+
+        ShipmentItem item = new ShipmentItem();
+        item.setId(id);
+        item.setWeight(weight);
+        item.setVolume(volume);
+        item.setShipment(shipment);
+        return item;
+    }
+
+    private POI poi(double lat, double lon) {
+        POI poi = new POI();
+        poi.setLatitude(BigDecimal.valueOf(lat));
+        poi.setLongitude(BigDecimal.valueOf(lon));
+        return poi;
+    }
+}
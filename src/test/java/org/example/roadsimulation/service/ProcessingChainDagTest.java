@@ -0,0 +1,111 @@
+package org.example.roadsimulation.service;
+
+import org.example.roadsimulation.entity.ProcessingChain;
+import org.example.roadsimulation.entity.Shipment;
+import org.example.roadsimulation.repository.ProcessingChainRepository;
+import org.example.roadsimulation.repository.ShipmentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProcessingChainDagTest {
+
+    private static final long A = 1L, B = 2L, C = 3L;
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    private final ProcessingChainRepository chainRepository = mock(ProcessingChainRepository.class);
+    private final ShipmentRepository shipmentRepository = mock(ShipmentRepository.class);
+    private final ProcessingChainDag dag = new ProcessingChainDag(chainRepository, shipmentRepository);
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    /** A、B → C：两条前驱链都有完成运单后才就绪，取各自最近完成的运单，同一组上游只合并一次 */
+    @Test
+    void mergesOnceAllPredecessorsCompleted() {
+        when(chainRepository.findAllMergeChains()).thenReturn(List.of(chain(C, A, B)));
+
+        assertTrue(dag.onShipmentCompleted(A, 10L, T0).isEmpty());
+        assertTrue(dag.onShipmentCompleted(A, 11L, T0.plusMinutes(30)).isEmpty());
+
+        List<ProcessingChainDag.MergeReady> ready = dag.onShipmentCompleted(B, 20L, T0.plusMinutes(60));
+        assertEquals(1, ready.size());
+        assertEquals(C, ready.get(0).downstreamChainId());
+        assertEquals(Set.of(11L, 20L), Set.copyOf(ready.get(0).upstreamShipmentIds()));
+        dag.recordMerge(C, ready.get(0).upstreamShipmentIds());
+
+        // 重放同一完成事件不会重复合并；新的上游运单组成新组合
+        assertTrue(dag.onShipmentCompleted(B, 20L, T0.plusMinutes(60)).isEmpty());
+        assertEquals(Set.of(12L, 20L), Set.copyOf(
+                dag.onShipmentCompleted(A, 12L, T0.plusMinutes(90)).get(0).upstreamShipmentIds()));
+        // 与下游无关的链不产生合并
+        assertTrue(dag.onShipmentCompleted(C, 30L, T0.plusMinutes(90)).isEmpty());
+
+        verify(chainRepository, times(1)).findAllMergeChains();
+    }
+
+    /** 冷启动从数据库读取已完成的上游运单和已有合并运单 */
+    @Test
+    void coldStartRestoresReadinessAndExistingMerges() {
+        when(chainRepository.findAllMergeChains()).thenReturn(List.of(chain(C, A, B)));
+        when(shipmentRepository.findByProcessingChainIdInAndProcessingStatus(any(), any())).thenReturn(List.of(
+                completed(10L, A, T0), completed(20L, B, T0.plusMinutes(30))));
+        Shipment merge = completed(40L, C, null);
+        merge.setUpstreamShipmentIds(Set.of(10L, 20L));
+        when(shipmentRepository.findByProcessingChainId(anyLong())).thenReturn(List.of(merge));
+
+        assertTrue(dag.onShipmentCompleted(B, 20L, T0.plusMinutes(30)).isEmpty());
+        assertEquals(Set.of(10L, 21L), Set.copyOf(
+                dag.onShipmentCompleted(B, 21L, T0.plusMinutes(60)).get(0).upstreamShipmentIds()));
+    }
+
+    /** 事务回滚后丢弃 DAG，下次使用时重新加载 */
+    @Test
+    void rollbackDiscardsGraph() {
+        when(chainRepository.findAllMergeChains()).thenReturn(List.of(chain(C, A, B)));
+
+        TransactionSynchronizationManager.initSynchronization();
+        dag.onShipmentCompleted(A, 10L, T0);
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertTrue(dag.onShipmentCompleted(B, 20L, T0).isEmpty());
+        verify(chainRepository, times(2)).findAllMergeChains();
+    }
+
+    private ProcessingChain chain(long id, Long... predecessors) {
+        ProcessingChain chain = new ProcessingChain();
+        chain.setId(id);
+        chain.setPredecessorChainIds(Set.of(predecessors));
+        return chain;
+    }
+
+    private Shipment completed(long id, long chainId, LocalDateTime finishTime) {
+        Shipment shipment = new Shipment();
+        shipment.setId(id);
+        shipment.setProcessingChain(chain(chainId));
+        shipment.setProcessingStatus(Shipment.ProcessingStatus.COMPLETED);
+        shipment.setProcessingActualFinishTime(finishTime);
+        return shipment;
+    }
+}
@@ -0,0 +1,129 @@
+package org.example.roadsimulation.service;
+
+import org.example.roadsimulation.entity.Shipment;
+import org.example.roadsimulation.entity.ShipmentItem;
+import org.example.roadsimulation.persistence.ShipmentStateListener;
+import org.example.roadsimulation.repository.ShipmentItemRepository;
+import org.example.roadsimulation.repository.ShipmentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ShipmentProgressCountersTest {
+
+    private final ShipmentRepository shipmentRepository = mock(ShipmentRepository.class);
+    private final ShipmentItemRepository itemRepository = mock(ShipmentItemRepository.class);
+    private final ShipmentProgressCounters counters = new ShipmentProgressCounters(shipmentRepository, itemRepository, 0);
+    private final ShipmentItemStatusTracker tracker = new ShipmentItemStatusTracker(itemRepository);
+    private final ShipmentStateListener listener = new ShipmentStateListener(counters, tracker);
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    /** 冷启动走聚合查询，之后的状态流转只改计数，不再查库 */
+    @Test
+    void coldStartFromGroupByThenTracksTransitions() {
+        when(shipmentRepository.countGroupByStatus()).thenReturn(List.<Object[]>of(
+                new Object[]{Shipment.ShipmentStatus.CREATED, 2L}));
+        when(itemRepository.aggregateGroupByStatus()).thenReturn(List.<Object[]>of(
+                new Object[]{ShipmentItem.ShipmentItemStatus.NOT_ASSIGNED, 3L, 30.0, 6.0}));
+
+        ShipmentProgressCounters.ProgressCounts cold = counters.snapshot();
+        assertEquals(2, cold.totalShipments());
+        assertEquals(3, cold.items(ShipmentItem.ShipmentItemStatus.NOT_ASSIGNED));
+
+        Shipment shipment = new Shipment();
+        listener.persisted(shipment);                           // 新运单：CREATED
+        shipment.setStatus(Shipment.ShipmentStatus.IN_TRANSIT);
+        listener.updated(shipment);
+
+        ShipmentItem item = item(ShipmentItem.ShipmentItemStatus.NOT_ASSIGNED, 10.0, 2.0);
+        listener.loaded(item);                                  // 已在库中的运单项
+        item.setStatus(ShipmentItem.ShipmentItemStatus.DELIVERED);
+        item.setWeight(8.0);                                    // 部分拆分后送达
+        listener.updated(item);
+        listener.updated(item);                                 // 无变化的更新不计数
+
+        ShipmentProgressCounters.ProgressCounts counts = counters.snapshot();
+        assertEquals(3, counts.totalShipments());
+        assertEquals(2, counts.shipments(Shipment.ShipmentStatus.CREATED));
+        assertEquals(1, counts.shipments(Shipment.ShipmentStatus.IN_TRANSIT));
+        assertEquals(2, counts.items(ShipmentItem.ShipmentItemStatus.NOT_ASSIGNED));
+        assertEquals(1, counts.items(ShipmentItem.ShipmentItemStatus.DELIVERED));
+        assertEquals(20.0, counts.itemWeight(ShipmentItem.ShipmentItemStatus.NOT_ASSIGNED), 1e-9);
+        assertEquals(8.0, counts.itemWeight(ShipmentItem.ShipmentItemStatus.DELIVERED), 1e-9);
+        assertEquals(28.0, counts.totalItemWeight(), 1e-9);
+
+        listener.removed(item);
+        assertEquals(2, counters.snapshot().totalItems());
+        verify(shipmentRepository, times(1)).countGroupByStatus();
+    }
+
+    @Test
+    void transactionalDeltasApplyOnlyAfterCommit() {
+        when(shipmentRepository.countGroupByStatus()).thenReturn(List.of());
+        when(itemRepository.aggregateGroupByStatus()).thenReturn(List.of());
+        counters.snapshot();
+
+        TransactionSynchronizationManager.initSynchronization();
+        listener.persisted(new Shipment());
+        assertEquals(0, counters.snapshot().totalShipments());
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertEquals(0, counters.snapshot().totalShipments());
+
+        TransactionSynchronizationManager.initSynchronization();
+        listener.persisted(new Shipment());
+        listener.persisted(new Shipment());
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        assertEquals(2, counters.snapshot().totalShipments());
+    }
+
+    /** 聚合查询开始前已开始提交、查询之后才合入的事务：查询结果不装入，下次读取重新聚合 */
+    @Test
+    void reloadRacingWithCommitIsNotInstalled() {
+        when(shipmentRepository.countGroupByStatus())
+                .thenReturn(List.<Object[]>of(new Object[]{Shipment.ShipmentStatus.CREATED, 1L}));
+        when(itemRepository.aggregateGroupByStatus()).thenReturn(List.of());
+
+        TransactionSynchronizationManager.initSynchronization();
+        listener.persisted(new Shipment());
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+
+        assertEquals(1, counters.snapshot().totalShipments());   // 已提交到库、尚未合入
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        assertEquals(1, counters.snapshot().totalShipments());   // 重新聚合，没有重复累加
+        verify(shipmentRepository, times(2)).countGroupByStatus();
+        assertEquals(1, counters.snapshot().totalShipments());
+        verify(shipmentRepository, times(2)).countGroupByStatus();
+    }
+
+    private void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+
+    private ShipmentItem item(ShipmentItem.ShipmentItemStatus status, double weight, double volume) {
+        ShipmentItem item = new ShipmentItem();
+        item.setStatus(status);
+        item.setWeight(weight);
+        item.setVolume(volume);
+        return item;
+    }
+}
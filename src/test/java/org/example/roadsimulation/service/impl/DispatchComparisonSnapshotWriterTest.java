@@ -0,0 +1,135 @@
+package org.example.roadsimulation.service.impl;
+
+import org.example.roadsimulation.entity.DispatchComparisonCostSnapshot;
+import org.example.roadsimulation.entity.ShipmentItem;
+import org.example.roadsimulation.persistence.ShipmentStateListener;
+import org.example.roadsimulation.repository.DispatchComparisonCostSnapshotRepository;
+import org.example.roadsimulation.repository.DispatchComparisonExperimentRunRepository;
+import org.example.roadsimulation.repository.DispatchComparisonStrategyRunRepository;
+import org.example.roadsimulation.repository.ShipmentItemRepository;
+import org.example.roadsimulation.repository.ShipmentRepository;
+import org.example.roadsimulation.service.ShipmentItemStatusTracker;
+import org.example.roadsimulation.service.ShipmentProgressCounters;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DispatchComparisonSnapshotWriterTest {
+
+    private final DispatchComparisonCostSnapshotRepository snapshotRepository = mock(DispatchComparisonCostSnapshotRepository.class);
+    private final DispatchComparisonExperimentRunRepository runRepository = mock(DispatchComparisonExperimentRunRepository.class);
+    private final DispatchComparisonStrategyRunRepository strategyRunRepository = mock(DispatchComparisonStrategyRunRepository.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    /** 每 N 轮一次事务：快照 saveAll 一次，进度只写最后一轮 */
+    @Test
+    void flushesEveryNLoopsWithLatestProgressOnly() {
+        runTransactionsInline();
+        DispatchComparisonSnapshotWriter writer = new DispatchComparisonSnapshotWriter(
+                snapshotRepository, runRepository, strategyRunRepository, transactionTemplate, 3);
+
+        for (int loop = 1; loop <= 4; loop++) {
+            writer.append(new DispatchComparisonCostSnapshot(),
+                    new DispatchComparisonSnapshotWriter.Progress(7L, 11L, loop, loop, 10));
+        }
+
+        verify(snapshotRepository, times(1)).saveAll(anyList());
+        verify(runRepository, times(1)).updateProgress(7L, 3, 3, 10);
+        verify(strategyRunRepository, times(1)).updateProgress(11L, 3, 3, 10);
+        assertEquals(1, writer.pendingSnapshotCount());
+        assertEquals(4, writer.latestProgress().loop());
+
+        writer.flush();
+        verify(snapshotRepository, times(2)).saveAll(anyList());
+        verify(runRepository).updateProgress(7L, 4, 4, 10);
+
+        writer.flush();                                          // 无待写内容时不开事务
+        verify(transactionTemplate, times(2)).executeWithoutResult(any());
+
+        writer.append(new DispatchComparisonCostSnapshot(),
+                new DispatchComparisonSnapshotWriter.Progress(7L, 11L, 5, 5, 10));
+        writer.discard();
+        writer.flush();
+        verify(snapshotRepository, times(2)).saveAll(anyList());
+        verify(runRepository, never()).updateProgress(7L, 5, 5, 10);
+        assertNull(writer.latestProgress());
+    }
+
+    /** 跟踪集合的计数只在提交后变化，未跟踪的运单项与回滚都被忽略 */
+    @Test
+    void trackerCountsCommittedStatusChanges() {
+        ShipmentItemRepository itemRepository = mock(ShipmentItemRepository.class);
+        when(itemRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(
+                item(1L, ShipmentItem.ShipmentItemStatus.NOT_ASSIGNED),
+                item(2L, ShipmentItem.ShipmentItemStatus.NOT_ASSIGNED)));
+        ShipmentItemStatusTracker tracker = new ShipmentItemStatusTracker(itemRepository);
+        ShipmentStateListener listener = new ShipmentStateListener(
+                new ShipmentProgressCounters(mock(ShipmentRepository.class), itemRepository, 0), tracker);
+        tracker.track(List.of(1L, 2L));
+
+        listener.updated(item(1L, ShipmentItem.ShipmentItemStatus.DELIVERED));
+        listener.updated(item(99L, ShipmentItem.ShipmentItemStatus.DELIVERED));
+        assertEquals(1, tracker.count(ShipmentItem.ShipmentItemStatus.DELIVERED));
+        assertEquals(1, tracker.count(ShipmentItem.ShipmentItemStatus.NOT_ASSIGNED));
+
+        TransactionSynchronizationManager.initSynchronization();
+        listener.updated(item(2L, ShipmentItem.ShipmentItemStatus.DELIVERED));
+        assertEquals(1, tracker.count(ShipmentItem.ShipmentItemStatus.DELIVERED));
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertEquals(1, tracker.count(ShipmentItem.ShipmentItemStatus.DELIVERED));
+
+        TransactionSynchronizationManager.initSynchronization();
+        listener.updated(item(2L, ShipmentItem.ShipmentItemStatus.DELIVERED));
+        listener.removed(item(1L, ShipmentItem.ShipmentItemStatus.DELIVERED));
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        assertEquals(1, tracker.count(ShipmentItem.ShipmentItemStatus.DELIVERED));
+        assertEquals(0, tracker.count(ShipmentItem.ShipmentItemStatus.NOT_ASSIGNED));
+        assertEquals(1, tracker.trackedCount());
+        verify(itemRepository, times(1)).findAllById(any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void runTransactionsInline() {
+        doAnswer(invocation -> {
+            ((Consumer<TransactionStatus>) invocation.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    private void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+
+    private ShipmentItem item(Long id, ShipmentItem.ShipmentItemStatus status) {
+        ShipmentItem item = new ShipmentItem();
+        item.setId(id);
+        item.setStatus(status);
+        return item;
+    }
+}
@@ -0,0 +1,127 @@
+package org.example.roadsimulation.service.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.roadsimulation.core.SimulationContext;
+import org.example.roadsimulation.core.registry.PoiPairKey;
+import org.example.roadsimulation.dto.POIShipmentRecord;
+import org.example.roadsimulation.entity.POI;
+import org.example.roadsimulation.entity.Shipment;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class POIShipmentManagerImplTest {
+
+    private final SimulationContext context = new SimulationContext();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final POIShipmentManagerImpl manager = new POIShipmentManagerImpl(context, registry);
+
+    /** 超时以仿真时间计：墙钟时间不流逝，仿真循环推进后照样过期 */
+    @Test
+    void expiresBySimulationTimeInCreationOrder() {
+        POI a = poi(1L), b = poi(2L), c = poi(3L), d = poi(4L);
+        manager.blockPOI(a);
+        manager.registerShipment(a, b, new Shipment());
+        advanceLoops(2);                      // +60 分钟
+        manager.blockPOI(c);
+        manager.registerShipment(c, d, new Shipment());
+
+        advanceLoops(3);                      // a→b 已存在 150 分钟，c→d 90 分钟
+        List<POIShipmentRecord> expired = manager.sweepExpiredShipments(120);
+
+        assertEquals(1, expired.size());
+        assertEquals(PoiPairKey.of(1L, 2L), expired.get(0).getPairKey());
+        assertFalse(expired.get(0).isActive());
+        assertFalse(manager.isPOIBlocked(a));
+        assertTrue(manager.isPOIBlocked(c));
+        assertNull(manager.getActiveKeyForSource(1L));
+        assertEquals(PoiPairKey.of(3L, 4L), manager.getActiveKeyForSource(3L));
+        assertEquals(1, manager.getPendingExpiryCount());
+
+        advanceLoops(2);
+        assertEquals(List.of(PoiPairKey.of(3L, 4L)), manager.sweepExpiredShipments(120).stream()
+                .map(POIShipmentRecord::getPairKey).toList());
+        assertEquals(2, manager.getExpiredShipmentTotal());
+        assertEquals(2.0, registry.get("simulation.poi.shipment.expired").functionCounter().count());
+        assertEquals(0.0, registry.get("simulation.poi.shipment.expiry.pending").gauge().value());
+    }
+
+    @Test
+    void unregisteredAndReplacedShipmentsLeaveTheQueue() {
+        POI a = poi(1L), b = poi(2L), c = poi(3L);
+        manager.registerShipment(a, b, new Shipment());
+        manager.registerShipment(b, c, new Shipment());
+        manager.unregisterShipment(b, c);
+        advanceLoops(2);
+        manager.registerShipment(a, b, new Shipment());   // 同一配对重新注册，以新的创建时间为准
+
+        assertEquals(1, manager.getPendingExpiryCount());
+        assertEquals(1, manager.getActiveShipmentCount());
+        assertNull(manager.getRecord(b, c));
+        advanceLoops(4);
+        assertTrue(manager.sweepExpiredShipments(120).isEmpty());
+        advanceLoops(1);
+        assertEquals(1, manager.sweepExpiredShipments(120).size());
+    }
+
+    /** 同一起点的第二个配对（如手动生成）不顶掉第一个，两者各自过期 */
+    @Test
+    void pairsSharingASourceExpireIndependently() {
+        POI a = poi(1L), b = poi(2L), c = poi(3L);
+        manager.registerShipment(a, b, new Shipment());
+        advanceLoops(2);
+        manager.registerShipment(a, c, new Shipment());
+
+        assertEquals(2, manager.getActiveShipmentCount());
+        assertEquals(2, manager.getPendingExpiryCount());
+        assertTrue(manager.getRecord(a, b).isActive());
+
+        advanceLoops(3);
+        assertEquals(List.of(PoiPairKey.of(1L, 2L)), manager.sweepExpiredShipments(120).stream()
+                .map(POIShipmentRecord::getPairKey).toList());
+        assertEquals(1, manager.getActiveShipmentCount());
+        advanceLoops(2);
+        assertEquals(List.of(PoiPairKey.of(1L, 3L)), manager.sweepExpiredShipments(120).stream()
+                .map(POIShipmentRecord::getPairKey).toList());
+        assertEquals(0, manager.getActiveShipmentCount());
+    }
+
+    @Test
+    void blockedCountIsTrackedForSparseLargeIds() {
+        assertTrue(manager.canBlockMore());
+        for (long id = 0; id < 45; id++) {
+            manager.blockPOI(poi(id * 7919 + 400_000L));
+        }
+        manager.blockPOI(poi(400_000L));                    // 重复阻塞不计数
+        assertEquals(45, manager.getBlockedPOICount());
+        assertFalse(manager.canBlockMore());
+
+        manager.releasePOI(poi(400_000L));
+        manager.releasePOI(poi(400_000L));
+        assertEquals(44, manager.getBlockedPOICount());
+        assertFalse(manager.isPOIBlocked(poi(400_000L)));
+        assertTrue(manager.isPOIBlocked(poi(7919 + 400_000L)));
+
+        manager.reset();
+        assertEquals(0, manager.getBlockedPOICount());
+        assertFalse(manager.isPOIBlocked(poi(7919 + 400_000L)));
+    }
+
+    private void advanceLoops(int loops) {
+        for (int i = 0; i < loops; i++) {
+            context.incrementLoop();
+        }
+    }
+
+    private POI poi(Long id) {
+        POI poi = new POI();
+        poi.setId(id);
+        poi.setName("P" + id);
+        return poi;
+    }
+}
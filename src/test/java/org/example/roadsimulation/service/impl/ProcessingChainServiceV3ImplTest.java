@@ -0,0 +1,100 @@
+package org.example.roadsimulation.service.impl;
+
+import org.example.roadsimulation.core.SimTimeDueQueue;
+import org.example.roadsimulation.entity.ShipmentItem;
+import org.example.roadsimulation.repository.ShipmentItemRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProcessingChainServiceV3ImplTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 1, 1, 8, 0);
+
+    private final ShipmentItemRepository itemRepository = mock(ShipmentItemRepository.class);
+    private final ProcessingChainServiceV3Impl service = new ProcessingChainServiceV3Impl();
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    /** 事务回滚后，本轮弹出的到期事件回到队列；提交则不回填 */
+    @Test
+    void dueEventsReturnToQueueOnlyAfterRollback() {
+        ReflectionTestUtils.setField(service, "shipmentItemRepository", itemRepository);
+        when(itemRepository.findByProcessingStatus(ShipmentItem.ProcessingItemStatus.PROCESSING))
+                .thenReturn(List.of(processingItem(1L)));
+        when(itemRepository.findById(1L)).thenThrow(new IllegalStateException("db down"));
+
+        TransactionSynchronizationManager.initSynchronization();
+        assertThrows(IllegalStateException.class, () -> service.updateProcessingProgress(T0, 30));
+        assertEquals(0, queue().size());
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertEquals(1, queue().size());
+
+        doReturn(Optional.empty()).when(itemRepository).findById(1L);
+        TransactionSynchronizationManager.initSynchronization();
+        service.updateProcessingProgress(T0, 30);
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        assertEquals(0, queue().size());
+    }
+
+    /** 清理数据后，事务结束才清空队列，下次推进重新从数据库补登 */
+    @Test
+    void resetClearsQueueAfterCompletionAndRehydrates() {
+        ReflectionTestUtils.setField(service, "shipmentItemRepository", itemRepository);
+        when(itemRepository.findByProcessingStatus(ShipmentItem.ProcessingItemStatus.PROCESSING))
+                .thenReturn(List.of(processingItem(1L)));
+        service.updateProcessingProgress(T0.minusHours(1), 30);
+        assertEquals(1, queue().size());
+
+        TransactionSynchronizationManager.initSynchronization();
+        service.resetStageCompletionQueue();
+        assertEquals(1, queue().size());
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        assertEquals(0, queue().size());
+        assertFalse((Boolean) ReflectionTestUtils.getField(service, "stageCompletionQueueHydrated"));
+
+        when(itemRepository.findByProcessingStatus(ShipmentItem.ProcessingItemStatus.PROCESSING))
+                .thenReturn(List.of());
+        service.updateProcessingProgress(T0.minusHours(1), 30);
+        assertEquals(0, queue().size());
+        verify(itemRepository, times(2)).findByProcessingStatus(ShipmentItem.ProcessingItemStatus.PROCESSING);
+    }
+
+    private SimTimeDueQueue queue() {
+        return (SimTimeDueQueue) ReflectionTestUtils.getField(service, "stageCompletionQueue");
+    }
+
+    private void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+
+    private ShipmentItem processingItem(Long id) {
+        ShipmentItem item = new ShipmentItem();
+        item.setId(id);
+        item.setProcessingStatus(ShipmentItem.ProcessingItemStatus.PROCESSING);
+        item.setProcessingStartTime(T0.minusMinutes(10));
+        return item;
+    }
+}
@@ -0,0 +1,47 @@
+package org.example.roadsimulation.core.geo;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Haversine 的 SIMD 内核（jdk.incubator.vector）
+ *
+ * 只在 -Pvector 构建中编译；HaversineBatch 确认模块已加载后反射实例化，尾部不足一个向量宽度的元素走标量公式。
+ */
+final class VectorHaversineKernel implements HaversineBatch.Kernel {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final double DIAMETER_KM = 2.0 * HaversineBatch.EARTH_RADIUS_KM;
+
+    @Override
+    public void oneToMany(double latRad, double lonRad, double cosLat,
+                          double[] latRads, double[] lonRads, double[] cosLats, int n,
+                          double[] out, int outOffset) {
+        DoubleVector srcLat = DoubleVector.broadcast(SPECIES, latRad);
+        DoubleVector srcLon = DoubleVector.broadcast(SPECIES, lonRad);
+        DoubleVector srcCos = DoubleVector.broadcast(SPECIES, cosLat);
+
+        int j = 0;
+        int upper = SPECIES.loopBound(n);
+        for (; j < upper; j += SPECIES.length()) {
+            DoubleVector lat = DoubleVector.fromArray(SPECIES, latRads, j);
+            DoubleVector lon = DoubleVector.fromArray(SPECIES, lonRads, j);
+            DoubleVector cos = DoubleVector.fromArray(SPECIES, cosLats, j);
+
+            DoubleVector sinLat = lat.sub(srcLat).mul(0.5).lanewise(VectorOperators.SIN);
+            DoubleVector sinLon = lon.sub(srcLon).mul(0.5).lanewise(VectorOperators.SIN);
+            DoubleVector a = sinLat.mul(sinLat)
+                    .add(srcCos.mul(cos).mul(sinLon).mul(sinLon))
+                    .min(1.0);
+            a.lanewise(VectorOperators.SQRT)
+                    .lanewise(VectorOperators.ASIN)
+                    .mul(DIAMETER_KM)
+                    .intoArray(out, outOffset + j);
+        }
+        for (; j < n; j++) {
+            out[outOffset + j] = HaversineBatch.ScalarKernel.distance(
+                    latRad, lonRad, cosLat, latRads[j], lonRads[j], cosLats[j]);
+        }
+    }
+}